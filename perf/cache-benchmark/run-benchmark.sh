@@ -22,6 +22,9 @@ VUS="${VUS:-10}"
 DURATION="${DURATION:-2m}"
 COMPARE_DIR=""
 EXTRA_ARGS=()
+# Prometheus scrape of the app's management port, read before and after the run
+# for per-cache hit ratios. Left empty, the cache section is skipped.
+METRICS_URL="${METRICS_URL:-http://127.0.0.1:9091/actuator/prometheus}"
 
 # Parse arguments
 while [[ $# -gt 0 ]]; do
@@ -88,6 +91,22 @@ fi
 
 JSON_OUT="$RESULTS_DIR/${FILENAME}.json"
 TEXT_OUT="$RESULTS_DIR/${FILENAME}.txt"
+CACHE_OUT="$RESULTS_DIR/${FILENAME}-caches.txt"
+
+# cache_gets_total lines as "<cache> <result> <count>"
+scrape_cache_gets() {
+  curl -sf "$METRICS_URL" 2>/dev/null | awk '
+    /^cache_gets_total\{/ {
+      cache = $0; sub(/.*[{,]cache="/, "", cache); sub(/".*/, "", cache)
+      result = $0; sub(/.*[{,]result="/, "", result); sub(/".*/, "", result)
+      print cache, result, $NF
+    }'
+}
+
+CACHE_BEFORE=""
+if [ -n "$METRICS_URL" ]; then
+  CACHE_BEFORE="$(scrape_cache_gets || true)"
+fi
 
 echo "╔══════════════════════════════════════════════════════════════╗"
 echo "║              CACHE BENCHMARK                               ║"
@@ -109,10 +128,32 @@ k6 run \
   "${EXTRA_ARGS[@]+"${EXTRA_ARGS[@]}"}" \
   "$K6_SCRIPT" 2>&1 | tee "$TEXT_OUT"
 
+# ── Per-cache hit ratio over this run (Caffeine recordStats → cache.gets) ──
+if [ -n "$METRICS_URL" ]; then
+  CACHE_AFTER="$(scrape_cache_gets || true)"
+  if [ -n "$CACHE_AFTER" ]; then
+    echo ""
+    { printf '%s\n' "$CACHE_BEFORE" | sed 's/^/before /'; printf '%s\n' "$CACHE_AFTER" | sed 's/^/after /'; } | awk '
+      NF == 4 { n[$1 " " $2 " " $3] = $4; caches[$2] = 1 }
+      END {
+        printf "%-14s %10s %10s %9s\n", "cache", "hits", "misses", "hit ratio"
+        for (c in caches) {
+          h = n["after " c " hit"] - n["before " c " hit"]
+          m = n["after " c " miss"] - n["before " c " miss"]
+          if (h + m > 0) printf "%-14s %10d %10d %8.1f%%\n", c, h, m, 100 * h / (h + m)
+        }
+      }' | tee "$CACHE_OUT"
+  else
+    echo ""
+    echo "(No cache metrics at $METRICS_URL — set METRICS_URL to the app's prometheus endpoint for hit ratios)"
+  fi
+fi
+
 echo ""
 echo "Results saved to:"
 echo "  JSON: $JSON_OUT"
 echo "  Text: $TEXT_OUT"
+[ -f "$CACHE_OUT" ] && echo "  Caches: $CACHE_OUT"
 echo ""
 echo "To compare two runs:"
 echo "  $0 --target $TARGET --compare $RESULTS_DIR"
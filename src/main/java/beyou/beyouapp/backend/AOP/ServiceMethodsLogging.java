@@ -1,12 +1,20 @@
 package beyou.beyouapp.backend.AOP;
 
-import org.aspectj.lang.JoinPoint;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import beyou.beyouapp.backend.exceptions.BusinessException;
@@ -14,47 +22,87 @@ import beyou.beyouapp.backend.exceptions.security.JwtNotFoundException;
 import beyou.beyouapp.backend.exceptions.security.RefreshTokenDontMatchRaw;
 import beyou.beyouapp.backend.exceptions.security.RefreshTokenExpiredException;
 import beyou.beyouapp.backend.exceptions.security.RefreshTokenNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * One advice around every {@code @Service} method: a {@link Timer} per method, a WARN line
+ * for the calls slower than {@code monitoring.service-timing.slow-threshold-ms}, and the
+ * exception line a failing call always had.
+ *
+ * <p>This used to be four advices that logged {@code [START]}, {@code [END]} and
+ * {@code [PERFORMANCE]} at INFO for every call. A check request crosses a dozen service
+ * methods, so that was dozens of formatted lines per request — the largest CPU cost on a
+ * small pod and most of what the log shipper carried — to say what the timer below says
+ * as one number per method. Per-call timing now lives in {@value #TIMER_NAME}, tagged
+ * {@code class}, {@code method} and {@code outcome} ({@code success}, {@code client_error},
+ * {@code error}), with a handful of fixed latency buckets unless
+ * {@code monitoring.service-timing.slo-histogram} turns them off.
+ *
+ * <p>The buckets are {@link #SLO_BUCKETS} plus the slow threshold itself — about eight per
+ * timer — rather than a percentile histogram's seventy-odd. There is a timer for every
+ * class × method × outcome, so the full histogram multiplied into thousands of series for
+ * a question the fixed buckets answer: what share of calls ran under 100 ms, under the
+ * threshold, under a second.
+ *
+ * <p>{@code monitoring.service-timing.sample-rate} below 1 times that fraction of calls
+ * and lets the rest through untimed: the timer's counts shrink by the same fraction, its
+ * latencies do not. Failures are logged whether or not the call was sampled.
+ */
 @Aspect
 @Component
 @Slf4j
 public class ServiceMethodsLogging {
 
-    @Pointcut("within(@org.springframework.stereotype.Service *)")
-    public void allUserServiceMethods() {
-    }
-
-    @Before("allUserServiceMethods()")
-    public void logBefore(JoinPoint joinpoint) {
-        log.info("[START] Starting method: {} with {} arg(s)", joinpoint.getSignature().getName(), joinpoint.getArgs().length);
-    }
+    public static final String TIMER_NAME = "beyou.service.method";
 
-    @AfterReturning(pointcut = "allUserServiceMethods()", returning = "result")
-    public void logAfter(JoinPoint joinPoint, Object result) {
-        log.info("[END] Method finish: {} ", joinPoint.getSignature().getName());
-        log.debug("[END] Return: {} ", result);
-    }
+    /** Latency buckets every timer publishes; the slow threshold is added to them. */
+    static final Duration[] SLO_BUCKETS = {
+            Duration.ofMillis(5), Duration.ofMillis(25), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(10)};
 
-    @Around("allUserServiceMethods()")
-    public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
+    private static final String[] OUTCOMES = {"success", "client_error", "error"};
+    private static final int SUCCESS = 0;
+    private static final int CLIENT_ERROR = 1;
+    private static final int ERROR = 2;
 
-        Object result = joinPoint.proceed(); // Execute the intercepted method
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    /** The buckets to publish, sorted; empty when the histogram is off. */
+    private final Duration[] sloBuckets;
 
-        long duration = System.currentTimeMillis() - start;
+    /** Per method, its timer per outcome — registered on first use, then a map read per call. */
+    private final ConcurrentMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
 
-        log.info("[PERFORMANCE] Method {} exectued in {} ms ", joinPoint.getSignature().getName(), duration);
+    public ServiceMethodsLogging(MeterRegistry meterRegistry,
+                                 @Value("${monitoring.service-timing.sample-rate:1.0}") double sampleRate,
+                                 @Value("${monitoring.service-timing.slow-threshold-ms:500}") long slowThresholdMs,
+                                 @Value("${monitoring.service-timing.slo-histogram:true}") boolean sloHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = Math.clamp(sampleRate, 0.0, 1.0);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, slowThresholdMs));
+        this.sloBuckets = sloHistogram ? bucketsWith(Duration.ofNanos(slowThresholdNanos)) : new Duration[0];
+    }
 
-        return result;
+    @Pointcut("within(@org.springframework.stereotype.Service *)")
+    public void allUserServiceMethods() {
     }
 
-    @Around("within(@org.springframework.stereotype.Service *)")
-    public Object handleServiceExceptions(ProceedingJoinPoint joinPoint) throws Throwable {
+    @Around("allUserServiceMethods()")
+    public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean sampled = sampleRate >= 1.0
+                || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        long start = sampled ? System.nanoTime() : 0L;
+        int outcome = ERROR;
         try {
-            return joinPoint.proceed();
+            Object result = joinPoint.proceed();
+            outcome = SUCCESS;
+            return result;
         } catch (Exception e) {
             if (isExpectedClientError(e)) {
+                outcome = CLIENT_ERROR;
                 log.warn("[CLIENT_ERROR] {} in {}: {}",
                         e.getClass().getSimpleName(),
                         joinPoint.getSignature().getName(),
@@ -64,7 +112,45 @@ public class ServiceMethodsLogging {
                         joinPoint.getSignature(), e.getMessage(), e);
             }
             throw e; // Throw again to continue with the normal flux
+        } finally {
+            if (sampled) {
+                long elapsed = System.nanoTime() - start;
+                timerOf(joinPoint, outcome).record(elapsed, TimeUnit.NANOSECONDS);
+                if (elapsed >= slowThresholdNanos) {
+                    log.warn("[SLOW] {}.{} took {} ms",
+                            joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                            joinPoint.getSignature().getName(),
+                            TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+            }
+        }
+    }
+
+    private Timer timerOf(ProceedingJoinPoint joinPoint, int outcome) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer[] byOutcome = timers.computeIfAbsent(method, ignored -> new Timer[OUTCOMES.length]);
+        Timer timer = byOutcome[outcome];
+        if (timer == null) {
+            // A racing first call registers the same meter id twice; the registry hands
+            // both the same Timer, so the lost write is harmless.
+            timer = Timer.builder(TIMER_NAME)
+                    .description("Time spent in a @Service method, per call")
+                    .tag("class", method.getDeclaringClass().getSimpleName())
+                    .tag("method", method.getName())
+                    .tag("outcome", OUTCOMES[outcome])
+                    .serviceLevelObjectives(sloBuckets)
+                    .register(meterRegistry);
+            byOutcome[outcome] = timer;
+        }
+        return timer;
+    }
+
+    private static Duration[] bucketsWith(Duration slowThreshold) {
+        TreeSet<Duration> buckets = new TreeSet<>(List.of(SLO_BUCKETS));
+        if (slowThreshold.isPositive()) {
+            buckets.add(slowThreshold);
         }
+        return buckets.toArray(Duration[]::new);
     }
 
     static boolean isExpectedClientError(Throwable e) {
@@ -49,6 +49,15 @@ public class CacheConfig {
                 .recordStats()
                 .build());
 
+        // Docs search: keyed by free text, so far more keys than the other docs
+        // caches — 500 max, 30min TTL. Every docs import evicts it.
+        manager.registerCustomCache("docsSearch",
+            Caffeine.newBuilder()
+                .maximumSize(500)
+                .expireAfterWrite(Duration.ofMinutes(30))
+                .recordStats()
+                .build());
+
         return manager;
     }
 }
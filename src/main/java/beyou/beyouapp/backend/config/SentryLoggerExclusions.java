@@ -86,13 +86,13 @@ public final class SentryLoggerExclusions {
      *   <li>{@link UserService} — logs {@code user.getName()}.</li>
      * </ul>
      *
-     * <p><b>Instrumentation noise.</b> {@link ServiceMethodsLogging} emits three INFO lines
-     * ({@code [START]}, {@code [PERFORMANCE]}, {@code [END]}) for <em>every</em> service
-     * method and {@link ControllerLogging} one for every controller method. A scope keeps
-     * only the most recent 100 breadcrumbs, and what those lines say — which method ran, in
-     * what order — is already in the stack trace of the event they would be attached to.
-     * Letting them in trades the domain lines that explain a failure for a call trace the
-     * event already carries.
+     * <p><b>Instrumentation noise.</b> {@link ServiceMethodsLogging} emits a {@code [SLOW]}
+     * line for every service method over its threshold and {@link ControllerLogging} a
+     * {@code [REQUEST]} line for every slow controller method. A scope keeps only the most
+     * recent 100 breadcrumbs, and what those lines say — which method ran, in what order —
+     * is already in the stack trace of the event they would be attached to. Letting them in
+     * trades the domain lines that explain a failure for a call trace the event already
+     * carries.
      */
     public static final Set<String> BREADCRUMB_EXCLUDED = namesOf(
             GlobalExceptionHandler.class,
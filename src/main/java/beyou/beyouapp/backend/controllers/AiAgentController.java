@@ -13,12 +13,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import beyou.beyouapp.backend.domain.aiAgent.AiAgentService;
+import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessageService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.ChatService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessagePageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.ChatResponseDTO;
 import beyou.beyouapp.backend.domain.aiAgent.dto.CreateChatRequest;
 import beyou.beyouapp.backend.domain.aiAgent.dto.RenameChatRequest;
@@ -68,6 +71,15 @@ public class AiAgentController {
         return agentService.getMessages(chatId, userId);
     }
 
+    /** The transcript a page at a time, newest page first: pass {@code nextBefore} back as {@code before}. */
+    @GetMapping("/chats/{chatId}/messages/page")
+    public AgentMessagePageDTO getMessagesPage(@PathVariable UUID chatId,
+                                               @RequestParam(required = false) Long before,
+                                               @RequestParam(defaultValue = "" + AgentMessageService.DEFAULT_PAGE_SIZE) int limit) {
+        UUID userId = authenticatedUser.getAuthenticatedUser().getId();
+        return agentService.getMessages(chatId, userId, before, limit);
+    }
+
     @PutMapping("/chats/{chatId}")
     public ChatResponseDTO renameChat(@PathVariable UUID chatId, @RequestBody @Valid RenameChatRequest request) {
         UUID userId = authenticatedUser.getAuthenticatedUser().getId();
@@ -2,6 +2,7 @@ package beyou.beyouapp.backend.controllers;
 
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,7 @@ import java.util.Map;
 public class AuthVerificationController {
 
     private final UserRepository userRepository;
+    private final AuthenticatedPrincipalCache principalCache;
 
     @GetMapping("/auth/verify-email")
     public ResponseEntity<Map<String, String>> verifyEmail(@RequestParam String token) {
@@ -31,6 +33,8 @@ public class AuthVerificationController {
         user.setVerificationToken(null);
         user.setVerificationTokenExpiry(null);
         userRepository.save(user);
+        // A cached principal still says unverified; drop it so the next request sees the change.
+        principalCache.evict(user.getEmail());
 
         return ResponseEntity.ok(Map.of("success", "Email verified successfully"));
     }
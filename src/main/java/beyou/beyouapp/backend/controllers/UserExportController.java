@@ -1,21 +1,54 @@
 package beyou.beyouapp.backend.controllers;
 
+import beyou.beyouapp.backend.security.AuthenticatedUser;
 import beyou.beyouapp.backend.user.UserExportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequiredArgsConstructor
 public class UserExportController {
 
     private final UserExportService userExportService;
+    private final AuthenticatedUser authenticatedUser;
 
     @GetMapping("/user/export")
     public ResponseEntity<Map<String, Object>> exportUserData() {
         return ResponseEntity.ok(userExportService.exportUserData());
     }
+
+    /**
+     * The content of {@code /user/export}, written while it is read and sent as a
+     * download — {@code beyou-export.json}, or {@code beyou-export.json.gz} with
+     * {@code gzip=true}. Only the order of {@code checkHistory.owners} differs: sorted by
+     * owner here, by first check there. The user is resolved here, on the request thread;
+     * the body is written later on the async one.
+     */
+    @GetMapping("/user/export/stream")
+    public ResponseEntity<StreamingResponseBody> streamUserData(
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        UUID userId = authenticatedUser.getAuthenticatedUser().getId();
+
+        StreamingResponseBody body = gzip
+                ? out -> userExportService.writeUserData(userId, new GZIPOutputStream(out, 8 * 1024))
+                : out -> userExportService.writeUserData(userId, out);
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(gzip ? "beyou-export.json.gz" : "beyou-export.json")
+                        .build().toString())
+                .body(body);
+    }
 }
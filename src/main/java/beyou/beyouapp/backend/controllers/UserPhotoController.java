@@ -14,27 +14,44 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import beyou.beyouapp.backend.security.AuthenticatedUser;
 import beyou.beyouapp.backend.user.PhotoStorageService;
 import beyou.beyouapp.backend.user.PhotoUrlSigner;
 import beyou.beyouapp.backend.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @RestController
 @RequestMapping("/user/photo")
 public class UserPhotoController {
 
+    // Private, not public: the URL is now a capability, and a shared cache
+    // holding the bytes would hand them out after the signature expired.
+    private static final String CACHE_CONTROL = "private, max-age=3600";
+
     private final PhotoStorageService photoStorageService;
     private final AuthenticatedUser authenticatedUser;
     private final PhotoUrlSigner photoUrlSigner;
+    private final Counter bytesServed;
+    private final Counter notModified;
 
     public UserPhotoController(PhotoStorageService photoStorageService,
                                AuthenticatedUser authenticatedUser,
-                               PhotoUrlSigner photoUrlSigner) {
+                               PhotoUrlSigner photoUrlSigner,
+                               MeterRegistry meterRegistry) {
         this.photoStorageService = photoStorageService;
         this.authenticatedUser = authenticatedUser;
         this.photoUrlSigner = photoUrlSigner;
+        this.bytesServed = Counter.builder("beyou.photo.bytes.served")
+                .description("Profile photo bytes sent in full responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.notModified = Counter.builder("beyou.photo.not.modified")
+                .description("Profile photo requests answered 304 from the client's own copy")
+                .register(meterRegistry);
     }
 
     @PostMapping
@@ -58,23 +75,44 @@ public class UserPhotoController {
      * <p>An unsigned or expired request is answered 403 rather than 404: the file's
      * existence is not the secret here, and a 404 would have the endpoint reporting
      * which accounts have a photo to callers holding nothing.
+     *
+     * <p>Conditional: the ETag and Last-Modified come from the stored version, so a
+     * browser revalidating the avatar it already holds gets a 304 and no bytes. The
+     * signature is still checked first — a 304 confirms the photo is unchanged, which
+     * is itself something only a signed caller gets to learn. The check runs on the
+     * photo's {@code Stamp}, a stat of the file at most, and the bytes are only loaded
+     * once it has failed.
      */
     @GetMapping("/{userId}")
     public ResponseEntity<Resource> serve(@PathVariable UUID userId,
                                           @RequestParam(name = "exp", required = false) String exp,
-                                          @RequestParam(name = "sig", required = false) String sig) {
+                                          @RequestParam(name = "sig", required = false) String sig,
+                                          WebRequest request) {
         if (!photoUrlSigner.isValid(userId, exp, sig)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        Resource resource = photoStorageService.serve(userId);
-        if (resource == null) {
+        PhotoStorageService.Stamp stamp = photoStorageService.stamp(userId);
+        if (stamp == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(stamp.etag(), stamp.version())) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(stamp.etag())
+                .lastModified(stamp.version())
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .build();
+        }
+        PhotoStorageService.Photo photo = photoStorageService.serve(userId);
+        if (photo == null) {
             return ResponseEntity.notFound().build();
         }
+        bytesServed.increment(photo.bytes().length);
         return ResponseEntity.ok()
             .contentType(MediaType.IMAGE_JPEG)
-            // Private, not public: the URL is now a capability, and a shared cache
-            // holding the bytes would hand them out after the signature expired.
-            .header(HttpHeaders.CACHE_CONTROL, "private, max-age=3600")
-            .body(resource);
+            .eTag(photo.etag())
+            .lastModified(photo.version())
+            .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+            .body(photo.resource());
     }
 }
@@ -58,7 +58,7 @@ public class ApiDocsImportService {
     private String repoToken;
 
     @Transactional
-    @CacheEvict(cacheNames = {"apiTopics", "apiTopic"}, allEntries = true)
+    @CacheEvict(cacheNames = {"apiTopics", "apiTopic", "docsSearch"}, allEntries = true)
     public ApiDocsImportResultDTO importFromGitHub(ApiDocsImportRequestDTO request) {
         ImportSource source = resolveSource(request);
         validateSource(source);
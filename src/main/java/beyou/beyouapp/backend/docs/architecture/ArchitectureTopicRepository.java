@@ -6,8 +6,6 @@ import java.util.UUID;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
 import beyou.beyouapp.backend.docs.architecture.entity.ArchitectureTopic;
 import beyou.beyouapp.backend.docs.architecture.entity.ArchitectureTopicStatus;
@@ -18,8 +16,4 @@ public interface ArchitectureTopicRepository extends JpaRepository<ArchitectureT
 
     @EntityGraph(attributePaths = "contents")
     Optional<ArchitectureTopic> findByKey(String key);
-
-    @EntityGraph(attributePaths = "contents")
-    @Query("SELECT DISTINCT t FROM ArchitectureTopic t JOIN t.contents c WHERE t.status = :status AND c.locale = :locale AND (c.title ILIKE %:query% OR c.summary ILIKE %:query%)")
-    List<ArchitectureTopic> searchByLocaleAndQuery(@Param("status") ArchitectureTopicStatus status, @Param("locale") String locale, @Param("query") String query);
 }
@@ -60,7 +60,7 @@ public class ArchitectureDocsImportService {
     private String repoToken;
 
     @Transactional
-    @CacheEvict(cacheNames = {"architectureTopics", "architectureTopic"}, allEntries = true)
+    @CacheEvict(cacheNames = {"architectureTopics", "architectureTopic", "docsSearch"}, allEntries = true)
     public ArchitectureDocsImportResultDTO importFromGitHub(ArchitectureDocsImportRequestDTO request) {
         ImportSource source = resolveSource(request);
         validateSource(source);
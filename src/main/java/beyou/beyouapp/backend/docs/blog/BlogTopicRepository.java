@@ -19,8 +19,4 @@ public interface BlogTopicRepository extends JpaRepository<BlogTopic, UUID> {
 
     @EntityGraph(attributePaths = "contents")
     Optional<BlogTopic> findByKey(String key);
-
-    @EntityGraph(attributePaths = "contents")
-    @Query("SELECT DISTINCT t FROM BlogTopic t JOIN t.contents c WHERE t.status = :status AND c.locale = :locale AND (c.title ILIKE %:query% OR c.summary ILIKE %:query%)")
-    List<BlogTopic> searchByLocaleAndQuery(@Param("status") BlogTopicStatus status, @Param("locale") String locale, @Param("query") String query);
 }
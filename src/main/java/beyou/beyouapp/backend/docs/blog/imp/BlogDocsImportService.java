@@ -66,7 +66,7 @@ public class BlogDocsImportService {
     private String repoToken;
 
     @Transactional
-    @CacheEvict(cacheNames = {"blogTopics", "blogTopic"}, allEntries = true)
+    @CacheEvict(cacheNames = {"blogTopics", "blogTopic", "docsSearch"}, allEntries = true)
     public BlogDocsImportResultDTO importFromGitHub(BlogDocsImportRequestDTO request) {
         ImportSource source = resolveSource(request);
         validateSource(source);
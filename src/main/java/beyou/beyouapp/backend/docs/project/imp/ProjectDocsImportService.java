@@ -60,7 +60,7 @@ public class ProjectDocsImportService {
     private String repoToken;
 
     @Transactional
-    @CacheEvict(cacheNames = {"projectsTopics", "projectsTopic"}, allEntries = true)
+    @CacheEvict(cacheNames = {"projectsTopics", "projectsTopic", "docsSearch"}, allEntries = true)
     public ProjectDocsImportResultDTO importFromGitHub(ProjectDocsImportRequestDTO request) {
         ImportSource source = resolveSource(request);
         validateSource(source);
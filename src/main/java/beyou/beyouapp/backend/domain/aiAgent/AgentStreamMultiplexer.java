@@ -0,0 +1,278 @@
+package beyou.beyouapp.backend.domain.aiAgent;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every open agent stream's writes and heartbeats, on one timer thread and virtual threads.
+ *
+ * <p><b>Writes.</b> Each {@link Stream} has its own lock-free queue. {@link Stream#send}
+ * only enqueues; a single drainer per stream, started on a virtual thread when there is
+ * something to write and gone when the queue is empty, performs the blocking
+ * {@code emitter.send} calls in order. That replaces the {@code synchronized} block the
+ * reactor thread and the heartbeat thread used to share: a client that stops reading now
+ * parks one virtual thread inside {@code send}, not a platform thread holding a monitor,
+ * and the reactor thread producing tokens never waits on the socket at all.
+ *
+ * <p><b>Heartbeats.</b> One timer wheel of {@link #HEARTBEAT_SECONDS} one-second slots,
+ * turned by a single daemon thread that never blocks: a tick enqueues a ping for each
+ * stream in its slot, so every stream is pinged every {@link #HEARTBEAT_SECONDS} seconds
+ * without a scheduled task of its own. The ping is skipped while a stream still has
+ * events queued — it is only there for quiet pauses. It is still the only dead-client
+ * detector during one: a failed ping completes the emitter. The wheel thread itself never
+ * touches an emitter; completing a failed stream is queued for its drainer like any write.
+ *
+ * <p><b>A dead client during a turn</b> is noticed by the drainer, which stops writing and
+ * records the failure. The next {@link Stream#send} throws it, so the producer takes the
+ * same error path a failed synchronous send used to — the partial turn is persisted — one
+ * event later. A client more than {@link #MAX_QUEUED_PER_STREAM} events behind is treated
+ * as dead the same way, which bounds what one stream can hold in memory.
+ *
+ * <p>Gauges: {@value #OPEN_METRIC} (streams registered), {@value #QUEUED_METRIC} (events
+ * waiting across all of them) and {@value #STALLED_METRIC} (streams whose current write
+ * has been blocked for more than two heartbeats, refreshed every tick).
+ */
+@Component
+@Slf4j
+public class AgentStreamMultiplexer {
+
+    public static final String OPEN_METRIC = "beyou.agent.streams.open";
+    public static final String QUEUED_METRIC = "beyou.agent.streams.queued";
+    public static final String STALLED_METRIC = "beyou.agent.streams.stalled";
+
+    /** Ping cadence, which keeps idle connections alive through proxies while the agent thinks or runs a slow tool. */
+    public static final int HEARTBEAT_SECONDS = 15;
+
+    static final int MAX_QUEUED_PER_STREAM = 1_000;
+    private static final long STALLED_AFTER_NANOS = TimeUnit.SECONDS.toNanos(2L * HEARTBEAT_SECONDS);
+
+    /** Queue markers; everything else in a queue is an {@link SseEventBuilder}. */
+    private static final Object PING = new Object();
+    private static final Object COMPLETE = new Object();
+
+    private final Set<Stream>[] wheel;
+    private volatile int cursor;
+    private final Set<Stream> open = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger stalled = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService ticker;
+
+    @Autowired
+    public AgentStreamMultiplexer(MeterRegistry meterRegistry) {
+        this(meterRegistry, true);
+    }
+
+    /** Injection seam for tests, which turn the wheel by hand through {@link #tick()}. */
+    @SuppressWarnings("unchecked")
+    public AgentStreamMultiplexer(MeterRegistry meterRegistry, boolean turnItself) {
+        this.wheel = new Set[HEARTBEAT_SECONDS];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+        Gauge.builder(OPEN_METRIC, open, Set::size)
+                .description("Agent SSE streams currently open")
+                .register(meterRegistry);
+        Gauge.builder(QUEUED_METRIC, queued, AtomicInteger::get)
+                .description("Agent stream events queued and not yet written to their client")
+                .register(meterRegistry);
+        Gauge.builder(STALLED_METRIC, stalled, AtomicInteger::get)
+                .description("Agent streams whose current write has been blocked for over two heartbeats")
+                .register(meterRegistry);
+
+        if (turnItself) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "agent-sse-wheel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        } else {
+            this.ticker = null;
+        }
+    }
+
+    /** Registers {@code emitter}; its first ping goes out one heartbeat from now. */
+    public Stream open(SseEmitter emitter) {
+        Stream stream = new Stream(emitter, cursor);
+        open.add(stream);
+        wheel[stream.slot].add(stream);
+        return stream;
+    }
+
+    /** Advances the wheel one slot. Driven every second by the wheel thread. */
+    public void tick() {
+        try {
+            int next = (cursor + 1) % wheel.length;
+            cursor = next;
+            for (Stream stream : wheel[next]) {
+                stream.heartbeat();
+            }
+            long now = System.nanoTime();
+            int stalledNow = 0;
+            for (Stream stream : open) {
+                if (stream.stalledAt(now)) {
+                    stalledNow++;
+                }
+            }
+            stalled.set(stalledNow);
+        } catch (RuntimeException e) {
+            // The wheel thread must survive anything one stream does to it.
+            log.error("Agent stream heartbeat tick failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        senders.shutdownNow();
+    }
+
+    /** One client's stream: ordered, non-blocking writes onto its emitter. */
+    public final class Stream {
+
+        private final SseEmitter emitter;
+        private final int slot;
+        private final ConcurrentLinkedQueue<Object> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean completing = new AtomicBoolean();
+        private volatile Exception failure;
+        private volatile boolean finished;
+        private volatile boolean sending;
+        private volatile long sendingSince;
+
+        private Stream(SseEmitter emitter, int slot) {
+            this.emitter = emitter;
+            this.slot = slot;
+        }
+
+        /**
+         * Queues {@code event} for the client and returns at once.
+         *
+         * @throws RuntimeException wrapping the write failure, once the client has gone
+         */
+        public void send(SseEventBuilder event) {
+            Exception gone = failure;
+            if (gone != null) {
+                throw new RuntimeException(gone);
+            }
+            if (depth.get() >= MAX_QUEUED_PER_STREAM) {
+                failure = new IOException("Client is " + MAX_QUEUED_PER_STREAM + " events behind");
+                throw new RuntimeException(failure);
+            }
+            enqueue(event);
+        }
+
+        /** Completes the emitter once every event queued before this call has been written. */
+        public void complete() {
+            enqueue(COMPLETE);
+        }
+
+        /** Takes the stream off the wheel and drops what it had queued. Call on emitter completion. */
+        public void close() {
+            finished = true;
+            wheel[slot].remove(this);
+            open.remove(this);
+            Object dropped;
+            while ((dropped = pending.poll()) != null) {
+                depth.decrementAndGet();
+                queued.decrementAndGet();
+            }
+        }
+
+        private void heartbeat() {
+            if (failure != null) {
+                // Never completed from here: complete() waits on the lock a stuck send holds,
+                // and this thread turns the wheel for every stream. The drainer does it once
+                // that send lets go.
+                if (completing.compareAndSet(false, true)) {
+                    enqueue(COMPLETE);
+                }
+            } else if (depth.get() == 0) {
+                enqueue(PING);
+            }
+        }
+
+        private boolean stalledAt(long now) {
+            return sending && now - sendingSince > STALLED_AFTER_NANOS;
+        }
+
+        private void enqueue(Object item) {
+            if (finished) {
+                return;
+            }
+            pending.add(item);
+            depth.incrementAndGet();
+            queued.incrementAndGet();
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        /** The only writer of this emitter. Re-checks after letting go, so no enqueue is stranded. */
+        private void drain() {
+            do {
+                Object item;
+                while ((item = pending.poll()) != null) {
+                    depth.decrementAndGet();
+                    queued.decrementAndGet();
+                    if (item == COMPLETE) {
+                        finishEmitter();
+                    } else if (failure == null && !finished) {
+                        write(item);
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void write(Object item) {
+            sendingSince = System.nanoTime();
+            sending = true;
+            try {
+                emitter.send(item == PING ? SseEmitter.event().comment("ping") : (SseEventBuilder) item);
+            } catch (Exception e) {
+                failure = e;
+                if (item == PING) {
+                    // Nobody else is writing during a quiet pause; this is the only way to notice.
+                    finishEmitter(); // -> onCompletion closes the stream and disposes the turn
+                }
+            } finally {
+                sending = false;
+            }
+        }
+
+        private void finishEmitter() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Agent stream emitter was already completed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package beyou.beyouapp.backend.domain.aiAgent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import beyou.beyouapp.backend.domain.aiAgent.chat.Chat;
+import beyou.beyouapp.backend.user.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The agent's system prompt, compiled once from {@code prompts/aiAgent.st} and filled per
+ * turn with the few values that are actually per turn.
+ *
+ * <p>Handing the template to the chat client as a {@code Resource} with params parsed and
+ * rendered the whole StringTemplate on every message, icon catalog included — the largest
+ * block in the prompt, and a constant. Here the template is split at its placeholders at
+ * startup, {@code {iconCatalog}} is baked into the text around it, and a turn is one
+ * pass of appends over the remaining pieces. The result goes to the client as plain text
+ * with no params, which it sends as-is instead of rendering again.
+ *
+ * <p>Filling is a straight substitution, as the StringTemplate renderer does for this
+ * template: it has no conditionals, loops or escapes, and a placeholder the compiler does
+ * not know fails the startup rather than a user's message.
+ *
+ * <p>Two meters: {@value #BUILD_METRIC}, the time to assemble one prompt, and
+ * {@value #SIZE_METRIC}, its size in estimated tokens ({@link #estimateTokens}) — the
+ * part of every request's input the user never typed.
+ */
+@Component
+public class AgentSystemPrompt {
+
+    public static final String BUILD_METRIC = "beyou.agent.prompt.build";
+    public static final String SIZE_METRIC = "beyou.agent.prompt.tokens";
+
+    /** What an empty context or page reads as in the prompt. */
+    static final String NONE = "(none yet)";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z]+)}");
+    private static final Set<String> PER_TURN = Set.of(
+            "language", "userContext", "userChatContext", "currentPage", "today");
+
+    /** Literal text and placeholder names, alternating, starting and ending with literal text. */
+    private final String[] literals;
+    private final String[] variables;
+    private final int fixedLength;
+
+    private final Timer buildTime;
+    private final DistributionSummary promptTokens;
+
+    public AgentSystemPrompt(@Value("classpath:/prompts/aiAgent.st") Resource template, MeterRegistry meterRegistry) {
+        this(read(template), Map.of("iconCatalog", AiIconCatalog.promptCatalog()), meterRegistry);
+    }
+
+    /** Compiles {@code template}, inlining the {@code constants} and leaving the per-turn names. */
+    AgentSystemPrompt(String template, Map<String, String> constants, MeterRegistry meterRegistry) {
+        List<String> literalParts = new ArrayList<>();
+        List<String> variableParts = new ArrayList<>();
+        StringBuilder pending = new StringBuilder();
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        int from = 0;
+        while (matcher.find()) {
+            pending.append(template, from, matcher.start());
+            String name = matcher.group(1);
+            if (constants.containsKey(name)) {
+                pending.append(constants.get(name));
+            } else if (PER_TURN.contains(name)) {
+                literalParts.add(pending.toString());
+                variableParts.add(name);
+                pending.setLength(0);
+            } else {
+                throw new IllegalStateException("Unknown placeholder {" + name + "} in the agent system prompt");
+            }
+            from = matcher.end();
+        }
+        pending.append(template, from, template.length());
+        literalParts.add(pending.toString());
+
+        this.literals = literalParts.toArray(String[]::new);
+        this.variables = variableParts.toArray(String[]::new);
+        this.fixedLength = literalParts.stream().mapToInt(String::length).sum();
+        this.buildTime = Timer.builder(BUILD_METRIC)
+                .description("Time to assemble the agent system prompt for one turn")
+                .register(meterRegistry);
+        this.promptTokens = DistributionSummary.builder(SIZE_METRIC)
+                .description("Estimated size of the agent system prompt sent with each turn")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+    }
+
+    /** The system prompt for one turn of {@code chat}, with the user on {@code currentPage}. */
+    public String render(Chat chat, String currentPage) {
+        long started = System.nanoTime();
+        User user = chat.getUser();
+        String language = user.getLanguageInUse() != null ? user.getLanguageInUse() : "en";
+        String userContext = orNone(user.getUserContext());
+        String userChatContext = orNone(chat.getUserContextInChat());
+        String page = orNone(currentPage);
+        String today = LocalDate.now().toString();
+
+        StringBuilder prompt = new StringBuilder(fixedLength + userContext.length() + userChatContext.length() + 64);
+        for (int i = 0; i < variables.length; i++) {
+            prompt.append(literals[i]);
+            prompt.append(switch (variables[i]) {
+                case "language" -> language;
+                case "userContext" -> userContext;
+                case "userChatContext" -> userChatContext;
+                case "currentPage" -> page;
+                case "today" -> today;
+                default -> throw new IllegalStateException("Unhandled placeholder {" + variables[i] + "}");
+            });
+        }
+        prompt.append(literals[literals.length - 1]);
+
+        String rendered = prompt.toString();
+        buildTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        promptTokens.record(estimateTokens(rendered));
+        return rendered;
+    }
+
+    /**
+     * Roughly four characters per token, the usual rule of thumb for English on BPE
+     * tokenizers. An estimate for a trend line, not for billing.
+     */
+    static int estimateTokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    private static String orNone(String value) {
+        return value == null || value.isBlank() ? NONE : value;
+    }
+
+    private static String read(Resource template) {
+        try {
+            return template.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the agent system prompt", e);
+        }
+    }
+}
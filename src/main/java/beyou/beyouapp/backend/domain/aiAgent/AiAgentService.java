@@ -1,7 +1,6 @@
 package beyou.beyouapp.backend.domain.aiAgent;
 
 import java.io.IOException;
-import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -9,10 +8,6 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -23,20 +18,18 @@ import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.support.ToolCallbacks;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import beyou.beyouapp.backend.domain.aiAgent.AiIconCatalog;
 import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessageService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.Chat;
 import beyou.beyouapp.backend.domain.aiAgent.chat.ChatService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessagePageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
 import beyou.beyouapp.backend.domain.aiAgent.llm.FallbackChatModel;
 import beyou.beyouapp.backend.domain.aiAgent.dto.AgentEvent;
-import beyou.beyouapp.backend.user.User;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.Disposable;
@@ -46,10 +39,6 @@ import reactor.core.publisher.Flux;
 @Slf4j
 public class AiAgentService {
 
-    /** SSE comment sent on this cadence keeps idle connections alive through
-     *  proxies while the agent thinks or runs a slow tool. */
-    private static final long HEARTBEAT_SECONDS = 15;
-
     /** Concurrent live streams per user (two tabs = 2). Caps LLM cost/resource abuse. */
     private static final int MAX_CONCURRENT_STREAMS_PER_USER = 2;
 
@@ -57,7 +46,8 @@ public class AiAgentService {
     private final ChatService chatService;
     private final AgentMessageService agentMessageService;
     private final Object[] toolCallbacks;
-    private final Resource systemTemplate;
+    private final AgentSystemPrompt systemPrompt;
+    private final AgentStreamMultiplexer streams;
 
     /**
      * {@code tool_choice} sent with every agent turn. Blank (the default) leaves the
@@ -72,17 +62,6 @@ public class AiAgentService {
      */
     private final String toolChoice;
 
-    // emitter.send() is BLOCKING: a stalled client applies TCP backpressure and
-    // holds its scheduler thread until the emitter times out. A pool bounds the
-    // blast radius (one stalled client can't starve every other stream's ping);
-    // combined with the per-user stream cap, total concurrent streams are bounded.
-    private final ScheduledExecutorService heartbeatScheduler =
-            Executors.newScheduledThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), runnable -> {
-                Thread thread = new Thread(runnable, "agent-sse-heartbeat");
-                thread.setDaemon(true);
-                return thread;
-            });
-
     // Per-user count of in-flight streams. Entries are tiny and bounded by the
     // active-user set, so they're left in place rather than pruned on zero.
     private final ConcurrentMap<UUID, AtomicInteger> activeStreams = new ConcurrentHashMap<>();
@@ -93,14 +72,16 @@ public class AiAgentService {
             AgentMessageService agentMessageService,
             Tools tools,
             MeterRegistry meterRegistry,
-            @Value("classpath:/prompts/aiAgent.st") Resource systemTemplate,
+            AgentSystemPrompt systemPrompt,
+            AgentStreamMultiplexer streams,
             @Value("${ai.agent.tool-choice:}") String toolChoice) {
         this.chatService = chatService;
         this.agentMessageService = agentMessageService;
         this.toolCallbacks = Arrays.stream(ToolCallbacks.from(tools))
                 .map(callback -> (Object) new MeteredToolCallback(callback, meterRegistry))
                 .toArray();
-        this.systemTemplate = systemTemplate;
+        this.systemPrompt = systemPrompt;
+        this.streams = streams;
         this.toolChoice = toolChoice;
         this.chatClient = ChatClient.builder(chatModel)
                 .defaultAdvisors(MessageChatMemoryAdvisor.builder(chatMemory).build())
@@ -128,9 +109,9 @@ public class AiAgentService {
 
         SseEmitter emitter = new SseEmitter(180_000L);
 
-        // The heartbeat thread and the reactor thread both write to this one
-        // emitter — serialize every write so events never interleave mid-frame.
-        Object streamLock = new Object();
+        // Writes are queued and drained off this thread, in order, with the
+        // heartbeat pings interleaved between whole events (see the multiplexer).
+        AgentStreamMultiplexer.Stream stream = streams.open(emitter);
 
         // Every event flows through here in causal order (tokens from the Flux,
         // tools from MeteredToolCallback). The builder observes FIRST, so a
@@ -138,15 +119,9 @@ public class AiAgentService {
         AgentTurnBuilder turn = new AgentTurnBuilder();
         Consumer<AgentEvent> send = event -> {
             turn.observe(event);
-            synchronized (streamLock) {
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name(event.type())
-                            .data(event.data(), MediaType.APPLICATION_JSON));
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            stream.send(SseEmitter.event()
+                    .name(event.type())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
         };
 
         Map<String, Object> toolContext = toolContext(userId, chatId, currentPage);
@@ -176,7 +151,7 @@ public class AiAgentService {
                     } catch (RuntimeException e) {
                         log.error("Error trying to emit error... {}", e.getClass().getSimpleName(), e);
                     } finally {
-                        emitter.complete();
+                        stream.complete();
                         chatService.touch(chatId, userId);
                     }
                 },
@@ -194,7 +169,7 @@ public class AiAgentService {
                     } catch (RuntimeException e) {
                         log.error("Error trying to emit complete... {}", e.getClass().getSimpleName(), e);
                     } finally {
-                        emitter.complete();
+                        stream.complete();
                         // Blocking JPA call on the netty event loop — fine at
                         // our volume, move to publishOn(Schedulers.boundedElastic()) if
                         // stream latency ever spikes.
@@ -202,22 +177,10 @@ public class AiAgentService {
                     }
                 });
 
-        // Heartbeat: also the ONLY dead-client detector during quiet pauses
-        // (no token send to fail on) — its failure aborts the stream.
-        ScheduledFuture<?> heartbeat = heartbeatScheduler.scheduleAtFixedRate(() -> {
-            synchronized (streamLock) {
-                try {
-                    emitter.send(SseEmitter.event().comment("ping"));
-                } catch (Exception e) {
-                    emitter.complete(); // -> onCompletion cancels heartbeat + disposes
-                }
-            }
-        }, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
-
         // onCompletion fires exactly once for any terminal state (complete,
-        // error, timeout), so the stream slot is always released.
+        // error, timeout, failed heartbeat), so the stream slot is always released.
         Runnable cleanup = () -> {
-            heartbeat.cancel(false);
+            stream.close();
             subscription.dispose();
             userStreams.decrementAndGet();
         };
@@ -253,15 +216,9 @@ public class AiAgentService {
     }
 
     private ChatClient.ChatClientRequestSpec buildPrompt(Chat chat, String userInput, String currentPage, Map<String, Object> toolContext) {
-        User user = chat.getUser();
+        // Already rendered, and passed without params so the client does not render it again.
         return this.chatClient.prompt()
-            .system(s -> s.text(systemTemplate)
-                .param("language", user.getLanguageInUse() != null ? user.getLanguageInUse() : "en")
-                .param("iconCatalog", AiIconCatalog.promptCatalog())
-                .param("userContext", orNone(user.getUserContext()))
-                .param("userChatContext", orNone(chat.getUserContextInChat()))
-                .param("currentPage", orNone(currentPage))
-                .param("today", LocalDate.now().toString()))
+            .system(systemPrompt.render(chat, currentPage))
             .user(userInput)
             .advisors(a -> a.param(ChatMemory.CONVERSATION_ID, chat.getId().toString()))
             .tools(toolCallbacks)
@@ -274,7 +231,9 @@ public class AiAgentService {
         return agentMessageService.getMessages(chatId);
     }
 
-    private String orNone(String value) {
-        return value == null || value.isBlank() ? "(none yet)" : value;
+    /** One page of the transcript before {@code before}, oldest first (ownership checked here). */
+    public AgentMessagePageDTO getMessages(UUID chatId, UUID userId, Long before, int limit) {
+        chatService.getChat(chatId, userId);
+        return agentMessageService.getMessages(chatId, before, limit);
     }
 }
@@ -1,8 +1,10 @@
 package beyou.beyouapp.backend.domain.aiAgent.chat;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +13,20 @@ public interface AgentMessageRepository extends JpaRepository<AgentMessage, UUID
     List<AgentMessage> findByChatIdOrderBySequenceIdAsc(UUID chatId);
     long countByChatId(UUID chatId);
 
+    /**
+     * Every transcript row of a set of chats in one read, grouped by chat and in
+     * sequence order within each — the export's loader, instead of one read per chat.
+     * Walks {@code uq_agent_message_chat_sequence} (V8).
+     */
+    List<AgentMessage> findByChatIdInOrderByChatIdAscSequenceIdAsc(Collection<UUID> chatIds);
+
+    /**
+     * The {@code limit} rows of a chat just before sequence {@code before}, newest first.
+     * Keyset paging on {@code uq_agent_message_chat_sequence}: a backwards index range
+     * scan that stops after {@code limit} rows however long the transcript is.
+     */
+    List<AgentMessage> findByChatIdAndSequenceIdLessThanOrderBySequenceIdDesc(UUID chatId, long before, Limit limit);
+
     /**
      * Serializes transcript writes for one chat across concurrent turns (two
      * tabs, double-submit, retry overlap) so sequence assignment stays atomic.
@@ -1,18 +1,24 @@
 package beyou.beyouapp.backend.domain.aiAgent.chat;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessagePageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.LazySegments;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,6 +36,10 @@ public class AgentMessageService {
     private static final String ASSISTANT = "ASSISTANT";
     private static final List<String> VISIBLE_MEMORY_ROLES = List.of("USER", "ASSISTANT");
 
+    /** Page size when the caller asks for none, and the most one page may hold. */
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final AgentMessageRepository agentMessageRepository;
     private final ChatMemory chatMemory;
     private final ObjectMapper objectMapper;
@@ -60,13 +70,59 @@ public class AgentMessageService {
     public List<AgentMessageDTO> getMessages(UUID chatId) {
         List<AgentMessage> stored = agentMessageRepository.findByChatIdOrderBySequenceIdAsc(chatId);
         if (!stored.isEmpty()) {
-            return stored.stream()
-                    .map(m -> new AgentMessageDTO(m.getRole(), fromJson(m.getContent())))
-                    .toList();
+            return stored.stream().map(this::toDto).toList();
         }
         return legacyFromMemory(chatId);
     }
 
+    /**
+     * One window of a transcript for the chat UI: the {@code limit} messages just before
+     * sequence {@code before} (the newest ones when it is null), oldest first. Only those
+     * rows are read. {@code limit} is clamped to 1..{@value #MAX_PAGE_SIZE}.
+     *
+     * <p>A chat older than agent_message has only the model's memory window, which is
+     * already short; it comes back whole as the first page.
+     */
+    @Transactional(readOnly = true)
+    public AgentMessagePageDTO getMessages(UUID chatId, Long before, int limit) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<AgentMessage> newestFirst = agentMessageRepository.findByChatIdAndSequenceIdLessThanOrderBySequenceIdDesc(
+                chatId, before == null ? Long.MAX_VALUE : before, Limit.of(size));
+        if (newestFirst.isEmpty()) {
+            return new AgentMessagePageDTO(before == null ? legacyFromMemory(chatId) : List.of(), null);
+        }
+
+        List<AgentMessageDTO> messages = new ArrayList<>(newestFirst.size());
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            messages.add(toDto(newestFirst.get(i)));
+        }
+        long oldest = newestFirst.get(newestFirst.size() - 1).getSequenceId();
+        // A short page, or one that reached sequence 0, is the start of the chat.
+        Long nextBefore = newestFirst.size() == size && oldest > 0 ? oldest : null;
+        return new AgentMessagePageDTO(messages, nextBefore);
+    }
+
+    /**
+     * {@link #getMessages(UUID)} for many chats at once, in one read: each chat id mapped
+     * to its transcript, in the order the ids were given. The export's loader. Chats with
+     * no stored rows fall back to the model's memory one by one, as they always did.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<AgentMessageDTO>> getMessages(Collection<UUID> chatIds) {
+        Map<UUID, List<AgentMessageDTO>> byChat = new LinkedHashMap<>();
+        if (chatIds.isEmpty()) {
+            return byChat;
+        }
+        for (UUID chatId : chatIds) {
+            byChat.put(chatId, new ArrayList<>());
+        }
+        for (AgentMessage message : agentMessageRepository.findByChatIdInOrderByChatIdAscSequenceIdAsc(chatIds)) {
+            byChat.get(message.getChatId()).add(toDto(message));
+        }
+        byChat.replaceAll((chatId, messages) -> messages.isEmpty() ? legacyFromMemory(chatId) : messages);
+        return byChat;
+    }
+
     /** Chats created before agent_message existed: text-only, from model memory. */
     private List<AgentMessageDTO> legacyFromMemory(UUID chatId) {
         return chatMemory.get(chatId.toString()).stream()
@@ -86,12 +142,8 @@ public class AgentMessageService {
         }
     }
 
-    private List<AgentSegment> fromJson(String json) {
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<AgentSegment>>() {});
-        } catch (Exception e) {
-            log.error("Failed to deserialize agent segments", e);
-            return List.of();
-        }
+    /** Segments stay as their stored JSON until something reads them (see {@link LazySegments}). */
+    private AgentMessageDTO toDto(AgentMessage message) {
+        return new AgentMessageDTO(message.getRole(), new LazySegments(message.getContent(), objectMapper));
     }
 }
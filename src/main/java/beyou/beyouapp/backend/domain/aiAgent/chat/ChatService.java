@@ -1,13 +1,17 @@
 package beyou.beyouapp.backend.domain.aiAgent.chat;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.stereotype.Service;
 
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.ChatResponseDTO;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
@@ -27,6 +31,8 @@ public class ChatService {
     public static final int GLOBAL_CONTEXT_MAX = 2000;
     public static final int CHAT_CONTEXT_MAX = 1000;
     public static final int TITLE_MAX = 255; // matches the chats.title column (V5)
+    /** Chats whose transcripts the export loads per query. */
+    static final int EXPORT_BATCH = 50;
 
     private final ChatRepository chatRepository;
     private final UserRepository userRepository;
@@ -120,10 +126,11 @@ public class ChatService {
      * third-party model. What the assistant was told is data about its user, so it
      * belongs in the file.
      *
-     * <p>Read through {@link AgentMessageService#getMessages(UUID)} rather than off the
-     * table directly, so conversations older than {@code agent_message} still export —
+     * <p>Read through {@link AgentMessageService#getMessages(Collection)} rather than off
+     * the table directly, so conversations older than {@code agent_message} still export —
      * those live only in the model's memory window and would otherwise come back as an
-     * empty chat with a title.
+     * empty chat with a title. That loads the transcripts of {@value #EXPORT_BATCH} chats
+     * per query; it used to be one query per chat.
      *
      * <p>{@code userContextInChat} goes with each conversation: it is the note the model
      * wrote about the person while they talked, which is exactly the kind of inference
@@ -131,19 +138,38 @@ public class ChatService {
      */
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public List<Map<String, Object>> exportForUser(UUID userId) {
-        return chatRepository.findAllByUserIdOrderByUpdatedAtDesc(userId).stream()
-                .map(this::toExportMap)
-                .toList();
+        List<Map<String, Object>> export = new ArrayList<>();
+        exportForUser(userId, export::add);
+        return export;
+    }
+
+    /**
+     * {@link #exportForUser(UUID)} one conversation at a time, for the streaming export:
+     * each transcript is handed to {@code sink} and can be dropped before the next is read,
+     * where the list holds every transcript the account has at once. At most
+     * {@value #EXPORT_BATCH} transcripts are in memory at a time. Runs in the caller's
+     * transaction.
+     */
+    public void exportForUser(UUID userId, Consumer<Map<String, Object>> sink) {
+        List<Chat> chats = chatRepository.findAllByUserIdOrderByUpdatedAtDesc(userId);
+        for (int from = 0; from < chats.size(); from += EXPORT_BATCH) {
+            List<Chat> batch = chats.subList(from, Math.min(from + EXPORT_BATCH, chats.size()));
+            Map<UUID, List<AgentMessageDTO>> messages =
+                    agentMessageService.getMessages(batch.stream().map(Chat::getId).toList());
+            for (Chat chat : batch) {
+                sink.accept(toExportMap(chat, messages.get(chat.getId())));
+            }
+        }
     }
 
-    private Map<String, Object> toExportMap(Chat chat) {
+    private Map<String, Object> toExportMap(Chat chat, List<AgentMessageDTO> messages) {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("id", chat.getId());
         map.put("title", chat.getTitle());
         map.put("createdAt", chat.getCreatedAt());
         map.put("updatedAt", chat.getUpdatedAt());
         map.put("assistantNotesAboutThisChat", chat.getUserContextInChat());
-        map.put("messages", agentMessageService.getMessages(chat.getId()));
+        map.put("messages", messages);
         return map;
     }
 
@@ -0,0 +1,11 @@
+package beyou.beyouapp.backend.domain.aiAgent.chat.dto;
+
+import java.util.List;
+
+/**
+ * A window of a transcript, oldest first. {@code nextBefore} is the cursor for the
+ * window before this one — pass it back as {@code before} — or null when this window
+ * reaches the start of the chat.
+ */
+public record AgentMessagePageDTO(List<AgentMessageDTO> messages, Long nextBefore) {
+}
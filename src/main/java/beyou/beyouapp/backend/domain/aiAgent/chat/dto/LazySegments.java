@@ -0,0 +1,113 @@
+package beyou.beyouapp.backend.domain.aiAgent.chat.dto;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.util.TokenBuffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One stored turn's segments, still as the JSON array {@code agent_message.content}
+ * holds, decoded the first time anything reads an element.
+ *
+ * <p>Two readers never need the objects. The export writes the transcript straight back
+ * out as JSON, so {@link Serializer} copies the stored array through untouched instead of
+ * parsing every message only to print it again. A page the UI asks for is decoded when it
+ * is rendered to the response, and only that page was read. Code that does look inside —
+ * tests, tools — sees an ordinary list.
+ *
+ * <p>{@code AgentMessageService} is the only writer and always stores a serialized list,
+ * but the copy is not trusted blindly: one damaged row would otherwise make the whole
+ * export file or page invalid JSON. Before copying, the serializer tokenizes the text —
+ * no objects are built — and checks it is exactly one array. A row that is not one is
+ * written, and decoded, as an empty list, as the eager read did.
+ */
+@Slf4j
+@JsonSerialize(using = LazySegments.Serializer.class)
+public final class LazySegments extends AbstractList<AgentSegment> {
+
+    private static final TypeReference<List<AgentSegment>> SEGMENTS = new TypeReference<>() {};
+
+    private final String json;
+    private final ObjectMapper objectMapper;
+    private List<AgentSegment> decoded;
+
+    public LazySegments(String json, ObjectMapper objectMapper) {
+        this.json = json;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public AgentSegment get(int index) {
+        return decoded().get(index);
+    }
+
+    @Override
+    public int size() {
+        return decoded().size();
+    }
+
+    /** Whether anything has read the segments yet. */
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /** True when the stored text is exactly one well-formed JSON array. Tokenizes only. */
+    private boolean storedIsArray() {
+        if (json == null) {
+            return false;
+        }
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private List<AgentSegment> decoded() {
+        if (decoded == null) {
+            try {
+                decoded = objectMapper.readValue(json, SEGMENTS);
+            } catch (Exception e) {
+                log.error("Failed to deserialize agent segments", e);
+                decoded = List.of();
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Writes the stored array as it is, once it has checked out as one. A
+     * {@link TokenBuffer} — what {@code ObjectMapper.valueToTree} and {@code convertValue}
+     * write into — would keep raw text as an opaque value rather than a tree, so it gets
+     * the decoded list, as does a row that is not an array.
+     */
+    static final class Serializer extends ValueSerializer<LazySegments> {
+
+        @Override
+        public void serialize(LazySegments value, JsonGenerator gen, SerializationContext ctxt) {
+            if (value.isDecoded() || gen instanceof TokenBuffer || !value.storedIsArray()) {
+                gen.writeStartArray();
+                for (AgentSegment segment : value) {
+                    ctxt.writeValue(gen, segment);
+                }
+                gen.writeEndArray();
+                return;
+            }
+            gen.writeRawValue(value.json);
+        }
+    }
+}
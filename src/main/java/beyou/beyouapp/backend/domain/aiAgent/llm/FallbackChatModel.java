@@ -5,8 +5,10 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,8 +23,12 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import com.openai.errors.RateLimitException;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 /**
  * ChatModel decorator that walks an ordered chain of providers.
@@ -38,6 +44,13 @@ import reactor.core.publisher.Flux;
  * (rate limit -> long window, anything else -> short). The last provider in
  * the chain is always attempted, cooldown or not, so there is always a real
  * response or a real exception — never an empty chain.
+ *
+ * With {@link Hedging} enabled, stream() no longer waits out a slow-but-healthy
+ * head of the chain: if it has not produced a first chunk within its own recent
+ * first-chunk p95 (clamped), the rest of the chain starts alongside it and the
+ * first to emit is kept, the other cancelled. Cancelling a loser is always safe
+ * for the same reason fallback is: its chunks never left this class, and tools
+ * only run above it on the winner's output.
  */
 @Slf4j
 public class FallbackChatModel implements ChatModel {
@@ -47,10 +60,32 @@ public class FallbackChatModel implements ChatModel {
     private final Duration errorCooldown;
     private final MeterRegistry meterRegistry;
     private final Clock clock;
+    private final Hedging hedging;
     private final ConcurrentMap<String, Instant> cooldownUntil = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> firstChunkTimers = new ConcurrentHashMap<>();
+
+    /** First-chunk latency per provider; its windowed percentile is the hedge delay. */
+    public static final String FIRST_CHUNK_METRIC = "beyou.ai.llm.first_chunk";
+
+    /** Below this many first chunks a provider's percentile is noise: hedge at the max delay. */
+    static final int HEDGE_MIN_SAMPLES = 20;
+
+    /**
+     * When stream() starts the rest of the chain alongside a slow first link.
+     * {@code percentile} of the link's recent first-chunk latency, clamped to
+     * [{@code minDelay}, {@code maxDelay}]; {@code maxDelay} until it has history.
+     */
+    public record Hedging(boolean enabled, double percentile, Duration minDelay, Duration maxDelay) {
+        public static final Hedging OFF = new Hedging(false, 0.95, Duration.ZERO, Duration.ZERO);
+    }
 
     public FallbackChatModel(List<NamedChatModel> chain, Duration rateLimitCooldown,
             Duration errorCooldown, MeterRegistry meterRegistry, Clock clock) {
+        this(chain, rateLimitCooldown, errorCooldown, meterRegistry, clock, Hedging.OFF);
+    }
+
+    public FallbackChatModel(List<NamedChatModel> chain, Duration rateLimitCooldown,
+            Duration errorCooldown, MeterRegistry meterRegistry, Clock clock, Hedging hedging) {
         if (chain == null || chain.isEmpty()) {
             throw new IllegalArgumentException("LLM chain needs at least one model");
         }
@@ -59,6 +94,7 @@ public class FallbackChatModel implements ChatModel {
         this.errorCooldown = errorCooldown;
         this.meterRegistry = meterRegistry;
         this.clock = clock;
+        this.hedging = hedging == null ? Hedging.OFF : hedging;
     }
 
     /**
@@ -73,7 +109,9 @@ public class FallbackChatModel implements ChatModel {
      *
      * <p>Written at attempt time rather than on success, so a turn that dies mid-stream
      * still names the provider that was serving it — the failures worth attributing are
-     * exactly the ones that did not finish cleanly.
+     * exactly the ones that did not finish cleanly. The exception is a hedged first link,
+     * which reports only once it has won the race: the links started beside it report as
+     * they are attempted, and the winner's name is the one left standing.
      */
     public static final String PROVIDER_KEY = "llmProvider";
 
@@ -137,7 +175,7 @@ public class FallbackChatModel implements ChatModel {
 
     @Override
     public Flux<ChatResponse> stream(Prompt prompt) {
-        return attempt(prompt, 0);
+        return hedging.enabled() ? hedged(prompt, 0) : attempt(prompt, 0, true);
     }
 
     /**
@@ -206,16 +244,21 @@ public class FallbackChatModel implements ChatModel {
         }
     }
 
-    private Flux<ChatResponse> attempt(Prompt prompt, int index) {
+    /**
+     * Walks the chain from {@code index}. {@code countExhausted} is false for the leg a
+     * hedge starts: running out there does not exhaust the turn while the hedged link
+     * may still answer, so {@link #hedged} counts it instead.
+     */
+    private Flux<ChatResponse> attempt(Prompt prompt, int index, boolean countExhausted) {
         NamedChatModel provider = chain.get(index);
         if (skippedByCooldown(provider, index)) {
-            return attempt(prompt, index + 1); // in-bounds: the last link never skips
+            return attempt(prompt, index + 1, countExhausted); // in-bounds: the last link never skips
         }
         AtomicBoolean emitted = new AtomicBoolean();
-        return Flux.defer(() -> {
+        return timedToFirstChunk(provider.name(), Flux.defer(() -> {
                     reportProvider(prompt, provider.name());
                     return provider.model().stream(adaptFor(provider, prompt));
-                })
+                }))
                 .doOnNext(chunk -> emitted.set(true))
                 .doOnComplete(() -> count(provider.name(), "ok"))
                 .onErrorResume(e -> {
@@ -228,13 +271,142 @@ public class FallbackChatModel implements ChatModel {
                         return Flux.error(e);
                     }
                     if (isLast) {
-                        meterRegistry.counter("beyou.ai.llm.exhausted").increment();
+                        if (countExhausted) {
+                            meterRegistry.counter("beyou.ai.llm.exhausted").increment();
+                        }
                         return Flux.error(e);
                     }
-                    return attempt(prompt, index + 1);
+                    return attempt(prompt, index + 1, countExhausted);
                 });
     }
 
+    /**
+     * The first available link, raced against the rest of the chain once it is slow.
+     *
+     * <p>The rest starts when the link has produced nothing for {@link #hedgeDelay}, or at
+     * once if it fails first — so a failing head costs no more than it did unhedged.
+     * {@link Flux#firstWithValue} keeps whichever side emits first and cancels the other;
+     * after that the kept side is on its own, mid-stream errors included. A link that has
+     * nothing after it to hedge onto is simply attempted.
+     */
+    private Flux<ChatResponse> hedged(Prompt prompt, int index) {
+        NamedChatModel head = chain.get(index);
+        if (skippedByCooldown(head, index)) {
+            return hedged(prompt, index + 1);
+        }
+        if (index == chain.size() - 1) {
+            return attempt(prompt, index, true);
+        }
+        Duration delay = hedgeDelay(head.name());
+        Sinks.Empty<Void> headFailed = Sinks.empty();
+        AtomicBoolean headEmitted = new AtomicBoolean();
+        AtomicBoolean headGaveUp = new AtomicBoolean();
+        AtomicReference<Throwable> restError = new AtomicReference<>();
+
+        Flux<Raced> first = timedToFirstChunk(head.name(),
+                        Flux.defer(() -> head.model().stream(adaptFor(head, prompt))))
+                .doOnNext(chunk -> headEmitted.set(true))
+                .doOnComplete(() -> count(head.name(), "ok"))
+                .onErrorResume(e -> {
+                    boolean emitted = headEmitted.get();
+                    failAndCooldown(head, e, !emitted);
+                    if (!emitted) {
+                        headGaveUp.set(true);
+                        headFailed.tryEmitEmpty();
+                    }
+                    return Flux.error(e);
+                })
+                .map(chunk -> new Raced(true, chunk));
+
+        Flux<Raced> rest = Mono.firstWithSignal(Mono.delay(delay).then(), headFailed.asMono())
+                .thenMany(Flux.defer(() -> {
+                    if (!headGaveUp.get()) {
+                        // Still waiting on the head when the delay ran out: a real hedge.
+                        meterRegistry.counter("beyou.ai.llm.hedged", "from", head.name()).increment();
+                    }
+                    return attempt(prompt, index + 1, false);
+                }))
+                .doOnError(restError::set)
+                .map(chunk -> new Raced(false, chunk));
+
+        AtomicBoolean reported = new AtomicBoolean();
+        return Flux.firstWithValue(first, rest)
+                .doOnNext(raced -> {
+                    if (raced.head() && reported.compareAndSet(false, true)) {
+                        reportProvider(prompt, head.name());
+                    }
+                })
+                .map(Raced::chunk)
+                .onErrorMap(NoSuchElementException.class, e -> {
+                    // Both sides failed before emitting; surface the chain's own last error.
+                    meterRegistry.counter("beyou.ai.llm.exhausted").increment();
+                    Throwable last = restError.get();
+                    return last != null ? last : e;
+                });
+    }
+
+    /** A chunk tagged with the side of a hedge race that produced it. */
+    private record Raced(boolean head, ChatResponse chunk) {
+    }
+
+    /**
+     * The provider's windowed first-chunk percentile, clamped; the max until it has history.
+     *
+     * <p>{@code timer.count()} is cumulative but the percentile only covers the last couple
+     * of minutes (Micrometer's default distribution expiry). After a quiet spell the window
+     * is empty and the percentile reads 0, which the clamp would turn into the floor and a
+     * hedge on nearly every turn. An empty window counts as no history.
+     */
+    Duration hedgeDelay(String provider) {
+        Timer timer = firstChunkTimer(provider);
+        if (timer.count() < HEDGE_MIN_SAMPLES) {
+            return hedging.maxDelay();
+        }
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == hedging.percentile()) {
+                double windowed = value.value(TimeUnit.MILLISECONDS);
+                if (Double.isNaN(windowed) || windowed <= 0) {
+                    return hedging.maxDelay();
+                }
+                long millis = (long) windowed;
+                long clamped = Math.clamp(millis, hedging.minDelay().toMillis(), hedging.maxDelay().toMillis());
+                return Duration.ofMillis(clamped);
+            }
+        }
+        return hedging.maxDelay();
+    }
+
+    /**
+     * Records time to first chunk from subscription. A stream cancelled before its first
+     * chunk — a hedge loser — records the time it was given, a lower bound on its latency:
+     * leaving it out would drag the percentile, and with it the hedge delay, ever lower.
+     * Failures record nothing; they are not latency.
+     */
+    private Flux<ChatResponse> timedToFirstChunk(String provider, Flux<ChatResponse> stream) {
+        return Flux.defer(() -> {
+            Timer timer = firstChunkTimer(provider);
+            long started = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            Runnable record = () -> {
+                if (recorded.compareAndSet(false, true)) {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            };
+            return stream
+                    .doOnNext(chunk -> record.run())
+                    .doOnError(e -> recorded.set(true))
+                    .doOnCancel(record);
+        });
+    }
+
+    private Timer firstChunkTimer(String provider) {
+        return firstChunkTimers.computeIfAbsent(provider, name -> Timer.builder(FIRST_CHUNK_METRIC)
+                .description("Time from stream start to the provider's first chunk")
+                .tag("provider", name)
+                .publishPercentiles(hedging.percentile())
+                .register(meterRegistry));
+    }
+
     /** True (and counted) when the provider should be skipped. Last link never skips. */
     private boolean skippedByCooldown(NamedChatModel provider, int index) {
         if (index == chain.size() - 1) {
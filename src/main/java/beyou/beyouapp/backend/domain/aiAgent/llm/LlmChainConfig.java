@@ -63,8 +63,9 @@ public class LlmChainConfig {
         FallbackChatModel model = new FallbackChatModel(chain,
                 Duration.ofSeconds(props.cooldownRateLimitSeconds()),
                 Duration.ofSeconds(props.cooldownErrorSeconds()),
-                meterRegistry, Clock.systemUTC());
-        log.info("Agent LLM chain: {}", model.providerNames());
+                meterRegistry, Clock.systemUTC(), props.hedge().toHedging());
+        log.info("Agent LLM chain: {}{}", model.providerNames(),
+                props.hedge().enabled() ? " (hedged streaming)" : "");
         return model;
     }
 
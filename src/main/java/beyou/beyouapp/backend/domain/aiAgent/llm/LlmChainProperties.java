@@ -1,5 +1,6 @@
 package beyou.beyouapp.backend.domain.aiAgent.llm;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +15,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * whatever {@code order} says. Separate from the order because it records that
  * leaving one out was a decision, so it keeps holding if someone later widens
  * {@code LLM_CHAIN_ORDER} without knowing why it was narrow.
+ *
+ * <p>{@code hedge} switches streaming to racing a slow first link against the
+ * rest of the chain; see {@link FallbackChatModel.Hedging}. Off when absent.
  */
 @ConfigurationProperties(prefix = "ai.llm-chain")
 public record LlmChainProperties(
@@ -21,12 +25,14 @@ public record LlmChainProperties(
         List<String> blocked,
         int cooldownRateLimitSeconds,
         int cooldownErrorSeconds,
-        Map<String, Provider> providers) {
+        Map<String, Provider> providers,
+        Hedge hedge) {
 
     public LlmChainProperties {
         order = order == null ? List.of("deepseek") : order;
         blocked = blocked == null ? List.of() : blocked;
         providers = providers == null ? Map.of() : providers;
+        hedge = hedge == null ? new Hedge(false, 0.95, 400, 4_000) : hedge;
     }
 
     /** Case-insensitive, so a stray {@code DeepSeek} in an env var is still blocked. */
@@ -36,4 +42,13 @@ public record LlmChainProperties(
 
     public record Provider(String baseUrl, String apiKey, String model) {
     }
+
+    public record Hedge(boolean enabled, double percentile, long minDelayMs, long maxDelayMs) {
+
+        public FallbackChatModel.Hedging toHedging() {
+            long min = Math.max(0, minDelayMs);
+            return new FallbackChatModel.Hedging(enabled, percentile,
+                    Duration.ofMillis(min), Duration.ofMillis(Math.max(min, maxDelayMs)));
+        }
+    }
 }
@@ -1,7 +1,6 @@
 package beyou.beyouapp.backend.domain.category;
 
 import beyou.beyouapp.backend.domain.category.dto.CategoryRequestDTO;
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevel;
 import beyou.beyouapp.backend.domain.common.XpProgress;
 import beyou.beyouapp.backend.domain.goal.Goal;
 import beyou.beyouapp.backend.domain.habit.Habit;
@@ -22,7 +21,6 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
-import java.util.function.Function;
 
 @Entity
 @Table(name = "categories")
@@ -98,12 +96,4 @@ public class Category {
           this.xpProgress.setLevel(categoryRequestDTO.experience().getLevel());
           this.xpProgress.setXp(categoryRequestDTO.experience().getXp());
      }
-
-     public void gainXp(double xp, Function<Integer, XpByLevel> provider){
-          xpProgress.addXp(xp, provider);
-     }
-
-     public void loseXp(double xp, Function<Integer, XpByLevel> provider){
-          xpProgress.removeXp(xp, provider);
-     }
 }
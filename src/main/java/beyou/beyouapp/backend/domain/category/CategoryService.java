@@ -130,21 +130,4 @@ public class CategoryService {
         }
     }
 
-    public void updateCategoriesXpAndLevel(List<Category> categories, Double newXp){
-        categories.forEach(c -> 
-            c.gainXp(
-                newXp,
-                level -> xpByLevelRepository.findByLevel(level)
-            )
-        );
-    }
-
-    public void removeXpFromCategories(List<Category> categories, Double xpToRemove){
-        categories.forEach(c -> 
-            c.loseXp(xpToRemove, 
-                level -> xpByLevelRepository.findByLevel(level)
-            )
-        );
-    }
-
 }
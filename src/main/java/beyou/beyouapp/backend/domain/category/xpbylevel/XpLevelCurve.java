@@ -0,0 +1,122 @@
+package beyou.beyouapp.backend.domain.category.xpbylevel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@code xp_by_level} table as an immutable array of thresholds: level
+ * {@code firstLevel + i} starts at {@code thresholds[i]}.
+ *
+ * <p>{@code XpProgress} used to walk the curve one level at a time, asking
+ * {@code XpByLevelRepository.findByLevel} for each level and the one after it — through
+ * the {@code @Cacheable} proxy, so every step paid key evaluation, boxing and a Caffeine
+ * lookup even when the answer never changes between deploys. The curve is reference data
+ * seeded by {@code R__seed_xp_by_level.sql}; it is read once when the context starts
+ * ({@link XpLevelCurveConfig}) and every question after that is an array index or a binary
+ * search, with no allocation.
+ *
+ * <p>Changing the seed needs a restart to reach the running curve. That was already true
+ * in practice: the cache had no expiry.
+ */
+public final class XpLevelCurve {
+
+    private final int firstLevel;
+    private final double[] thresholds;
+
+    private XpLevelCurve(int firstLevel, double[] thresholds) {
+        this.firstLevel = firstLevel;
+        this.thresholds = thresholds;
+    }
+
+    /**
+     * A curve from explicit thresholds, the first belonging to {@code firstLevel}. Fails on
+     * an empty or decreasing curve: a level whose threshold is below the one before it has
+     * no well-defined place in a binary search, and would have looped the old level walk.
+     */
+    public static XpLevelCurve of(int firstLevel, double... thresholds) {
+        if (thresholds.length == 0) {
+            throw new IllegalStateException("The XP level curve has no levels");
+        }
+        for (int i = 1; i < thresholds.length; i++) {
+            if (thresholds[i] < thresholds[i - 1]) {
+                throw new IllegalStateException("The XP level curve decreases at level "
+                        + (firstLevel + i) + ": " + thresholds[i] + " after " + thresholds[i - 1]);
+            }
+        }
+        return new XpLevelCurve(firstLevel, thresholds.clone());
+    }
+
+    /** The seeded rows, in any order. Fails unless their levels are contiguous. */
+    public static XpLevelCurve of(List<XpByLevel> rows) {
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("The XP level curve has no levels");
+        }
+        XpByLevel[] sorted = rows.stream()
+                .sorted((a, b) -> Integer.compare(a.getLevel(), b.getLevel()))
+                .toArray(XpByLevel[]::new);
+        int firstLevel = sorted[0].getLevel();
+        double[] thresholds = new double[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i].getLevel() != firstLevel + i) {
+                throw new IllegalStateException("The XP level curve skips level " + (firstLevel + i));
+            }
+            thresholds[i] = sorted[i].getXp();
+        }
+        return of(firstLevel, thresholds);
+    }
+
+    public int firstLevel() {
+        return firstLevel;
+    }
+
+    public int topLevel() {
+        return firstLevel + thresholds.length - 1;
+    }
+
+    public boolean hasLevel(int level) {
+        return level >= firstLevel && level <= topLevel();
+    }
+
+    /** The XP at which {@code level} starts. */
+    public double thresholdOf(int level) {
+        if (!hasLevel(level)) {
+            throw new IllegalArgumentException("No level " + level + " on the XP curve ("
+                    + firstLevel + ".." + topLevel() + ")");
+        }
+        return thresholds[level - firstLevel];
+    }
+
+    /**
+     * The XP at which the level after {@code level} starts — or {@code level}'s own
+     * threshold at the top of the curve, the ceiling {@code XpProgress} has always pinned
+     * a maxed entity to.
+     */
+    public double nextThresholdOf(int level) {
+        return hasLevel(level + 1) ? thresholdOf(level + 1) : thresholdOf(level);
+    }
+
+    /**
+     * The highest level whose threshold {@code xp} has reached; the first level for anything
+     * below it. Equal thresholds resolve to the highest of them, as the level-by-level walk
+     * did.
+     */
+    public int levelAt(double xp) {
+        int low = 0;
+        int high = thresholds.length;
+        // First index whose threshold is above xp; the level is the one before it.
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= xp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return firstLevel + Math.max(low - 1, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "XpLevelCurve[" + firstLevel + ".." + topLevel() + " " + Arrays.toString(thresholds) + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package beyou.beyouapp.backend.domain.category.xpbylevel;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads {@link XpLevelCurve} once, when the context starts. Flyway has run by then (the
+ * repositories wait on it), so the repeatable seed is what gets read. A missing or broken
+ * curve fails the boot rather than the first check-in.
+ */
+@Configuration
+@Slf4j
+public class XpLevelCurveConfig {
+
+    @Bean
+    XpLevelCurve xpLevelCurve(XpByLevelRepository xpByLevelRepository) {
+        XpLevelCurve curve = XpLevelCurve.of(xpByLevelRepository.findAll());
+        log.info("Loaded the XP level curve: levels {}..{}", curve.firstLevel(), curve.topLevel());
+        return curve;
+    }
+}
@@ -1,8 +1,6 @@
 package beyou.beyouapp.backend.domain.checkday;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 import org.springframework.stereotype.Component;
@@ -21,9 +19,10 @@ import lombok.extern.slf4j.Slf4j;
  * rows that result.
  *
  * <p>The seam is split deliberately: this class owns the write and the locking,
- * {@link CheckProgressCalculator} owns the arithmetic. The calculator is a pure function
- * over a list, so every streak rule is testable without a database, and this class stays
- * small enough to read in one sitting.
+ * {@link CheckProgressDelta} and {@link CheckProgressCalculator} own the arithmetic. Both
+ * are pure functions, so every streak rule is testable without a database, and this class
+ * stays small enough to read in one sitting. The delta is the everyday path; the full
+ * recompute is what it is proven equal to, and the fallback when it cannot be used.
  *
  * <p>KTD20 — identity and the date arrive as parameters and are never read from the
  * security context. The agent tools reach this path on a boundedElastic thread with no
@@ -69,31 +68,20 @@ public class CheckDayRecorder {
 
         lockUserThenOwner(owner.getId(), ownerType, ownerId);
 
-        List<EntityCheckDay> history =
-                new ArrayList<>(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(ownerType, ownerId));
-
-        EntityCheckDay row = history.stream()
-                .filter(stored -> day.equals(stored.getDay()))
-                .findFirst()
+        EntityCheckDay row = entityCheckDayRepository
+                .findByOwnerTypeAndOwnerIdAndDay(ownerType, ownerId, day)
                 .orElse(null);
+        CheckDayOutcome before = row != null ? row.getOutcome() : null;
         if (row == null) {
             row = new EntityCheckDay(owner, ownerType, ownerId, day, outcome);
-            history.add(row);
         } else {
             row.setOutcome(outcome);
         }
+        // The reads the delta may issue next are JPQL over this same entity, so Hibernate's
+        // auto-flush puts the row in front of them.
         entityCheckDayRepository.save(row);
 
-        int storedBestStreak = progress != null ? progress.getBestStreak() : 0;
-        // Anchored on the owner's today, never on the day just written. These scalars mean
-        // "as of now": recomputing against a back-dated edit would walk back from that day
-        // and report the streak as it stood then, understating a user whose run reaches
-        // today, and it would stay understated until the next live check on that owner.
-        CheckProgress recomputed = CheckProgressCalculator.recompute(
-                history, UserDateResolver.today(owner), storedBestStreak);
-        if (progress != null) {
-            copyInto(recomputed, progress);
-        }
+        CheckProgress recomputed = rederive(owner, ownerType, ownerId, progress, day, before, outcome);
 
         log.debug("Recorded {} for {} {} on {} — streak {}, record {}, total {}",
                 outcome, ownerType, ownerId, day,
@@ -146,23 +134,13 @@ public class CheckDayRecorder {
         }
 
         lockUserThenOwner(owner.getId(), ownerType, ownerId);
+        CheckDayOutcome before = entityCheckDayRepository
+                .findByOwnerTypeAndOwnerIdAndDay(ownerType, ownerId, day)
+                .map(EntityCheckDay::getOutcome)
+                .orElse(null);
         entityCheckDayRepository.deleteOwnerDay(ownerType, ownerId, day);
 
-        List<EntityCheckDay> history = entityCheckDayRepository
-                .findByOwnerTypeAndOwnerIdOrderByDayAsc(ownerType, ownerId).stream()
-                .filter(stored -> !day.equals(stored.getDay()))
-                .toList();
-
-        int storedBestStreak = progress != null ? progress.getBestStreak() : 0;
-        // Anchored on the owner's today, never on the day just written. These scalars mean
-        // "as of now": recomputing against a back-dated edit would walk back from that day
-        // and report the streak as it stood then, understating a user whose run reaches
-        // today, and it would stay understated until the next live check on that owner.
-        CheckProgress recomputed = CheckProgressCalculator.recompute(
-                history, UserDateResolver.today(owner), storedBestStreak);
-        if (progress != null) {
-            copyInto(recomputed, progress);
-        }
+        CheckProgress recomputed = rederive(owner, ownerType, ownerId, progress, day, before, null);
 
         log.debug("Cleared {} {} on {} — streak {}, record {}, total {}",
                 ownerType, ownerId, day,
@@ -170,6 +148,35 @@ public class CheckDayRecorder {
         return recomputed;
     }
 
+    /**
+     * The owner's scalars after one day went from {@code before} to {@code after}, copied
+     * onto {@code progress} when there is one.
+     *
+     * <p>Anchored on the owner's today, never on the day just written. These scalars mean
+     * "as of now": recomputing against a back-dated edit would walk back from that day and
+     * report the streak as it stood then, understating a user whose run reaches today, and
+     * it would stay understated until the next live check on that owner.
+     *
+     * <p>The stored scalars plus the change are enough ({@link CheckProgressDelta}); the
+     * whole history is only read when there are no stored scalars to start from, or when
+     * they cannot be trusted as a starting point.
+     */
+    private CheckProgress rederive(User owner, CheckDayOwnerType ownerType, UUID ownerId,
+                                   CheckProgress progress, LocalDate day,
+                                   CheckDayOutcome before, CheckDayOutcome after) {
+        LocalDate today = UserDateResolver.today(owner);
+        CheckProgressDelta.History history = CheckProgressDelta.history(entityCheckDayRepository, ownerType, ownerId);
+        CheckProgress recomputed = CheckProgressDelta.canApply(progress, day, today, history)
+                ? CheckProgressDelta.apply(progress, day, before, after, today, history)
+                : CheckProgressCalculator.recompute(
+                        entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(ownerType, ownerId),
+                        today, progress != null ? progress.getBestStreak() : 0);
+        if (progress != null) {
+            copyInto(recomputed, progress);
+        }
+        return recomputed;
+    }
+
     /**
      * User first, then the entity. The keys and the order both come from
      * {@link CheckOwnerLock}, which {@code DayCloseService} shares: two writers deriving
@@ -1,6 +1,8 @@
 package beyou.beyouapp.backend.domain.checkday;
 
+import java.util.Collection;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * The transaction-scoped advisory lock every writer of an owner's {@code CheckProgress}
@@ -45,6 +47,33 @@ public final class CheckOwnerLock {
         }
     }
 
+    /**
+     * The account keys of a whole batch of users, in one statement — the bulk day-close's
+     * half of the protocol.
+     *
+     * <p>Holding a user's key is enough to exclude every other writer of that user's
+     * owners, because every writer takes the user's key <em>first</em> and then exactly one
+     * owner key; none ever waits on an owner key while holding nothing. The owner keys
+     * therefore add nothing for a writer that holds the user's, and skipping them is what
+     * keeps the batch at one round trip instead of one per habit.
+     *
+     * <p>Taken in ascending key order. Every writer other than the batch holds at most one
+     * user key, so no ordering can deadlock against them; the order only matters between
+     * two batches that overlap, which sorting makes impossible to interleave badly.
+     */
+    public static void takeUsers(EntityCheckDayRepository repository, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String keys = userIds.stream()
+                .map(CheckOwnerLock::lockObject)
+                .distinct()
+                .sorted()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+        repository.lockCheckOwners(lockClass(CheckDayOwnerType.USER), keys);
+    }
+
     /**
      * The lock's first key. {@code String.hashCode} rather than {@code ordinal()} on
      * purpose: the value has to stay the same across two application versions running side
@@ -0,0 +1,206 @@
+package beyou.beyouapp.backend.domain.checkday;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import beyou.beyouapp.backend.domain.common.CheckProgress;
+
+/**
+ * Moves an owner's {@link CheckProgress} across a single day's change, reading only the
+ * handful of rows that change can affect.
+ *
+ * <p>{@link CheckProgressCalculator#recompute} derives every scalar from the whole history,
+ * which is a read of every row the owner has ever had — thousands for a habit held for
+ * years, on every click and on every nightly close. This class produces the same scalars
+ * (KTD16 still holds: they are the derivation, not a tally anyone nudges) from the scalars
+ * already stored plus the one day that changed, under one precondition: the stored scalars
+ * are the derivation of the rows as they stood before the change. Every writer of
+ * {@code entity_check_day} goes through this class or the full recompute, under the owner
+ * lock, so that holds by construction; {@link #canApply} turns away the one shape it
+ * cannot vouch for.
+ *
+ * <p>The streak is the only scalar with real arithmetic in it. Read from the calculator's
+ * walk, it is the number of {@code DONE} days after the latest {@code MISSED} on or before
+ * today — the missing-row and neutral days the walk steps over count for nothing either
+ * way, and the earliest-row floor only stops a walk that would count nothing further. So:
+ * <ul>
+ *   <li>a day after today is outside the walk entirely;</li>
+ *   <li>a change between non-{@code MISSED} outcomes only moves the count, and only when
+ *       the day lies after the latest {@code MISSED} — today always does;</li>
+ *   <li>a {@code MISSED} appearing or disappearing moves the break itself, and only then is
+ *       the window from the new break to today counted again, in the database.</li>
+ * </ul>
+ *
+ * <p>Static rather than a bean, like the calculator it mirrors. The reads go through
+ * {@link History}, so the property test can run it against an in-memory table.
+ */
+public final class CheckProgressDelta {
+
+    private CheckProgressDelta() {}
+
+    /**
+     * The owner-scoped reads the delta may need, each answered from the history <em>after</em>
+     * the change has been written. Every one is a bounded index probe or a count on
+     * {@code uk_entity_check_day_owner_day}; none materialises the history.
+     */
+    public interface History {
+
+        /** The latest day strictly before {@code day} carrying {@code outcome}, or null. */
+        LocalDate latestBefore(CheckDayOutcome outcome, LocalDate day);
+
+        /** The earliest day strictly after {@code day} carrying {@code outcome}, or null. */
+        LocalDate earliestAfter(CheckDayOutcome outcome, LocalDate day);
+
+        /** {@code DONE} days in {@code (after, through]}; a null {@code after} is unbounded. */
+        int countDone(LocalDate after, LocalDate through);
+
+        /** Whether any row, of any outcome, lies strictly after {@code day}. */
+        boolean anyAfter(LocalDate day);
+    }
+
+    /** {@link History} over one owner's rows in {@code entity_check_day}. */
+    public static History history(EntityCheckDayRepository repository, CheckDayOwnerType ownerType,
+                                  UUID ownerId) {
+        return new History() {
+            @Override
+            public LocalDate latestBefore(CheckDayOutcome outcome, LocalDate day) {
+                return repository
+                        .findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanOrderByDayDesc(
+                                ownerType, ownerId, outcome, day)
+                        .map(EntityCheckDay::getDay)
+                        .orElse(null);
+            }
+
+            @Override
+            public LocalDate earliestAfter(CheckDayOutcome outcome, LocalDate day) {
+                return repository
+                        .findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanOrderByDayAsc(
+                                ownerType, ownerId, outcome, day)
+                        .map(EntityCheckDay::getDay)
+                        .orElse(null);
+            }
+
+            @Override
+            public int countDone(LocalDate after, LocalDate through) {
+                long count = after == null
+                        ? repository.countByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanEqual(
+                                ownerType, ownerId, CheckDayOutcome.DONE, through)
+                        : repository.countByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanAndDayLessThanEqual(
+                                ownerType, ownerId, CheckDayOutcome.DONE, after, through);
+                return Math.toIntExact(count);
+            }
+
+            @Override
+            public boolean anyAfter(LocalDate day) {
+                return repository.existsByOwnerTypeAndOwnerIdAndDayGreaterThan(ownerType, ownerId, day);
+            }
+        };
+    }
+
+    /**
+     * Whether {@code previous} can be trusted as the starting point for changing {@code day}.
+     *
+     * <p>The stored scalars are only the derivation of the rows against <em>this</em> today.
+     * When the account moves to a zone behind the one it checked in from, they were derived
+     * against a later today: a check-in, a {@code MISSED} or any other row may sit between
+     * the two, counted by the stored streak or breaking it, where the walk from today no
+     * longer reaches. Any of those shows as a row after today — the last check-in is just
+     * one of them — and a change to a day after today may have removed the only such row.
+     * Either way the caller takes the full recompute, until the owner's today catches up
+     * with the rows, and is back on the delta after.
+     */
+    public static boolean canApply(CheckProgress previous, LocalDate day, LocalDate today, History history) {
+        if (previous == null || today == null) {
+            return false;
+        }
+        LocalDate lastCheckIn = previous.getLastCheckInDate();
+        if (lastCheckIn != null && lastCheckIn.isAfter(today)) {
+            return false;
+        }
+        return !day.isAfter(today) && !history.anyAfter(today);
+    }
+
+    /**
+     * The scalars after {@code day} went from {@code before} to {@code after}.
+     *
+     * @param previous the stored scalars, derived from the history before the change.
+     *                 Not mutated.
+     * @param before   the day's outcome before the change; null when it had no row
+     * @param after    the day's outcome after it; null when the row was removed
+     * @param today    the owner's today — the reference the streak is counted back from,
+     *                 same contract as {@link CheckProgressCalculator#recompute}
+     * @param history  the owner's rows as they stand after the change
+     */
+    public static CheckProgress apply(CheckProgress previous, LocalDate day,
+                                      CheckDayOutcome before, CheckDayOutcome after,
+                                      LocalDate today, History history) {
+        boolean wasDone = before == CheckDayOutcome.DONE;
+        boolean isDone = after == CheckDayOutcome.DONE;
+
+        CheckProgress next = new CheckProgress();
+        next.setTotalCheckIns(previous.getTotalCheckIns() + (isDone ? 1 : 0) - (wasDone ? 1 : 0));
+
+        LocalDate first = previous.getFirstCheckInDate();
+        LocalDate last = previous.getLastCheckInDate();
+        if (isDone && !wasDone) {
+            first = first == null || day.isBefore(first) ? day : first;
+            last = last == null || day.isAfter(last) ? day : last;
+        } else if (wasDone && !isDone) {
+            // Only losing an extreme needs a read, and then only the neighbouring DONE.
+            if (day.equals(first)) {
+                first = history.earliestAfter(CheckDayOutcome.DONE, day);
+            }
+            if (day.equals(last)) {
+                last = history.latestBefore(CheckDayOutcome.DONE, day);
+            }
+        }
+        next.setFirstCheckInDate(first);
+        next.setLastCheckInDate(last);
+
+        int streak = currentStreak(previous.getCurrentStreak(), day, before, after, today, history);
+        next.setCurrentStreak(streak);
+        // R13 — the record is the running maximum, never the latest value.
+        next.setBestStreak(Math.max(Math.max(previous.getBestStreak(), 0), streak));
+        return next;
+    }
+
+    private static int currentStreak(int previous, LocalDate day,
+                                     CheckDayOutcome before, CheckDayOutcome after,
+                                     LocalDate today, History history) {
+        if (before == after || day.isAfter(today)) {
+            return previous;
+        }
+        int delta = (after == CheckDayOutcome.DONE ? 1 : 0) - (before == CheckDayOutcome.DONE ? 1 : 0);
+        boolean wasMissed = before == CheckDayOutcome.MISSED;
+        boolean isMissed = after == CheckDayOutcome.MISSED;
+
+        if (!wasMissed && !isMissed) {
+            if (delta == 0) {
+                return previous;
+            }
+            // Today is always inside the current run — a run can only end at a MISSED, and
+            // today's row is not one — so the live check needs no read at all.
+            if (day.equals(today)) {
+                return previous + delta;
+            }
+            LocalDate breakDay = latestMissedThrough(today, history);
+            return breakDay == null || day.isAfter(breakDay) ? previous + delta : previous;
+        }
+
+        if (isMissed && day.equals(today)) {
+            return 0;
+        }
+        // A break appeared or went away. When the latest break through today is still
+        // somewhere after this day, the change sits behind it and the run is untouched;
+        // otherwise the run now starts after a different day and is counted afresh.
+        LocalDate breakDay = latestMissedThrough(today, history);
+        if (breakDay != null && breakDay.isAfter(day)) {
+            return previous;
+        }
+        return history.countDone(breakDay, today);
+    }
+
+    private static LocalDate latestMissedThrough(LocalDate today, History history) {
+        return history.latestBefore(CheckDayOutcome.MISSED, today.plusDays(1));
+    }
+}
@@ -2,10 +2,17 @@ package beyou.beyouapp.backend.domain.checkday;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,8 +22,8 @@ import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
 import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.habit.HabitRepository;
-import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver;
-import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.schedule.RoutineMembershipIndex;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.domain.task.Task;
 import beyou.beyouapp.backend.domain.task.TaskRepository;
@@ -81,6 +88,14 @@ import lombok.extern.slf4j.Slf4j;
  * snapshot, so a pass that re-derived presence from them would see an empty day and write
  * {@code MISSED} over a real {@code DONE}. The {@code entity_check_day} rows the request
  * path already wrote are the only presence evidence consulted.
+ *
+ * <p><strong>Two ways in.</strong> {@link #closeDay} closes one user in Java, a lock pair
+ * and a statement per owner. {@link #closeDays} closes a whole batch of users that share a
+ * closing day set-based: the decision above is expressed once in SQL over the batch, the
+ * rows land through one {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING}, and only the
+ * owners that statement returns have their scalars moved. Both apply the same rules and
+ * produce the same rows; the per-user path is kept as the fallback and as the reference the
+ * bulk one is tested against.
  */
 @Service
 @Slf4j
@@ -101,6 +116,90 @@ public class DayCloseService {
             ON CONFLICT ON CONSTRAINT uk_entity_check_day_owner_day DO NOTHING
             """;
 
+    /**
+     * {@link #closeDay}'s whole decision for a batch of users, as one statement.
+     *
+     * <p>Read top to bottom it is the Java path: {@code routine_on_day} is
+     * {@code ScheduledOnDayResolver.coversDay} for every routine of the batch, the two
+     * {@code *_standing} CTEs are its OR across the routines holding an item, and the CASE
+     * arms are {@code absenceOutcome} and {@link #presenceOutcome}. The owner floor is
+     * {@code existsFrom}, applied as leniently as {@link #toLocalDate} explains. The
+     * {@code NOT EXISTS} is the diff against rows already recorded; the conflict clause
+     * still guards the race the diff cannot see.
+     *
+     * <p>{@code RETURNING} reports exactly the rows that landed, which is the only set whose
+     * scalars need to move. Ids come back as text for the same reason they go in as text.
+     */
+    private static final String INSERT_MISSING_FOR_BATCH = """
+            WITH batch AS (
+                SELECT u.id, u.created_at, u.completed_days
+                FROM users u
+                WHERE u.id = ANY(CAST(:userIds AS uuid[]))
+            ),
+            routine_on_day AS (
+                SELECT r.id, r.user_id,
+                       COALESCE(s.days_mask & :dayBit, 0) <> 0 AS scheduled
+                FROM routines r
+                JOIN batch b ON b.id = r.user_id
+                LEFT JOIN schedules s ON s.id = r.schedule_id
+            ),
+            habit_standing AS (
+                SELECT hg.habit_id AS owner_id, bool_or(r.scheduled) AS scheduled
+                FROM routine_on_day r
+                JOIN routine_sections rs ON rs.routine_id = r.id
+                JOIN routine_sections_habit_groups rshg ON rshg.routine_section_id = rs.id
+                JOIN habit_groups hg ON hg.id = rshg.habit_groups_id
+                GROUP BY hg.habit_id
+            ),
+            task_standing AS (
+                SELECT tg.task_id AS owner_id, bool_or(r.scheduled) AS scheduled
+                FROM routine_on_day r
+                JOIN routine_sections rs ON rs.routine_id = r.id
+                JOIN routine_sections_task_groups rstg ON rstg.routine_section_id = rs.id
+                JOIN task_groups tg ON tg.id = rstg.task_groups_id
+                GROUP BY tg.task_id
+            ),
+            candidate AS (
+                SELECT h.user_id, 'HABIT' AS owner_type, h.id AS owner_id,
+                       CASE WHEN s.owner_id IS NULL THEN 'NOT_IN_ROUTINE'
+                            WHEN s.scheduled THEN 'MISSED'
+                            ELSE 'NOT_SCHEDULED' END AS outcome
+                FROM habits h
+                JOIN batch b ON b.id = h.user_id
+                LEFT JOIN habit_standing s ON s.owner_id = h.id
+                WHERE h.created_at <= CAST(:day AS date)
+                UNION ALL
+                SELECT t.user_id, 'TASK', t.id,
+                       CASE WHEN s.owner_id IS NULL THEN 'NOT_IN_ROUTINE'
+                            WHEN s.scheduled THEN 'MISSED'
+                            ELSE 'NOT_SCHEDULED' END
+                FROM tasks t
+                JOIN batch b ON b.id = t.user_id
+                LEFT JOIN task_standing s ON s.owner_id = t.id
+                WHERE NOT t.one_time_task AND t.created_at <= CAST(:day AS date)
+                UNION ALL
+                SELECT b.id, 'USER', b.id,
+                       CASE WHEN CAST(:day AS date) = ANY(b.completed_days) THEN 'DONE'
+                            WHEN EXISTS (SELECT 1 FROM entity_check_day e
+                                         WHERE e.user_id = b.id AND e.day = CAST(:day AS date)
+                                           AND e.outcome = 'SKIPPED' AND e.owner_type <> 'USER') THEN 'SKIPPED'
+                            WHEN NOT EXISTS (SELECT 1 FROM routine_on_day r WHERE r.user_id = b.id) THEN 'NOT_IN_ROUTINE'
+                            WHEN EXISTS (SELECT 1 FROM routine_on_day r
+                                         WHERE r.user_id = b.id AND r.scheduled) THEN 'MISSED'
+                            ELSE 'NOT_SCHEDULED' END
+                FROM batch b
+                WHERE b.created_at IS NULL OR b.created_at <= CAST(:day AS date)
+            )
+            INSERT INTO entity_check_day (id, user_id, owner_type, owner_id, day, outcome)
+            SELECT gen_random_uuid(), c.user_id, c.owner_type, c.owner_id, CAST(:day AS date), c.outcome
+            FROM candidate c
+            WHERE NOT EXISTS (SELECT 1 FROM entity_check_day e
+                              WHERE e.owner_type = c.owner_type AND e.owner_id = c.owner_id
+                                AND e.day = CAST(:day AS date))
+            ON CONFLICT ON CONSTRAINT uk_entity_check_day_owner_day DO NOTHING
+            RETURNING CAST(user_id AS text), owner_type, CAST(owner_id AS text), outcome
+            """;
+
     private final EntityCheckDayRepository entityCheckDayRepository;
     private final HabitRepository habitRepository;
     private final TaskRepository taskRepository;
@@ -115,9 +214,10 @@ public class DayCloseService {
      * in two routines is one owner and gets exactly one row, and its standing is judged
      * against every routine the user owns at once.
      *
-     * @param account the user whose day is closing. Reloaded here because the scheduler
-     *                lists users outside a transaction and hands over a detached instance —
-     *                mutating a detached {@code CheckProgress} would never reach the database.
+     * @param account the user whose day is closing; only its id is read. Reloaded here
+     *                because the scheduler pages user ids outside a transaction and hands
+     *                over a bare reference — and mutating a detached {@code CheckProgress}
+     *                would never reach the database anyway.
      * @param day     the day being closed, already resolved in that user's timezone (R15).
      * @return how many rows were inserted. Zero means the day was already fully accounted
      *         for, which is the normal result of a second run.
@@ -137,7 +237,9 @@ public class DayCloseService {
             return 0;
         }
 
-        List<DiaryRoutine> routines = diaryRoutineRepository.findAllByUserId(user.getId());
+        // Walked once here; every owner's standing below is then a lookup.
+        RoutineMembershipIndex routines =
+                RoutineMembershipIndex.of(diaryRoutineRepository.findAllByUserId(user.getId()));
 
         // One read for the whole user-day, then a diff in memory. Asking per owner would be
         // an N+1 over every entity of every user, every night.
@@ -166,8 +268,8 @@ public class DayCloseService {
 
         if (written > 0) {
             // The pass runs with no request behind it, so nothing else will drop this user's
-            // reads. Only the user-scoped caches: the shared `routine` cache is cleared once
-            // by the caller when the whole batch ends, not once per user.
+            // reads — the shared `routine` cache included, which is scoped per user by its
+            // generations.
             userCacheEvictService.evictUserScopedCaches(user.getId());
         }
 
@@ -175,19 +277,134 @@ public class DayCloseService {
         return written;
     }
 
+    /**
+     * What one {@link #closeDays} batch did: rows inserted, and the users that received at
+     * least one — the ones whose caches were dropped.
+     */
+    public record BatchOutcome(int rowsWritten, Set<UUID> usersChanged) {
+
+        static final BatchOutcome NOTHING = new BatchOutcome(0, Set.of());
+    }
+
+    /**
+     * {@link #closeDay} for a whole batch of users that share {@code day}, set-based: one
+     * lock statement, one insert, then a scalar update for each owner that got a row.
+     *
+     * <p>The round trips no longer scale with owners. The per-user path costs two lock
+     * calls, an insert and the delta's reads per habit, plus the loads; here the lock, the
+     * decision and the write are a statement each for the batch, and the only per-owner work
+     * left is the delta on owners that received a row — a {@code NOT_SCHEDULED} or
+     * {@code NOT_IN_ROUTINE} night reads nothing, a {@code MISSED} one two index probes.
+     *
+     * <p>Locking takes the account keys only, all of them before the insert
+     * ({@link CheckOwnerLock#takeUsers}). The trade against the per-user path is that the
+     * batch holds its users' keys until it commits, so a check for one of them waits for the
+     * whole batch rather than for that user's close. The wait is one batch transaction: the
+     * insert, one load per owner type, and at most two index probes for each owner that got
+     * a row — scaling with the batch, which is why the caller keeps it small
+     * ({@code snapshot.scheduler.close-batch-size}, 50 users) rather than a whole page.
+     *
+     * <p>One transaction for the batch means one failure rolls back the batch. The caller
+     * is expected to retry those users one at a time through {@link #closeDay}, which keeps
+     * the failure to the one account it belongs to.
+     *
+     * @param userIds the accounts to close, all in timezones where {@code day} has ended
+     * @param day     the day being closed (R15)
+     */
+    @Transactional
+    public BatchOutcome closeDays(Collection<UUID> userIds, LocalDate day) {
+        if (userIds == null) {
+            throw new IllegalArgumentException("Closing days needs the users to close them for");
+        }
+        if (day == null) {
+            throw new IllegalArgumentException("Closing a day needs the day to close");
+        }
+        if (userIds.isEmpty()) {
+            return BatchOutcome.NOTHING;
+        }
+
+        CheckOwnerLock.takeUsers(entityCheckDayRepository, userIds);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> inserted = entityManager.createNativeQuery(INSERT_MISSING_FOR_BATCH)
+                .setParameter("userIds", userIds.stream()
+                        .map(UUID::toString)
+                        .collect(Collectors.joining(",", "{", "}")))
+                .setParameter("day", day.toString())
+                .setParameter("dayBit", WeekDay.bitOf(day))
+                .getResultList();
+        if (inserted.isEmpty()) {
+            log.info("Closed day {} for {} users — nothing missing", day, userIds.size());
+            return BatchOutcome.NOTHING;
+        }
+
+        List<InsertedRow> rows = inserted.stream()
+                .map(InsertedRow::of)
+                .sorted(Comparator.comparing(InsertedRow::userId).thenComparing(InsertedRow::ownerId))
+                .toList();
+        Map<UUID, User> users = usersById(rows);
+        Map<UUID, CheckProgress> progressByOwner = progressOf(rows, users);
+
+        Set<UUID> usersChanged = new LinkedHashSet<>();
+        for (InsertedRow row : rows) {
+            User user = users.get(row.userId());
+            // Loaded after the locks, so these scalars are the committed ones — the same
+            // read-after-lock the per-user path gets by locking before it loads anything.
+            advance(progressByOwner.get(row.ownerId()), row.ownerType(), row.ownerId(), day,
+                    row.outcome(), UserDateResolver.today(user));
+            if (row.ownerType() == CheckDayOwnerType.USER) {
+                moveStreakState(user, day, row.outcome(), UserDateResolver.today(user));
+            }
+            usersChanged.add(row.userId());
+        }
+        usersChanged.forEach(userCacheEvictService::evictUserScopedCaches);
+
+        log.info("Closed day {} for {} users — {} rows written for {} of them",
+                day, userIds.size(), rows.size(), usersChanged.size());
+        return new BatchOutcome(rows.size(), usersChanged);
+    }
+
+    /** The scalars of every owner that got a row, keyed by owner id — a load per owner type. */
+    private Map<UUID, CheckProgress> progressOf(List<InsertedRow> rows, Map<UUID, User> users) {
+        Map<UUID, CheckProgress> progress = new HashMap<>();
+        habitRepository.findAllById(idsOf(rows, CheckDayOwnerType.HABIT))
+                .forEach(habit -> progress.put(habit.getId(), habit.getCheckProgress()));
+        taskRepository.findAllById(idsOf(rows, CheckDayOwnerType.TASK))
+                .forEach(task -> progress.put(task.getId(), task.getCheckProgress()));
+        users.values().forEach(user -> progress.put(user.getId(), user.getCheckProgress()));
+        return progress;
+    }
+
+    /**
+     * Every account that got a row, in one load — the account row carries its own scalars
+     * and the timezone the delta's today is resolved in.
+     */
+    private Map<UUID, User> usersById(List<InsertedRow> rows) {
+        Set<UUID> ids = rows.stream().map(InsertedRow::userId).collect(Collectors.toSet());
+        return entityManager.createQuery("SELECT u FROM User u WHERE u.id IN :ids", User.class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private static List<UUID> idsOf(List<InsertedRow> rows, CheckDayOwnerType type) {
+        return rows.stream().filter(row -> row.ownerType() == type).map(InsertedRow::ownerId).toList();
+    }
+
     /**
      * Stamps one owner's outcome for the day and re-derives its scalars.
      *
-     * <p>The history is read before the insert and the new row appended in memory, so the
-     * recompute needs one query per owner written rather than a second read-back. The read
-     * is exact: the diff proved this owner has no row for the day, and the calculator keys
-     * rows by day anyway, so a duplicate could not double-count.
+     * <p>The scalars move by the one row inserted ({@link CheckProgressDelta}) rather than
+     * being re-derived from the owner's whole history: a {@code NOT_SCHEDULED} or
+     * {@code SKIPPED} night costs no read at all, and a {@code MISSED} one a count over the
+     * single day between it and today. The insert is a native statement, so the delta's
+     * JPQL reads run after it and see the row.
      *
      * @return whether a row was actually inserted. {@code false} means another writer got
      *         there first, in which case that writer owns the scalars too.
      */
     private boolean closeOwnerDay(User user, Owner owner, LocalDate day,
-                                  List<DiaryRoutine> routines, LocalDate today,
+                                  RoutineMembershipIndex routines, LocalDate today,
                                   boolean skippedSomething) {
         // Before the history read, not after: the read is the first half of a read-modify-
         // write over this owner's scalars, and a check committing between the two is exactly
@@ -202,26 +419,18 @@ public class DayCloseService {
             // ended in this user's timezone, which is the whole reason MISSED can be stamped
             // here and not on the uncheck path.
             outcome = CheckDayRecorder.absenceOutcome(
-                    ScheduledOnDayResolver.standingOf(owner.type(), owner.id(), routines, day), true);
+                    routines.standingOf(owner.type(), owner.id(), day), true);
         }
 
-        List<EntityCheckDay> history = new ArrayList<>(entityCheckDayRepository
-                .findByOwnerTypeAndOwnerIdOrderByDayAsc(owner.type(), owner.id()));
-
         if (insertIfAbsent(user, owner, day, outcome) == 0) {
             log.debug("A row for {} {} on {} appeared while the day was closing — left alone",
                     owner.type(), owner.id(), day);
             return false;
         }
-        history.add(new EntityCheckDay(user, owner.type(), owner.id(), day, outcome));
 
-        CheckProgress progress = owner.progress();
-        // Anchored on the user's today, not on the day just closed — same contract as
-        // CheckDayRecorder. These scalars mean "as of now".
-        CheckProgress recomputed = CheckProgressCalculator.recompute(
-                history, today, progress != null ? progress.getBestStreak() : 0);
-        if (progress != null) {
-            copyInto(recomputed, progress);
+        CheckProgress recomputed = advance(owner.progress(), owner.type(), owner.id(), day, outcome, today);
+        if (owner.type() == CheckDayOwnerType.USER) {
+            moveStreakState(user, day, outcome, today);
         }
 
         log.debug("Closed {} {} on {} as {} — streak {}, total {}",
@@ -230,6 +439,39 @@ public class DayCloseService {
         return true;
     }
 
+    /**
+     * Moves one owner's scalars by the row just inserted for {@code day}, and copies them
+     * onto {@code progress} when there is one.
+     *
+     * <p>Anchored on the user's today, not on the day just closed — same contract as
+     * {@link CheckDayRecorder}. These scalars mean "as of now". The row did not exist before
+     * the insert, so the change is "nothing" to {@code outcome}.
+     */
+    private CheckProgress advance(CheckProgress progress, CheckDayOwnerType ownerType, UUID ownerId,
+                                  LocalDate day, CheckDayOutcome outcome, LocalDate today) {
+        CheckProgressDelta.History history = CheckProgressDelta.history(entityCheckDayRepository, ownerType, ownerId);
+        CheckProgress recomputed = CheckProgressDelta.canApply(progress, day, today, history)
+                ? CheckProgressDelta.apply(progress, day, null, outcome, today, history)
+                : CheckProgressCalculator.recompute(
+                        entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(ownerType, ownerId),
+                        today, progress != null ? progress.getBestStreak() : 0);
+        if (progress != null) {
+            copyInto(recomputed, progress);
+        }
+        return recomputed;
+    }
+
+    /**
+     * The account row just landed, so the stored streak follows it — the one writer of
+     * that state outside the check path. Same user entity the row was decided against, so
+     * the completed days it reads are the ones {@link #presenceOutcome} saw.
+     */
+    private static void moveStreakState(User user, LocalDate day, CheckDayOutcome outcome, LocalDate today) {
+        if (user.getStreakState() != null) {
+            user.getStreakState().dayClosed(day, outcome, user.getCompletedDays(), today);
+        }
+    }
+
     /**
      * The presence outcome for an owner that finished the day having actually done
      * something, or {@code null} when the caller should fall through to an absence.
@@ -360,4 +602,16 @@ public class DayCloseService {
 
     /** The half of {@code uk_entity_check_day_owner_day} that identifies an owner. */
     private record OwnerKey(CheckDayOwnerType type, UUID id) {}
+
+    /** One row of the batch insert's {@code RETURNING}. */
+    private record InsertedRow(UUID userId, CheckDayOwnerType ownerType, UUID ownerId, CheckDayOutcome outcome) {
+
+        static InsertedRow of(Object[] columns) {
+            return new InsertedRow(
+                    UUID.fromString((String) columns[0]),
+                    CheckDayOwnerType.valueOf((String) columns[1]),
+                    UUID.fromString((String) columns[2]),
+                    CheckDayOutcome.valueOf((String) columns[3]));
+        }
+    }
 }
@@ -1,14 +1,21 @@
 package beyou.beyouapp.backend.domain.checkday;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 /**
  * Reads and deletes over the per-day outcome history.
  *
@@ -45,7 +52,9 @@ public interface EntityCheckDayRepository extends JpaRepository<EntityCheckDay,
             UUID userId, CheckDayOwnerType ownerType, UUID ownerId, LocalDate from, LocalDate to);
 
     /**
-     * One entity's entire history, oldest first — the read a recompute needs.
+     * One entity's entire history, oldest first — the read a full recompute needs. The
+     * write paths only fall back to it when {@link CheckProgressDelta} cannot vouch for the
+     * stored scalars; day to day they read the few rows the change touches.
      *
      * <p>Deliberately unbounded. Every scalar the calculator derives is a function of the
      * whole history: the lifetime count, the first and last check-in dates, and a streak
@@ -57,6 +66,54 @@ public interface EntityCheckDayRepository extends JpaRepository<EntityCheckDay,
     List<EntityCheckDay> findByOwnerTypeAndOwnerIdOrderByDayAsc(
             CheckDayOwnerType ownerType, UUID ownerId);
 
+    /**
+     * {@link #findByOwnerTypeAndOwnerIdOrderByDayAsc} for a page of owners at once, for
+     * {@code UserStreakService.verifyAndRepair}. The caller groups by owner.
+     */
+    List<EntityCheckDay> findByOwnerTypeAndOwnerIdInOrderByDayAsc(
+            CheckDayOwnerType ownerType, Collection<UUID> ownerIds);
+
+    /**
+     * One owner's row for one day, if it has one — the "before" side of the change
+     * {@link CheckProgressDelta} applies. A point lookup on the unique key.
+     */
+    Optional<EntityCheckDay> findByOwnerTypeAndOwnerIdAndDay(
+            CheckDayOwnerType ownerType, UUID ownerId, LocalDate day);
+
+    /**
+     * The owner's nearest row with {@code outcome} before {@code day}. A backward range
+     * scan on {@code uk_entity_check_day_owner_day} that stops at the first match — the
+     * previous check-in when the last one is taken away, the latest {@code MISSED} when a
+     * back-dated edit needs to know whether it is inside the current run.
+     */
+    Optional<EntityCheckDay> findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanOrderByDayDesc(
+            CheckDayOwnerType ownerType, UUID ownerId, CheckDayOutcome outcome, LocalDate day);
+
+    /** The same scan forwards, for the first check-in when it is taken away. */
+    Optional<EntityCheckDay> findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanOrderByDayAsc(
+            CheckDayOwnerType ownerType, UUID ownerId, CheckDayOutcome outcome, LocalDate day);
+
+    /**
+     * How many of the owner's days in {@code (after, through]} carry {@code outcome} — the
+     * current run re-counted when a {@code MISSED} moves its start. Counted in the database
+     * over the index range, so the rows never leave it.
+     */
+    long countByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanAndDayLessThanEqual(
+            CheckDayOwnerType ownerType, UUID ownerId, CheckDayOutcome outcome,
+            LocalDate after, LocalDate through);
+
+    /** The same with no lower bound, for an owner that has never missed a day. */
+    long countByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanEqual(
+            CheckDayOwnerType ownerType, UUID ownerId, CheckDayOutcome outcome, LocalDate through);
+
+    /**
+     * Whether the owner has any row after {@code day}, of any outcome — the sign that the
+     * stored scalars were derived against a later today than the owner's current one.
+     * A single index probe past {@code day}.
+     */
+    boolean existsByOwnerTypeAndOwnerIdAndDayGreaterThan(
+            CheckDayOwnerType ownerType, UUID ownerId, LocalDate day);
+
     /**
      * Takes a transaction-scoped advisory lock on one owner (KTD26).
      *
@@ -73,6 +130,22 @@ public interface EntityCheckDayRepository extends JpaRepository<EntityCheckDay,
             nativeQuery = true)
     void lockCheckOwner(@Param("classId") int classId, @Param("objectId") int objectId);
 
+    /**
+     * {@link #lockCheckOwner} for many keys of one class in a single round trip, taken in
+     * the order given. The keys travel as one {@code integer[]} literal (text, cast in SQL,
+     * like every other parameter here); the sort on the ordinality is what fixes the
+     * acquisition order, since Postgres evaluates a volatile select-list function after
+     * the sort. Returns how many locks were taken.
+     */
+    @Query(value = """
+            SELECT count(*) FROM (
+                SELECT pg_advisory_xact_lock(CAST(:classId AS integer), k.object_id)
+                FROM unnest(CAST(:objectIds AS integer[])) WITH ORDINALITY AS k(object_id, position)
+                ORDER BY k.position
+            ) locked
+            """, nativeQuery = true)
+    long lockCheckOwners(@Param("classId") int classId, @Param("objectIds") String objectIds);
+
     /**
      * Everything already recorded for one user on one day.
      *
@@ -90,6 +163,24 @@ public interface EntityCheckDayRepository extends JpaRepository<EntityCheckDay,
     List<EntityCheckDay> findByUserIdAndDayBetweenOrderByDayAsc(
             UUID userId, LocalDate from, LocalDate to);
 
+    /**
+     * The same window as a cursor, one owner's days after another's, for the streaming
+     * export. Fetched {@code 500} rows at a time and read-only, so Hibernate keeps no
+     * snapshots; the caller still detaches each row once written, or the persistence
+     * context would end up holding the whole window anyway. Needs an open transaction
+     * for as long as the stream is read, and must be closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("""
+            SELECT d FROM EntityCheckDay d
+            WHERE d.user.id = :userId AND d.day BETWEEN :from AND :to
+            ORDER BY d.ownerType, d.ownerId, d.day
+            """)
+    Stream<EntityCheckDay> streamByUserIdAndDayBetween(@Param("userId") UUID userId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
     /**
      * Drops one entity's entire history, for the habit/task delete path (R8).
      *
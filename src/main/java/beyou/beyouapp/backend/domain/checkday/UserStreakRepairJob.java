@@ -0,0 +1,88 @@
+package beyou.beyouapp.backend.domain.checkday;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import beyou.beyouapp.backend.domain.checkday.UserStreakService.RepairOutcome;
+import beyou.beyouapp.backend.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Where the streak walk still runs: once a night, over every account, as the check on the
+ * stored {@link UserStreakState} the reads now answer from.
+ *
+ * <p>Two jobs in one pass. An account whose state was never built — everyone who predates
+ * V26 and has not checked anything since — gets it built from its history. An account
+ * whose state was built is compared with the walk over the same history, and rebuilt if
+ * the two disagree; that should never happen, so every repair is logged and counted under
+ * {@value #REPAIRED_METRIC}, and a non-zero rate means one of the writers moved the state
+ * wrong.
+ *
+ * <p>Pages of {@code streak.repair.page-size} ids in id order, each page its own
+ * transaction ({@link UserStreakService#verifyAndRepair}), so the pass never holds more
+ * than a page of accounts or their check locks at once.
+ */
+@Component
+@Slf4j
+public class UserStreakRepairJob {
+
+    public static final String BUILT_METRIC = "beyou.streak.state.built";
+    public static final String REPAIRED_METRIC = "beyou.streak.state.repaired";
+
+    private final UserRepository userRepository;
+    private final UserStreakService userStreakService;
+    private final int pageSize;
+    private final Counter built;
+    private final Counter repaired;
+
+    public UserStreakRepairJob(UserRepository userRepository, UserStreakService userStreakService,
+                               MeterRegistry meterRegistry,
+                               @Value("${streak.repair.page-size:500}") int pageSize) {
+        this.userRepository = userRepository;
+        this.userStreakService = userStreakService;
+        this.pageSize = Math.max(1, pageSize);
+        this.built = Counter.builder(BUILT_METRIC)
+                .description("Account streak states built from history for the first time")
+                .register(meterRegistry);
+        this.repaired = Counter.builder(REPAIRED_METRIC)
+                .description("Account streak states that disagreed with the walk and were rebuilt")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${streak.repair.cron:0 30 4 * * *}")
+    public void verifyAll() {
+        int accounts = 0;
+        int builtTotal = 0;
+        int repairedTotal = 0;
+        UUID after = UserRepository.FIRST_PAGE;
+        List<UserRepository.IdAndTimezone> page;
+        do {
+            page = userRepository.findIdsAndTimezonesAfter(after, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<UUID> ids = page.stream().map(UserRepository.IdAndTimezone::getId).toList();
+            try {
+                RepairOutcome outcome = userStreakService.verifyAndRepair(ids);
+                builtTotal += outcome.built();
+                repairedTotal += outcome.repaired();
+                built.increment(outcome.built());
+                repaired.increment(outcome.repaired());
+            } catch (RuntimeException e) {
+                // One bad page must not stop the pass; the next night retries it.
+                log.error("Streak verification failed for {} accounts after {}", ids.size(), after, e);
+            }
+            accounts += ids.size();
+            after = ids.get(ids.size() - 1);
+        } while (page.size() == pageSize);
+
+        log.info("Streak verification done — {} accounts, {} built, {} repaired",
+                accounts, builtTotal, repairedTotal);
+    }
+}
@@ -1,16 +1,23 @@
 package beyou.beyouapp.backend.domain.checkday;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * R14 — the account-wide streak, counted in <em>scheduled</em> days rather than calendar
@@ -42,12 +49,18 @@ import lombok.RequiredArgsConstructor;
  * read. Completion therefore still comes from {@code completedDays}, which is current the
  * instant a check commits; the rows answer the other half of the question below.
  *
+ * <p>The walk is no longer what a read of today pays for. {@link UserStreakState} keeps its
+ * answer on the account row, moved by the writers that can change it, and the walk runs
+ * only for a past reference day, an account whose state is not built yet, and nightly in
+ * {@link UserStreakRepairJob} as the state's verifier.
+ *
  * <p>Lives in {@code domain/checkday} rather than {@code user}: it reads the
  * {@code entity_check_day} table, sits beside the two other readers of it
  * ({@link CheckDayRecorder}, {@link CheckProgressCalculator}), and keeping it here spares
  * the {@code user} package a dependency on that repository — the package
  * {@code SecurityFilter} loads in full on every authenticated request.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserStreakService {
@@ -60,6 +73,7 @@ public class UserStreakService {
     public static final int DORMANT_AFTER_DAYS = 14;
 
     private final EntityCheckDayRepository entityCheckDayRepository;
+    private final UserRepository userRepository;
 
     /**
      * The account streak and whether it has gone quiet.
@@ -85,8 +99,10 @@ public class UserStreakService {
      * <p>Runs on the login path ({@code UserMapper}) and inside the check transaction
      * ({@code UserService.markDayCompleted}, {@code RefreshUiDtoBuilder}), so the read is
      * skipped entirely for an account with no completed days — a fresh user pays nothing.
-     * Otherwise it is one indexed prefix scan of that user's own rows, the same shape and
-     * cost as the recompute read {@link CheckDayRecorder} already does per check.
+     * From today onward it is answered off {@link UserStreakState}: no query, and no work
+     * that grows with the account's age. A past reference day, or an account whose state
+     * has not been built yet, still takes the walk — one indexed prefix scan of that user's
+     * own rows and a day-by-day pass back to the first completed day.
      *
      * @param referenceDay the day to count back from; {@code null} falls back to the
      *                     user's today rather than the server's.
@@ -99,12 +115,98 @@ public class UserStreakService {
         if (completedDays == null || completedDays.isEmpty()) {
             return UserStreak.NONE;
         }
-        LocalDate reference = referenceDay != null ? referenceDay : UserDateResolver.today(user);
-        List<EntityCheckDay> userRows = user.getId() == null
+        LocalDate today = UserDateResolver.today(user);
+        LocalDate reference = referenceDay != null ? referenceDay : today;
+        UserStreakState state = user.getStreakState();
+        if (state != null && state.answersFor(reference, today)) {
+            return state.streakAt(reference, completedDays);
+        }
+        return walk(completedDays, userRowsOf(user), reference);
+    }
+
+    /**
+     * {@code day} was just added to the account's completed days. Today moves the stored
+     * state by one; any other day, or an account with no state yet, rebuilds it — see
+     * {@link UserStreakState} for why a back-dated day cannot be followed incrementally.
+     */
+    public void dayCompleted(User user, LocalDate day) {
+        UserStreakState state = user.getStreakState();
+        if (state != null && state.isSynced() && day.equals(UserDateResolver.today(user))) {
+            state.dayCompleted(day);
+        } else {
+            rebuild(user);
+        }
+    }
+
+    /** {@code day} was just taken back out of the account's completed days. */
+    public void dayUncompleted(User user, LocalDate day) {
+        UserStreakState state = user.getStreakState();
+        if (state != null && state.isSynced() && day.equals(UserDateResolver.today(user))) {
+            state.dayUncompleted(day);
+        } else {
+            rebuild(user);
+        }
+    }
+
+    /** Builds the account's state from its history, replacing whatever was stored. */
+    public void rebuild(User user) {
+        user.setStreakState(UserStreakState.rebuild(user.getCompletedDays(), userRowsOf(user)));
+    }
+
+    /**
+     * Checks a page of accounts' stored state against the walk and rebuilds every one that
+     * disagrees or was never built — the walk's remaining job now that reads no longer
+     * take it.
+     *
+     * <p>Takes the accounts' check locks first, the same keys every writer of the state
+     * takes, so a check or a day-close cannot move a state between the read and the fix.
+     * The history comes in one query for the page rather than one per account.
+     */
+    @Transactional
+    public RepairOutcome verifyAndRepair(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return new RepairOutcome(0, 0);
+        }
+        CheckOwnerLock.takeUsers(entityCheckDayRepository, userIds);
+        Map<UUID, List<EntityCheckDay>> rowsByUser = entityCheckDayRepository
+                .findByOwnerTypeAndOwnerIdInOrderByDayAsc(CheckDayOwnerType.USER, userIds).stream()
+                .collect(Collectors.groupingBy(EntityCheckDay::getOwnerId));
+
+        int built = 0;
+        int repaired = 0;
+        for (User user : userRepository.findAllById(userIds)) {
+            List<EntityCheckDay> rows = rowsByUser.getOrDefault(user.getId(), List.of());
+            UserStreakState state = user.getStreakState();
+            if (state == null || !state.isSynced()) {
+                built++;
+            } else {
+                LocalDate today = UserDateResolver.today(user);
+                Set<LocalDate> completedDays = user.getCompletedDays();
+                UserStreak stored = completedDays == null || completedDays.isEmpty()
+                        ? UserStreak.NONE
+                        : state.streakAt(today, completedDays);
+                UserStreak walked = walk(completedDays, rows, today);
+                if (stored.equals(walked)) {
+                    continue;
+                }
+                log.warn("Streak state for user {} drifted: stored {}, walk {} — rebuilding",
+                        user.getId(), stored, walked);
+                repaired++;
+            }
+            user.setStreakState(UserStreakState.rebuild(user.getCompletedDays(), rows));
+        }
+        return new RepairOutcome(built, repaired);
+    }
+
+    /** What one {@link #verifyAndRepair} page did: states built for the first time, and fixed. */
+    public record RepairOutcome(int built, int repaired) {
+    }
+
+    private List<EntityCheckDay> userRowsOf(User user) {
+        return user.getId() == null
                 ? List.of()
                 : entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
                         CheckDayOwnerType.USER, user.getId());
-        return walk(completedDays, userRows, reference);
     }
 
     /**
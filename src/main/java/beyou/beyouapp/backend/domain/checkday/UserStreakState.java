@@ -0,0 +1,183 @@
+package beyou.beyouapp.backend.domain.checkday;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import beyou.beyouapp.backend.domain.checkday.UserStreakService.UserStreak;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The account streak as three stored scalars, so that "what is my streak today" stops
+ * costing a walk over the account's whole history (V26).
+ *
+ * <p>{@link UserStreakService#walk} counts completed days back from the reference day
+ * until the first day that was {@code MISSED} and not completed. When the reference day
+ * is today, every stored row and every completed day lies at or before it, so that walk
+ * always stops at the same place — the latest such day — and its answer is simply the
+ * number of completed days after it. Dormancy needs the latest day anything was asked of
+ * the account. Those are the three fields below; the walk's inputs only change through
+ * three writers, and each moves them as it writes:
+ * <ul>
+ *   <li>{@code UserService.markDayCompleted} / {@code unmarkDayComplete} for today —
+ *       {@link #dayCompleted} / {@link #dayUncompleted}. Any other day rebuilds instead:
+ *       a back-dated edit can land on a day already closed {@code MISSED}, which moves
+ *       the break itself, and only the history knows where it moves to;</li>
+ *   <li>{@code DayCloseService}, when it stamps the account's row — {@link #dayClosed}.</li>
+ * </ul>
+ *
+ * <p>{@code synced} is false until the state has been built from the history once
+ * ({@link #rebuild}). Until then nothing moves it and the read path keeps walking, which
+ * is how accounts that predate V26 — and a {@code User} built in memory — stay correct
+ * without a migration re-implementing the walk in SQL. {@code UserStreakRepairJob} builds
+ * it for everyone, and checks every built one against the walk.
+ *
+ * <p>{@code streak_count} and {@code streak_synced} are {@code NOT NULL}, which keeps
+ * Hibernate from ever materialising this embeddable as null — see {@code CheckProgress}.
+ */
+@Embeddable
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserStreakState {
+
+    /** Completed days after {@link #lastMissedDay} — the streak, as of today. */
+    @Column(name = "streak_count", nullable = false)
+    private int count = 0;
+
+    /** The latest day closed {@code MISSED} and not completed; null when there is none. */
+    @Column(name = "streak_last_missed_day")
+    private LocalDate lastMissedDay;
+
+    /** The latest day closed as anything but an absence of schedule — dormancy's input. */
+    @Column(name = "streak_last_scheduled_day")
+    private LocalDate lastScheduledDay;
+
+    /** Whether the three above have been built from the history yet. */
+    @Column(name = "streak_synced", nullable = false)
+    private boolean synced = false;
+
+    /**
+     * Whether this state can answer for {@code referenceDay}. Only from today onward: a
+     * past reference day has rows and completed days after it, which the count includes
+     * and the walk would not.
+     */
+    public boolean answersFor(LocalDate referenceDay, LocalDate today) {
+        return synced && referenceDay != null && today != null && !referenceDay.isBefore(today);
+    }
+
+    /**
+     * The streak for a reference day {@link #answersFor} accepts. Dormancy reads the
+     * completed days only inside its fourteen-day window, so the cost does not depend on
+     * how many there are.
+     */
+    public UserStreak streakAt(LocalDate referenceDay, Set<LocalDate> completedDays) {
+        if (count <= 0) {
+            return UserStreak.NONE;
+        }
+        return new UserStreak(count, !activeRecently(referenceDay, completedDays));
+    }
+
+    /** Today was just added to the completed days. */
+    public void dayCompleted(LocalDate day) {
+        if (synced && (lastMissedDay == null || day.isAfter(lastMissedDay))) {
+            count++;
+        }
+    }
+
+    /** Today was just taken back out of the completed days. */
+    public void dayUncompleted(LocalDate day) {
+        if (synced && (lastMissedDay == null || day.isAfter(lastMissedDay))) {
+            count = Math.max(0, count - 1);
+        }
+    }
+
+    /**
+     * The day-close stamped the account's row for {@code day}.
+     *
+     * <p>A {@code MISSED} later than the current break becomes the break, and the count
+     * restarts from the completed days after it — only the days between it and today, a
+     * day or two for a pass that closes the day that just ended. An older one changes
+     * nothing: the walk never reaches it.
+     */
+    public void dayClosed(LocalDate day, CheckDayOutcome outcome, Set<LocalDate> completedDays,
+                          LocalDate today) {
+        if (!synced || day == null || outcome == null) {
+            return;
+        }
+        if (isScheduled(outcome) && (lastScheduledDay == null || day.isAfter(lastScheduledDay))) {
+            lastScheduledDay = day;
+        }
+        boolean completed = completedDays != null && completedDays.contains(day);
+        if (outcome == CheckDayOutcome.MISSED && !completed
+                && (lastMissedDay == null || day.isAfter(lastMissedDay))) {
+            lastMissedDay = day;
+            count = 0;
+            for (LocalDate after = day.plusDays(1); !after.isAfter(today); after = after.plusDays(1)) {
+                if (completedDays != null && completedDays.contains(after)) {
+                    count++;
+                }
+            }
+        }
+    }
+
+    /**
+     * The state built from the same inputs the walk reads. The only place the history is
+     * read in full — on a back-dated edit, the first check of an account that has no state
+     * yet, and the repair job.
+     */
+    public static UserStreakState rebuild(Set<LocalDate> completedDays, List<EntityCheckDay> userRows) {
+        LocalDate lastMissed = null;
+        LocalDate lastScheduled = null;
+        if (userRows != null) {
+            for (EntityCheckDay row : userRows) {
+                if (row == null || row.getDay() == null || row.getOutcome() == null) {
+                    continue;
+                }
+                LocalDate day = row.getDay();
+                if (isScheduled(row.getOutcome()) && (lastScheduled == null || day.isAfter(lastScheduled))) {
+                    lastScheduled = day;
+                }
+                if (row.getOutcome() == CheckDayOutcome.MISSED
+                        && (completedDays == null || !completedDays.contains(day))
+                        && (lastMissed == null || day.isAfter(lastMissed))) {
+                    lastMissed = day;
+                }
+            }
+        }
+        int count = 0;
+        if (completedDays != null) {
+            for (LocalDate day : completedDays) {
+                if (lastMissed == null || day.isAfter(lastMissed)) {
+                    count++;
+                }
+            }
+        }
+        return new UserStreakState(count, lastMissed, lastScheduled, true);
+    }
+
+    /** Same reading of "scheduled" as the walk's: everything but the two absences. */
+    private static boolean isScheduled(CheckDayOutcome outcome) {
+        return outcome != CheckDayOutcome.NOT_SCHEDULED && outcome != CheckDayOutcome.NOT_IN_ROUTINE;
+    }
+
+    /** The walk's dormancy window, answered from the latest scheduled day. */
+    private boolean activeRecently(LocalDate referenceDay, Set<LocalDate> completedDays) {
+        LocalDate windowStart = referenceDay.minusDays(UserStreakService.DORMANT_AFTER_DAYS - 1L);
+        if (lastScheduledDay != null && !lastScheduledDay.isBefore(windowStart)) {
+            return true;
+        }
+        for (LocalDate day = referenceDay; !day.isBefore(windowStart); day = day.minusDays(1)) {
+            if (completedDays != null && completedDays.contains(day)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,263 @@
+package beyou.beyouapp.backend.domain.common;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import beyou.beyouapp.backend.exceptions.BusinessException;
+import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decodes and downscales uploaded images for {@code PhotoStorageService} and
+ * {@code FeedbackAttachmentStorageService}, on a small pool of its own rather than on the
+ * request thread that received them.
+ *
+ * <p><b>One pass.</b> The upload is opened once: the reader takes the dimensions from the
+ * header, the pixel ceiling is checked against them — still before any raster exists, so
+ * the decompression-bomb guard keeps its place — and the same reader then decodes.
+ *
+ * <p><b>Subsampled decode.</b> The decode keeps every n-th pixel of every n-th row, n being
+ * the largest whole step that still leaves the long edge at or above the caller's target,
+ * so a 6000x4000 photo bound for 512px is decoded straight to 545x363 instead of into a
+ * 96MB raster first. {@link #toOpaqueRgb} then makes the last, fractional step with
+ * bilinear filtering, as before.
+ *
+ * <p><b>Bounded by heap.</b> Each job reserves what its two rasters will cost — known from
+ * the header — out of a budget of {@code app.image-processing.heap-fraction} of the max
+ * heap, and waits on the pool thread until that much is free. A job larger than the whole
+ * budget reserves all of it and runs alone. The pool has one thread per core and a queue
+ * of {@code app.image-processing.queue-capacity}; an upload arriving past that is turned
+ * away with {@code RATE_LIMIT_EXCEEDED} instead of queueing without limit.
+ *
+ * <p>Gauges: {@value #QUEUED_METRIC} (jobs waiting for a thread) and
+ * {@value #RESERVED_METRIC} (heap reserved by running jobs).
+ */
+@Component
+@Slf4j
+public class ImageProcessor {
+
+    public static final String QUEUED_METRIC = "beyou.image.queued";
+    public static final String RESERVED_METRIC = "beyou.image.heap.reserved";
+
+    /** Every decoded and target raster is costed at four bytes a pixel, the widest the readers produce here. */
+    private static final long BYTES_PER_PIXEL = 4L;
+
+    /**
+     * What one caller accepts: the long edge to fit within, the decoded-pixel ceiling
+     * checked from the header, and the keys to reject with.
+     */
+    public record Limits(int maxDimension, long maxPixels, ErrorKey tooLarge, ErrorKey corrupt) {
+    }
+
+    /**
+     * An upload flattened to opaque RGB at its target size, and the size it was uploaded at.
+     */
+    public record Flattened(BufferedImage image, int sourceWidth, int sourceHeight) {
+    }
+
+    /** What a caller does with the flattened image — typically encode it — while its heap is still reserved. */
+    @FunctionalInterface
+    public interface Job<T> {
+        T apply(Flattened flattened) throws IOException;
+    }
+
+    private final ThreadPoolExecutor pool;
+
+    /** The heap budget, in KiB so any heap fits an int. */
+    private final Semaphore budget;
+    private final int budgetKib;
+    private final AtomicInteger reservedKib = new AtomicInteger();
+
+    @Autowired
+    public ImageProcessor(@Value("${app.image-processing.heap-fraction:0.25}") double heapFraction,
+                          @Value("${app.image-processing.queue-capacity:32}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this((long) (Runtime.getRuntime().maxMemory() * heapFraction),
+                Runtime.getRuntime().availableProcessors(), queueCapacity, meterRegistry);
+    }
+
+    /** Injection seam for tests and the benchmark, which fix the budget and the pool size. */
+    public ImageProcessor(long heapBudgetBytes, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.budgetKib = (int) Math.clamp(heapBudgetBytes / 1024, 1L, Integer.MAX_VALUE);
+        this.budget = new Semaphore(budgetKib, true);
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder(QUEUED_METRIC, pool, executor -> executor.getQueue().size())
+                .description("Image uploads waiting for a processing thread")
+                .register(meterRegistry);
+        Gauge.builder(RESERVED_METRIC, reservedKib, kib -> kib.get() * 1024.0)
+                .description("Heap reserved by image uploads being decoded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("Image processing: {} thread(s), {} queued at most, {} MB heap budget",
+                threads, queueCapacity, budgetKib / 1024);
+    }
+
+    /**
+     * Decodes {@code file} within {@code limits}, flattens it and hands it to {@code job},
+     * all on the pool, and waits for the result. Rejections come back as the caller's own
+     * keys; a job's {@link IOException} comes back as itself, so callers keep their error
+     * handling.
+     */
+    public <T> T process(MultipartFile file, Limits limits, Job<T> job) throws IOException {
+        Future<T> result;
+        try {
+            result = pool.submit(() -> decode(file, limits, job));
+        } catch (RejectedExecutionException e) {
+            throw new BusinessException(ErrorKey.RATE_LIMIT_EXCEEDED,
+                "Too many images are being processed right now. Try again shortly.");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an image to be processed");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Downscales to fit within {@code maxDimension} (aspect preserved, never upscaled) and
+     * always draws onto an opaque TYPE_INT_RGB canvas. The RGB flatten is mandatory: the
+     * JDK JPEG writer silently fails on alpha-bearing images (returns false, produces a
+     * 0-byte file), so every image is flattened here. Transparent regions composite onto
+     * white.
+     */
+    public static BufferedImage toOpaqueRgb(BufferedImage original, int maxDimension) {
+        int w = original.getWidth();
+        int h = original.getHeight();
+        int targetW = w;
+        int targetH = h;
+        if (w > maxDimension || h > maxDimension) {
+            double scale = (double) maxDimension / Math.max(w, h);
+            targetW = Math.max(1, (int) Math.round(w * scale));
+            targetH = Math.max(1, (int) Math.round(h * scale));
+        }
+
+        BufferedImage rgb = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, targetW, targetH);
+        g.drawImage(original, 0, 0, targetW, targetH, null);
+        g.dispose();
+        return rgb;
+    }
+
+    /** The whole-number subsampling step that keeps the long edge at or above {@code maxDimension}. */
+    static int subsamplingStep(int width, int height, int maxDimension) {
+        return Math.max(1, Math.max(width, height) / maxDimension);
+    }
+
+    /** Bytes the decoded raster and the flattened one will take together. */
+    static long estimatedBytes(int width, int height, int maxDimension) {
+        int step = subsamplingStep(width, height, maxDimension);
+        long decoded = (long) ceilDiv(width, step) * ceilDiv(height, step);
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        long target = Math.round(width * scale) * Math.round(height * scale);
+        return (decoded + target) * BYTES_PER_PIXEL;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // -- private helpers --
+
+    private <T> T decode(MultipartFile file, Limits limits, Job<T> job) throws IOException {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                throw new BusinessException(limits.corrupt(),
+                    "Could not read image data — file may be corrupt or an unsupported format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if ((long) w * h > limits.maxPixels()) {
+                    throw new BusinessException(limits.tooLarge(),
+                        "Image dimensions too large: " + w + "x" + h);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsamplingStep(w, h, limits.maxDimension());
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+
+                int cost = (int) Math.clamp(estimatedBytes(w, h, limits.maxDimension()) / 1024, 1L, budgetKib);
+                budget.acquireUninterruptibly(cost);
+                reservedKib.addAndGet(cost);
+                try {
+                    BufferedImage decoded = reader.read(0, param);
+                    BufferedImage flattened = toOpaqueRgb(decoded, limits.maxDimension());
+                    decoded.flush();
+                    log.debug("Image decoded {}x{} -> {}x{} (subsampling {}) -> {}x{}",
+                        w, h, decoded.getWidth(), decoded.getHeight(), step,
+                        flattened.getWidth(), flattened.getHeight());
+                    return job.apply(new Flattened(flattened, w, h));
+                } finally {
+                    reservedKib.addAndGet(-cost);
+                    budget.release(cost);
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int ceilDiv(int value, int step) {
+        return (value + step - 1) / step;
+    }
+}
@@ -0,0 +1,49 @@
+package beyou.beyouapp.backend.domain.common;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per-user generations for the shared {@code routine} cache, whose entries are one per
+ * routine and so cannot be evicted by user id alone.
+ *
+ * <p>Every key carries its owner's current generation ({@code userId_generation_routineId},
+ * built by {@link #key}). Moving a user on with {@link #advance} makes all of their entries
+ * unreachable in one step, and leaves every other user's entries where they were; the
+ * orphaned ones age out of the cache through its size bound and TTL like any cold entry.
+ *
+ * <p>Generations come from one global sequence rather than a counter per user. A user
+ * whose generation falls out of this bounded table is handed a fresh number on their next
+ * read — never an earlier one — so an entry written under a forgotten generation can
+ * never be read again.
+ */
+@Component
+public class RoutineCacheGenerations {
+
+    /** Far more users than the {@code routine} cache holds entries, so a live entry's owner is always here. */
+    private static final int MAX_USERS = 100_000;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<UUID, Long> generations = Caffeine.newBuilder()
+            .maximumSize(MAX_USERS)
+            .build();
+
+    /** The {@code routine} cache key for one of {@code userId}'s routines, at their current generation. */
+    public String key(UUID userId, UUID routineId) {
+        return userId + "_" + current(userId) + "_" + routineId;
+    }
+
+    /** Retires every {@code routine} cache entry of {@code userId}'s. Other users' are untouched. */
+    public void advance(UUID userId) {
+        generations.put(userId, sequence.incrementAndGet());
+    }
+
+    private long current(UUID userId) {
+        return generations.get(userId, id -> sequence.incrementAndGet());
+    }
+}
@@ -2,8 +2,6 @@ package beyou.beyouapp.backend.domain.common;
 
 import java.util.UUID;
 
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
@@ -14,7 +12,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserCacheEvictService {
 
-    private final CacheManager cacheManager;
+    private final RoutineCacheGenerations routineCacheGenerations;
 
     @Caching(evict = {
         @CacheEvict(cacheNames = "categories", key = "#userId"),
@@ -26,20 +24,20 @@ public class UserCacheEvictService {
         @CacheEvict(cacheNames = "schedules", key = "#userId")
     })
     public void evictAllUserCaches(UUID userId) {
-        // AOP handles the @CacheEvict annotations above.
-        // Programmatic eviction for 'routine' cache (composite key: userId_routineId)
-        clearSharedRoutineCache();
+        // AOP handles the @CacheEvict annotations above. The 'routine' cache has one
+        // entry per routine (userId_generation_routineId); moving the user to a new
+        // generation retires all of theirs at once and nobody else's.
+        routineCacheGenerations.advance(userId);
     }
 
     /**
-     * The user-scoped half of {@link #evictAllUserCaches}, without the shared {@code routine}
-     * cache clear.
+     * The eviction the day-close batch runs for each user it wrote for.
      *
-     * <p>Exists for the day-close batch, which touches every user in a timezone in one pass.
-     * Calling {@code evictAllUserCaches} there would clear the whole shared {@code routine}
-     * cache once per user — for a thousand users, a thousand full clears of a cache that only
-     * needed clearing once. The batch calls this inside its loop and
-     * {@link #clearSharedRoutineCache()} once when the loop ends.
+     * <p>It used to be {@link #evictAllUserCaches} minus the shared {@code routine} cache,
+     * which could only be cleared wholesale, so the batch cleared that once at the end
+     * instead of once per user. Since the {@code routine} cache moved to per-user
+     * generations, it is scoped like the rest and the two methods do the same thing; the
+     * batch keeps its own entry point so the distinction can come back without touching it.
      *
      * <p>The annotation block is repeated rather than delegated on purpose: a self-invocation
      * would not pass through the Spring proxy, so {@code @CacheEvict} would silently do
@@ -55,17 +53,7 @@ public class UserCacheEvictService {
         @CacheEvict(cacheNames = "schedules", key = "#userId")
     })
     public void evictUserScopedCaches(UUID userId) {
-        // AOP handles the @CacheEvict annotations above; nothing else to do here.
-    }
-
-    /**
-     * Clears the shared {@code routine} cache, whose keys are composite
-     * ({@code userId_routineId}) and therefore not evictable per user.
-     */
-    public void clearSharedRoutineCache() {
-        Cache routineCache = cacheManager.getCache("routine");
-        if (routineCache != null) {
-            routineCache.clear();
-        }
+        // AOP handles the @CacheEvict annotations above.
+        routineCacheGenerations.advance(userId);
     }
 }
@@ -1,6 +1,9 @@
 package beyou.beyouapp.backend.domain.common;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -8,7 +11,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import beyou.beyouapp.backend.domain.category.Category;
 import beyou.beyouapp.backend.domain.category.CategoryRepository;
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevelRepository;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
+import beyou.beyouapp.backend.domain.xpday.XpDayBatch;
 import beyou.beyouapp.backend.domain.xpday.XpDayOwnerType;
 import beyou.beyouapp.backend.domain.xpday.XpDayRecorder;
 import beyou.beyouapp.backend.domain.goal.Goal;
@@ -28,7 +32,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class XpCalculatorService {
 
-    private final XpByLevelRepository xpByLevelRepository;
+    private final XpLevelCurve xpLevelCurve;
     private final UserRepository userRepository;
     private final DiaryRoutineRepository diaryRoutineRepository;
     private final HabitRepository habitRepository;
@@ -42,124 +46,187 @@ public class XpCalculatorService {
 
     public void addXpToUserGoalAndCategoriesAndPersist(User user, Double newXp, Goal goal,
             List<Category> categories) {
-        addUserXpAndPersist(user, newXp);
+        propagate(user)
+                .user(newXp)
+                .categories(categories, newXp)
+                .flush();
         addGoalXpAndPersist(newXp, goal);
-        addCategoriesXpAndPersist(user, newXp, categories);
     }
 
     public void removeXpOfUserGoalAndCategoriesAndPersist(User user, Double newXp, Goal goal,
             List<Category> categories) {
-        removeUserXpAndPersist(user, newXp);
+        propagate(user)
+                .user(-newXp)
+                .categories(categories, -newXp)
+                .flush();
         removeGoalXpAndPersist(goal);
-        removeCategoriesXpAndPersist(user, newXp, categories);
     }
 
     public void addXpToUserRoutineHabitAndCategoriesAndPersist(User user, Double newXp, DiaryRoutine routine,
             Habit habit, List<Category> categories) {
-        addUserXpAndPersist(user, newXp);
-        addRoutineXpAndPersist(user, newXp, routine);
-        addHabitXpAndPersist(user, newXp, habit);
-        addCategoriesXpAndPersist(user, newXp, categories);
+        propagate(user)
+                .user(newXp)
+                .routine(routine, newXp)
+                .habit(habit, newXp)
+                .categories(categories, newXp)
+                .flush();
     }
 
     public void removeXpOfUserRoutineHabitAndCategoriesAndPersist(User user, Double xpToRemove, DiaryRoutine routine,
             Habit habit, List<Category> categories) {
-        removeUserXpAndPersist(user, xpToRemove);
-        removeRoutineXpAndPersist(user, xpToRemove, routine);
-        removeHabitXpAndPersist(user, xpToRemove, habit);
-        removeCategoriesXpAndPersist(user, xpToRemove, categories);
+        propagate(user)
+                .user(-xpToRemove)
+                .routine(routine, -xpToRemove)
+                .habit(habit, -xpToRemove)
+                .categories(categories, -xpToRemove)
+                .flush();
     }
 
     public void addXpToUserRoutineAndCategoriesAndPersist(User user, Double newXp, DiaryRoutine routine,
             List<Category> categories) {
-        addUserXpAndPersist(user, newXp);
-        addRoutineXpAndPersist(user, newXp, routine);
-        addCategoriesXpAndPersist(user, newXp, categories);
+        propagate(user)
+                .user(newXp)
+                .routine(routine, newXp)
+                .categories(categories, newXp)
+                .flush();
     }
 
     public void removeXpOfUserRoutineAndCategoriesAndPersist(User user, Double xpToRemove, DiaryRoutine routine,
             List<Category> categories) {
-        removeUserXpAndPersist(user, xpToRemove);
-        removeRoutineXpAndPersist(user, xpToRemove, routine);
-        removeCategoriesXpAndPersist(user, xpToRemove, categories);
+        propagate(user)
+                .user(-xpToRemove)
+                .routine(routine, -xpToRemove)
+                .categories(categories, -xpToRemove)
+                .flush();
     }
 
     public void addXpToUserAndRoutineOnly(User user, Double newXp, DiaryRoutine routine) {
-        addUserXpAndPersist(user, newXp);
-        addRoutineXpAndPersist(user, newXp, routine);
+        propagate(user)
+                .user(newXp)
+                .routine(routine, newXp)
+                .flush();
     }
 
     public void removeXpFromUserAndRoutineOnly(User user, Double xpToRemove, DiaryRoutine routine) {
-        removeUserXpAndPersist(user, xpToRemove);
-        removeRoutineXpAndPersist(user, xpToRemove, routine);
+        propagate(user)
+                .user(-xpToRemove)
+                .routine(routine, -xpToRemove)
+                .flush();
     }
 
     public void addXpToUserOnly(User user, Double newXp) {
-        addUserXpAndPersist(user, newXp);
+        propagate(user).user(newXp).flush();
     }
 
     public void removeXpFromUserOnly(User user, Double xpToRemove) {
-        removeUserXpAndPersist(user, xpToRemove);
-    }
-
-    private void addUserXpAndPersist(User user, Double newXp) {
-        user.getXpProgress().addXp(newXp, level -> xpByLevelRepository.findByLevel(level));
-        xpDayRecorder.record(user, XpDayOwnerType.USER, user.getId(), newXp);
-        try {
-            userRepository.save(user);
-        } catch (Exception e) {
-            log.error("ERROR ADDING XP TO USER -> {}", e.getMessage());
-            throw e;
+        propagate(user).user(-xpToRemove).flush();
+    }
+
+    /**
+     * Starts collecting one account's XP changes, to be written together by
+     * {@link XpPropagation#flush()}. The methods above are each one propagation; a caller
+     * moving XP for several owners in one request can build its own.
+     */
+    public XpPropagation propagate(User user) {
+        return new XpPropagation(user);
+    }
+
+    /**
+     * The XP changes of one request, applied to the totals as they are added and written
+     * in one go when flushed.
+     *
+     * <p>A habit check with three categories used to cost six {@code entity_xp_day}
+     * upserts and a {@code save} per owner, each flushed on its own schedule. Now the
+     * history is one multi-row upsert ({@link XpDayRecorder#record(XpDayBatch)}), and the
+     * totals are handed to the repositories once per owner type. Those entities are
+     * managed, so the saves only attach; the UPDATEs go out at the transaction's flush,
+     * where {@code hibernate.jdbc.batch_size} with {@code order_updates} groups them into
+     * one JDBC batch per table — the categories of a check become one round trip rather
+     * than one each.
+     *
+     * <p>A positive delta is a gain and a negative one a return, which is the same sign
+     * the history stores. Request-scoped and not thread-safe; nothing is written until
+     * {@link #flush()}.
+     */
+    public final class XpPropagation {
+
+        private final User user;
+        private final XpDayBatch history;
+        private boolean userChanged;
+        private final Set<DiaryRoutine> routines = new LinkedHashSet<>();
+        private final Set<Habit> habits = new LinkedHashSet<>();
+        private final Set<Category> categories = new LinkedHashSet<>();
+
+        private XpPropagation(User user) {
+            this.user = user;
+            this.history = new XpDayBatch(user);
         }
-    }
-
-    private void addRoutineXpAndPersist(User user, Double newXp, DiaryRoutine routine) {
-        routine.getXpProgress().addXp(
-                newXp,
-                level -> xpByLevelRepository.findByLevel(level));
 
-        xpDayRecorder.record(user, XpDayOwnerType.ROUTINE, routine.getId(), newXp);
-
-        try {
-            diaryRoutineRepository.save(routine);
-        } catch (Exception e) {
-            log.error("ERROR ADDING XP TO ROUTINE -> {}", e.getMessage());
-            throw e;
+        public XpPropagation user(double xp) {
+            move(user.getXpProgress(), xp);
+            history.add(XpDayOwnerType.USER, user.getId(), xp);
+            userChanged = true;
+            return this;
         }
-    }
-
-    private void addHabitXpAndPersist(User user, Double newXp, Habit habit) {
-        habit.getXpProgress().addXp(
-                newXp,
-                level -> xpByLevelRepository.findByLevel(level));
 
-        xpDayRecorder.record(user, XpDayOwnerType.HABIT, habit.getId(), newXp);
+        public XpPropagation routine(DiaryRoutine routine, double xp) {
+            move(routine.getXpProgress(), xp);
+            history.add(XpDayOwnerType.ROUTINE, routine.getId(), xp);
+            routines.add(routine);
+            return this;
+        }
 
-        try {
-            habitRepository.save(habit);
-        } catch (Exception e) {
-            log.error("ERROR ADDING XP TO HABIT -> {}", e.getMessage());
-            throw e;
+        public XpPropagation habit(Habit habit, double xp) {
+            move(habit.getXpProgress(), xp);
+            history.add(XpDayOwnerType.HABIT, habit.getId(), xp);
+            habits.add(habit);
+            return this;
         }
-    }
 
-    private void addCategoriesXpAndPersist(User user, Double newXp, List<Category> categories) {
-        if (categories == null || categories.isEmpty()) {
-            return;
+        /** A null or empty list is no change, as a check on an uncategorised item is. */
+        public XpPropagation categories(List<Category> toMove, double xp) {
+            if (toMove == null || toMove.isEmpty()) {
+                return this;
+            }
+            toMove.forEach(category -> move(category.getXpProgress(), xp));
+            // Negative on a return: the day gives the XP back rather than remembering a high-water mark.
+            history.addAll(XpDayOwnerType.CATEGORY, toMove.stream().map(Category::getId).toList(), xp);
+            categories.addAll(toMove);
+            return this;
         }
 
-        categories.forEach(c -> c.getXpProgress().addXp(
-                newXp,
-                level -> xpByLevelRepository.findByLevel(level)));
+        /** One history statement, then one hand-off per owner type. */
+        public void flush() {
+            xpDayRecorder.record(history);
+            if (userChanged) {
+                persist("USER", () -> userRepository.save(user));
+            }
+            if (!routines.isEmpty()) {
+                persist("ROUTINE", () -> routines.forEach(diaryRoutineRepository::save));
+            }
+            if (!habits.isEmpty()) {
+                persist("HABIT", () -> habits.forEach(habitRepository::save));
+            }
+            if (!categories.isEmpty()) {
+                persist("CATEGORIES", () -> categoryRepository.saveAll(new ArrayList<>(categories)));
+            }
+        }
 
-        xpDayRecorder.recordAll(user, XpDayOwnerType.CATEGORY,
-                categories.stream().map(Category::getId).toList(), newXp);
+        private void move(XpProgress progress, double xp) {
+            if (xp >= 0) {
+                progress.addXp(xp, xpLevelCurve);
+            } else {
+                progress.removeXp(-xp, xpLevelCurve);
+            }
+        }
 
-        try {
-            categoryRepository.saveAll(categories);
-        } catch (Exception e) {
-            log.error("ERROR ADDING XP TO CATEGORIES -> {}", e.getMessage());
-            throw e;
+        private void persist(String owner, Runnable save) {
+            try {
+                save.run();
+            } catch (Exception e) {
+                log.error("ERROR PERSISTING XP OF {} -> {}", owner, e.getMessage());
+                throw e;
+            }
         }
     }
 
@@ -184,64 +251,4 @@ public class XpCalculatorService {
             throw e;
         }
     }
-
-    private void removeUserXpAndPersist(User user, Double xpToRemove) {
-        xpDayRecorder.record(user, XpDayOwnerType.USER, user.getId(), -xpToRemove);
-        user.getXpProgress().removeXp(xpToRemove, level -> xpByLevelRepository.findByLevel(level));
-        try {
-            userRepository.save(user);
-        } catch (Exception e) {
-            log.error("ERROR REMOVING XP FROM USER -> {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    private void removeRoutineXpAndPersist(User user, Double xpToRemove, DiaryRoutine routine) {
-        xpDayRecorder.record(user, XpDayOwnerType.ROUTINE, routine.getId(), -xpToRemove);
-        routine.getXpProgress().removeXp(
-                xpToRemove,
-                level -> xpByLevelRepository.findByLevel(level));
-
-        try {
-            diaryRoutineRepository.save(routine);
-        } catch (Exception e) {
-            log.error("ERROR REMOVING XP FROM ROUTINE -> {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    private void removeHabitXpAndPersist(User user, Double xpToRemove, Habit habit) {
-        xpDayRecorder.record(user, XpDayOwnerType.HABIT, habit.getId(), -xpToRemove);
-        habit.getXpProgress().removeXp(
-                xpToRemove,
-                level -> xpByLevelRepository.findByLevel(level));
-
-        try {
-            habitRepository.save(habit);
-        } catch (Exception e) {
-            log.error("ERROR REMOVING XP FROM HABIT -> {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    private void removeCategoriesXpAndPersist(User user, Double xpToRemove, List<Category> categories) {
-        if (categories == null || categories.isEmpty()) {
-            return;
-        }
-
-        categories.forEach(c -> c.getXpProgress().removeXp(
-                xpToRemove,
-                level -> xpByLevelRepository.findByLevel(level)));
-
-        // Negative: the day gives the XP back rather than remembering a high-water mark.
-        xpDayRecorder.recordAll(user, XpDayOwnerType.CATEGORY,
-                categories.stream().map(Category::getId).toList(), -xpToRemove);
-
-        try {
-            categoryRepository.saveAll(categories);
-        } catch (Exception e) {
-            log.error("ERROR REMOVING XP FROM CATEGORIES -> {}", e.getMessage());
-            throw e;
-        }
-    }
 }
@@ -1,8 +1,6 @@
 package beyou.beyouapp.backend.domain.common;
 
-import java.util.function.Function;
-
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevel;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
 import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -20,34 +18,35 @@ public class XpProgress {
     private double actualLevelXp = 0D;
     private double nextLevelXp = 0D;
 
-    public void addXp(double amount, Function<Integer, XpByLevel> levelProvider){
+    /**
+     * Adds {@code amount} and moves up to the level it reaches. Never moves down, and
+     * stops at the top of the curve with the ceiling pinned to the top threshold.
+     */
+    public void addXp(double amount, XpLevelCurve curve){
         xp += amount;
 
-        // Stop at the top of the curve: when there is no level+1 row, recalculate
-        // pins nextLevelXp to the current threshold, so this loop would spin forever.
-        while (xp >= nextLevelXp && levelProvider.apply(level + 1) != null) {
-            level++;
-            recalculate(levelProvider);
+        int reached = curve.levelAt(xp);
+        if (reached > level) {
+            moveTo(reached, curve);
         }
     }
 
-    public void removeXp(double amount,  Function<Integer, XpByLevel> levelProvider){
+    /** Removes {@code amount}, never below zero, and moves down to the level it falls to. */
+    public void removeXp(double amount, XpLevelCurve curve){
         xp -= amount;
         xp = Math.max(0, xp);
 
-        while (xp < actualLevelXp && xp >= 0) {
-            level--;
-            recalculate(levelProvider);
+        int reached = curve.levelAt(xp);
+        if (reached < level) {
+            moveTo(reached, curve);
         }
     }
 
-    private void recalculate(Function<Integer, XpByLevel> levelProvider){
-        XpByLevel actual = levelProvider.apply(level);
-        XpByLevel next = levelProvider.apply(level + 1);
-
-        actualLevelXp = actual.getXp();
-        // At the top level there is no next row; pin the ceiling to the current
-        // threshold instead of NPEing when a maxed entity gains more XP.
-        nextLevelXp = (next != null) ? next.getXp() : actualLevelXp;
+    // One lookup each way instead of a walk: the levels crossed in between were only
+    // ever visited to be stepped over.
+    private void moveTo(int newLevel, XpLevelCurve curve){
+        level = newLevel;
+        actualLevelXp = curve.thresholdOf(level);
+        nextLevelXp = curve.nextThresholdOf(level);
     }
 }
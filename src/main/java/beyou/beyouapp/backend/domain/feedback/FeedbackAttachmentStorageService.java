@@ -1,12 +1,8 @@
 package beyou.beyouapp.backend.domain.feedback;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -18,10 +14,8 @@ import java.util.UUID;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -30,6 +24,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import lombok.extern.slf4j.Slf4j;
@@ -48,7 +43,7 @@ import lombok.extern.slf4j.Slf4j;
  *   <li>byte ceiling</li>
  *   <li>header-derived pixel-bound check <em>before</em> decode — the
  *       decompression-bomb guard</li>
- *   <li>decode</li>
+ *   <li>decode, subsampled toward {@link #MAX_DIMENSION}</li>
  *   <li>re-encode to opaque RGB (strips alpha, animation, and any embedded
  *       metadata or payload the original carried)</li>
  *   <li>write to a temporary sibling</li>
@@ -56,7 +51,8 @@ import lombok.extern.slf4j.Slf4j;
  * </ol>
  *
  * <p>Steps 1-5 live in {@link #validateAndEncode(MultipartFile)} and touch no
- * disk at all; steps 6-7 live in {@link #write}. Splitting them lets the caller
+ * disk at all; 3-5 run on the shared {@link ImageProcessor} pool, in one pass
+ * over the upload; steps 6-7 live in {@link #write}. Splitting them lets the caller
  * persist a row carrying the real dimensions <em>before</em> anything is
  * written, so a failed write rolls the row back and a failed save leaves no
  * orphan file.
@@ -86,7 +82,7 @@ public class FeedbackAttachmentStorageService {
 
     /**
      * Decoded-pixel ceiling checked from the image header BEFORE
-     * {@code ImageIO.read} allocates the full raster — a highly compressible
+     * the decode allocates a raster — a highly compressible
      * image can stay under {@link #MAX_SIZE} on the wire yet decode to
      * gigabytes ("decompression bomb").
      */
@@ -102,9 +98,14 @@ public class FeedbackAttachmentStorageService {
     /** Content type every stored attachment is served as — everything is re-encoded to JPEG. */
     public static final String STORED_CONTENT_TYPE = "image/jpeg";
 
+    private static final ImageProcessor.Limits LIMITS = new ImageProcessor.Limits(
+        MAX_DIMENSION, MAX_PIXELS, ErrorKey.FEEDBACK_ATTACHMENT_TOO_LARGE, ErrorKey.FEEDBACK_ATTACHMENT_CORRUPT);
+
     private final Path uploadDir;
+    private final ImageProcessor images;
 
-    public FeedbackAttachmentStorageService(@Value("${app.upload-dir}") String uploadDir) {
+    public FeedbackAttachmentStorageService(@Value("${app.upload-dir}") String uploadDir, ImageProcessor images) {
+        this.images = images;
         this.uploadDir = Path.of(uploadDir).resolve("feedback-attachments");
         try {
             Files.createDirectories(this.uploadDir);
@@ -149,25 +150,17 @@ public class FeedbackAttachmentStorageService {
                 "Attachment must be under 5MB. Received: " + (file.getSize() / (1024 * 1024)) + "MB");
         }
 
-        ensureWithinPixelBounds(file);
-
-        try (InputStream in = file.getInputStream()) {
-            BufferedImage original = ImageIO.read(in);
-            if (original == null) {
-                throw new BusinessException(ErrorKey.FEEDBACK_ATTACHMENT_CORRUPT,
-                    "Could not read image data — file may be corrupt or an unsupported format");
-            }
-
-            BufferedImage processed = toOpaqueRgb(original);
-            byte[] jpeg = encodeJpeg(processed);
+        try {
+            return images.process(file, LIMITS, flattened -> {
+                BufferedImage processed = flattened.image();
+                byte[] jpeg = encodeJpeg(processed);
 
-            log.debug("Attachment encoded ({}x{} -> {}x{}, {} bytes)",
-                original.getWidth(), original.getHeight(),
-                processed.getWidth(), processed.getHeight(), jpeg.length);
+                log.debug("Attachment encoded ({}x{} -> {}x{}, {} bytes)",
+                    flattened.sourceWidth(), flattened.sourceHeight(),
+                    processed.getWidth(), processed.getHeight(), jpeg.length);
 
-            return new EncodedAttachment(jpeg, processed.getWidth(), processed.getHeight());
-        } catch (BusinessException e) {
-            throw e;
+                return new EncodedAttachment(jpeg, processed.getWidth(), processed.getHeight());
+            });
         } catch (IOException e) {
             // Detail to the log, not to the caller — an IOException's message here
             // is usually a server path. Same reason as PhotoStorageService.store.
@@ -275,65 +268,6 @@ public class FeedbackAttachmentStorageService {
         return uploadDir.resolve(feedbackId.toString()).resolve(attachmentId + ".jpg");
     }
 
-    /**
-     * Rejects images whose header reports more than {@link #MAX_PIXELS} before
-     * the full raster is allocated. Reads only the dimensions, not the pixels.
-     */
-    private void ensureWithinPixelBounds(MultipartFile file) {
-        try (ImageInputStream iis = ImageIO.createImageInputStream(file.getInputStream())) {
-            if (iis == null) {
-                return; // let the decode path fail later with FEEDBACK_ATTACHMENT_CORRUPT
-            }
-            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-            if (!readers.hasNext()) {
-                return; // unknown format — decode path throws FEEDBACK_ATTACHMENT_CORRUPT
-            }
-            ImageReader reader = readers.next();
-            try {
-                reader.setInput(iis);
-                long w = reader.getWidth(0);
-                long h = reader.getHeight(0);
-                if (w * h > MAX_PIXELS) {
-                    throw new BusinessException(ErrorKey.FEEDBACK_ATTACHMENT_TOO_LARGE,
-                        "Image dimensions too large: " + w + "x" + h);
-                }
-            } finally {
-                reader.dispose();
-            }
-        } catch (IOException e) {
-            // Header unreadable — defer to the decode path, which reports corrupt.
-            log.debug("Could not read image header for pixel-bound check", e);
-        }
-    }
-
-    /**
-     * Downscales to fit within {@link #MAX_DIMENSION} (aspect preserved, never
-     * upscaled) and always draws onto an opaque TYPE_INT_RGB canvas. The RGB
-     * flatten is mandatory: the JDK JPEG writer silently fails on alpha-bearing
-     * images. Transparent regions composite onto white.
-     */
-    private BufferedImage toOpaqueRgb(BufferedImage original) {
-        int w = original.getWidth();
-        int h = original.getHeight();
-        int targetW = w;
-        int targetH = h;
-        if (w > MAX_DIMENSION || h > MAX_DIMENSION) {
-            double scale = (double) MAX_DIMENSION / Math.max(w, h);
-            targetW = Math.max(1, (int) Math.round(w * scale));
-            targetH = Math.max(1, (int) Math.round(h * scale));
-        }
-
-        BufferedImage rgb = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = rgb.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g.setColor(Color.WHITE);
-        g.fillRect(0, 0, targetW, targetH);
-        g.drawImage(original, 0, 0, targetW, targetH, null);
-        g.dispose();
-        return rgb;
-    }
-
     /**
      * Encodes to JPEG at an explicit quality. The encoder default (~0.75)
      * smears small interface text badly enough to defeat the point of a
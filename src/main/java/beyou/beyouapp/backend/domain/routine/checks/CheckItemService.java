@@ -4,7 +4,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
@@ -62,6 +61,10 @@ public class CheckItemService {
      */
     private final EntityCheckDayRepository entityCheckDayRepository;
 
+    /** Today's check of an entry, by entry id and date — see {@link RoutineDayChecks}. */
+    private final HabitGroupCheckRepository habitGroupCheckRepository;
+    private final TaskGroupCheckRepository taskGroupCheckRepository;
+
     @Transactional
     public RefreshUiDTO checkOrUncheckItemGroup(CheckGroupRequestDTO checkGroupDTO) {
         // The day is resolved only once the group (and with it its owner) is in hand: a check
@@ -83,8 +86,9 @@ public class CheckItemService {
             HabitGroup habitGroup = itemGroupService.findHabitGroupByDTO(skipGroupDTO.routineId(), skipGroupDTO.habitGroupDTO().habitGroupId());
             LocalDate date = requireNotInTheFuture(
                 skipGroupDTO.date(), habitGroup.getRoutineSection().getRoutine());
-            if (isHabitGroupChecked(habitGroup, date)) {
-                return buildNoOpRefresh(habitGroup.getId(), getHabitGroupChecked(habitGroup, date), date, habitGroup.getRoutineSection().getRoutine());
+            RoutineDayChecks day = dayChecks(habitGroup.getRoutineSection().getRoutine(), date);
+            if (isHabitGroupChecked(day, habitGroup)) {
+                return buildNoOpRefresh(habitGroup.getId(), getHabitGroupChecked(day, habitGroup), date, habitGroup.getRoutineSection().getRoutine());
             }
             if (storedDayIsDone(
                     CheckDayOwnerType.HABIT, habitGroup.getHabit().getId(),
@@ -93,14 +97,15 @@ public class CheckItemService {
                         habitGroup.getRoutineSection().getRoutine());
             }
             return skipGroupDTO.skip()
-                ? skipHabitGroup(habitGroup, date)
-                : unskipHabitGroup(habitGroup, date);
+                ? skipHabitGroup(habitGroup, day, date)
+                : unskipHabitGroup(habitGroup, day, date);
         }else if(skipGroupDTO.taskGroupDTO() != null){
             TaskGroup taskGroup = itemGroupService.findTaskGroupByDTO(skipGroupDTO.routineId(), skipGroupDTO.taskGroupDTO().taskGroupId());
             LocalDate date = requireNotInTheFuture(
                 skipGroupDTO.date(), taskGroup.getRoutineSection().getRoutine());
-            if (isTaskGroupChecked(taskGroup, date)) {
-                return buildNoOpRefresh(taskGroup.getId(), getTaskGroupChecked(taskGroup, date), date, taskGroup.getRoutineSection().getRoutine());
+            RoutineDayChecks day = dayChecks(taskGroup.getRoutineSection().getRoutine(), date);
+            if (isTaskGroupChecked(day, taskGroup)) {
+                return buildNoOpRefresh(taskGroup.getId(), getTaskGroupChecked(day, taskGroup), date, taskGroup.getRoutineSection().getRoutine());
             }
             if (storedDayIsDone(
                     CheckDayOwnerType.TASK, taskGroup.getTask().getId(),
@@ -109,8 +114,8 @@ public class CheckItemService {
                         taskGroup.getRoutineSection().getRoutine());
             }
             return skipGroupDTO.skip()
-                ? skipTaskGroup(taskGroup, date)
-                : unskipTaskGroup(taskGroup, date);
+                ? skipTaskGroup(taskGroup, day, date)
+                : unskipTaskGroup(taskGroup, day, date);
         }else{
             throw new BusinessException(ErrorKey.ITEM_GROUP_REQUIRED, "No Item group found in the request");
         }
@@ -125,6 +130,15 @@ public class CheckItemService {
         return UserDateResolver.today(routine.getUser());
     }
 
+    /**
+     * The routine's live checks on {@code date}, fetched once for the whole request. Every
+     * "is this entry checked" below — the entry being clicked and the constance rules'
+     * sweep over the routine — reads this instead of an entry's check collection.
+     */
+    private RoutineDayChecks dayChecks(Routine routine, LocalDate date) {
+        return RoutineDayChecks.of((DiaryRoutine) routine, date, habitGroupCheckRepository, taskGroupCheckRepository);
+    }
+
     /**
      * The date a skip will be written at: the one the request asked for, or the owner's
      * today when it asked for none — and never a day that has not happened yet.
@@ -245,41 +259,36 @@ public class CheckItemService {
 
     private RefreshUiDTO checkOrUncheckHabitGroup(HabitGroup habitGroup, LocalDate date) {
         // Check if the habit group is already checked for today
-        boolean isCheckedToday = habitGroup.getHabitGroupChecks().stream()
-                .peek(hc -> log.info("Evaluating check: date={}, checked={}", hc.getCheckDate(), hc.isChecked()))
-                .anyMatch(habitCheck -> habitCheck.getCheckDate().equals(date) && habitCheck.isChecked());
+        RoutineDayChecks day = dayChecks(habitGroup.getRoutineSection().getRoutine(), date);
 
-        if (isCheckedToday) {
+        if (isHabitGroupChecked(day, habitGroup)) {
             // Uncheck: Remove check, subtract XP, adjust constance
-            return uncheckHabitGroup(habitGroup, date);
+            return uncheckHabitGroup(habitGroup, day, date);
         } else {
             // XP earn formula lives in CheckXpCalculator
-            return checkHabitGroup(habitGroup, date);
+            return checkHabitGroup(habitGroup, day, date);
         }
     }
 
     private RefreshUiDTO checkOrUncheckTaskGroup(TaskGroup taskGroupToCheckOrUncheck, LocalDate date) {
-        // Check if the habit group is already checked for today
-        boolean isCheckedToday = taskGroupToCheckOrUncheck.getTaskGroupChecks().stream()
-                .anyMatch(habitCheck -> habitCheck.getCheckDate().equals(date) && habitCheck.isChecked());
+        // Check if the task group is already checked for today
+        RoutineDayChecks day = dayChecks(taskGroupToCheckOrUncheck.getRoutineSection().getRoutine(), date);
 
-        if (isCheckedToday) {
+        if (isTaskGroupChecked(day, taskGroupToCheckOrUncheck)) {
             // Uncheck: Remove check, subtract XP, adjust constance
-            return uncheckTaskGroup(taskGroupToCheckOrUncheck, date);
+            return uncheckTaskGroup(taskGroupToCheckOrUncheck, day, date);
         } else {
             // XP earn formula lives in CheckXpCalculator
-            return checkTaskGroup(taskGroupToCheckOrUncheck, date);            
+            return checkTaskGroup(taskGroupToCheckOrUncheck, day, date);
         }
     }
 
-    private boolean isHabitGroupChecked(HabitGroup habitGroup, LocalDate date) {
-        return habitGroup.getHabitGroupChecks().stream()
-                .anyMatch(check -> check.getCheckDate().equals(date) && check.isChecked());
+    private boolean isHabitGroupChecked(RoutineDayChecks day, HabitGroup habitGroup) {
+        return getHabitGroupChecked(day, habitGroup) != null;
     }
 
-    private boolean isTaskGroupChecked(TaskGroup taskGroup, LocalDate date) {
-        return taskGroup.getTaskGroupChecks().stream()
-                .anyMatch(check -> check.getCheckDate().equals(date) && check.isChecked());
+    private boolean isTaskGroupChecked(RoutineDayChecks day, TaskGroup taskGroup) {
+        return getTaskGroupChecked(day, taskGroup) != null;
     }
 
     /**
@@ -315,29 +324,25 @@ public class CheckItemService {
         return stored.stream().anyMatch(row -> row.getOutcome() == CheckDayOutcome.DONE);
     }
 
-    private HabitGroupCheck getHabitGroupChecked(HabitGroup habitGroup, LocalDate date) {
-        return habitGroup.getHabitGroupChecks().stream()
-                .filter(check -> check.getCheckDate().equals(date) && check.isChecked())
-                .findFirst()
-                .orElse(null);
+    private HabitGroupCheck getHabitGroupChecked(RoutineDayChecks day, HabitGroup habitGroup) {
+        HabitGroupCheck check = day.habit(habitGroup);
+        return check != null && check.isChecked() ? check : null;
     }
 
-    private TaskGroupCheck getTaskGroupChecked(TaskGroup taskGroup, LocalDate date) {
-        return taskGroup.getTaskGroupChecks().stream()
-                .filter(check -> check.getCheckDate().equals(date) && check.isChecked())
-                .findFirst()
-                .orElse(null);
+    private TaskGroupCheck getTaskGroupChecked(RoutineDayChecks day, TaskGroup taskGroup) {
+        TaskGroupCheck check = day.task(taskGroup);
+        return check != null && check.isChecked() ? check : null;
     }
 
-    private RefreshUiDTO skipHabitGroup(HabitGroup habitGroup, LocalDate date) {
+    private RefreshUiDTO skipHabitGroup(HabitGroup habitGroup, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) habitGroup.getRoutineSection().getRoutine();
-        HabitGroupCheck check = upsertHabitGroupCheck(habitGroup, routine.getUser(), date, false, true, 0);
+        HabitGroupCheck check = upsertHabitGroupCheck(habitGroup, day, routine.getUser(), date, false, true, 0);
         // R12 — a deliberate skip is not a failure. The row keeps the day out of the
         // MISSED column, so the streak walks straight through it, and it is not DONE, so
         // the lifetime total does not move.
         recordHabitDay(habitGroup.getHabit(), routine, date, CheckDayOutcome.SKIPPED);
         updateHabitGroupInRoutine(routine, habitGroup);
-        increaseUserConstanceIfNeeded(routine, date);
+        increaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
                 date,
@@ -348,13 +353,13 @@ public class CheckItemService {
         );
     }
 
-    private RefreshUiDTO unskipHabitGroup(HabitGroup habitGroup, LocalDate date) {
+    private RefreshUiDTO unskipHabitGroup(HabitGroup habitGroup, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) habitGroup.getRoutineSection().getRoutine();
-        HabitGroupCheck check = upsertHabitGroupCheck(habitGroup, routine.getUser(), date, false, false, 0);
+        HabitGroupCheck check = upsertHabitGroupCheck(habitGroup, day, routine.getUser(), date, false, false, 0);
         recordHabitDay(habitGroup.getHabit(), routine,
                 date, absenceOutcome(CheckDayOwnerType.HABIT, habitGroup.getHabit().getId(), routine, date));
         updateHabitGroupInRoutine(routine, habitGroup);
-        decreaseUserConstanceIfNeeded(routine, date);
+        decreaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
                 date,
@@ -365,13 +370,13 @@ public class CheckItemService {
         );
     }
 
-    private RefreshUiDTO skipTaskGroup(TaskGroup taskGroup, LocalDate date) {
+    private RefreshUiDTO skipTaskGroup(TaskGroup taskGroup, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) taskGroup.getRoutineSection().getRoutine();
-        TaskGroupCheck check = upsertTaskGroupCheck(taskGroup, routine.getUser(), date, false, true, 0);
+        TaskGroupCheck check = upsertTaskGroupCheck(taskGroup, day, routine.getUser(), date, false, true, 0);
         // R12, same as the habit side.
         recordTaskDay(taskGroup.getTask(), routine, date, CheckDayOutcome.SKIPPED);
         updateTaskGroupInRoutine(routine, taskGroup);
-        increaseUserConstanceIfNeeded(routine, date);
+        increaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
                 date,
@@ -382,13 +387,13 @@ public class CheckItemService {
         );
     }
 
-    private RefreshUiDTO unskipTaskGroup(TaskGroup taskGroup, LocalDate date) {
+    private RefreshUiDTO unskipTaskGroup(TaskGroup taskGroup, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) taskGroup.getRoutineSection().getRoutine();
-        TaskGroupCheck check = upsertTaskGroupCheck(taskGroup, routine.getUser(), date, false, false, 0);
+        TaskGroupCheck check = upsertTaskGroupCheck(taskGroup, day, routine.getUser(), date, false, false, 0);
         recordTaskDay(taskGroup.getTask(), routine,
                 date, absenceOutcome(CheckDayOwnerType.TASK, taskGroup.getTask().getId(), routine, date));
         updateTaskGroupInRoutine(routine, taskGroup);
-        decreaseUserConstanceIfNeeded(routine, date);
+        decreaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
                 date,
@@ -425,39 +430,37 @@ public class CheckItemService {
 
     private HabitGroupCheck upsertHabitGroupCheck(
             HabitGroup habitGroup,
+            RoutineDayChecks day,
             User owner,
             LocalDate date,
             boolean checked,
             boolean skipped,
             double xpGenerated
     ) {
-        HabitGroupCheck check = checkIfHabitGroupIsAlreadyCheckedAndOverride(habitGroup, date);
+        HabitGroupCheck check = day.habitOrNew(habitGroup);
         check.setCheckDate(date);
         check.setCheckTime(nowInZoneOf(owner));
         check.setChecked(checked);
         check.setSkipped(skipped);
         check.setXpGenerated(xpGenerated);
-        check.setHabitGroup(habitGroup);
-        habitGroup.getHabitGroupChecks().add(check);
         return check;
     }
 
     private TaskGroupCheck upsertTaskGroupCheck(
             TaskGroup taskGroup,
+            RoutineDayChecks day,
             User owner,
             LocalDate date,
             boolean checked,
             boolean skipped,
             double xpGenerated
     ) {
-        TaskGroupCheck check = checkIfTaskGroupIsAlreadyCheckedAndOverrideCheck(taskGroup, date);
+        TaskGroupCheck check = day.taskOrNew(taskGroup);
         check.setCheckDate(date);
         check.setCheckTime(nowInZoneOf(owner));
         check.setChecked(checked);
         check.setSkipped(skipped);
         check.setXpGenerated(xpGenerated);
-        check.setTaskGroup(taskGroup);
-        taskGroup.getTaskGroupChecks().add(check);
         return check;
     }
 
@@ -485,18 +488,14 @@ public class CheckItemService {
         }
     }
 
-    private RefreshUiDTO uncheckHabitGroup(HabitGroup habitGroupToUncheck, LocalDate date) {
+    private RefreshUiDTO uncheckHabitGroup(HabitGroup habitGroupToUncheck, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) habitGroupToUncheck.getRoutineSection().getRoutine();
 
-        HabitGroupCheck existingCheck = habitGroupToUncheck.getHabitGroupChecks().stream()
-                .filter(habitCheck -> habitCheck.getCheckDate().equals(date))
-                .findFirst()
-                .get();
+        HabitGroupCheck existingCheck = day.habit(habitGroupToUncheck);
         Habit habitToCheck = habitGroupToUncheck.getHabit();
         log.info("[LOG] Starting Uncheck for HabitGroupCheck => {}", existingCheck);
 
         // Remove xp and decrease level if needed
-        habitGroupToUncheck.getHabitGroupChecks().remove(existingCheck);
         xpCalculatorService.removeXpOfUserRoutineHabitAndCategoriesAndPersist(
             routine.getUser(),
             existingCheck.getXpGenerated(),
@@ -516,9 +515,8 @@ public class CheckItemService {
         existingCheck.setChecked(false);
         existingCheck.setSkipped(false);
         existingCheck.setXpGenerated(0);
-        habitGroupToUncheck.getHabitGroupChecks().add(existingCheck);
-        
-        decreaseUserConstanceIfNeeded(routine, date);
+
+        decreaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
             date, 
@@ -529,14 +527,12 @@ public class CheckItemService {
         );
     }
 
-     protected RefreshUiDTO checkTaskGroup(TaskGroup taskGroupToCheck, LocalDate date){
+     protected RefreshUiDTO checkTaskGroup(TaskGroup taskGroupToCheck, RoutineDayChecks day, LocalDate date){
         DiaryRoutine routine = (DiaryRoutine) taskGroupToCheck.getRoutineSection().getRoutine();
 
         log.info("[LOG] Starting Check");
         Task taskChecked = taskGroupToCheck.getTask();
-        TaskGroupCheck check = new TaskGroupCheck();
-
-        check = checkIfTaskGroupIsAlreadyCheckedAndOverrideCheck(taskGroupToCheck, date);
+        TaskGroupCheck check = day.taskOrNew(taskGroupToCheck);
 
         int dificulty = taskChecked.getDificulty() != null ? taskChecked.getDificulty() : 1;
         int importance = taskChecked.getImportance() != null ? taskChecked.getImportance() : 1;
@@ -547,7 +543,6 @@ public class CheckItemService {
         check.setChecked(true);
         check.setSkipped(false);
         check.setXpGenerated(0);
-        check.setTaskGroup(taskGroupToCheck);
 
         //Update categories
         if(taskChecked.getCategories() != null && taskChecked.getCategories().size() > 0){
@@ -574,10 +569,9 @@ public class CheckItemService {
         }
 
         //Update entities
-        taskGroupToCheck.getTaskGroupChecks().add(check);
         updateTaskGroupInRoutine(routine, taskGroupToCheck);
 
-        increaseUserConstanceIfNeeded(routine, date);
+        increaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
                 date, 
@@ -591,14 +585,12 @@ public class CheckItemService {
             );
     }
 
-    private RefreshUiDTO checkHabitGroup(HabitGroup habitGroupToCheckOrUncheck, LocalDate date) {
+    private RefreshUiDTO checkHabitGroup(HabitGroup habitGroupToCheckOrUncheck, RoutineDayChecks day, LocalDate date) {
         DiaryRoutine routine = (DiaryRoutine) habitGroupToCheckOrUncheck.getRoutineSection().getRoutine();
 
         log.info("[LOG] Starting Check");
         Habit habitChecked = habitGroupToCheckOrUncheck.getHabit();
-        HabitGroupCheck check = null;
-
-        check = checkIfHabitGroupIsAlreadyCheckedAndOverride(habitGroupToCheckOrUncheck, date);
+        HabitGroupCheck check = day.habitOrNew(habitGroupToCheckOrUncheck);
 
         // R3 — the bonus multiplies the streak entering today, read before today's row is
         // written. Recording first would fold today's own check into its own multiplier.
@@ -620,12 +612,10 @@ public class CheckItemService {
         check.setChecked(true);
         check.setSkipped(false);
         check.setXpGenerated(newXp);
-        check.setHabitGroup(habitGroupToCheckOrUncheck);
 
-        habitGroupToCheckOrUncheck.getHabitGroupChecks().add(check);
         updateHabitGroupInRoutine(routine, habitGroupToCheckOrUncheck);
 
-        increaseUserConstanceIfNeeded(routine, date);
+        increaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
             date,
@@ -639,19 +629,15 @@ public class CheckItemService {
         );
     }
 
-    private RefreshUiDTO uncheckTaskGroup(TaskGroup taskGroupUnchecked, LocalDate date){
+    private RefreshUiDTO uncheckTaskGroup(TaskGroup taskGroupUnchecked, RoutineDayChecks day, LocalDate date){
         DiaryRoutine routine = (DiaryRoutine) taskGroupUnchecked.getRoutineSection().getRoutine();
         
         log.info("[LOG] Starting unchecking");
         Task taskChecked = taskGroupUnchecked.getTask();
 
-        TaskGroupCheck existingCheck = taskGroupUnchecked.getTaskGroupChecks().stream()
-            .filter(taskCheck -> taskCheck.getCheckDate().equals(date))
-            .findFirst()
-            .get();
+        TaskGroupCheck existingCheck = day.task(taskGroupUnchecked);
 
         //Clean the check and remove the xp generated in the categories
-        taskGroupUnchecked.getTaskGroupChecks().remove(existingCheck);
         if(taskChecked.getCategories() != null && taskChecked.getCategories().size() > 0){
             xpCalculatorService.removeXpOfUserRoutineAndCategoriesAndPersist(
                 routine.getUser(),
@@ -674,9 +660,8 @@ public class CheckItemService {
         existingCheck.setChecked(false);
         existingCheck.setSkipped(false);
         existingCheck.setXpGenerated(0);
-        taskGroupUnchecked.getTaskGroupChecks().add(existingCheck);
-        
-        decreaseUserConstanceIfNeeded(routine, date);
+
+        decreaseUserConstanceIfNeeded(routine, day, date);
 
         return refreshUiDtoBuilder.buildRefreshUiDto(
             date, 
@@ -690,33 +675,7 @@ public class CheckItemService {
         );
     }
 
-    private HabitGroupCheck checkIfHabitGroupIsAlreadyCheckedAndOverride(HabitGroup habitGroup, LocalDate date) {
-        Optional<HabitGroupCheck> existingCheck = habitGroup.getHabitGroupChecks().stream()
-                .filter(tc -> tc.getCheckDate().equals(date))
-                .findFirst();
-
-        if (existingCheck.isPresent()) {
-            log.info("[LOG] HabitGroup already have check for today, overriting this one => {}", habitGroup);
-            habitGroup.getHabitGroupChecks().remove(existingCheck.get());
-            return existingCheck.get();
-        }
-        return new HabitGroupCheck();
-    }
-
-    private TaskGroupCheck checkIfTaskGroupIsAlreadyCheckedAndOverrideCheck(TaskGroup taskGroup, LocalDate date){
-        Optional<TaskGroupCheck> existingCheck = taskGroup.getTaskGroupChecks().stream()
-            .filter(tc -> tc.getCheckDate().equals(date))
-            .findFirst();
-
-        if (existingCheck.isPresent()) {
-            log.info("[LOG] TaskGroup already have check for today, overriting this one => {}", taskGroup);
-            taskGroup.getTaskGroupChecks().remove(existingCheck.get());
-            return existingCheck.get();
-        }
-        return new TaskGroupCheck();
-    }
-
-    private void decreaseUserConstanceIfNeeded(DiaryRoutine routine, LocalDate date) {
+    private void decreaseUserConstanceIfNeeded(DiaryRoutine routine, RoutineDayChecks day, LocalDate date) {
         // Identity travels with the data (the routine's owner), not a ThreadLocal:
         // agent tools run on a boundedElastic thread with no SecurityContext.
         User user = routine.getUser();
@@ -729,13 +688,13 @@ public class CheckItemService {
         if(user != null && user.getConstanceConfiguration() != null){
             switch (user.getConstanceConfiguration()) {
                 case COMPLETE:
-                    if(!isAllHabitGroupsCompleted(routine, date) || !isAllTaskGroupsCompleted(routine, date)){
+                    if(!isAllHabitGroupsCompleted(routine, day) || !isAllTaskGroupsCompleted(routine, day)){
                         log.info("[SERVICE] Unmarking constance for user {}, in constance config COMPLETE", user.getName());
                         userService.unmarkDayComplete(user, date);
                     }
                     break;
                 default: //ANY
-                    if(!isAnyHabitGroupCompleted(routine, date) && !isAnyTaskGroupCompleted(routine, date)){
+                    if(!isAnyHabitGroupCompleted(routine, day) && !isAnyTaskGroupCompleted(routine, day)){
                         log.info("[SERVICE] Decreasing constance for user {}, in constance config ANY", user.getName());
                         userService.unmarkDayComplete(user, date);
                     }
@@ -744,7 +703,7 @@ public class CheckItemService {
         }
     }
 
-    private void increaseUserConstanceIfNeeded(DiaryRoutine routine, LocalDate date) {
+    private void increaseUserConstanceIfNeeded(DiaryRoutine routine, RoutineDayChecks day, LocalDate date) {
         // Identity travels with the data (the routine's owner), not a ThreadLocal:
         // agent tools run on a boundedElastic thread with no SecurityContext.
         User user = routine.getUser();
@@ -755,13 +714,13 @@ public class CheckItemService {
         if(user.getConstanceConfiguration() != null){
             switch (user.getConstanceConfiguration()) {
                 case COMPLETE:
-                    if(isAllHabitGroupsCompleted(routine, date) && isAllTaskGroupsCompleted(routine, date)){
+                    if(isAllHabitGroupsCompleted(routine, day) && isAllTaskGroupsCompleted(routine, day)){
                         log.info("[SERVICE] Increasing constance for user {}, in constance config COMPLETE", user.getName());
                         userService.markDayCompleted(user, date);
                     }
                     break;
                 default: //ANY
-                    if(isAnyHabitGroupCompleted(routine, date) || isAnyTaskGroupCompleted(routine, date)){
+                    if(isAnyHabitGroupCompleted(routine, day) || isAnyTaskGroupCompleted(routine, day)){
                         log.info("[SERVICE] Increasing constance for user {}, in constance config ANY", user.getName());
                         userService.markDayCompleted(user, date);
                     }
@@ -770,69 +729,59 @@ public class CheckItemService {
         }
     }
 
-    private boolean isAnyHabitGroupCompleted(DiaryRoutine routine, LocalDate date) {
+    private boolean isAnyHabitGroupCompleted(DiaryRoutine routine, RoutineDayChecks day) {
         return routine.getRoutineSections().stream()
             .anyMatch(section -> section.getHabitGroups().stream()
-                .anyMatch(group -> isHabitGroupCompleted(group, date))
+                .anyMatch(group -> isHabitGroupCompleted(day, group))
             );
     }
 
-    private boolean isAllHabitGroupsCompleted(DiaryRoutine routine, LocalDate date) {
+    private boolean isAllHabitGroupsCompleted(DiaryRoutine routine, RoutineDayChecks day) {
         return routine.getRoutineSections().stream()
-            .allMatch(section -> areAllHabitGroupsCompleted(section, date));
+            .allMatch(section -> areAllHabitGroupsCompleted(section, day));
     }
 
-    private boolean areAllHabitGroupsCompleted(RoutineSection section, LocalDate date) {
+    private boolean areAllHabitGroupsCompleted(RoutineSection section, RoutineDayChecks day) {
         return section.getHabitGroups().stream()
-            .allMatch(group -> isHabitGroupCompletedOrSkipped(group, date));
+            .allMatch(group -> isHabitGroupCompletedOrSkipped(day, group));
     }
 
-    private boolean isHabitGroupCompleted(HabitGroup group, LocalDate date) {
-        return group.getHabitGroupChecks().stream()
-            .anyMatch(check ->
-                check.getCheckDate().equals(date) && check.isChecked()
-            );
+    private boolean isHabitGroupCompleted(RoutineDayChecks day, HabitGroup group) {
+        HabitGroupCheck check = day.habit(group);
+        return check != null && check.isChecked();
     }
 
-    private boolean isHabitGroupCompletedOrSkipped(HabitGroup group, LocalDate date) {
-        return group.getHabitGroupChecks().stream()
-            .anyMatch(check ->
-                check.getCheckDate().equals(date)
-                    && (check.isChecked() || Boolean.TRUE.equals(check.getSkipped()))
-            );
+    private boolean isHabitGroupCompletedOrSkipped(RoutineDayChecks day, HabitGroup group) {
+        HabitGroupCheck check = day.habit(group);
+        return check != null && (check.isChecked() || Boolean.TRUE.equals(check.getSkipped()));
     }
 
-    private boolean isAnyTaskGroupCompleted(DiaryRoutine routine, LocalDate date) {
+    private boolean isAnyTaskGroupCompleted(DiaryRoutine routine, RoutineDayChecks day) {
         return routine.getRoutineSections().stream()
             .anyMatch(section -> section.getTaskGroups().stream()
-                .anyMatch(group -> isTaskGroupCompleted(group, date))
+                .anyMatch(group -> isTaskGroupCompleted(day, group))
             );
 
     }
 
-    private boolean isAllTaskGroupsCompleted(DiaryRoutine routine, LocalDate date) {
+    private boolean isAllTaskGroupsCompleted(DiaryRoutine routine, RoutineDayChecks day) {
         return routine.getRoutineSections().stream()
-            .allMatch(section -> areAllTaskGroupsCompleted(section, date));
+            .allMatch(section -> areAllTaskGroupsCompleted(section, day));
     }
 
-    private boolean areAllTaskGroupsCompleted(RoutineSection section, LocalDate date) {
+    private boolean areAllTaskGroupsCompleted(RoutineSection section, RoutineDayChecks day) {
         return section.getTaskGroups().stream()
-            .allMatch(group -> isTaskGroupCompletedOrSkipped(group, date));
+            .allMatch(group -> isTaskGroupCompletedOrSkipped(day, group));
     }
 
-    private boolean isTaskGroupCompleted(TaskGroup group, LocalDate date) {
-        return group.getTaskGroupChecks().stream()
-            .anyMatch(check ->
-                check.getCheckDate().equals(date) && check.isChecked()
-            );
+    private boolean isTaskGroupCompleted(RoutineDayChecks day, TaskGroup group) {
+        TaskGroupCheck check = day.task(group);
+        return check != null && check.isChecked();
     }
 
-    private boolean isTaskGroupCompletedOrSkipped(TaskGroup group, LocalDate date) {
-        return group.getTaskGroupChecks().stream()
-            .anyMatch(check ->
-                check.getCheckDate().equals(date)
-                    && (check.isChecked() || Boolean.TRUE.equals(check.getSkipped()))
-            );
+    private boolean isTaskGroupCompletedOrSkipped(RoutineDayChecks day, TaskGroup group) {
+        TaskGroupCheck check = day.task(group);
+        return check != null && (check.isChecked() || Boolean.TRUE.equals(check.getSkipped()));
     }
 
 }
@@ -12,7 +12,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
 
 @Entity
-@Table(name = "habit_group_checks")
+@Table(
+        name = "habit_group_checks",
+        indexes = {
+                // The check path reads one entry's check for one day by entry id; see V24.
+                @Index(name = "idx_habit_group_checks_group", columnList = "habit_group_id")
+        })
 @Getter
 @Setter
 @AllArgsConstructor
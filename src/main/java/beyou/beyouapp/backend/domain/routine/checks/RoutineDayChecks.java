@@ -0,0 +1,172 @@
+package beyou.beyouapp.backend.domain.routine.checks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+
+/**
+ * One routine's live checks for one day, keyed by entry id — what a check or skip reads
+ * instead of every entry's whole check collection.
+ *
+ * <p>Answering "is this entry checked today" by streaming
+ * {@code getHabitGroupChecks()} loads every live check the entry has, and the constance
+ * rules ask it of every entry in the routine, so a click paid for the routine's whole live
+ * history. Here the day is fetched once, by entry id and date
+ * ({@code idx_habit_group_checks_group} / {@code idx_task_group_checks_group}, V24), and
+ * every later question is a map lookup.
+ *
+ * <p>A collection that is already loaded is read in memory rather than queried: it may
+ * hold checks this transaction added and has not flushed, which a query would not see.
+ * Only collections Hibernate has not initialised go to the database, and they are never
+ * initialised on the way — a new check is appended, which an uninitialised inverse
+ * collection queues without loading, and an existing one is updated in place.
+ *
+ * <p>Request-scoped and not thread-safe: built at the top of a check or skip and dropped
+ * with it.
+ */
+final class RoutineDayChecks {
+
+    private final LocalDate date;
+    private final HabitGroupCheckRepository habitGroupCheckRepository;
+    private final TaskGroupCheckRepository taskGroupCheckRepository;
+
+    private final Map<UUID, HabitGroupCheck> habitChecks = new HashMap<>();
+    private final Map<UUID, TaskGroupCheck> taskChecks = new HashMap<>();
+    private final Set<UUID> indexedHabitGroups = new HashSet<>();
+    private final Set<UUID> indexedTaskGroups = new HashSet<>();
+
+    private RoutineDayChecks(LocalDate date,
+                             HabitGroupCheckRepository habitGroupCheckRepository,
+                             TaskGroupCheckRepository taskGroupCheckRepository) {
+        this.date = date;
+        this.habitGroupCheckRepository = habitGroupCheckRepository;
+        this.taskGroupCheckRepository = taskGroupCheckRepository;
+    }
+
+    /** Every entry of {@code routine} on {@code date}: at most one query per entry type. */
+    static RoutineDayChecks of(DiaryRoutine routine, LocalDate date,
+                               HabitGroupCheckRepository habitGroupCheckRepository,
+                               TaskGroupCheckRepository taskGroupCheckRepository) {
+        RoutineDayChecks day = new RoutineDayChecks(date, habitGroupCheckRepository, taskGroupCheckRepository);
+        List<HabitGroup> habitGroups = new ArrayList<>();
+        List<TaskGroup> taskGroups = new ArrayList<>();
+        if (routine.getRoutineSections() != null) {
+            for (RoutineSection section : routine.getRoutineSections()) {
+                if (section.getHabitGroups() != null) {
+                    habitGroups.addAll(section.getHabitGroups());
+                }
+                if (section.getTaskGroups() != null) {
+                    taskGroups.addAll(section.getTaskGroups());
+                }
+            }
+        }
+        day.indexHabitGroups(habitGroups);
+        day.indexTaskGroups(taskGroups);
+        return day;
+    }
+
+    /** {@code group}'s check on this day, or null when it has none. */
+    HabitGroupCheck habit(HabitGroup group) {
+        if (!indexedHabitGroups.contains(group.getId())) {
+            // Not reached through the routine's sections — index it on its own.
+            indexHabitGroups(List.of(group));
+        }
+        return habitChecks.get(group.getId());
+    }
+
+    /** {@code group}'s check on this day, or null when it has none. */
+    TaskGroupCheck task(TaskGroup group) {
+        if (!indexedTaskGroups.contains(group.getId())) {
+            indexTaskGroups(List.of(group));
+        }
+        return taskChecks.get(group.getId());
+    }
+
+    /**
+     * {@code group}'s check on this day, creating and attaching one when it has none. The
+     * returned check is the one to mutate; it is never detached from the collection and
+     * re-added, which would load it.
+     */
+    HabitGroupCheck habitOrNew(HabitGroup group) {
+        HabitGroupCheck check = habit(group);
+        if (check == null) {
+            check = new HabitGroupCheck();
+            check.setCheckDate(date);
+            check.setHabitGroup(group);
+            group.getHabitGroupChecks().add(check);
+            habitChecks.put(group.getId(), check);
+        }
+        return check;
+    }
+
+    /** The task side of {@link #habitOrNew}. */
+    TaskGroupCheck taskOrNew(TaskGroup group) {
+        TaskGroupCheck check = task(group);
+        if (check == null) {
+            check = new TaskGroupCheck();
+            check.setCheckDate(date);
+            check.setTaskGroup(group);
+            group.getTaskGroupChecks().add(check);
+            taskChecks.put(group.getId(), check);
+        }
+        return check;
+    }
+
+    private void indexHabitGroups(List<HabitGroup> groups) {
+        List<UUID> unloaded = new ArrayList<>();
+        for (HabitGroup group : groups) {
+            indexedHabitGroups.add(group.getId());
+            List<HabitGroupCheck> checks = group.getHabitGroupChecks();
+            if (checks == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(checks)) {
+                checks.stream()
+                        .filter(check -> date.equals(check.getCheckDate()))
+                        .findFirst()
+                        .ifPresent(check -> habitChecks.put(group.getId(), check));
+            } else {
+                unloaded.add(group.getId());
+            }
+        }
+        if (!unloaded.isEmpty()) {
+            habitGroupCheckRepository.findByHabitGroupIdInAndCheckDate(unloaded, date)
+                    .forEach(check -> habitChecks.putIfAbsent(check.getHabitGroup().getId(), check));
+        }
+    }
+
+    private void indexTaskGroups(List<TaskGroup> groups) {
+        List<UUID> unloaded = new ArrayList<>();
+        for (TaskGroup group : groups) {
+            indexedTaskGroups.add(group.getId());
+            List<TaskGroupCheck> checks = group.getTaskGroupChecks();
+            if (checks == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(checks)) {
+                checks.stream()
+                        .filter(check -> date.equals(check.getCheckDate()))
+                        .findFirst()
+                        .ifPresent(check -> taskChecks.put(group.getId(), check));
+            } else {
+                unloaded.add(group.getId());
+            }
+        }
+        if (!unloaded.isEmpty()) {
+            taskGroupCheckRepository.findByTaskGroupIdInAndCheckDate(unloaded, date)
+                    .forEach(check -> taskChecks.putIfAbsent(check.getTaskGroup().getId(), check));
+        }
+    }
+}
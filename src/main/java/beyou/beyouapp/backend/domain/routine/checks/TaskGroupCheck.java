@@ -12,7 +12,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
 
 @Entity
-@Table(name = "task_group_checks")
+@Table(
+        name = "task_group_checks",
+        indexes = {
+                // The check path reads one entry's check for one day by entry id; see V24.
+                @Index(name = "idx_task_group_checks_group", columnList = "task_group_id")
+        })
 @Getter
 @Setter
 @AllArgsConstructor
@@ -0,0 +1,15 @@
+package beyou.beyouapp.backend.domain.routine.checks;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TaskGroupCheckRepository extends JpaRepository<TaskGroupCheck, UUID> {
+
+    // The live checks of these entries on one day, without loading any entry's whole
+    // collection. Backed by idx_task_group_checks_group (V24).
+    List<TaskGroupCheck> findByTaskGroupIdInAndCheckDate(Collection<UUID> taskGroupIds, LocalDate checkDate);
+}
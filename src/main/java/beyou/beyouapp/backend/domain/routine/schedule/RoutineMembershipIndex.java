@@ -0,0 +1,128 @@
+package beyou.beyouapp.backend.domain.routine.schedule;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.routine.Routine;
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver.Standing;
+
+/**
+ * One user's routines, walked once and kept as "which weekdays does this owner run on".
+ *
+ * <p>{@link ScheduledOnDayResolver#standingOf} used to walk every routine, section and
+ * group for each owner it was asked about, and the day-close pass asks about every habit
+ * and task a user has — owners times routine items, every night, for every user. Built
+ * here once from the routines the caller already loaded, each answer is a map lookup and a
+ * bit test.
+ *
+ * <p>Per owner the index keeps only the OR of the weekday masks of every routine holding
+ * it: membership is an OR across routines (see {@link ScheduledOnDayResolver#standingOf}),
+ * so which routines they were does not change the answer. An owner present with mask 0
+ * sits only in routines that never run, which is {@code Standing(true, false)}, not
+ * orphaned.
+ *
+ * <p>A snapshot of the routines it was built from, not a view: build it where they are
+ * loaded, use it for that request or pass, and drop it.
+ */
+public final class RoutineMembershipIndex {
+
+    private static final RoutineMembershipIndex EMPTY = new RoutineMembershipIndex(false);
+
+    private final boolean hasRoutines;
+    private final Map<UUID, Integer> routineDays = new HashMap<>();
+    private final Map<UUID, Integer> habitDays = new HashMap<>();
+    private final Map<UUID, Integer> taskDays = new HashMap<>();
+    private int anyRoutineDays;
+
+    private RoutineMembershipIndex(boolean hasRoutines) {
+        this.hasRoutines = hasRoutines;
+    }
+
+    /** Indexes {@code routines}, tolerating the same nulls the resolver's walk did. */
+    public static RoutineMembershipIndex of(List<DiaryRoutine> routines) {
+        if (routines == null || routines.isEmpty()) {
+            return EMPTY;
+        }
+        RoutineMembershipIndex index = new RoutineMembershipIndex(true);
+        for (DiaryRoutine routine : routines) {
+            index.add(routine);
+        }
+        return index;
+    }
+
+    /** Same answer as {@link ScheduledOnDayResolver#standingOf} over the indexed routines. */
+    public Standing standingOf(CheckDayOwnerType ownerType, UUID ownerId, LocalDate date) {
+        if (ownerType == null || !hasRoutines) {
+            return Standing.ORPHANED;
+        }
+        return switch (ownerType) {
+            case USER -> new Standing(true, runsOn(anyRoutineDays, date));
+            case ROUTINE -> lookup(routineDays, ownerId, date);
+            case HABIT -> lookup(habitDays, ownerId, date);
+            case TASK -> lookup(taskDays, ownerId, date);
+        };
+    }
+
+    /** Whether the indexed routine with this id runs on {@code date}; false for one not indexed. */
+    public boolean coversDay(UUID routineId, LocalDate date) {
+        Integer days = routineId == null ? null : routineDays.get(routineId);
+        return days != null && runsOn(days, date);
+    }
+
+    // -- private helpers --
+
+    private static boolean runsOn(int days, LocalDate date) {
+        return (days & WeekDay.bitOf(date)) != 0;
+    }
+
+    private static Standing lookup(Map<UUID, Integer> index, UUID ownerId, LocalDate date) {
+        Integer days = ownerId == null ? null : index.get(ownerId);
+        return days == null ? Standing.ORPHANED : new Standing(true, runsOn(days, date));
+    }
+
+    private void add(DiaryRoutine routine) {
+        if (routine == null) {
+            return;
+        }
+        int days = daysOf(routine);
+        anyRoutineDays |= days;
+        if (routine.getId() != null) {
+            // First one wins, as the resolver's walk stopped at the first matching id.
+            routineDays.putIfAbsent(routine.getId(), days);
+        }
+        if (routine.getRoutineSections() == null) {
+            return;
+        }
+        for (RoutineSection section : routine.getRoutineSections()) {
+            if (section == null) {
+                continue;
+            }
+            if (section.getHabitGroups() != null) {
+                for (HabitGroup group : section.getHabitGroups()) {
+                    if (group != null && group.getHabit() != null && group.getHabit().getId() != null) {
+                        habitDays.merge(group.getHabit().getId(), days, (a, b) -> a | b);
+                    }
+                }
+            }
+            if (section.getTaskGroups() != null) {
+                for (TaskGroup group : section.getTaskGroups()) {
+                    if (group != null && group.getTask() != null && group.getTask().getId() != null) {
+                        taskDays.merge(group.getTask().getId(), days, (a, b) -> a | b);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int daysOf(Routine routine) {
+        return routine.getSchedule() == null ? 0 : routine.getSchedule().getDaysMask();
+    }
+}
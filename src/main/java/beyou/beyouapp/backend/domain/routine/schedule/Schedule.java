@@ -1,5 +1,7 @@
 package beyou.beyouapp.backend.domain.routine.schedule;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
@@ -8,7 +10,6 @@ import lombok.*;
 
 @Entity
 @Table(name = "schedules")
-@AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
@@ -27,7 +28,34 @@ public class Schedule {
         uniqueConstraints = @UniqueConstraint(columnNames = {"schedule_id", "days"})
     )
     @Column(name = "days", nullable = false, columnDefinition = "varchar(20)")
+    @Getter(AccessLevel.NONE)
     private Set<WeekDay> days;
 
-}
+    /**
+     * {@link #days} as {@link WeekDay#maskOf bits}, so "scheduled on weekday W" is a column
+     * test in SQL instead of a join through {@code schedule_days}. A mirror, never written
+     * on its own: {@link #setDays} is the only way to change the days, and it moves both.
+     * An in-place edit of the set could not be caught — changing only an element collection
+     * leaves this unversioned entity clean, so no {@code @PreUpdate} would ever run.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "days_mask", nullable = false)
+    private int daysMask;
+
+    public Schedule(UUID id, Set<WeekDay> days) {
+        this.id = id;
+        setDays(days);
+    }
+
+    /** The days, read-only; change them through {@link #setDays}, which keeps the mask in step. */
+    public Set<WeekDay> getDays() {
+        return days == null ? null : Collections.unmodifiableSet(days);
+    }
 
+    /** Replaces the days with a copy of {@code days}, so the caller's set cannot move them later. */
+    public void setDays(Set<WeekDay> days) {
+        this.days = days == null ? null : new HashSet<>(days);
+        this.daysMask = WeekDay.maskOf(days);
+    }
+
+}
@@ -131,7 +131,11 @@ public class ScheduleService {
             }
             
             log.info("[SERVICE] Removing days {} from routine {}", newDays, routine.getName());
-            schedule.getDays().removeAll(newDays);
+            // A new set through the setter rather than removeAll in place, so days_mask
+            // moves with the days in the same flush.
+            Set<WeekDay> remaining = new HashSet<>(schedule.getDays());
+            remaining.removeAll(newDays);
+            schedule.setDays(remaining);
             scheduleRepository.save(schedule);
         }
     }
@@ -1,18 +1,12 @@
 package beyou.beyouapp.backend.domain.routine.schedule;
 
 import java.time.LocalDate;
-import java.time.format.TextStyle;
 import java.util.List;
-import java.util.Locale;
-import java.util.Set;
 import java.util.UUID;
 
 import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
 import beyou.beyouapp.backend.domain.routine.Routine;
-import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
-import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
-import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
 
 /**
  * Answers "was this owner scheduled on day D" for every kind of checkable owner.
@@ -26,8 +20,9 @@ import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
  * <p>The traversal runs <em>down</em> from a routine list the caller already holds
  * rather than up from the item. Walking up would need a {@code TaskGroup} back-reference
  * that {@link beyou.beyouapp.backend.domain.task.Task} does not have, and would pay one
- * lazy collection load per item; the day-close pass loads the user's routines once and
- * asks about every owner against that same list.
+ * lazy collection load per item; the day-close pass loads the user's routines once,
+ * indexes them once ({@link RoutineMembershipIndex}) and asks about every owner against
+ * that.
  *
  * <p>Static rather than a bean, matching {@code CheckXpCalculator} and
  * {@code UserDateResolver}: it holds no state and needs no injection point.
@@ -52,7 +47,7 @@ public final class ScheduledOnDayResolver {
 
     /** The {@link WeekDay} constant for a date. */
     public static WeekDay weekDayOf(LocalDate date) {
-        return WeekDay.valueOf(date.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+        return WeekDay.of(date);
     }
 
     /**
@@ -63,8 +58,7 @@ public final class ScheduledOnDayResolver {
         if (routine == null || routine.getSchedule() == null) {
             return false;
         }
-        Set<WeekDay> days = routine.getSchedule().getDays();
-        return days != null && days.contains(weekDayOf(date));
+        return (routine.getSchedule().getDaysMask() & WeekDay.bitOf(date)) != 0;
     }
 
     /**
@@ -74,86 +68,12 @@ public final class ScheduledOnDayResolver {
      * when <em>either</em> covers the day. Deliberately not assuming one routine per weekday
      * — {@code ScheduleService.checkAndReplaceScheduledRoutines} only enforces that for
      * schedules written through it, and the rule here holds regardless.
+     *
+     * <p>Walks the routines once per call. A caller asking about many owners against the
+     * same routines builds a {@link RoutineMembershipIndex} once and asks it instead.
      */
     public static Standing standingOf(CheckDayOwnerType ownerType, UUID ownerId,
                                       List<DiaryRoutine> routines, LocalDate date) {
-        if (ownerType == null || routines == null || routines.isEmpty()) {
-            return Standing.ORPHANED;
-        }
-        return switch (ownerType) {
-            case USER -> new Standing(true, anyRoutineCovers(routines, date));
-            case ROUTINE -> routineStanding(ownerId, routines, date);
-            case HABIT -> itemStanding(ownerId, routines, date, true);
-            case TASK -> itemStanding(ownerId, routines, date, false);
-        };
-    }
-
-    private static boolean anyRoutineCovers(List<DiaryRoutine> routines, LocalDate date) {
-        return routines.stream().anyMatch(routine -> coversDay(routine, date));
-    }
-
-    private static Standing routineStanding(UUID routineId, List<DiaryRoutine> routines, LocalDate date) {
-        for (DiaryRoutine routine : routines) {
-            if (routine != null && routine.getId() != null && routine.getId().equals(routineId)) {
-                return new Standing(true, coversDay(routine, date));
-            }
-        }
-        return Standing.ORPHANED;
-    }
-
-    /**
-     * Walks every section of every routine looking for the item. {@code habitSide} picks
-     * which group list to read; the two shapes are otherwise identical.
-     */
-    private static Standing itemStanding(UUID itemId, List<DiaryRoutine> routines,
-                                         LocalDate date, boolean habitSide) {
-        if (itemId == null) {
-            return Standing.ORPHANED;
-        }
-        boolean found = false;
-        boolean scheduled = false;
-
-        for (DiaryRoutine routine : routines) {
-            if (routine == null || routine.getRoutineSections() == null) {
-                continue;
-            }
-            boolean inThisRoutine = false;
-            for (RoutineSection section : routine.getRoutineSections()) {
-                if (section == null) {
-                    continue;
-                }
-                inThisRoutine = habitSide
-                        ? sectionHoldsHabit(section, itemId)
-                        : sectionHoldsTask(section, itemId);
-                if (inThisRoutine) {
-                    break;
-                }
-            }
-            if (inThisRoutine) {
-                found = true;
-                scheduled |= coversDay(routine, date);
-            }
-        }
-        return found ? new Standing(true, scheduled) : Standing.ORPHANED;
-    }
-
-    private static boolean sectionHoldsHabit(RoutineSection section, UUID habitId) {
-        List<HabitGroup> groups = section.getHabitGroups();
-        if (groups == null) {
-            return false;
-        }
-        return groups.stream()
-                .anyMatch(group -> group != null && group.getHabit() != null
-                        && habitId.equals(group.getHabit().getId()));
-    }
-
-    private static boolean sectionHoldsTask(RoutineSection section, UUID taskId) {
-        List<TaskGroup> groups = section.getTaskGroups();
-        if (groups == null) {
-            return false;
-        }
-        return groups.stream()
-                .anyMatch(group -> group != null && group.getTask() != null
-                        && taskId.equals(group.getTask().getId()));
+        return RoutineMembershipIndex.of(routines).standingOf(ownerType, ownerId, date);
     }
 }
@@ -1,5 +1,15 @@
 package beyou.beyouapp.backend.domain.routine.schedule;
 
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * The days a {@link Schedule} can run on, in {@link java.time.DayOfWeek} order.
+ *
+ * <p>That order is load-bearing: a day's bit in {@code schedules.days_mask} is
+ * {@code 1 << ordinal()}, Monday the lowest, and V27 backfilled the column with the same
+ * numbering.
+ */
 public enum WeekDay {
     Monday,
     Tuesday,
@@ -7,5 +17,33 @@ public enum WeekDay {
     Thursday,
     Friday,
     Saturday,
-    Sunday
-}
\ No newline at end of file
+    Sunday;
+
+    private static final WeekDay[] VALUES = values();
+
+    /** The constant for {@code date}'s day of the week. */
+    public static WeekDay of(LocalDate date) {
+        return VALUES[date.getDayOfWeek().getValue() - 1];
+    }
+
+    /** This day's bit in a days mask. */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /** The bit of {@code date}'s day of the week in a days mask. */
+    public static int bitOf(LocalDate date) {
+        return of(date).bit();
+    }
+
+    /** {@code days} as a mask, one {@link #bit()} per day. Null is no days. */
+    public static int maskOf(Set<WeekDay> days) {
+        int mask = 0;
+        if (days != null) {
+            for (WeekDay day : days) {
+                mask |= day.bit();
+            }
+        }
+        return mask;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +14,11 @@ import java.util.UUID;
 public interface RoutineSnapshotRepository extends JpaRepository<RoutineSnapshot, UUID> {
     Optional<RoutineSnapshot> findByRoutineIdAndSnapshotDate(UUID routineId, LocalDate snapshotDate);
 
+    // Which of these routines already have a snapshot for the day — the bulk pass's
+    // duplicate check, one query per batch instead of one per routine.
+    @Query("SELECT rs.routine.id FROM RoutineSnapshot rs WHERE rs.routine.id IN :routineIds AND rs.snapshotDate = :snapshotDate")
+    List<UUID> findRoutineIdsWithSnapshotOn(@Param("routineIds") Collection<UUID> routineIds, @Param("snapshotDate") LocalDate snapshotDate);
+
     // All of a user's snapshots for one day, in a single query. Backed by
     // idx_snapshot_user_routine_date; @EntityGraph eager-loads checks to avoid N+1.
     @EntityGraph(attributePaths = "checks")
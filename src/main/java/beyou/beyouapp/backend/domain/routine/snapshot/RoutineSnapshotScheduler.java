@@ -1,17 +1,17 @@
 package beyou.beyouapp.backend.domain.routine.snapshot;
 
 import beyou.beyouapp.backend.domain.checkday.DayCloseService;
-import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
-import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver;
 import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.monitoring.SnapshotJobHeartbeat;
 import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserIdPages;
 import beyou.beyouapp.backend.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -21,7 +21,9 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 
 import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
@@ -49,7 +51,7 @@ public class RoutineSnapshotScheduler {
     private final SnapshotCheckMigrator checkMigrator;
     private final SnapshotJobHeartbeat heartbeat;
     private final DayCloseService dayCloseService;
-    private final UserCacheEvictService userCacheEvictService;
+    private final SnapshotUserFanOut fanOut;
 
     /**
      * Self-reference injected lazily to allow calling @Transactional methods
@@ -71,6 +73,39 @@ public class RoutineSnapshotScheduler {
      */
     private Clock clock = Clock.systemDefaultZone();
 
+    /**
+     * How many user ids each keyset page holds (see {@link UserIdPages}). Heap use of a
+     * pass is bounded by this, not by the number of accounts. Initialised as well as
+     * annotated so the Mockito-built instances in tests get the default too.
+     */
+    @Value("${snapshot.scheduler.page-size:500}")
+    private int pageSize = UserIdPages.DEFAULT_PAGE_SIZE;
+
+    /**
+     * Whether the day-close runs set-based, one {@link DayCloseService#closeDays} per page of
+     * users, or one {@link DayCloseService#closeDay} per user through {@link #fanOut}. The
+     * per-user loop stays as the switch-off and as the retry for a batch that fails.
+     */
+    @Value("${snapshot.scheduler.bulk-day-close:true}")
+    private boolean bulkDayClose = true;
+
+    /**
+     * Users per {@link DayCloseService#closeDays} transaction, at most {@link #pageSize}. The
+     * batch holds every one of its users' check locks until it commits, so this bounds how
+     * long a check from any of them can wait on the close: one batch, not one page.
+     */
+    @Value("${snapshot.scheduler.close-batch-size:50}")
+    private int closeBatchSize = 50;
+
+    /**
+     * Whether the midnight snapshots are written set-based, one
+     * {@link SnapshotService#createSnapshotsForUsers} per page of users, or one
+     * {@link #createSnapshotsForUser} per user through {@link #fanOut}. As with the
+     * day-close, the per-user loop is the switch-off and the retry for a failed page.
+     */
+    @Value("${snapshot.scheduler.bulk-snapshots:true}")
+    private boolean bulkSnapshots = true;
+
     /**
      * Runs once on startup — detects missed snapshots and backfills up to 7 days.
      * Backfilled snapshots use the CURRENT routine structure (historical structure
@@ -91,8 +126,9 @@ public class RoutineSnapshotScheduler {
     public void backfillMissedSnapshots() {
         log.info("Starting startup backfill for missed snapshots");
 
-        List<User> allUsers = userRepository.findAll();
-        for (User user : allUsers) {
+        // Paged ids, not findAll(): this runs on every boot, and a full User list for every
+        // account was the whole boot's memory peak for a pass that only needs who and where.
+        for (UserRepository.IdAndTimezone user : UserIdPages.all(userRepository, pageSize)) {
             try {
                 ZoneId zoneId = ZoneId.of(user.getTimezone());
                 LocalDate userToday = LocalDate.now(zoneId);
@@ -105,7 +141,7 @@ public class RoutineSnapshotScheduler {
                 // prevention, and lazy-loaded collections within a session.
                 for (LocalDate date = earliestAllowed; !date.isAfter(yesterday); date = date.plusDays(1)) {
                     try {
-                        self.createSnapshotsForUser(user, date);
+                        self.createSnapshotsForUser(user.getId(), date);
                     } catch (Exception e) {
                         log.error("Failed to backfill date {} for user {}", date, user.getId(), e);
                     }
@@ -134,7 +170,14 @@ public class RoutineSnapshotScheduler {
      * <p>Scope of the signal: it means "the cycle ran to completion", not "every user's
      * snapshot was written". The per-timezone and per-user failures below stay isolated
      * and logged, deliberately — one user with an unparseable timezone must not blind you
-     * to whether the job itself is alive. Those failures surface as ERROR logs.
+     * to whether the job itself is alive. Those failures surface as ERROR logs and on the
+     * {@code beyou.snapshot.pass.users{outcome=failure}} counter.
+     *
+     * <p>Timezones are walked one after another; the users inside one are written a page
+     * at a time ({@link SnapshotService#createSnapshotsForUsers}), or fanned out by
+     * {@link SnapshotUserFanOut}, capped below the connection pool, when bulk mode is off or
+     * a page fails. A timezone the size of America/Sao_Paulo used to hold this thread for the
+     * whole serial walk and push the heartbeat late; now it costs a few statements per page.
      */
     @Scheduled(cron = "0 0 * * * *")
     public void processSnapshots() {
@@ -150,17 +193,13 @@ public class RoutineSnapshotScheduler {
                 if (nowInZone.getHour() == 0) {
                     // It's midnight in this timezone — snapshot yesterday's data
                     LocalDate yesterday = nowInZone.toLocalDate().minusDays(1);
-                    List<User> users = userRepository.findAllByTimezone(timezone);
+                    log.info("Midnight detected for timezone {}, snapshotting {}", timezone, yesterday);
 
-                    log.info("Midnight detected for timezone {}, processing {} users", timezone, users.size());
-
-                    for (User user : users) {
-                        try {
-                            self.createSnapshotsForUser(user, yesterday);
-                        } catch (Exception e) {
-                            log.error("Failed to create snapshots for user {} in timezone {}",
-                                    user.getId(), timezone, e);
-                        }
+                    if (bulkSnapshots) {
+                        snapshotInBatches(timezone, yesterday);
+                    } else {
+                        snapshotUserByUser(timezone, UserIdPages.inTimezone(userRepository, timezone, pageSize),
+                                yesterday);
                     }
                 }
 
@@ -200,40 +239,126 @@ public class RoutineSnapshotScheduler {
      * per-user-per-date and not per-routine, so a habit sitting in two routines is visited
      * once.
      *
-     * <p>The per-user try/catch is the same shape as the snapshot loop above and matters for
-     * the same reason: an exception escaping here would skip {@link #signalHeartbeat()} and
-     * trip the snapshot-job-dead monitor for something that is not the snapshot job.
+     * <p>Failures never escape: a failed batch falls back to the per-user loop, whose
+     * failures are contained by {@link SnapshotUserFanOut} as in the snapshot branch. That
+     * matters for the same reason: an exception escaping here would skip
+     * {@link #signalHeartbeat()} and trip the snapshot-job-dead monitor for something that is
+     * not the snapshot job.
      *
      * <p>{@code DayCloseService} is a separate {@code @Transactional} bean, so each call
-     * already crosses its own Spring proxy and gets its own transaction — one user's failure
-     * rolls back that user's day and nothing else. The {@code @Lazy self} hop the snapshot
-     * branch needs is only there because {@code createSnapshotsForUser} lives on this class.
+     * already crosses its own Spring proxy and gets its own transaction — a batch per call in
+     * bulk mode, a user per call otherwise. The {@code @Lazy self} hop the snapshot branch
+     * needs is only there because {@code createSnapshotsForUser} lives on this class.
      */
     private void closeYesterdayForTimezone(String timezone, LocalDate closingDay) {
-        List<User> users = userRepository.findAllByTimezone(timezone);
-        log.info("Day-close grace hour reached for timezone {}, closing {} for {} users",
-                timezone, closingDay, users.size());
+        log.info("Day-close grace hour reached for timezone {}, closing {}", timezone, closingDay);
+
+        // Each user written for has their caches dropped by DayCloseService as it goes;
+        // nothing is left to clear across the whole timezone.
+        if (bulkDayClose) {
+            closeInBatches(timezone, closingDay);
+        } else {
+            closeUserByUser(timezone, UserIdPages.inTimezone(userRepository, timezone, pageSize), closingDay);
+        }
+    }
 
-        int usersClosed = 0;
-        for (User user : users) {
-            try {
-                if (dayCloseService.closeDay(user, closingDay) > 0) {
-                    usersClosed++;
-                }
-            } catch (Exception e) {
-                log.error("Failed to close day {} for user {} in timezone {}",
-                        closingDay, user.getId(), timezone, e);
+    /**
+     * One {@link DayCloseService#closeDays} per {@link #closeBatchSize} users: a handful of
+     * statements per batch instead of a handful per owner. A batch that fails is rolled back
+     * as a whole and retried user by user, so one account's bad data costs that account its
+     * day and no one else's — the isolation the per-user loop had, paid for only when it is
+     * needed.
+     *
+     * @return how many users received at least one row
+     */
+    private int closeInBatches(String timezone, LocalDate closingDay) {
+        int batchSize = Math.max(1, Math.min(pageSize, closeBatchSize));
+        int changed = 0;
+        int users = 0;
+        List<UUID> batch = new ArrayList<>(batchSize);
+        for (UUID userId : UserIdPages.inTimezone(userRepository, timezone, pageSize)) {
+            batch.add(userId);
+            if (batch.size() == batchSize) {
+                changed += closeBatch(timezone, batch, closingDay);
+                users += batch.size();
+                batch = new ArrayList<>(batchSize);
             }
         }
+        if (!batch.isEmpty()) {
+            changed += closeBatch(timezone, batch, closingDay);
+            users += batch.size();
+        }
+        log.info("Bulk day-close for timezone {} processed {} users, {} changed", timezone, users, changed);
+        return changed;
+    }
 
-        // Once for the whole batch, not once per user. The `routine` cache is keyed
-        // userId_routineId and can only be cleared wholesale, so calling
-        // evictAllUserCaches inside the loop would flush it once per user.
-        if (usersClosed > 0) {
-            userCacheEvictService.clearSharedRoutineCache();
+    private int closeBatch(String timezone, List<UUID> batch, LocalDate closingDay) {
+        try {
+            return dayCloseService.closeDays(batch, closingDay).usersChanged().size();
+        } catch (Exception e) {
+            log.warn("Bulk day-close of {} users in timezone {} failed; retrying them one by one",
+                    batch.size(), timezone, e);
+            return closeUserByUser(timezone, batch, closingDay);
         }
     }
 
+    /** @return how many users received at least one row */
+    private int closeUserByUser(String timezone, Iterable<UUID> userIds, LocalDate closingDay) {
+        // A reference is all closeDay needs: it reloads the account by id in its own
+        // transaction, so nothing here reads a users row beyond the id page.
+        SnapshotUserFanOut.Outcome outcome = fanOut.run("day-close", timezone, userIds,
+                userId -> dayCloseService.closeDay(userRepository.getReferenceById(userId), closingDay) > 0);
+        log.info("Day-close pass for timezone {} processed {} users, {} failed",
+                timezone, outcome.processed(), outcome.failed());
+        return outcome.changed();
+    }
+
+    /**
+     * The midnight snapshots one {@link SnapshotService#createSnapshotsForUsers} per keyset
+     * page, the same shape as {@link #closeInBatches}: a page that fails is rolled back whole
+     * and retried user by user, so the isolation of the per-user loop is kept and only paid
+     * for when a page actually fails.
+     */
+    private void snapshotInBatches(String timezone, LocalDate snapshotDate) {
+        int snapshots = 0;
+        int users = 0;
+        List<UUID> batch = new ArrayList<>(pageSize);
+        for (UUID userId : UserIdPages.inTimezone(userRepository, timezone, pageSize)) {
+            batch.add(userId);
+            if (batch.size() == pageSize) {
+                snapshots += snapshotBatch(timezone, batch, snapshotDate);
+                users += batch.size();
+                batch = new ArrayList<>(pageSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            snapshots += snapshotBatch(timezone, batch, snapshotDate);
+            users += batch.size();
+        }
+        log.info("Bulk snapshot pass for timezone {} processed {} users, {} snapshots written",
+                timezone, users, snapshots);
+    }
+
+    private int snapshotBatch(String timezone, List<UUID> batch, LocalDate snapshotDate) {
+        try {
+            return snapshotService.createSnapshotsForUsers(batch, snapshotDate);
+        } catch (Exception e) {
+            log.warn("Bulk snapshot of {} users in timezone {} failed; retrying them one by one",
+                    batch.size(), timezone, e);
+            snapshotUserByUser(timezone, batch, snapshotDate);
+            return 0;
+        }
+    }
+
+    private void snapshotUserByUser(String timezone, Iterable<UUID> userIds, LocalDate snapshotDate) {
+        SnapshotUserFanOut.Outcome outcome = fanOut.run("snapshot", timezone, userIds, userId -> {
+            self.createSnapshotsForUser(userId, snapshotDate);
+            return true;
+        });
+        log.info("Snapshot pass for timezone {} processed {} users, {} failed",
+                timezone, outcome.processed(), outcome.failed());
+    }
+
     /**
      * The heartbeat already swallows delivery failures; this guards the remaining
      * surface (a misconfiguration or bug inside the signal path itself). Monitoring must
@@ -247,27 +372,31 @@ public class RoutineSnapshotScheduler {
         }
     }
 
+    /**
+     * The paged passes' entry point: they only hold ids, so the account is resolved here,
+     * inside the transaction that uses it. A reference rather than a load — the snapshot
+     * only needs the foreign key, and the routines are fetched by user id below.
+     */
+    @Transactional
+    public void createSnapshotsForUser(UUID userId, LocalDate date) {
+        createSnapshotsForUser(userRepository.getReferenceById(userId), date);
+    }
+
     @Transactional
     public void createSnapshotsForUser(User user, LocalDate date) {
         log.debug("Creating snapshots for user {} on date {}", user.getId(), date);
 
-        List<DiaryRoutine> routines = diaryRoutineRepository.findAllByUserId(user.getId());
+        WeekDay weekDay = WeekDay.of(date);
+        // Only the routines due on the day are loaded: the same days_mask test the bulk
+        // pass runs, so the two can never disagree about whether a routine ran.
+        List<DiaryRoutine> routines = diaryRoutineRepository.findAllByUserIdScheduledOn(user.getId(), weekDay.bit());
 
         if (routines.isEmpty()) {
-            log.debug("No routines found for user {}", user.getId());
+            log.debug("No routines scheduled for user {} on {}", user.getId(), weekDay);
             return;
         }
 
-        WeekDay weekDay = ScheduledOnDayResolver.weekDayOf(date);
-
         for (DiaryRoutine routine : routines) {
-            // Same predicate the day-close pass uses, so the two can never disagree
-            // about whether a routine ran on a given day.
-            if (!ScheduledOnDayResolver.coversDay(routine, date)) {
-                log.debug("Routine {} not scheduled for {}", routine.getId(), weekDay);
-                continue;
-            }
-
             // Check if snapshot already exists (duplicate prevention)
             boolean exists = snapshotRepository
                     .findByRoutineIdAndSnapshotDate(routine.getId(), date)
@@ -1,5 +1,6 @@
 package beyou.beyouapp.backend.domain.routine.snapshot;
 
+import beyou.beyouapp.backend.domain.routine.checks.BaseCheck;
 import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
 import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheck;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
@@ -14,8 +15,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -29,73 +28,81 @@ public class SnapshotCheckMigrator {
         log.info("Migrating live checks to snapshot {} for routine {} on date {}",
                 snapshot.getId(), routine.getId(), date);
 
-        // Build map of originalGroupId -> SnapshotCheck from snapshot.getChecks()
-        Map<UUID, SnapshotCheck> snapshotCheckByGroupId = snapshot.getChecks().stream()
-                .filter(sc -> sc.getOriginalGroupId() != null)
-                .collect(Collectors.toMap(
-                        SnapshotCheck::getOriginalGroupId,
-                        Function.identity(),
-                        (existing, duplicate) -> existing
-                ));
-
         List<UUID> habitGroupIds = new ArrayList<>();
         List<UUID> taskGroupIds = new ArrayList<>();
 
         for (RoutineSection section : routine.getRoutineSections()) {
-            // Process habit groups
             if (section.getHabitGroups() != null) {
                 for (HabitGroup habitGroup : section.getHabitGroups()) {
                     habitGroupIds.add(habitGroup.getId());
-
-                    if (habitGroup.getHabitGroupChecks() == null) {
-                        continue;
-                    }
-
-                    Optional<HabitGroupCheck> liveCheckOpt = habitGroup.getHabitGroupChecks().stream()
-                            .filter(check -> date.equals(check.getCheckDate()))
-                            .findFirst();
-
-                    if (liveCheckOpt.isPresent()) {
-                        HabitGroupCheck liveCheck = liveCheckOpt.get();
-                        SnapshotCheck snapshotCheck = snapshotCheckByGroupId.get(habitGroup.getId());
-                        if (snapshotCheck != null) {
-                            snapshotCheck.setChecked(liveCheck.isChecked());
-                            snapshotCheck.setSkipped(liveCheck.getSkipped() != null && liveCheck.getSkipped());
-                            snapshotCheck.setCheckTime(liveCheck.getCheckTime());
-                            snapshotCheck.setXpGenerated(liveCheck.getXpGenerated());
-                        }
-                    }
                 }
             }
-
-            // Process task groups
             if (section.getTaskGroups() != null) {
                 for (TaskGroup taskGroup : section.getTaskGroups()) {
                     taskGroupIds.add(taskGroup.getId());
+                }
+            }
+        }
 
-                    if (taskGroup.getTaskGroupChecks() == null) {
-                        continue;
-                    }
+        copyLiveChecks(snapshot.getChecks(), liveChecksOn(habitGroupIds, taskGroupIds, date));
+        deleteLiveChecks(habitGroupIds, taskGroupIds, date);
 
-                    Optional<TaskGroupCheck> liveCheckOpt = taskGroup.getTaskGroupChecks().stream()
-                            .filter(check -> date.equals(check.getCheckDate()))
-                            .findFirst();
+        log.info("Check migration completed for snapshot {}", snapshot.getId());
+    }
 
-                    if (liveCheckOpt.isPresent()) {
-                        TaskGroupCheck liveCheck = liveCheckOpt.get();
-                        SnapshotCheck snapshotCheck = snapshotCheckByGroupId.get(taskGroup.getId());
-                        if (snapshotCheck != null) {
-                            snapshotCheck.setChecked(liveCheck.isChecked());
-                            snapshotCheck.setSkipped(liveCheck.getSkipped() != null && liveCheck.getSkipped());
-                            snapshotCheck.setCheckTime(liveCheck.getCheckTime());
-                            snapshotCheck.setXpGenerated(liveCheck.getXpGenerated());
-                        }
-                    }
-                }
+    /**
+     * The live check each group recorded on {@code date}, keyed by group id — one query per
+     * check type for any number of groups and routines. Only that day's rows are read; a
+     * group's {@code habitGroupChecks} collection holds its whole history, and streaming it
+     * to find one day loaded every check a group ever had.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, BaseCheck> liveChecksOn(Collection<UUID> habitGroupIds, Collection<UUID> taskGroupIds,
+                                            LocalDate date) {
+        Map<UUID, BaseCheck> byGroupId = new HashMap<>();
+        if (!habitGroupIds.isEmpty()) {
+            entityManager.createQuery(
+                    "SELECT h FROM HabitGroupCheck h WHERE h.habitGroup.id IN :ids AND h.checkDate = :date",
+                    HabitGroupCheck.class)
+                    .setParameter("ids", habitGroupIds)
+                    .setParameter("date", date)
+                    .getResultList()
+                    .forEach(check -> byGroupId.putIfAbsent(check.getHabitGroup().getId(), check));
+        }
+        if (!taskGroupIds.isEmpty()) {
+            entityManager.createQuery(
+                    "SELECT t FROM TaskGroupCheck t WHERE t.taskGroup.id IN :ids AND t.checkDate = :date",
+                    TaskGroupCheck.class)
+                    .setParameter("ids", taskGroupIds)
+                    .setParameter("date", date)
+                    .getResultList()
+                    .forEach(check -> byGroupId.putIfAbsent(check.getTaskGroup().getId(), check));
+        }
+        return byGroupId;
+    }
+
+    /** Copies each group's live outcome onto the snapshot check that froze that group. */
+    public static void copyLiveChecks(Collection<SnapshotCheck> snapshotChecks, Map<UUID, BaseCheck> liveByGroupId) {
+        Set<UUID> seen = new HashSet<>();
+        for (SnapshotCheck snapshotCheck : snapshotChecks) {
+            UUID groupId = snapshotCheck.getOriginalGroupId();
+            // First snapshot check per group only, as the group-id map this replaced did.
+            if (groupId == null || !seen.add(groupId)) {
+                continue;
+            }
+            BaseCheck liveCheck = liveByGroupId.get(groupId);
+            if (liveCheck != null) {
+                snapshotCheck.setChecked(liveCheck.isChecked());
+                snapshotCheck.setSkipped(liveCheck.getSkipped() != null && liveCheck.getSkipped());
+                snapshotCheck.setCheckTime(liveCheck.getCheckTime());
+                snapshotCheck.setXpGenerated(liveCheck.getXpGenerated());
             }
         }
+    }
 
-        // Delete live checks via bulk JPQL
+    /** Removes the day's live checks once the snapshot holds them, via bulk JPQL. */
+    @Transactional
+    public void deleteLiveChecks(Collection<UUID> habitGroupIds, Collection<UUID> taskGroupIds, LocalDate date) {
         if (!habitGroupIds.isEmpty()) {
             int deletedHabits = entityManager.createQuery(
                     "DELETE FROM HabitGroupCheck h WHERE h.habitGroup.id IN :ids AND h.checkDate = :date")
@@ -113,7 +120,5 @@ public class SnapshotCheckMigrator {
                     .executeUpdate();
             log.debug("Deleted {} task group checks for date {}", deletedTasks, date);
         }
-
-        log.info("Check migration completed for snapshot {}", snapshot.getId());
     }
 }
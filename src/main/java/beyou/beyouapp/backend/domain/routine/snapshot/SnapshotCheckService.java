@@ -29,6 +29,7 @@ import beyou.beyouapp.backend.domain.task.Task;
 import beyou.beyouapp.backend.domain.task.TaskRepository;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
+import beyou.beyouapp.backend.exceptions.user.UserNotFound;
 import beyou.beyouapp.backend.security.AuthenticatedUser;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
@@ -69,7 +70,7 @@ public class SnapshotCheckService {
 
     @Transactional
     public RefreshUiDTO checkOrUncheckSnapshotItem(UUID snapshotId, UUID snapshotCheckId) {
-        User user = authenticatedUser.getAuthenticatedUser();
+        User user = currentUser();
 
         RoutineSnapshot snapshot = snapshotRepository.findById(snapshotId)
                 .orElseThrow(() -> new BusinessException(ErrorKey.SNAPSHOT_NOT_FOUND,
@@ -113,7 +114,7 @@ public class SnapshotCheckService {
 
     @Transactional
     public RefreshUiDTO skipOrUnskipSnapshotItem(UUID snapshotId, UUID snapshotCheckId) {
-        User user = authenticatedUser.getAuthenticatedUser();
+        User user = currentUser();
 
         RoutineSnapshot snapshot = snapshotRepository.findById(snapshotId)
                 .orElseThrow(() -> new BusinessException(ErrorKey.SNAPSHOT_NOT_FOUND,
@@ -155,6 +156,18 @@ public class SnapshotCheckService {
         return refreshUiDtoBuilder.buildSnapshotRefreshUiDto(user);
     }
 
+    /**
+     * The caller's account as a managed entity. The security principal is a cached copy
+     * shared across requests (see {@code AuthenticatedPrincipalCache}); this path moves XP
+     * and completed days and then saves the user, so it needs the row as it stands now —
+     * merging the principal back would write whatever XP it was loaded with.
+     */
+    private User currentUser() {
+        UUID userId = authenticatedUser.getAuthenticatedUser().getId();
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFound("User not found by id"));
+    }
+
     private void checkSnapshotItem(User user, DiaryRoutine routine, RoutineSnapshot snapshot, SnapshotCheck check) {
         // ponytail: no streak bonus on late check-ins (a late check already broke the streak);
         // decay still applies below. Snapshot has no constance to read anyway.
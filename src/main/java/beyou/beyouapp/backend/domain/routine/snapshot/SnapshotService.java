@@ -1,5 +1,10 @@
 package beyou.beyouapp.backend.domain.routine.snapshot;
 
+import beyou.beyouapp.backend.domain.routine.checks.BaseCheck;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotStructureSerializer.Item;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotStructureSerializer.Section;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotStructureSerializer.Structure;
 import beyou.beyouapp.backend.domain.routine.snapshot.dto.SnapshotCheckResponseDTO;
 import beyou.beyouapp.backend.domain.routine.snapshot.dto.SnapshotMonthResponseDTO;
 import beyou.beyouapp.backend.domain.routine.snapshot.dto.SnapshotResponseDTO;
@@ -8,14 +13,22 @@ import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRep
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import beyou.beyouapp.backend.user.User;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,6 +41,18 @@ public class SnapshotService {
     private final SnapshotCheckRepository snapshotCheckRepository;
     private final DiaryRoutineRepository diaryRoutineRepository;
     private final SnapshotStructureSerializer structureSerializer;
+    private final SnapshotCheckMigrator checkMigrator;
+    private final EntityManager entityManager;
+
+    /**
+     * The JDBC batch size for the bulk pass's inserts, in place of the global
+     * {@code hibernate.jdbc.batch_size} tuned for request-sized flushes. A page of users
+     * writes thousands of {@code snapshot_check} rows, and with {@code reWriteBatchedInserts}
+     * on the driver each batch goes out as one multi-row INSERT. Initialised as well as
+     * annotated so the Mockito-built instances in tests get the default too.
+     */
+    @Value("${snapshot.scheduler.insert-batch-size:500}")
+    private int insertBatchSize = 500;
 
     @Transactional
     public RoutineSnapshot createSnapshot(DiaryRoutine routine, User user, LocalDate snapshotDate) {
@@ -35,14 +60,7 @@ public class SnapshotService {
 
         String structureJson = structureSerializer.serializeStructure(routine);
 
-        RoutineSnapshot snapshot = new RoutineSnapshot();
-        snapshot.setRoutine(routine);
-        snapshot.setUser(user);
-        snapshot.setSnapshotDate(snapshotDate);
-        snapshot.setRoutineName(routine.getName());
-        snapshot.setRoutineIconId(routine.getIconId());
-        snapshot.setStructureJson(structureJson);
-        snapshot.setCompleted(false);
+        RoutineSnapshot snapshot = newSnapshot(routine, user, snapshotDate, structureJson);
 
         RoutineSnapshot savedSnapshot = snapshotRepository.save(snapshot);
 
@@ -54,6 +72,86 @@ public class SnapshotService {
         return savedSnapshot;
     }
 
+    /**
+     * The midnight pass for a page of users in one transaction: every due routine of every
+     * user snapshotted, its live checks folded in and then deleted — what
+     * {@code RoutineSnapshotScheduler.createSnapshotsForUser} and {@link SnapshotCheckMigrator}
+     * do one user and one routine at a time, as a fixed number of statements per page.
+     *
+     * <ul>
+     *   <li>One read of the routine graphs ({@link DiaryRoutineRepository#findAllByUserIdInScheduledOn}),
+     *       one duplicate check, one read of the day's live checks per check type.</li>
+     *   <li>The structure JSON comes from {@link SnapshotStructureSerializer}'s template cache,
+     *       so a routine nobody edited is not serialized again.</li>
+     *   <li>Live outcomes are copied before the insert, so each {@code snapshot_check} row is
+     *       written once, final — not inserted blank and updated by dirty checking.</li>
+     *   <li>The inserts go out as JDBC batches of {@code insertBatchSize}.</li>
+     * </ul>
+     *
+     * <p>All-or-nothing for the page: the caller retries a failed page user by user.
+     *
+     * @return how many snapshots were written
+     */
+    @Transactional
+    public int createSnapshotsForUsers(Collection<UUID> userIds, LocalDate snapshotDate) {
+        // Same days_mask test as the per-user path: routines not due never leave the database.
+        List<DiaryRoutine> due = diaryRoutineRepository.findAllByUserIdInScheduledOn(
+                userIds, WeekDay.bitOf(snapshotDate));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        Set<UUID> alreadySnapshotted = new HashSet<>(snapshotRepository.findRoutineIdsWithSnapshotOn(
+                due.stream().map(DiaryRoutine::getId).toList(), snapshotDate));
+
+        List<RoutineSnapshot> snapshots = new ArrayList<>();
+        List<UUID> habitGroupIds = new ArrayList<>();
+        List<UUID> taskGroupIds = new ArrayList<>();
+        for (DiaryRoutine routine : due) {
+            if (alreadySnapshotted.contains(routine.getId())) {
+                continue;
+            }
+            Structure structure = structureSerializer.structureOf(routine);
+            RoutineSnapshot snapshot = newSnapshot(routine, routine.getUser(), snapshotDate,
+                    structureSerializer.serializeStructure(structure));
+            snapshot.setChecks(structureSerializer.createSnapshotChecks(structure, snapshot));
+            snapshots.add(snapshot);
+
+            for (Section section : structure.sections()) {
+                for (Item item : section.items()) {
+                    (item.type() == SnapshotItemType.HABIT ? habitGroupIds : taskGroupIds).add(item.groupId());
+                }
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, BaseCheck> live = checkMigrator.liveChecksOn(habitGroupIds, taskGroupIds, snapshotDate);
+        snapshots.forEach(snapshot -> SnapshotCheckMigrator.copyLiveChecks(snapshot.getChecks(), live));
+
+        entityManager.unwrap(Session.class).setJdbcBatchSize(insertBatchSize);
+        // Checks ride the cascade; order_inserts groups each table's rows into one batch.
+        snapshotRepository.saveAll(snapshots);
+        checkMigrator.deleteLiveChecks(habitGroupIds, taskGroupIds, snapshotDate);
+
+        log.info("Bulk snapshot for {} users on {} wrote {} snapshots", userIds.size(), snapshotDate, snapshots.size());
+        return snapshots.size();
+    }
+
+    private static RoutineSnapshot newSnapshot(DiaryRoutine routine, User user, LocalDate snapshotDate,
+                                               String structureJson) {
+        RoutineSnapshot snapshot = new RoutineSnapshot();
+        snapshot.setRoutine(routine);
+        snapshot.setUser(user);
+        snapshot.setSnapshotDate(snapshotDate);
+        snapshot.setRoutineName(routine.getName());
+        snapshot.setRoutineIconId(routine.getIconId());
+        snapshot.setStructureJson(structureJson);
+        snapshot.setCompleted(false);
+        return snapshot;
+    }
+
     @Transactional(readOnly = true)
     public SnapshotResponseDTO getSnapshot(UUID routineId, LocalDate date, UUID userId) {
         RoutineSnapshot snapshot = snapshotRepository.findByRoutineIdAndSnapshotDate(routineId, date)
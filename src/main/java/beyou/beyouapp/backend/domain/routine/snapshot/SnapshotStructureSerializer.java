@@ -2,6 +2,8 @@ package beyou.beyouapp.backend.domain.routine.snapshot;
 
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
@@ -11,60 +13,142 @@ import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 
+/**
+ * Turns a routine into what its snapshot keeps: the structure JSON and one
+ * {@link SnapshotCheck} per item.
+ *
+ * <p>Both come from one walk of the routine graph into a {@link Structure}, a plain value of
+ * everything the two outputs read. The JSON is then looked up by that value: a routine
+ * nobody edited produces an equal {@code Structure} night after night, and its JSON is
+ * served from {@link #structureJson} instead of being rebuilt as a Jackson tree for every
+ * snapshot. The value is the key, compared by {@code equals} after the hash, so an edit —
+ * a renamed habit, a moved section, a changed time — misses by construction and nothing
+ * has to evict anything. Entries a routine stops using age out after
+ * {@link #TEMPLATE_IDLE}.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class SnapshotStructureSerializer {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    /** Longer than a day, so a routine snapshotted every night keeps its entry between passes. */
+    static final Duration TEMPLATE_IDLE = Duration.ofHours(26);
+    static final long TEMPLATE_MAX_SIZE = 20_000;
+
     private final ObjectMapper objectMapper;
 
+    private final Cache<Structure, String> structureJson = Caffeine.newBuilder()
+            .maximumSize(TEMPLATE_MAX_SIZE)
+            .expireAfterAccess(TEMPLATE_IDLE)
+            .build();
+
+    /** Everything the snapshot reads from one section, in the order it serializes. */
+    record Section(String name, String iconId, int orderIndex, LocalTime startTime, LocalTime endTime,
+                   List<Item> items) {
+    }
+
+    /** One habit or task entry of a section — the JSON item and the check row both come from it. */
+    record Item(SnapshotItemType type, UUID groupId, UUID itemId, String name, String iconId,
+                LocalTime startTime, LocalTime endTime, int difficulty, int importance) {
+    }
+
+    /** A routine's structure as a value: equal for two nights with no edit in between. */
+    public record Structure(List<Section> sections) {
+    }
+
     public String serializeStructure(DiaryRoutine routine) {
-        ObjectNode root = objectMapper.createObjectNode();
-        ArrayNode sectionsNode = root.putArray("sections");
+        return serializeStructure(structureOf(routine));
+    }
+
+    public List<SnapshotCheck> createSnapshotChecks(DiaryRoutine routine, RoutineSnapshot snapshot) {
+        return createSnapshotChecks(structureOf(routine), snapshot);
+    }
 
+    /** The single walk of the routine graph: sections by orderIndex, habit entries before task entries. */
+    public Structure structureOf(DiaryRoutine routine) {
+        List<Section> sections = new ArrayList<>();
         routine.getRoutineSections().stream()
             .sorted(Comparator.comparingInt(RoutineSection::getOrderIndex))
             .forEach(section -> {
-                ObjectNode sectionNode = sectionsNode.addObject();
-                sectionNode.put("name", section.getName());
-                sectionNode.put("iconId", section.getIconId());
-                sectionNode.put("orderIndex", section.getOrderIndex());
-                sectionNode.put("startTime", formatTime(section.getStartTime()));
-                sectionNode.put("endTime", formatTime(section.getEndTime()));
-
-                ArrayNode itemsNode = sectionNode.putArray("items");
-
+                List<Item> items = new ArrayList<>();
                 if (section.getHabitGroups() != null) {
-                    section.getHabitGroups().forEach(hg -> {
-                        ObjectNode item = itemsNode.addObject();
-                        item.put("type", "HABIT");
-                        item.put("groupId", hg.getId().toString());
-                        item.put("itemId", hg.getHabit().getId().toString());
-                        item.put("name", hg.getHabit().getName());
-                        item.put("iconId", hg.getHabit().getIconId());
-                        item.put("startTime", formatTime(hg.getStartTime()));
-                        item.put("endTime", formatTime(hg.getEndTime()));
-                    });
+                    section.getHabitGroups().forEach(hg -> items.add(new Item(SnapshotItemType.HABIT,
+                            hg.getId(), hg.getHabit().getId(), hg.getHabit().getName(), hg.getHabit().getIconId(),
+                            hg.getStartTime(), hg.getEndTime(),
+                            hg.getHabit().getDificulty(), hg.getHabit().getImportance())));
                 }
                 if (section.getTaskGroups() != null) {
-                    section.getTaskGroups().forEach(tg -> {
-                        ObjectNode item = itemsNode.addObject();
-                        item.put("type", "TASK");
-                        item.put("groupId", tg.getId().toString());
-                        item.put("itemId", tg.getTask().getId().toString());
-                        item.put("name", tg.getTask().getName());
-                        item.put("iconId", tg.getTask().getIconId());
-                        item.put("startTime", formatTime(tg.getStartTime()));
-                        item.put("endTime", formatTime(tg.getEndTime()));
-                    });
+                    section.getTaskGroups().forEach(tg -> items.add(new Item(SnapshotItemType.TASK,
+                            tg.getId(), tg.getTask().getId(), tg.getTask().getName(), tg.getTask().getIconId(),
+                            tg.getStartTime(), tg.getEndTime(),
+                            tg.getTask().getDificulty(), tg.getTask().getImportance())));
                 }
+                sections.add(new Section(section.getName(), section.getIconId(), section.getOrderIndex(),
+                        section.getStartTime(), section.getEndTime(), List.copyOf(items)));
             });
+        return new Structure(List.copyOf(sections));
+    }
+
+    public String serializeStructure(Structure structure) {
+        return structureJson.get(structure, this::writeJson);
+    }
+
+    public List<SnapshotCheck> createSnapshotChecks(Structure structure, RoutineSnapshot snapshot) {
+        List<SnapshotCheck> checks = new ArrayList<>();
+        for (Section section : structure.sections()) {
+            for (Item item : section.items()) {
+                SnapshotCheck check = new SnapshotCheck();
+                check.setSnapshot(snapshot);
+                check.setItemType(item.type());
+                check.setItemName(item.name());
+                check.setItemIconId(item.iconId());
+                check.setSectionName(section.name());
+                check.setOriginalItemId(item.itemId());
+                check.setOriginalGroupId(item.groupId());
+                check.setDifficulty(item.difficulty());
+                check.setImportance(item.importance());
+                check.setChecked(false);
+                check.setSkipped(false);
+                check.setXpGenerated(0.0);
+                checks.add(check);
+            }
+        }
+        return checks;
+    }
+
+    private String writeJson(Structure structure) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode sectionsNode = root.putArray("sections");
+
+        for (Section section : structure.sections()) {
+            ObjectNode sectionNode = sectionsNode.addObject();
+            sectionNode.put("name", section.name());
+            sectionNode.put("iconId", section.iconId());
+            sectionNode.put("orderIndex", section.orderIndex());
+            sectionNode.put("startTime", formatTime(section.startTime()));
+            sectionNode.put("endTime", formatTime(section.endTime()));
+
+            ArrayNode itemsNode = sectionNode.putArray("items");
+            for (Item entry : section.items()) {
+                ObjectNode item = itemsNode.addObject();
+                item.put("type", entry.type().name());
+                item.put("groupId", entry.groupId().toString());
+                item.put("itemId", entry.itemId().toString());
+                item.put("name", entry.name());
+                item.put("iconId", entry.iconId());
+                item.put("startTime", formatTime(entry.startTime()));
+                item.put("endTime", formatTime(entry.endTime()));
+            }
+        }
 
         try {
             return objectMapper.writeValueAsString(root);
@@ -75,51 +159,6 @@ public class SnapshotStructureSerializer {
         }
     }
 
-    public List<SnapshotCheck> createSnapshotChecks(DiaryRoutine routine, RoutineSnapshot snapshot) {
-        List<SnapshotCheck> checks = new ArrayList<>();
-        routine.getRoutineSections().stream()
-            .sorted(Comparator.comparingInt(RoutineSection::getOrderIndex))
-            .forEach(section -> {
-                if (section.getHabitGroups() != null) {
-                    section.getHabitGroups().forEach(hg -> {
-                        SnapshotCheck check = new SnapshotCheck();
-                        check.setSnapshot(snapshot);
-                        check.setItemType(SnapshotItemType.HABIT);
-                        check.setItemName(hg.getHabit().getName());
-                        check.setItemIconId(hg.getHabit().getIconId());
-                        check.setSectionName(section.getName());
-                        check.setOriginalItemId(hg.getHabit().getId());
-                        check.setOriginalGroupId(hg.getId());
-                        check.setDifficulty(hg.getHabit().getDificulty());
-                        check.setImportance(hg.getHabit().getImportance());
-                        check.setChecked(false);
-                        check.setSkipped(false);
-                        check.setXpGenerated(0.0);
-                        checks.add(check);
-                    });
-                }
-                if (section.getTaskGroups() != null) {
-                    section.getTaskGroups().forEach(tg -> {
-                        SnapshotCheck check = new SnapshotCheck();
-                        check.setSnapshot(snapshot);
-                        check.setItemType(SnapshotItemType.TASK);
-                        check.setItemName(tg.getTask().getName());
-                        check.setItemIconId(tg.getTask().getIconId());
-                        check.setSectionName(section.getName());
-                        check.setOriginalItemId(tg.getTask().getId());
-                        check.setOriginalGroupId(tg.getId());
-                        check.setDifficulty(tg.getTask().getDificulty());
-                        check.setImportance(tg.getTask().getImportance());
-                        check.setChecked(false);
-                        check.setSkipped(false);
-                        check.setXpGenerated(0.0);
-                        checks.add(check);
-                    });
-                }
-            });
-        return checks;
-    }
-
     private String formatTime(LocalTime time) {
         return time != null ? time.format(TIME_FORMATTER) : null;
     }
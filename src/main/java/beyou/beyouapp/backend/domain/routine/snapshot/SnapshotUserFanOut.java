@@ -0,0 +1,164 @@
+package beyou.beyouapp.backend.domain.routine.snapshot;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one scheduler pass (midnight snapshots, day-close) over the users of a timezone
+ * in parallel, on virtual threads, with at most {@link #maxConcurrency()} users in flight.
+ *
+ * <p><b>Why a cap at all.</b> Virtual threads are free; connections are not. Every
+ * per-user unit opens its own transaction, so the number of users in flight is the number
+ * of Hikari connections the pass holds. Left unbounded, a large timezone would take the
+ * whole pool at midnight and park every HTTP request behind it. The cap defaults to the
+ * pool size minus {@link #CONNECTIONS_LEFT_FOR_REQUESTS}, and a configured value larger
+ * than that is clamped down to it.
+ *
+ * <p><b>Isolation is unchanged.</b> Each unit is still one call through a transactional
+ * proxy ({@code self.createSnapshotsForUser}, {@code DayCloseService.closeDay}), so one
+ * user's failure rolls back that user's work and nothing else — it is counted, logged and
+ * the rest of the timezone carries on. {@link #run} returns only once every unit has
+ * finished, so whatever the caller does after it (the shared cache clear, the heartbeat)
+ * still happens strictly after the batch, as it did when the loop was serial.
+ *
+ * <p><b>Metrics</b>, all tagged {@code pass} and {@code timezone} (a closed set of a few
+ * hundred IANA ids, so safe to keep):
+ * <ul>
+ *   <li>{@code beyou.snapshot.pass} — wall time of the pass for one timezone.</li>
+ *   <li>{@code beyou.snapshot.pass.users} — users processed, tagged
+ *       {@code outcome=success|failure}. Its rate is the throughput; the failure series
+ *       is the one to alert on.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SnapshotUserFanOut {
+
+    public static final String DURATION_METRIC = "beyou.snapshot.pass";
+    public static final String USERS_METRIC = "beyou.snapshot.pass.users";
+
+    /** Connections the scheduler never takes, so the API keeps answering during a pass. */
+    static final int CONNECTIONS_LEFT_FOR_REQUESTS = 2;
+
+    /**
+     * One user's share of a pass, given only the id — the work loads the account inside
+     * its own transaction. Returns whether it changed anything for that user.
+     */
+    @FunctionalInterface
+    public interface UserWork {
+        boolean apply(UUID userId);
+    }
+
+    /** What one pass over one timezone did. {@code changed} counts users whose work returned true. */
+    public record Outcome(int processed, int failed, int changed) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrency;
+
+    @Autowired
+    public SnapshotUserFanOut(MeterRegistry meterRegistry,
+                              @Value("${snapshot.scheduler.max-concurrency:8}") int configuredConcurrency,
+                              ObjectProvider<DataSource> dataSource) {
+        this(meterRegistry, clampToPool(configuredConcurrency, dataSource.getIfAvailable()));
+    }
+
+    /** Injection seam for tests, which have no pool to size against. */
+    public SnapshotUserFanOut(MeterRegistry meterRegistry, int maxConcurrency) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Applies {@code work} to every user and blocks until all of them are done. Never
+     * throws for a user's failure; an interrupt stops submitting further users and the
+     * ones already running are still waited for.
+     *
+     * <p>{@code userIds} is consumed lazily, one id per free permit, so a paged source
+     * ({@code UserIdPages}) is only read as fast as the work drains it.
+     */
+    public Outcome run(String pass, String timezone, Iterable<UUID> userIds, UserWork work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger changed = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        int submitted = 0;
+
+        // close() waits for every submitted task, which is what makes the return a barrier.
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UUID userId : userIds) {
+                // Acquire before submitting, not inside the task: this bounds the threads
+                // alive as well as the work running, so a 50k-user zone is never 50k parked
+                // virtual threads.
+                permits.acquire();
+                submitted++;
+                executor.submit(() -> {
+                    try {
+                        if (work.apply(userId)) {
+                            changed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.error("Snapshot {} pass failed for user {} in timezone {}",
+                                pass, userId, timezone, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Snapshot {} pass for timezone {} interrupted after {} users",
+                    pass, timezone, submitted);
+        }
+
+        Outcome outcome = new Outcome(submitted, failed.get(), changed.get());
+        sample.stop(Timer.builder(DURATION_METRIC)
+                .description("Wall time of one scheduler pass over one timezone")
+                .tag("pass", pass)
+                .tag("timezone", timezone)
+                .register(meterRegistry));
+        usersCounter(pass, timezone, "success").increment(outcome.processed() - outcome.failed());
+        usersCounter(pass, timezone, "failure").increment(outcome.failed());
+        return outcome;
+    }
+
+    private Counter usersCounter(String pass, String timezone, String outcome) {
+        return Counter.builder(USERS_METRIC)
+                .description("Users processed by a scheduler pass")
+                .tag("pass", pass)
+                .tag("timezone", timezone)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static int clampToPool(int configured, DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            int ceiling = Math.max(1, hikari.getMaximumPoolSize() - CONNECTIONS_LEFT_FOR_REQUESTS);
+            if (configured > ceiling) {
+                log.info("snapshot.scheduler.max-concurrency {} exceeds the connection pool; using {}",
+                        configured, ceiling);
+                return ceiling;
+            }
+        }
+        return configured;
+    }
+}
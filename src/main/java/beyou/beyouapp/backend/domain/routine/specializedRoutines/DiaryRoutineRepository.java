@@ -1,11 +1,14 @@
 package beyou.beyouapp.backend.domain.routine.specializedRoutines;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DiaryRoutineRepository extends JpaRepository<DiaryRoutine, UUID> {
     /**
@@ -17,6 +20,35 @@ public interface DiaryRoutineRepository extends JpaRepository<DiaryRoutine, UUID
     @EntityGraph(attributePaths = {"routineSections"})
     List<DiaryRoutine> findAllByUserId(UUID userId);
 
+    /**
+     * {@link #findAllByUserId} narrowed to the routines whose schedule runs on one weekday,
+     * with {@code dayBit} from {@code WeekDay.bit()}. The weekday test is on
+     * {@code schedules.days_mask}, so a routine that does not run that day is never loaded,
+     * and one without a schedule never matches.
+     *
+     * <p>Ordered by id so that when two routines share the weekday — schedules written before
+     * {@code ScheduleService} kept weekdays exclusive — every call picks the same one. The
+     * loop this replaced took whichever came last in an unordered read.
+     */
+    @EntityGraph(attributePaths = {"routineSections"})
+    @Query("SELECT r FROM DiaryRoutine r JOIN r.schedule s "
+            + "WHERE r.user.id = :userId AND bitand(s.daysMask, :dayBit) <> 0 ORDER BY r.id")
+    List<DiaryRoutine> findAllByUserIdScheduledOn(@Param("userId") UUID userId, @Param("dayBit") int dayBit);
+
+    /**
+     * {@link #findAllByUserIdScheduledOn} for a page of users at once — the bulk snapshot
+     * pass's one read of the routine graphs. Fetches the owner in the same SELECT, since the
+     * pass stamps it on every snapshot and it is otherwise a query per routine. The schedule
+     * is only joined for the {@code days_mask} test, not fetched: nothing in the pass reads
+     * it. Only one bag is joined (sections); the groups below them still arrive through
+     * their {@code @BatchSize}.
+     */
+    @EntityGraph(attributePaths = {"routineSections", "user"})
+    @Query("SELECT r FROM DiaryRoutine r JOIN r.schedule s "
+            + "WHERE r.user.id IN :userIds AND bitand(s.daysMask, :dayBit) <> 0")
+    List<DiaryRoutine> findAllByUserIdInScheduledOn(@Param("userIds") Collection<UUID> userIds,
+                                                    @Param("dayBit") int dayBit);
+
     Optional<DiaryRoutine> findByScheduleId(UUID scheduleId);
 
 }
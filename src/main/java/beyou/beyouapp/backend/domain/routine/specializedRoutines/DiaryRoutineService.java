@@ -37,9 +37,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.TextStyle;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -63,7 +61,7 @@ public class DiaryRoutineService {
     private final RoutineSnapshotRepository routineSnapshotRepository;
     private final UserRepository userRepository;
 
-    @Cacheable(cacheNames = "routine", key = "#userId + '_' + #id")
+    @Cacheable(cacheNames = "routine", key = "@routineCacheGenerations.key(#userId, #id)")
     @Transactional(readOnly = true)
     public DiaryRoutineResponseDTO getDiaryRoutineById(UUID id, UUID userId) {
         DiaryRoutine diaryRoutine = diaryRoutineRepository.findById(id)
@@ -302,34 +300,28 @@ public class DiaryRoutineService {
     @Cacheable(cacheNames = "todayRoutine", key = "#userId", unless = "#result == null")
     @Transactional
     public DiaryRoutineResponseDTO getTodayRoutineScheduled(UUID userId) {
-        List<DiaryRoutine> diaryRoutines = diaryRoutineRepository.findAllByUserId(userId);
-        if (diaryRoutines.isEmpty()) {
+        // Which weekday "today" is depends on where the owner lives, not where the server runs.
+        // Read from the account by id rather than the security context: agent tools call
+        // this off-request.
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
             log.warn("NO ROUTINES SCHEDULED FOR TODAY");
             return null;
         }
+        WeekDay today = WeekDay.of(UserDateResolver.today(user));
+        log.info("Day: {} ", today);
 
-        DiaryRoutine todaysRoutine = null;
-        // Which weekday "today" is depends on where the owner lives, not where the server runs.
-        // The owner rides along on the routines already loaded, so no extra lookup and no
-        // security context (agent tools call this off-request).
-        LocalDate ownerToday = UserDateResolver.today(diaryRoutines.get(0).getUser());
-        String dayOfWeek = ownerToday.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.ENGLISH);
-        log.info("Day: {} ", dayOfWeek);
-        for (DiaryRoutine diaryRoutine : diaryRoutines) {
-            if (diaryRoutine.getSchedule() != null
-                    && diaryRoutine.getSchedule().getDays().contains(WeekDay.valueOf(dayOfWeek))) {
-                log.info("Routine {} are scheduled for today", diaryRoutine.getName());
-                todaysRoutine = diaryRoutine;
-            }
-        }
-
-        if (todaysRoutine == null) {
+        // Only the routines that run today come back; the weekday test is done in SQL.
+        List<DiaryRoutine> scheduledToday = diaryRoutineRepository.findAllByUserIdScheduledOn(userId, today.bit());
+        if (scheduledToday.isEmpty()) {
             log.warn("NO ROUTINES SCHEDULED FOR TODAY");
             return null;
-        } else {
-            return mapper.toResponse(todaysRoutine);
         }
 
+        // Normally one; if weekdays overlap, the last by id, the same one on every call.
+        DiaryRoutine todaysRoutine = scheduledToday.get(scheduledToday.size() - 1);
+        log.info("Routine {} are scheduled for today", todaysRoutine.getName());
+        return mapper.toResponse(todaysRoutine);
     }
 
     // ── Targeted single-item edits ────────────────────────────────────────
@@ -38,6 +38,31 @@ public interface EntityXpDayRepository extends JpaRepository<EntityXpDay, UUID>
             @Param("day") LocalDate day,
             @Param("xp") double xp);
 
+    /**
+     * {@link #addXp} for many owners of one account on one day, in one statement.
+     *
+     * <p>The owners, their types and their deltas travel as three array literals of equal
+     * length (text, cast in SQL, like {@code EntityCheckDayRepository.lockCheckOwners}) and
+     * are zipped back into rows by the multi-argument {@code unnest}. The conflict handling
+     * is {@link #addXp}'s, row by row. No owner may appear twice: a command cannot update
+     * the same row twice, which is why {@link XpDayBatch} sums per owner before it gets here.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO entity_xp_day (id, user_id, owner_type, owner_id, day, xp)
+            SELECT gen_random_uuid(), :userId, d.owner_type, d.owner_id, :day, d.xp
+            FROM unnest(CAST(:ownerTypes AS varchar[]),
+                        CAST(:ownerIds AS uuid[]),
+                        CAST(:xps AS double precision[])) AS d(owner_type, owner_id, xp)
+            ON CONFLICT ON CONSTRAINT uk_entity_xp_day_owner_day
+            DO UPDATE SET xp = entity_xp_day.xp + EXCLUDED.xp
+            """, nativeQuery = true)
+    int addXpBatch(@Param("userId") UUID userId,
+            @Param("day") LocalDate day,
+            @Param("ownerTypes") String ownerTypes,
+            @Param("ownerIds") String ownerIds,
+            @Param("xps") String xps);
+
     /**
      * One user's whole history across a window, every owner type at once.
      *
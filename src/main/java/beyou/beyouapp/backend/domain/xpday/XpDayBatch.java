@@ -0,0 +1,70 @@
+package beyou.beyouapp.backend.domain.xpday;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import beyou.beyouapp.backend.user.User;
+
+/**
+ * Every XP delta one propagation produces for one account, waiting to be written as a
+ * single statement by {@link XpDayRecorder#record(XpDayBatch)}.
+ *
+ * <p>A habit check with three categories used to cost six upserts — user, routine, habit
+ * and one per category — each its own round trip against the same day. They all share the
+ * user and the day, so only the owner and the delta vary, and those travel as arrays.
+ *
+ * <p>Deltas for the same owner are summed here, not in the statement. {@code ON CONFLICT
+ * DO UPDATE} refuses to touch one row twice in a command, so a batch that named a category
+ * twice (a habit listing it alongside a duplicate) would fail where two calls did not.
+ *
+ * <p>Request-scoped and not thread-safe, like the propagation that fills it.
+ */
+public final class XpDayBatch {
+
+    /** One owner's net delta for the day. */
+    public record Delta(XpDayOwnerType ownerType, UUID ownerId, double xp) {}
+
+    private record Owner(XpDayOwnerType type, UUID id) {}
+
+    private final User user;
+    private final Map<Owner, Double> deltas = new LinkedHashMap<>();
+
+    public XpDayBatch(User user) {
+        this.user = user;
+    }
+
+    public User user() {
+        return user;
+    }
+
+    /** Positive for a gain, negative for a return; a null owner is ignored, as in {@code record}. */
+    public XpDayBatch add(XpDayOwnerType ownerType, UUID ownerId, double xp) {
+        if (ownerId != null) {
+            deltas.merge(new Owner(ownerType, ownerId), xp, Double::sum);
+        }
+        return this;
+    }
+
+    /** The same delta against several owners of one kind, as a check-in does to categories. */
+    public XpDayBatch addAll(XpDayOwnerType ownerType, Collection<UUID> ownerIds, double xp) {
+        if (ownerIds != null) {
+            ownerIds.forEach(ownerId -> add(ownerType, ownerId, xp));
+        }
+        return this;
+    }
+
+    /**
+     * The net deltas, in the order the owners were first added. An owner whose gains and
+     * returns cancelled out is left out, for the same reason a zero {@code record} writes
+     * nothing.
+     */
+    public List<Delta> deltas() {
+        return deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> new Delta(entry.getKey().type(), entry.getKey().id(), entry.getValue()))
+                .toList();
+    }
+}
@@ -1,8 +1,10 @@
 package beyou.beyouapp.backend.domain.xpday;
 
 import java.time.LocalDate;
-import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -68,12 +70,36 @@ public class XpDayRecorder {
                 UserDateResolver.today(user), xp);
     }
 
-    /** The same delta against several owners of one kind, as a check-in does to categories. */
-    public void recordAll(User user, XpDayOwnerType ownerType, Collection<UUID> ownerIds, double xp) {
-        if (ownerIds == null) {
+    /**
+     * Writes everything a propagation collected as one multi-row upsert.
+     *
+     * <p>Same semantics as calling {@link #record} once per delta — same day, same
+     * transaction, same summing on conflict — in one round trip instead of one per owner.
+     * An empty batch, or one whose deltas all cancelled out, writes nothing.
+     */
+    @Transactional
+    public void record(XpDayBatch batch) {
+        if (batch == null || batch.user() == null) {
+            return;
+        }
+        List<XpDayBatch.Delta> deltas = batch.deltas();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (deltas.size() == 1) {
+            XpDayBatch.Delta only = deltas.get(0);
+            record(batch.user(), only.ownerType(), only.ownerId(), only.xp());
             return;
         }
-        ownerIds.forEach(ownerId -> record(user, ownerType, ownerId, xp));
+        repository.addXpBatch(batch.user().getId(), UserDateResolver.today(batch.user()),
+                arrayLiteral(deltas, delta -> delta.ownerType().name()),
+                arrayLiteral(deltas, delta -> delta.ownerId().toString()),
+                arrayLiteral(deltas, delta -> Double.toString(delta.xp())));
+    }
+
+    private static String arrayLiteral(List<XpDayBatch.Delta> deltas,
+            Function<XpDayBatch.Delta, String> element) {
+        return deltas.stream().map(element).collect(Collectors.joining(",", "{", "}"));
     }
 
     /**
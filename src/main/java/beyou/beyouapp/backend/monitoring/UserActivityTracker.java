@@ -3,10 +3,14 @@ package beyou.beyouapp.backend.monitoring;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import beyou.beyouapp.backend.user.UserRepository;
@@ -14,7 +18,13 @@ import beyou.beyouapp.backend.user.UserRepository;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Product analytics phase 1: who is using the app right now, and when each account
@@ -43,6 +53,18 @@ import java.util.UUID;
  * error the "is this account still around" questions it serves cannot notice. Entries
  * expire {@code ACTIVITY_WINDOW} after their last touch ({@code put} resets the clock),
  * which is exactly the gauge's sliding-window definition of "active".
+ *
+ * <p><b>Write-behind.</b> Even throttled, the write used to happen inline on the request
+ * thread, so everyone coming back after lunch meant a burst of single-row UPDATEs on the
+ * request path. A due write now only lands in {@link #pendingSeen}; {@link #flush} drains it
+ * on a fixed delay and at shutdown, {@link #FLUSH_CHUNK} users per
+ * {@code UserRepository.recordSeenBatch} statement. That adds at most one flush interval to
+ * the staleness above. The buffer is bounded: past {@link #MAX_PENDING} users a new one is
+ * dropped and counted rather than queued, and its next request tries again. Buffer size,
+ * flush latency and drops are exported as {@code beyou.last_seen.*}.
+ *
+ * <p>Logins stay inline: they are rare, and the login timestamp is worth having the moment
+ * the session exists.
  */
 @Component
 @Slf4j
@@ -50,13 +72,30 @@ public class UserActivityTracker {
 
     public static final Duration ACTIVITY_WINDOW = Duration.ofMinutes(5);
     public static final String ACTIVE_USERS_METRIC = "beyou.active.users";
+    public static final String BUFFER_SIZE_METRIC = "beyou.last_seen.buffer.size";
+    public static final String FLUSH_METRIC = "beyou.last_seen.flush";
+    public static final String DROPPED_METRIC = "beyou.last_seen.dropped";
+
+    /** Users waiting for a {@code last_seen_at} write before new ones are dropped. */
+    static final int MAX_PENDING = 50_000;
+    /** Users per flush statement, so one flush never becomes one enormous UPDATE. */
+    static final int FLUSH_CHUNK = 1_000;
 
     private final UserRepository userRepository;
     private final Clock clock;
 
-    /** userId → instant of the last persisted {@code last_seen_at} write for that user. */
+    /** Cache value for a user seen but never queued: always due, so the next touch retries. */
+    private static final Instant NEVER_WRITTEN = Instant.EPOCH;
+
+    /** userId → instant of the last {@code last_seen_at} write queued for that user. */
     private final Cache<UUID, Instant> activeUsers;
 
+    /** userId → the sighting waiting to be written; only ever moves forward. */
+    private final Map<UUID, Instant> pendingSeen = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+    private final Counter droppedUpdates;
+
     @Autowired
     public UserActivityTracker(UserRepository userRepository, MeterRegistry meterRegistry) {
         this(userRepository, meterRegistry, Clock.systemUTC(), Ticker.systemTicker());
@@ -80,6 +119,15 @@ public class UserActivityTracker {
                 })
                 .description("Users who made an authenticated request within the last 5 minutes")
                 .register(meterRegistry);
+        Gauge.builder(BUFFER_SIZE_METRIC, pendingSeen, Map::size)
+                .description("last_seen_at writes waiting for the next flush")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder(FLUSH_METRIC)
+                .description("Time to write one flush of buffered last_seen_at values")
+                .register(meterRegistry);
+        this.droppedUpdates = Counter.builder(DROPPED_METRIC)
+                .description("last_seen_at writes dropped because the buffer was full or a flush failed")
+                .register(meterRegistry);
     }
 
     /** Called by {@code SecurityFilter} for every authenticated request. Never throws. */
@@ -87,10 +135,14 @@ public class UserActivityTracker {
         try {
             Instant now = clock.instant();
             Instant lastWrite = activeUsers.getIfPresent(userId);
-            if (lastWrite == null || !lastWrite.plus(ACTIVITY_WINDOW).isAfter(now)) {
-                userRepository.recordSeen(userId, now);
+            if (lastWrite == null) {
+                lastWrite = NEVER_WRITTEN;
+            }
+            if (!lastWrite.plus(ACTIVITY_WINDOW).isAfter(now) && enqueue(userId, now)) {
                 lastWrite = now;
             }
+            // Put even when the buffer refused the write: the user is active either way,
+            // and a dropped first sighting keeps NEVER_WRITTEN so the next request retries.
             activeUsers.put(userId, lastWrite);
         } catch (Exception e) {
             log.warn("User activity tracking skipped: {}", e.toString());
@@ -111,4 +163,51 @@ public class UserActivityTracker {
             log.warn("Login activity recording skipped: {}", e.toString());
         }
     }
+
+    /**
+     * Writes every buffered sighting. Scheduled, and run once more at shutdown so a deploy
+     * does not lose the last interval. Never throws: a failed chunk goes back into the
+     * buffer for the next flush, as far as there is room.
+     */
+    @Scheduled(fixedDelayString = "${monitoring.last-seen.flush-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (pendingSeen.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<UUID, Instant>> drained = new ArrayList<>(pendingSeen.size());
+        for (Map.Entry<UUID, Instant> entry : pendingSeen.entrySet()) {
+            // Conditional: a touch that moved the value since it was read stays queued
+            // for the next flush instead of being removed unwritten.
+            if (pendingSeen.remove(entry.getKey(), entry.getValue())) {
+                drained.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        for (int from = 0; from < drained.size(); from += FLUSH_CHUNK) {
+            List<Map.Entry<UUID, Instant>> chunk = drained.subList(from, Math.min(from + FLUSH_CHUNK, drained.size()));
+            try {
+                flushTimer.record(() -> userRepository.recordSeenBatch(
+                        arrayLiteral(chunk, entry -> entry.getKey().toString()),
+                        arrayLiteral(chunk, entry -> entry.getValue().toString())));
+            } catch (Exception e) {
+                log.warn("Last-seen flush of {} users skipped: {}", chunk.size(), e.toString());
+                chunk.forEach(entry -> enqueue(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    /** Buffers a sighting; false when the buffer is full and the user is not already in it. */
+    private boolean enqueue(UUID userId, Instant at) {
+        if (pendingSeen.size() >= MAX_PENDING && !pendingSeen.containsKey(userId)) {
+            droppedUpdates.increment();
+            return false;
+        }
+        pendingSeen.merge(userId, at, (queued, newer) -> newer.isAfter(queued) ? newer : queued);
+        return true;
+    }
+
+    private static String arrayLiteral(List<Map.Entry<UUID, Instant>> chunk,
+                                       Function<Map.Entry<UUID, Instant>, String> element) {
+        return chunk.stream().map(element).collect(Collectors.joining(",", "{", "}"));
+    }
 }
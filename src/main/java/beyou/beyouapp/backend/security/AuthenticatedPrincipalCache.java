@@ -0,0 +1,111 @@
+package beyou.beyouapp.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The {@link User} that {@code SecurityFilter} puts in the security context, kept for a
+ * short while so a user clicking around the dashboard is not one {@code users} read per
+ * request before the controller has done anything.
+ *
+ * <p>Keyed by the JWT subject (the email), not by the token: a token is re-issued every
+ * fifteen minutes, and every eviction hook below knows the account, not the token it is
+ * currently holding. The JWT itself is still verified on every request — this only skips
+ * the lookup behind it, so a revoked or expired token is refused exactly as before.
+ *
+ * <p><b>The cached principal is read-only.</b> One instance is shared by every request the
+ * user makes inside the TTL, concurrently, and it is a detached entity that only knows what
+ * the account looked like when it was loaded. Anything that reads XP, streaks or completed
+ * days, or that is going to save the user, loads it by id inside its own transaction
+ * ({@code SnapshotCheckService}, {@code UserExportService}) — the same thing every other
+ * write path already did. The principal is good for identity, role, timezone and language.
+ *
+ * <p><b>Staleness is bounded twice.</b> The writes that change what the principal is
+ * used for evict it: profile edits and account deletion in {@code UserService}, a password
+ * reset in {@code PasswordResetService}. Everything else (a role flipped by hand in SQL,
+ * say) is capped by {@link #DEFAULT_TTL}. Misses are never cached, so a fresh signup is
+ * never told its account does not exist.
+ *
+ * <p>Hit, miss and eviction counts are published as the standard {@code cache.*} meters
+ * under {@code cache=authPrincipal}.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    public static final String CACHE_NAME = "authPrincipal";
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+    private final UserRepository userRepository;
+
+    /** JWT subject (email) → the principal loaded for it. */
+    private final Cache<String, User> principals;
+
+    @Autowired
+    public AuthenticatedPrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                                       @Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                                       @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        this(userRepository, meterRegistry, Duration.ofSeconds(ttlSeconds), maxSize, Ticker.systemTicker());
+    }
+
+    /** Injection seam for tests, which drive expiry through the ticker. */
+    public AuthenticatedPrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                                       Duration ttl, long maxSize, Ticker ticker) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, CACHE_NAME);
+    }
+
+    /**
+     * The account behind a verified JWT subject, from the cache when it is there and from
+     * {@code users} otherwise. Empty when no account has that email.
+     *
+     * <p>Concurrent misses for one email share a single load — a dashboard opening fires
+     * half a dozen requests at once, and they would otherwise all race to the database.
+     */
+    public Optional<User> resolve(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(
+                principals.get(email, subject -> userRepository.findByEmail(subject).orElse(null)));
+    }
+
+    /**
+     * Drops the principal for this email now and, when a transaction is running, once more
+     * after it commits. The second pass is the one that matters: between the write and the
+     * commit a concurrent request can still read the old row and put it straight back.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        principals.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(email);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package beyou.beyouapp.backend.security.RefreshToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes and checks the secret half of a refresh token ({@code id.secret}).
+ *
+ * <p>These used to go through the application {@link PasswordEncoder} — BCrypt at cost
+ * 12, around a hundred milliseconds of CPU per {@code matches}, paid on every refresh by
+ * every open tab and phone each time its JWT lapses. BCrypt's cost buys time against
+ * guessing a low-entropy password from a leaked hash. The secret here is 32 random
+ * bytes: nobody guesses it, slowly or quickly, so the cost protected nothing. A keyed
+ * SHA-256 is enough, and a leaked {@code refresh_tokens} table without the key still
+ * cannot be checked against anything.
+ *
+ * <p>Stored values name their scheme, the way Spring's {@code DelegatingPasswordEncoder}
+ * does: {@code {hmac-sha256}} followed by the base64url MAC. A future scheme or key gets
+ * a new id and this class keeps checking the old one until its rows expire. Values with
+ * no id are the BCrypt rows written before this scheme; {@link #matches} still verifies
+ * them through the encoder. They are never rewritten in place: a refresh revokes the row
+ * it presented and issues one hashed here, so each legacy row is verified with BCrypt at
+ * most once, and the last of them is past its fifteen days soon after the deploy.
+ *
+ * <p>The key is derived from {@code TOKEN_SECRET} like {@code PhotoUrlSigner}'s, under
+ * its own label, so the two uses stay apart.
+ */
+@Component
+public class RefreshTokenHasher {
+
+    static final String SCHEME = "{hmac-sha256}";
+
+    private static final String HMAC = "HmacSHA256";
+
+    /** Domain separation. Changing this string invalidates every refresh token already issued. */
+    private static final byte[] KEY_LABEL = "beyou-refresh-token-v1".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] key;
+    private final PasswordEncoder legacyEncoder;
+
+    /**
+     * @param tokenSecret   the JWT signing secret; only the derived key is retained
+     * @param legacyEncoder verifies the BCrypt hashes stored before this scheme
+     */
+    public RefreshTokenHasher(@Value("${api.security.token.secret}") String tokenSecret,
+                              PasswordEncoder legacyEncoder) {
+        this.key = hmac(tokenSecret.getBytes(StandardCharsets.UTF_8), KEY_LABEL);
+        this.legacyEncoder = legacyEncoder;
+    }
+
+    /** The value to store in {@code refresh_tokens.token_hash} for {@code rawToken}. */
+    public String hash(String rawToken) {
+        return SCHEME + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(hmac(key, rawToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /** True when {@code storedHash}, of either scheme, was made from {@code rawToken}. */
+    public boolean matches(String rawToken, String storedHash) {
+        if (rawToken == null || storedHash == null) {
+            return false;
+        }
+        if (isLegacy(storedHash)) {
+            return legacyEncoder.matches(rawToken, storedHash);
+        }
+        // Constant-time: a comparison that returns at the first wrong byte leaks how much
+        // of a guess was right.
+        return MessageDigest.isEqual(
+                hash(rawToken).getBytes(StandardCharsets.UTF_8),
+                storedHash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** True for a hash written before {@link #SCHEME}, i.e. a BCrypt string. */
+    public boolean isLegacy(String storedHash) {
+        return !storedHash.startsWith(SCHEME);
+    }
+
+    private static byte[] hmac(byte[] key, byte[] message) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(key, HMAC));
+            return mac.doFinal(message);
+        } catch (Exception e) {
+            // HmacSHA256 is mandatory on every JRE and the key is never empty here,
+            // so reaching this means the platform is broken, not the request.
+            throw new IllegalStateException("Could not hash the refresh token", e);
+        }
+    }
+}
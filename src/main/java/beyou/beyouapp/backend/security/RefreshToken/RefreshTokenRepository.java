@@ -1,11 +1,14 @@
 package beyou.beyouapp.backend.security.RefreshToken;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
     List<RefreshToken> findAllByUserId(UUID userId);
@@ -23,4 +26,39 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.user.id = :userId")
     int deleteAllByUserId(UUID userId);
+
+    /**
+     * Stamps every live token of an account revoked in one statement, answered from the
+     * partial {@code idx_refresh_tokens_user_live} (V28) — the revoked history is never
+     * read, however long it is.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = :now WHERE rt.user.id = :userId AND rt.revokedAt IS NULL")
+    int revokeAllLiveByUserId(@Param("userId") UUID userId, @Param("now") Timestamp now);
+
+    /**
+     * Deletes up to {@code limit} tokens that expired or were revoked before {@code cutoff},
+     * in its own transaction, and returns how many went. {@code TokenPurgeJob} calls it
+     * until a batch comes back short.
+     *
+     * <p>The rows are picked by {@code ctid} so the delete is a TID scan over exactly the
+     * rows the bounded {@code SELECT} found; {@code = ANY(ARRAY(...))} rather than
+     * {@code IN (...)}, which the planner turns into a join over the whole table. A row
+     * updated between the two halves has moved and is left for the next batch.
+     *
+     * <p>"Expired or revoked before the cutoff" is spelled {@code LEAST(expires_at, revoked_at)}
+     * — LEAST skips the NULL of a token never revoked — to match the expression index V29
+     * builds, so each batch is a range scan that stops at its limit rather than a
+     * sequential scan past the dead tuples earlier batches left.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            DELETE FROM refresh_tokens
+            WHERE ctid = ANY(ARRAY(
+                SELECT ctid FROM refresh_tokens
+                WHERE LEAST(expires_at, revoked_at) < :cutoff
+                LIMIT :limit))
+            """)
+    int deleteDeadBatch(@Param("cutoff") Timestamp cutoff, @Param("limit") int limit);
 }
@@ -8,11 +8,9 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.List;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,7 +31,7 @@ import lombok.RequiredArgsConstructor;
 public class RefreshTokenService {
 
     private final RefreshTokenRepository repository;
-    private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenHasher hasher;
     private final TokenService tokenService;
     private final UserActivityTracker userActivityTracker;
     private static final SecureRandom secureRandom = new SecureRandom();
@@ -45,7 +43,7 @@ public class RefreshTokenService {
         token.setUser(user);
         token.setCreatedAt(Timestamp.from(Instant.now()));
         token.setExpiresAt(Timestamp.from(Instant.now().plus(Duration.ofDays(15))));
-        token.setTokenHash(passwordEncoder.encode(opaqueToken));
+        token.setTokenHash(hasher.hash(opaqueToken));
 
         repository.save(token);
 
@@ -120,13 +118,7 @@ public class RefreshTokenService {
 
     @Transactional
     public void revokeAllForUser(User user){
-        List<RefreshToken> tokens = repository.findAllByUserId(user.getId());
-        if(tokens.isEmpty()) return;
-        Timestamp now = Timestamp.from(Instant.now());
-        for(RefreshToken token : tokens){
-            token.setRevokedAt(now);
-        }
-        repository.saveAll(tokens);
+        repository.revokeAllLiveByUserId(user.getId(), Timestamp.from(Instant.now()));
     }
 
     /**
@@ -167,7 +159,7 @@ public class RefreshTokenService {
     }
 
     private boolean isNotMatchingOrExpired(RefreshToken refreshToken, String rawToken, boolean throwIfExpired){
-        if(!passwordEncoder.matches(rawToken, refreshToken.getTokenHash())) {
+        if(!hasher.matches(rawToken, refreshToken.getTokenHash())) {
             if(!throwIfExpired) return true;
             throw new RefreshTokenDontMatchRaw("Refresh token don't match with stored in database");
         }
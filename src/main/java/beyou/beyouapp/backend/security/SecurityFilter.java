@@ -5,7 +5,6 @@ import beyou.beyouapp.backend.exceptions.ErrorKey;
 import beyou.beyouapp.backend.exceptions.security.JwtNotFoundException;
 import beyou.beyouapp.backend.monitoring.UserActivityTracker;
 import beyou.beyouapp.backend.user.User;
-import beyou.beyouapp.backend.user.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -28,7 +27,7 @@ public class SecurityFilter extends OncePerRequestFilter {
     TokenService tokenService;
 
     @Autowired
-    UserRepository userRepository;
+    AuthenticatedPrincipalCache principalCache;
 
     @Autowired
     UserActivityTracker userActivityTracker;
@@ -78,7 +77,7 @@ public class SecurityFilter extends OncePerRequestFilter {
                 }
                 
                 String userEmail = tokenValidationResponse.getBody();
-                Optional<User> userOptional = userRepository.findByEmail(userEmail);
+                Optional<User> userOptional = principalCache.resolve(userEmail);
 
                 if(userOptional.isPresent()){
                     User user = userOptional.get();
@@ -0,0 +1,109 @@
+package beyou.beyouapp.backend.security;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenRepository;
+import beyou.beyouapp.backend.security.passwordreset.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes the refresh and password-reset tokens nothing can use any more.
+ *
+ * <p>Neither table ever dropped a row on its own: a refresh stamps the old token revoked
+ * and writes a new one, a reset stamps its token used, and only an account delete
+ * removed anything. So both grew for as long as their accounts were active. Once a night
+ * this removes every token that expired, or was revoked or used, more than
+ * {@code security.token-purge.grace-hours} ago. The grace keeps a just-rotated refresh
+ * token answering "revoked" rather than "not found" to a tab that raced the rotation, and
+ * keeps the latest reset row the cooldown reads.
+ *
+ * <p>Deletes go in batches of {@code security.token-purge.batch-size}, each its own
+ * transaction ({@code deleteDeadBatch}), so no run holds more than one batch of row locks
+ * or leaves one long transaction holding back vacuum. A table stops at its first short
+ * batch, or after {@code max-batches}, and the next night carries on from there.
+ * Rows purged are counted under {@value #PURGED_METRIC}, tagged by table, and each run is
+ * timed under {@value #DURATION_METRIC}.
+ */
+@Component
+@Slf4j
+public class TokenPurgeJob {
+
+    public static final String PURGED_METRIC = "beyou.token.purged";
+    public static final String DURATION_METRIC = "beyou.token.purge.duration";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration grace;
+    private final Counter refreshPurged;
+    private final Counter resetPurged;
+    private final Timer duration;
+
+    public TokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                         PasswordResetTokenRepository passwordResetTokenRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${security.token-purge.batch-size:5000}") int batchSize,
+                         @Value("${security.token-purge.max-batches:200}") int maxBatches,
+                         @Value("${security.token-purge.grace-hours:24}") long graceHours) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.grace = Duration.ofHours(Math.max(0, graceHours));
+        this.refreshPurged = purgedCounter(meterRegistry, "refresh_tokens");
+        this.resetPurged = purgedCounter(meterRegistry, "password_reset_tokens");
+        this.duration = Timer.builder(DURATION_METRIC)
+                .description("Wall time of one token purge run, both tables")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${security.token-purge.cron:0 15 3 * * *}")
+    public void purge() {
+        duration.record(() -> {
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(grace));
+            long refresh = purgeTable("refresh_tokens", refreshTokenRepository::deleteDeadBatch, refreshPurged, cutoff);
+            long reset = purgeTable("password_reset_tokens", passwordResetTokenRepository::deleteDeadBatch, resetPurged, cutoff);
+            log.info("Token purge done — {} refresh tokens, {} password reset tokens dead since before {}",
+                    refresh, reset, cutoff);
+        });
+    }
+
+    private long purgeTable(String table, BiFunction<Timestamp, Integer, Integer> deleteBatch,
+                            Counter purged, Timestamp cutoff) {
+        long total = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int deleted = deleteBatch.apply(cutoff, batchSize);
+                total += deleted;
+                purged.increment(deleted);
+                if (deleted < batchSize) {
+                    return total;
+                }
+            }
+            log.warn("Token purge stopped {} after {} batches; the next run continues", table, maxBatches);
+        } catch (RuntimeException e) {
+            // The batches already committed stay deleted; one table's failure must not
+            // keep the other from being purged.
+            log.error("Token purge failed for {} after {} rows", table, total, e);
+        }
+        return total;
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder(PURGED_METRIC)
+                .description("Expired, revoked or used tokens deleted by the nightly purge")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
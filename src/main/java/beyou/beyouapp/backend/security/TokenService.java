@@ -7,6 +7,7 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.JWTVerifier;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
@@ -31,14 +32,24 @@ public class TokenService {
     @Value("${cookie.same-site:Lax}")
     private String cookieSameSite;
 
+    private static final String ISSUER = "auth-api";
+
+    /**
+     * Built once from {@link #secret} on first use and shared by every request. Both are
+     * immutable and thread-safe, and {@link #validateToken} runs on every authenticated
+     * request, where rebuilding them meant a fresh HMAC key spec and verifier per call.
+     * Lazy rather than constructor-built because the secret is field-injected.
+     */
+    private volatile Algorithm algorithm;
+    private volatile JWTVerifier verifier;
+
     public String generateJwtToken(User  user){
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             String token = JWT.create()
-                    .withIssuer("auth-api")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
                     .withExpiresAt(genExpirationDate())
-                    .sign(algorithm);
+                    .sign(algorithm());
             return token;
         }catch (JWTCreationException exception){
             throw new RuntimeException("Error while generating token", exception);
@@ -48,12 +59,7 @@ public class TokenService {
 
     public ResponseEntity<String> validateToken(String token){
         try{
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            String validation = JWT.require(algorithm)
-                    .withIssuer("auth-api")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            String validation = verifier().verify(token).getSubject();
             return ResponseEntity.ok(validation);
         }catch (JWTVerificationException exception){
             return ResponseEntity.badRequest().body("Invalid JWT Token");
@@ -82,6 +88,24 @@ public class TokenService {
                 .build();
     }
 
+    private Algorithm algorithm() {
+        Algorithm current = algorithm;
+        if (current == null) {
+            current = Algorithm.HMAC256(secret);
+            algorithm = current;
+        }
+        return current;
+    }
+
+    private JWTVerifier verifier() {
+        JWTVerifier current = verifier;
+        if (current == null) {
+            current = JWT.require(algorithm()).withIssuer(ISSUER).build();
+            verifier = current;
+        }
+        return current;
+    }
+
     private Instant genExpirationDate(){
         return LocalDateTime.now().plusMinutes(15).toInstant(ZoneOffset.of("-00:00")); //15 minutes
     }
@@ -21,6 +21,7 @@ import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import beyou.beyouapp.backend.user.validation.PasswordValidator;
 import beyou.beyouapp.backend.notification.EmailService;
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenService;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
@@ -36,6 +37,7 @@ public class PasswordResetService {
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
     private final RefreshTokenService refreshTokenService;
+    private final AuthenticatedPrincipalCache principalCache;
 
     private static final SecureRandom secureRandom = new SecureRandom();
     private static final Base64.Encoder base64Encoder = Base64.getUrlEncoder();
@@ -102,6 +104,7 @@ public class PasswordResetService {
         passwordResetTokenRepository.save(resetToken);
 
         refreshTokenService.revokeAllForUser(user);
+        principalCache.evict(user.getEmail());
     }
 
     private PasswordResetToken resolveValidToken(String token) {
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, UUID> {
     Optional<PasswordResetToken> findTopByUserIdOrderByCreatedAtDesc(UUID userId);
@@ -24,4 +25,20 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Modifying
     @Query("delete from PasswordResetToken t where t.user.id = :userId")
     int deleteAllForUser(@Param("userId") UUID userId);
+
+    /**
+     * Deletes up to {@code limit} reset tokens that expired or were used before
+     * {@code cutoff}, in its own transaction — the same bounded {@code ctid} batch as
+     * {@code RefreshTokenRepository.deleteDeadBatch}, for {@code TokenPurgeJob}.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            DELETE FROM password_reset_tokens
+            WHERE ctid = ANY(ARRAY(
+                SELECT ctid FROM password_reset_tokens
+                WHERE expires_at < :cutoff OR used_at < :cutoff
+                LIMIT :limit))
+            """)
+    int deleteDeadBatch(@Param("cutoff") Timestamp cutoff, @Param("limit") int limit);
 }
@@ -1,30 +1,36 @@
 package beyou.beyouapp.backend.user;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.Iterator;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.UUID;
 
 import javax.imageio.ImageIO;
-import javax.imageio.ImageReader;
-import javax.imageio.stream.ImageInputStream;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -36,15 +42,77 @@ public class PhotoStorageService {
         "image/jpeg", "image/png", "image/webp", "image/gif"
     );
     private static final long MAX_SIZE = 5 * 1024 * 1024; // 5MB compressed
-    // Decoded-pixel ceiling checked from the image header BEFORE ImageIO.read
-    // allocates the full raster — a highly compressible image can stay under
+    // Decoded-pixel ceiling checked from the image header BEFORE the decode
+    // allocates a raster — a highly compressible image can stay under
     // MAX_SIZE on the wire yet decode to gigabytes ("decompression bomb").
     private static final long MAX_PIXELS = 25_000_000L; // ~25MP (e.g. 6000x4166)
 
+    private static final ImageProcessor.Limits LIMITS = new ImageProcessor.Limits(
+        MAX_DIMENSION, MAX_PIXELS, ErrorKey.PHOTO_UPLOAD_TOO_LARGE, ErrorKey.PHOTO_UPLOAD_CORRUPT);
+
+    public static final String CACHE_NAME = "userPhotos";
+
     private final Path uploadDir;
+    private final ImageProcessor images;
+
+    /**
+     * The bytes of recently served photos, weighed in bytes. Stored photos are re-encoded
+     * to at most {@value #MAX_DIMENSION}px JPEG — tens of KB — so a few MB hold every
+     * avatar a busy dashboard shows, and a hit answers without touching the disk at all.
+     * Dropped by {@link #store} and {@link #delete}; the expiry only covers files changed
+     * behind this class's back. Published as the standard {@code cache.*} meters under
+     * {@code cache=userPhotos}, which carry the hit ratio.
+     */
+    private final Cache<UUID, Photo> hot;
+
+    /**
+     * One stored photo: its bytes and the last-modified time they were read at, which is
+     * the same version {@link #getVersion} puts in the photo URL.
+     */
+    public record Photo(byte[] bytes, long version) {
+
+        public Stamp stamp() {
+            return new Stamp(version, bytes.length);
+        }
+
+        public String etag() {
+            return stamp().etag();
+        }
+
+        public Resource resource() {
+            return new ByteArrayResource(bytes);
+        }
+    }
 
-    public PhotoStorageService(@Value("${app.upload-dir}") String uploadDir) {
+    /**
+     * What a conditional request is checked against: a photo's version and size, known
+     * from the file's attributes without reading its bytes.
+     */
+    public record Stamp(long version, long size) {
+
+        /** Strong validator: a new upload changes the modified time, the size, or both. */
+        public String etag() {
+            return "\"" + version + "-" + size + "\"";
+        }
+    }
+
+    /** An upload encoded on the image pool, waiting to be written. */
+    private record Encoded(byte[] jpeg, int sourceWidth, int sourceHeight, int width, int height) {
+    }
+
+    public PhotoStorageService(@Value("${app.upload-dir}") String uploadDir,
+                               @Value("${app.photo-cache.max-bytes:16777216}") long cacheMaxBytes,
+                               MeterRegistry meterRegistry,
+                               ImageProcessor images) {
+        this.images = images;
         this.uploadDir = Path.of(uploadDir).resolve("user-photos");
+        this.hot = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((UUID id, Photo photo) -> photo.bytes().length)
+                .expireAfterWrite(Duration.ofHours(1))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hot, CACHE_NAME);
         try {
             Files.createDirectories(this.uploadDir);
         } catch (IOException e) {
@@ -60,7 +128,9 @@ public class PhotoStorageService {
     /**
      * Validates, resizes, flattens, and saves a profile photo as a static JPEG.
      * All inputs are re-encoded to opaque RGB, so transparent PNG/WebP/GIF and
-     * animated GIF (first frame) are supported; alpha flattens to white.
+     * animated GIF (first frame) are supported; alpha flattens to white. The
+     * decode and encode run on the shared {@link ImageProcessor} pool; only the
+     * finished bytes come back here to be written.
      */
     public void store(UUID userId, MultipartFile file) {
         if (file == null || file.isEmpty()) {
@@ -78,37 +148,35 @@ public class PhotoStorageService {
                 "Photo must be under 5MB. Received: " + (file.getSize() / (1024 * 1024)) + "MB");
         }
 
-        ensureWithinPixelBounds(file);
-
         Path dest = resolvePath(userId);
         Path tmp = null;
-        try (InputStream in = file.getInputStream()) {
-            BufferedImage original = ImageIO.read(in);
-            if (original == null) {
-                throw new BusinessException(ErrorKey.PHOTO_UPLOAD_CORRUPT,
-                    "Could not read image data — file may be corrupt or an unsupported format");
-            }
-
-            BufferedImage processed = toOpaqueRgb(original);
+        try {
+            Encoded encoded = images.process(file, LIMITS, flattened -> {
+                ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+                if (!ImageIO.write(flattened.image(), "jpg", jpeg)) {
+                    throw new BusinessException(ErrorKey.PHOTO_UPLOAD_CORRUPT,
+                        "No JPEG encoder available for this image");
+                }
+                return new Encoded(jpeg.toByteArray(), flattened.sourceWidth(), flattened.sourceHeight(),
+                    flattened.image().getWidth(), flattened.image().getHeight());
+            });
             Files.createDirectories(dest.getParent());
 
             // Write to a sibling temp file then atomically swap in, so a concurrent
             // GET never observes a half-written file and a failed encode never
             // clobbers the existing photo.
             tmp = Files.createTempFile(dest.getParent(), userId.toString() + "-", ".jpg.tmp");
-            if (!ImageIO.write(processed, "jpg", tmp.toFile())) {
-                throw new BusinessException(ErrorKey.PHOTO_UPLOAD_CORRUPT,
-                    "No JPEG encoder available for this image");
-            }
+            Files.write(tmp, encoded.jpeg());
             Files.move(tmp, dest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
             tmp = null;
+            // After the move: a load of the old file still in flight finishes first and
+            // is then dropped, rather than landing after this and outliving the upload.
+            hot.invalidate(userId);
 
             log.info("Photo stored for user {} at {} ({}x{} → {}x{})",
                 userId, dest,
-                original.getWidth(), original.getHeight(),
-                processed.getWidth(), processed.getHeight());
-        } catch (BusinessException e) {
-            throw e;
+                encoded.sourceWidth(), encoded.sourceHeight(),
+                encoded.width(), encoded.height());
         } catch (IOException e) {
             // The exception detail stays in the log. It was going into the response
             // body, and an IOException's message here is usually a server path: an
@@ -146,6 +214,7 @@ public class PhotoStorageService {
         Path path = resolvePath(userId);
         try {
             boolean deleted = Files.deleteIfExists(path);
+            hot.invalidate(userId);
             if (deleted) {
                 log.info("Deleted profile photo for user {}", userId);
             }
@@ -157,13 +226,55 @@ public class PhotoStorageService {
         }
     }
 
-    /** Returns the photo as a Spring Resource, or null if none exists. */
-    public Resource serve(UUID userId) {
+    /**
+     * The photo to serve, or null if none exists — from memory when it was served lately,
+     * otherwise read from disk once and kept. Concurrent misses for one user share a
+     * single read. Misses are not cached, so a first upload shows up at once.
+     */
+    public Photo serve(UUID userId) {
+        return hot.get(userId, this::load);
+    }
+
+    /**
+     * The validators of the photo {@link #serve} would return, or null if none exists —
+     * from memory when it is cached, otherwise from one stat of the file. A revalidation
+     * answered 304 never needs the bytes, so it never pays for reading them.
+     */
+    public Stamp stamp(UUID userId) {
+        // The map view, like getVersion: a revalidation is not a byte read for the hit ratio.
+        Photo cached = hot.asMap().get(userId);
+        if (cached != null) {
+            return cached.stamp();
+        }
+        Path path = resolvePath(userId);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Stamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read the profile photo attributes for user {}", userId, e);
+            return null;
+        }
+    }
+
+    /** One open, one sized read: the file is small and its size is known up front. */
+    private Photo load(UUID userId) {
         Path path = resolvePath(userId);
-        if (Files.exists(path)) {
-            return new FileSystemResource(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long version = Files.getLastModifiedTime(path).toMillis();
+            ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // read until full; a short file ends the loop at EOF
+            }
+            return new Photo(bytes.hasRemaining() ? Arrays.copyOf(bytes.array(), bytes.position())
+                    : bytes.array(), version);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read the profile photo for user {}", userId, e);
+            return null;
         }
-        return null;
     }
 
     /**
@@ -172,6 +283,12 @@ public class PhotoStorageService {
      * exactly when the photo changes (the served URL is otherwise stable).
      */
     public Long getVersion(UUID userId) {
+        // Through the map view, which does not count as a cache read: the hit ratio is
+        // about serving bytes, and this is asked on every profile fetch.
+        Photo cached = hot.asMap().get(userId);
+        if (cached != null) {
+            return cached.version();
+        }
         Path path = resolvePath(userId);
         if (!Files.exists(path)) {
             return null;
@@ -189,65 +306,4 @@ public class PhotoStorageService {
     private Path resolvePath(UUID userId) {
         return uploadDir.resolve(userId.toString() + ".jpg");
     }
-
-    /**
-     * Rejects images whose header reports more than MAX_PIXELS before the full
-     * raster is allocated. Reads only the dimensions, not the pixels.
-     */
-    private void ensureWithinPixelBounds(MultipartFile file) {
-        try (ImageInputStream iis = ImageIO.createImageInputStream(file.getInputStream())) {
-            if (iis == null) {
-                return; // let ImageIO.read fail later with PHOTO_UPLOAD_CORRUPT
-            }
-            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-            if (!readers.hasNext()) {
-                return; // unknown format — decode path will throw PHOTO_UPLOAD_CORRUPT
-            }
-            ImageReader reader = readers.next();
-            try {
-                reader.setInput(iis);
-                long w = reader.getWidth(0);
-                long h = reader.getHeight(0);
-                if (w * h > MAX_PIXELS) {
-                    throw new BusinessException(ErrorKey.PHOTO_UPLOAD_TOO_LARGE,
-                        "Image dimensions too large: " + w + "x" + h);
-                }
-            } finally {
-                reader.dispose();
-            }
-        } catch (IOException e) {
-            // Header unreadable — defer to ImageIO.read, which throws PHOTO_UPLOAD_CORRUPT.
-            log.debug("Could not read image header for pixel-bound check", e);
-        }
-    }
-
-    /**
-     * Downscales to fit within MAX_DIMENSION x MAX_DIMENSION (aspect preserved,
-     * never upscaled) and always draws onto an opaque TYPE_INT_RGB canvas.
-     * The RGB flatten is mandatory: the JDK JPEG writer silently fails on
-     * alpha-bearing images (returns false, produces a 0-byte file), so every
-     * image — small or large, transparent or not — is flattened here. Transparent
-     * regions composite onto white. The display layer crops to a circle/square.
-     */
-    private BufferedImage toOpaqueRgb(BufferedImage original) {
-        int w = original.getWidth();
-        int h = original.getHeight();
-        int targetW = w;
-        int targetH = h;
-        if (w > MAX_DIMENSION || h > MAX_DIMENSION) {
-            double scale = (double) MAX_DIMENSION / Math.max(w, h);
-            targetW = Math.max(1, (int) Math.round(w * scale));
-            targetH = Math.max(1, (int) Math.round(h * scale));
-        }
-
-        BufferedImage rgb = new BufferedImage(targetW, targetH, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g = rgb.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g.setColor(Color.WHITE);
-        g.fillRect(0, 0, targetW, targetH);
-        g.drawImage(original, 0, 0, targetW, targetH, null);
-        g.dispose();
-        return rgb;
-    }
 }
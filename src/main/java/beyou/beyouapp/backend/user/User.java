@@ -1,6 +1,7 @@
 package beyou.beyouapp.backend.user;
 
 import beyou.beyouapp.backend.domain.category.Category;
+import beyou.beyouapp.backend.domain.checkday.UserStreakState;
 import beyou.beyouapp.backend.domain.common.CheckProgress;
 import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.common.XpProgress;
@@ -116,6 +117,13 @@ public class User implements UserDetails {
     @Embedded
     private CheckProgress checkProgress = new CheckProgress();
 
+    /**
+     * The streak {@code UserStreakService} reports, kept as state so reading it does not
+     * walk {@link #completedDays} and the account's history on every check (V26).
+     */
+    @Embedded
+    private UserStreakState streakState = new UserStreakState();
+
     @Enumerated(EnumType.STRING)
     private UserRole userRole;
 
@@ -18,11 +18,16 @@ import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
 import beyou.beyouapp.backend.domain.task.TaskRepository;
+import beyou.beyouapp.backend.exceptions.user.UserNotFound;
 import beyou.beyouapp.backend.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -32,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -46,16 +52,107 @@ public class UserExportService {
     private final EntityCheckDayRepository entityCheckDayRepository;
     private final DiaryRoutineRepository diaryRoutineRepository;
     private final ChatService chatService;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Transactional(readOnly = true)
     public Map<String, Object> exportUserData() {
-        User user = authenticatedUser.getAuthenticatedUser();
-        UUID userId = user.getId();
+        // Re-read rather than exported off the principal: that is a cached copy whose XP,
+        // streak and agent notes can trail the row by the cache TTL.
+        UUID userId = authenticatedUser.getAuthenticatedUser().getId();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFound("User not found by id"));
 
         Map<String, Object> export = new LinkedHashMap<>();
         export.put("exportedAt", Instant.now().toString());
+        export.put("profile", profile(user));
+        export.put("categories", categories(userId));
+        export.put("habits", habits(userId));
+        export.put("goals", goals(userId));
+        export.put("tasks", tasks(userId));
 
-        // Profile
+        // Routines, with the structure that makes them mean anything (R8)
+        export.put("routines", routines(userId));
+
+        // Feedback (R21) — submissions, the replies they got back, and
+        // references to any attached images. Assembled by the feedback domain
+        // itself; the shape of a submission is not this class's business.
+        export.put("feedback", feedbackService.exportForUser(userId));
+
+        // Assistant conversations, the transcript and the notes the model wrote. This
+        // is the part of the account that left the server for a third-party provider,
+        // which makes it the part someone asking for their data most wants to see.
+        export.put("agentChats", chatService.exportForUser(userId));
+
+        // Check-in history (R10)
+        export.put("checkHistory", checkHistory(user));
+        export.put("notIncluded", notIncluded());
+
+        return export;
+    }
+
+    /**
+     * {@link #exportUserData()} written as it is read, for accounts whose export is too big
+     * to hold: the same keys and values, produced section by section through a
+     * {@link JsonGenerator} and flushed after each one, so the first bytes leave while the
+     * rest is still being read and the heap holds one section's rows at most. The one
+     * difference is order: {@code checkHistory.owners} is listed by owner rather than by
+     * each owner's earliest check, so compare the two by owner, not by position.
+     *
+     * <p>The two sections that grow with account age are never materialised whole: agent
+     * chats are read and written one conversation at a time, and the check history comes
+     * off a database cursor ({@link EntityCheckDayRepository#streamByUserIdAndDayBetween}),
+     * ordered by owner so each owner's days can be written and forgotten before the next
+     * owner's arrive. The rest — categories, habits, goals, tasks, routines, feedback — is
+     * bounded by what a person can create by hand and is read as before.
+     *
+     * <p>Takes the user id rather than reading the principal, because it runs on the
+     * response's async thread, after the request thread that knew who was asking has
+     * moved on. The transaction is opened there for the same reason. Closes {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public void writeUserData(UUID userId, OutputStream out) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFound("User not found by id"));
+
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writePOJOProperty("exportedAt", Instant.now().toString());
+            json.writePOJOProperty("profile", profile(user));
+            json.flush();
+            writeSection(json, "categories", categories(userId));
+            writeSection(json, "habits", habits(userId));
+            writeSection(json, "goals", goals(userId));
+            writeSection(json, "tasks", tasks(userId));
+            writeSection(json, "routines", routines(userId));
+            writeSection(json, "feedback", feedbackService.exportForUser(userId));
+
+            json.writeName("agentChats");
+            json.writeStartArray();
+            chatService.exportForUser(userId, chat -> {
+                json.writePOJO(chat);
+                json.flush();
+            });
+            json.writeEndArray();
+
+            writeCheckHistory(json, user);
+            json.writePOJOProperty("notIncluded", notIncluded());
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeSection(JsonGenerator json, String name, List<Map<String, Object>> items) {
+        json.writeName(name);
+        json.writeStartArray();
+        for (Map<String, Object> item : items) {
+            json.writePOJO(item);
+        }
+        json.writeEndArray();
+        json.flush();
+    }
+
+    private Map<String, Object> profile(User user) {
         Map<String, Object> profile = new LinkedHashMap<>();
         profile.put("name", user.getName());
         profile.put("email", user.getEmail());
@@ -75,11 +172,12 @@ public class UserExportService {
         profile.put("assistantNotesAboutYou", user.getUserContext());
         profile.put("progress", xp(user.getXpProgress()));
         profile.put("streak", streak(user.getCheckProgress()));
-        export.put("profile", profile);
+        return profile;
+    }
 
-        // Categories
+    private List<Map<String, Object>> categories(UUID userId) {
         var categories = categoryRepository.findAllByUserId(userId).orElse(new java.util.ArrayList<>());
-        export.put("categories", categories.stream().map(c -> {
+        return categories.stream().map(c -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", c.getId());
             map.put("name", c.getName());
@@ -87,11 +185,12 @@ public class UserExportService {
             map.put("description", c.getDescription());
             map.put("progress", xp(c.getXpProgress()));
             return map;
-        }).toList());
+        }).toList();
+    }
 
-        // Habits
+    private List<Map<String, Object>> habits(UUID userId) {
         var habits = habitRepository.findAllByUserId(userId);
-        export.put("habits", habits.stream().map(h -> {
+        return habits.stream().map(h -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", h.getId());
             map.put("name", h.getName());
@@ -102,11 +201,12 @@ public class UserExportService {
             map.put("progress", xp(h.getXpProgress()));
             map.put("streak", streak(h.getCheckProgress()));
             return map;
-        }).toList());
+        }).toList();
+    }
 
-        // Goals
+    private List<Map<String, Object>> goals(UUID userId) {
         var goals = goalRepository.findAllByUserId(userId).orElse(List.of());
-        export.put("goals", goals.stream().map(g -> {
+        return goals.stream().map(g -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", g.getId());
             map.put("name", g.getName());
@@ -117,11 +217,12 @@ public class UserExportService {
             map.put("startDate", g.getStartDate());
             map.put("endDate", g.getEndDate());
             return map;
-        }).toList());
+        }).toList();
+    }
 
-        // Tasks
+    private List<Map<String, Object>> tasks(UUID userId) {
         var tasks = taskRepository.findAllByUserId(userId).orElse(List.of());
-        export.put("tasks", tasks.stream().map(t -> {
+        return tasks.stream().map(t -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", t.getId());
             map.put("name", t.getName());
@@ -133,26 +234,14 @@ public class UserExportService {
             // first place.
             map.put("streak", streak(t.getCheckProgress()));
             return map;
-        }).toList());
-
-        // Routines, with the structure that makes them mean anything (R8)
-        export.put("routines", routines(userId));
-
-        // Feedback (R21) — submissions, the replies they got back, and
-        // references to any attached images. Assembled by the feedback domain
-        // itself; the shape of a submission is not this class's business.
-        export.put("feedback", feedbackService.exportForUser(userId));
-
-        // Assistant conversations, the transcript and the notes the model wrote. This
-        // is the part of the account that left the server for a third-party provider,
-        // which makes it the part someone asking for their data most wants to see.
-        export.put("agentChats", chatService.exportForUser(userId));
-
-        // Check-in history (R10)
-        export.put("checkHistory", checkHistory(user));
+        }).toList();
+    }
 
-        // Say out loud what a reader will not find here, so the file can be trusted
-        // as a whole rather than spot-checked. Deletion takes these too.
+    /**
+     * Say out loud what a reader will not find here, so the file can be trusted as a whole
+     * rather than spot-checked. Deletion takes these too.
+     */
+    private static Map<String, Object> notIncluded() {
         Map<String, Object> omitted = new LinkedHashMap<>();
         omitted.put("routineSnapshots", "The per-day frozen copy of each routine, one row per "
                 + "routine per day, each carrying a full copy of that day's structure. The "
@@ -161,9 +250,7 @@ public class UserExportService {
         omitted.put("credentials", "Password hash, refresh tokens and any pending "
                 + "verification or reset tokens. Nothing here is useful to you and all of it "
                 + "is dangerous in a file.");
-        export.put("notIncluded", omitted);
-
-        return export;
+        return omitted;
     }
 
     /**
@@ -277,8 +364,8 @@ public class UserExportService {
      *
      * <p>The bound is the point. Every other section here has a natural ceiling — a user has
      * so many habits, so many submissions — but this one gains a row per checkable entity per
-     * day and never stops, and the whole payload is assembled in memory inside one read-only
-     * transaction. An account three years old would put roughly a thousand days times every
+     * day and never stops, and the map export assembles the whole payload in memory inside
+     * one read-only transaction. An account three years old would put roughly a thousand days times every
      * habit it ever had into a single map. So the window is the most recent
      * {@link CheckHistoryService#MAX_RANGE_DAYS} days, the same cap the history endpoint
      * clamps to, and the export names it: {@code from}, {@code to} and {@code maxRangeDays}
@@ -319,6 +406,61 @@ public class UserExportService {
             days.add(day);
         }
 
+        Map<String, Object> history = checkHistoryHeader(from, to);
+        history.put("owners", List.copyOf(byOwner.values()));
+        return history;
+    }
+
+    /**
+     * {@link #checkHistory} off a cursor. Rows arrive grouped by owner, so an owner's
+     * entry is opened when its first row arrives and closed when the next owner's does;
+     * each row is detached once written. Owners come out in owner order rather than
+     * first-seen order — the only way the streamed file differs from the other.
+     */
+    private void writeCheckHistory(JsonGenerator json, User user) {
+        LocalDate to = UserDateResolver.today(user);
+        LocalDate from = to.minusDays(CheckHistoryService.MAX_RANGE_DAYS - 1L);
+
+        json.writeName("checkHistory");
+        json.writeStartObject();
+        checkHistoryHeader(from, to).forEach(json::writePOJOProperty);
+        json.writeName("owners");
+        json.writeStartArray();
+        try (Stream<EntityCheckDay> rows = entityCheckDayRepository
+                .streamByUserIdAndDayBetween(user.getId(), from, to)) {
+            String current = null;
+            for (EntityCheckDay row : (Iterable<EntityCheckDay>) rows::iterator) {
+                String key = row.getOwnerType() + ":" + row.getOwnerId();
+                if (!key.equals(current)) {
+                    if (current != null) {
+                        json.writeEndArray();
+                        json.writeEndObject();
+                    }
+                    current = key;
+                    json.writeStartObject();
+                    json.writePOJOProperty("ownerType", row.getOwnerType());
+                    json.writePOJOProperty("ownerId", row.getOwnerId());
+                    json.writeName("days");
+                    json.writeStartArray();
+                }
+                json.writeStartObject();
+                json.writePOJOProperty("day", row.getDay());
+                json.writePOJOProperty("outcome", row.getOutcome());
+                json.writeEndObject();
+                entityManager.detach(row);
+            }
+            if (current != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    /** Everything in the check history but its owners: the window, and that it is one. */
+    private static Map<String, Object> checkHistoryHeader(LocalDate from, LocalDate to) {
         Map<String, Object> history = new LinkedHashMap<>();
         history.put("from", from);
         history.put("to", to);
@@ -326,7 +468,6 @@ public class UserExportService {
         history.put("note", "Covers the most recent " + CheckHistoryService.MAX_RANGE_DAYS
                 + " days only. Anything older is still stored and readable through the "
                 + "check-history endpoint one window at a time.");
-        history.put("owners", List.copyOf(byOwner.values()));
         return history;
     }
 }
@@ -0,0 +1,87 @@
+package beyou.beyouapp.backend.user;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Walks {@code users} for the batch jobs a page at a time over the keyset queries on
+ * {@link UserRepository}, so a job over every account never holds more than one page.
+ *
+ * <p>Lazy and single-pass: the next page is only read once the caller has consumed the
+ * previous one, which is what keeps heap flat however many users there are. Each page is
+ * its own short query, so nothing holds a connection or a cursor open between them — a
+ * slow consumer costs time, not a pinned connection. Rows are never revisited: an account
+ * created mid-walk is picked up if its id sorts after the current page, and otherwise
+ * waits for the next run, exactly as it would have with a single up-front list.
+ */
+public final class UserIdPages<T> implements Iterable<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private final BiFunction<UUID, Integer, List<T>> fetch;
+    private final Function<T, UUID> keyOf;
+    private final int pageSize;
+
+    private UserIdPages(BiFunction<UUID, Integer, List<T>> fetch, Function<T, UUID> keyOf, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive, was " + pageSize);
+        }
+        this.fetch = fetch;
+        this.keyOf = keyOf;
+        this.pageSize = pageSize;
+    }
+
+    /** Every account id in {@code timezone}, in id order. */
+    public static UserIdPages<UUID> inTimezone(UserRepository repository, String timezone, int pageSize) {
+        return new UserIdPages<>(
+                (after, limit) -> repository.findIdsByTimezoneAfter(timezone, after, limit),
+                id -> id, pageSize);
+    }
+
+    /** Every account with its timezone, in id order. */
+    public static UserIdPages<UserRepository.IdAndTimezone> all(UserRepository repository, int pageSize) {
+        return new UserIdPages<>(repository::findIdsAndTimezonesAfter,
+                UserRepository.IdAndTimezone::getId, pageSize);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private List<T> page = List.of();
+            private int position;
+            private UUID after = UserRepository.FIRST_PAGE;
+            private boolean lastPage;
+
+            @Override
+            public boolean hasNext() {
+                if (position < page.size()) {
+                    return true;
+                }
+                if (lastPage) {
+                    return false;
+                }
+                page = fetch.apply(after, pageSize);
+                position = 0;
+                // A short page is the last one; skipping the query that would confirm it
+                // saves a round trip per walk.
+                lastPage = page.size() < pageSize;
+                if (!page.isEmpty()) {
+                    after = keyOf.apply(page.getLast());
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+    }
+}
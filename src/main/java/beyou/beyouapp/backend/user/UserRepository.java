@@ -22,7 +22,42 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT DISTINCT u.timezone FROM User u")
     List<String> findDistinctTimezones();
 
-    List<User> findAllByTimezone(String timezone);
+    /**
+     * The key the first page of {@link #findIdsByTimezoneAfter} and
+     * {@link #findIdsAndTimezonesAfter} starts after. All-zero is the smallest value
+     * PostgreSQL's {@code uuid} ordering can hold, so nothing sorts before it.
+     */
+    UUID FIRST_PAGE = new UUID(0L, 0L);
+
+    /**
+     * One keyset page of the ids living in {@code timezone}: the next {@code limit} ids
+     * after {@code after}, in id order. Pass {@link #FIRST_PAGE} to start and the last id
+     * of each page to continue; a page shorter than {@code limit} is the last.
+     *
+     * Ids only, on purpose. The scheduler's per-user work reloads the account inside its
+     * own transaction anyway, so materialising whole User rows here — profile, XP, the
+     * completed-days collection waiting to be lazily pulled in — only costs heap that grows
+     * with the size of the zone. Keyset rather than OFFSET so that every page is a range
+     * scan on idx_users_timezone_id (V23) from where the last one stopped, and an account
+     * created mid-walk cannot shift the pages under it.
+     */
+    @Query(value = "SELECT id FROM users WHERE timezone = :timezone AND id > :after ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<UUID> findIdsByTimezoneAfter(@Param("timezone") String timezone,
+                                      @Param("after") UUID after,
+                                      @Param("limit") int limit);
+
+    /** What the startup backfill needs per account: who, and which day it is for them. */
+    interface IdAndTimezone {
+        UUID getId();
+
+        String getTimezone();
+    }
+
+    /** {@link #findIdsByTimezoneAfter} across every timezone, for the startup backfill. */
+    @Query(value = "SELECT id, timezone FROM users WHERE id > :after ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<IdAndTimezone> findIdsAndTimezonesAfter(@Param("after") UUID after, @Param("limit") int limit);
 
     /**
      * Addresses of everyone holding a role, for the feedback inbox alert.
@@ -50,8 +85,21 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query(value = "UPDATE users SET last_login_at = :at, last_seen_at = :at WHERE id = :id", nativeQuery = true)
     void recordLogin(@Param("id") UUID id, @Param("at") Instant at);
 
+    /**
+     * {@code last_seen_at} for many users in one statement — the tracker's write-behind
+     * flush, which replaced the single-row write it used to make on the request thread.
+     * Ids and instants travel as two array literals of equal length (text, cast in SQL)
+     * zipped back into rows by {@code unnest}. A row only moves forward: a buffered
+     * sighting can be older than a login written inline since, and must not roll it back.
+     * Returns how many rows changed.
+     */
     @Modifying
     @Transactional
-    @Query(value = "UPDATE users SET last_seen_at = :at WHERE id = :id", nativeQuery = true)
-    void recordSeen(@Param("id") UUID id, @Param("at") Instant at);
+    @Query(value = """
+            UPDATE users u SET last_seen_at = v.at
+            FROM unnest(CAST(:ids AS uuid[]), CAST(:ats AS timestamptz[])) AS v(id, at)
+            WHERE u.id = v.id
+              AND (u.last_seen_at IS NULL OR u.last_seen_at < v.at)
+            """, nativeQuery = true)
+    int recordSeenBatch(@Param("ids") String ids, @Param("ats") String ats);
 }
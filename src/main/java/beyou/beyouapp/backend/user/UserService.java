@@ -8,6 +8,7 @@ import beyou.beyouapp.backend.domain.feedback.FeedbackAttachmentService;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import beyou.beyouapp.backend.exceptions.user.UserNotFound;
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
 import beyou.beyouapp.backend.security.ClientType;
 import beyou.beyouapp.backend.security.TokenService;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenService;
@@ -67,6 +68,9 @@ public class UserService {
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final ChatService chatService;
 
+    /** Evicted by every write here that changes what a request's principal carries. */
+    private final AuthenticatedPrincipalCache principalCache;
+
     /**
      * Absent when rate limiting is switched off, which the e2e profile does — hence
      * {@code required = false} and the null checks at the call sites. A test stack that
@@ -367,6 +371,9 @@ public class UserService {
 
             userRepository.delete(user);
             userRepository.flush();
+            // After the commit as well as now: a JWT for this account is still valid
+            // for up to fifteen minutes, and it must stop finding a principal at once.
+            principalCache.evict(user.getEmail());
 
             purgeFilesAfterCommit(user.getId(), submissionIds);
             return ResponseEntity.ok(Map.of("success", "User deleted successfully"));
@@ -449,6 +456,8 @@ public class UserService {
 
             try{
                 User saved = userRepository.save(user);
+                // Timezone and language are read straight off the principal downstream.
+                principalCache.evict(saved.getEmail());
                 return userMapper.toResponseDTO(saved, photoStorageService.getVersion(userId));
             }catch(Exception e){
                throw e;
@@ -524,11 +533,11 @@ public class UserService {
      * how completed days are counted into a streak, not how a day becomes complete.
      *
      * <p>The streak is read back through {@link UserStreakService} rather than computed on
-     * the entity, so the record it raises is a count of scheduled days. The set is mutated
-     * before the read on purpose: the walk reads {@code completedDays} straight off this
-     * in-memory instance, so today is already in it, and the account's frozen rows it also
-     * reads are written by the nightly close — never inside this transaction. A flush is
-     * not needed for either half, and the derived query would force one anyway.
+     * the entity, so the record it raises is a count of scheduled days. The set and the
+     * stored streak state are both moved before the read on purpose: the read answers off
+     * this in-memory instance, so today is already in it, and the account's frozen rows a
+     * walk would also read are written by the nightly close — never inside this
+     * transaction. A flush is not needed for either half.
      *
      * <p>R13 — raise-only. A record is a record; unmarking a day later (see
      * {@link #unmarkDayComplete}) lowers the current streak and leaves this alone.
@@ -536,7 +545,9 @@ public class UserService {
     @Transactional
     public void markDayCompleted(User user, LocalDate date) {
         log.info("[SERVICE] marking date {} as complete for user {}", date, user.getName());
-        user.getCompletedDays().add(date);
+        if (user.getCompletedDays().add(date)) {
+            userStreakService.dayCompleted(user, date);
+        }
 
         int currentStreak = userStreakService.streakOf(user, date).currentStreak();
 
@@ -552,12 +563,14 @@ public class UserService {
      * Takes a day back out of the completed set — the last check of the day was undone, or
      * a back-dated snapshot edit dropped below the completion threshold.
      *
-     * <p>R13 — {@code maxConstance} is deliberately not touched. The current streak falls
-     * out of the next walk on its own; the record stands.
+     * <p>R13 — {@code maxConstance} is deliberately not touched. The current streak drops
+     * with the stored streak state; the record stands.
      */
     @Transactional
     public void unmarkDayComplete(User user, LocalDate date){
-        user.getCompletedDays().remove(date);
+        if (user.getCompletedDays().remove(date)) {
+            userStreakService.dayUncompleted(user, date);
+        }
 
         userRepository.save(user);
     }
@@ -0,0 +1,22 @@
+-- Keyset paging for the snapshot scheduler (see UserRepository.findIdsByTimezoneAfter).
+--
+-- The midnight and day-close passes used to load every User of a timezone in one
+-- list. They now walk the zone in fixed-size pages of ids:
+--
+--   SELECT id FROM users WHERE timezone = ? AND id > ? ORDER BY id LIMIT ?
+--
+-- (timezone, id) answers that as a range scan that starts exactly where the last
+-- page stopped and is already in id order — no sort, and no page costs more than
+-- the one before it. The single-column idx_users_timezone from V2 is a prefix of
+-- this index and serves nothing the new one does not (findDistinctTimezones
+-- included), so it is dropped rather than maintained twice on every signup.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Plain CREATE INDEX (not CONCURRENTLY): the same pre-production call V2 and V22
+-- document, and CONCURRENTLY cannot run inside Flyway's transaction anyway.
+CREATE INDEX IF NOT EXISTS idx_users_timezone_id ON users (timezone, id);
+DROP INDEX IF EXISTS idx_users_timezone;
@@ -0,0 +1,27 @@
+-- Indexed lookup of one routine entry's live check (see CheckItemService and
+-- HabitGroupCheckRepository / TaskGroupCheckRepository).
+--
+-- A check or skip needs the entry's check for one day. It used to read that off
+-- the mapped collection, which loads every live check the entry has, on every
+-- click. It now asks for it by entry id and date:
+--
+--   SELECT ... FROM habit_group_checks h JOIN base_checks b ON b.id = h.id
+--   WHERE h.habit_group_id = ? AND b.check_date = ?
+--
+-- Under JOINED inheritance the date lives on base_checks and the entry id on the
+-- subclass table, so no single index can hold both. The entry id is the
+-- selective half: the live rows of one entry are the days since its last
+-- midnight snapshot (SnapshotCheckMigrator deletes a day once it is copied), so
+-- the index narrows the read to a handful of rows, each joined by primary key.
+-- Neither foreign key had an index, so the same scan also served the snapshot
+-- migrator's per-day delete and every collection load as a sequential scan.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Plain CREATE INDEX (not CONCURRENTLY): the same pre-production call V2 and V22
+-- document, and CONCURRENTLY cannot run inside Flyway's transaction anyway.
+CREATE INDEX IF NOT EXISTS idx_habit_group_checks_group ON habit_group_checks (habit_group_id);
+CREATE INDEX IF NOT EXISTS idx_task_group_checks_group ON task_group_checks (task_group_id);
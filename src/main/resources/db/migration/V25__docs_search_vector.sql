@@ -0,0 +1,56 @@
+-- Full-text search over the docs (see SearchService).
+--
+-- Search used to run four JPQL queries, one per docs type, each an
+-- ILIKE '%q%' over title and summary — a sequential scan of every content row
+-- that no index can serve — then scored, merged, sorted and paged the hits in
+-- Java. Each content table now carries the words of its title (weight A) and
+-- summary (weight B) as a tsvector, and one ranked UNION ALL over the four
+-- tables answers a page of results in a single statement.
+--
+-- GENERATED ... STORED, so the import services keep it current without knowing
+-- it exists: any insert or update of title or summary recomputes it. The column
+-- is not mapped on the entities (ddl-auto: validate ignores extra columns), so
+-- nothing in Java can write a stale value into it.
+--
+-- 'simple', not 'english': the docs are written in several locales and one
+-- stemmer would be wrong for the others. 'simple' lowercases and splits, and the
+-- query side adds prefix matching (q:*) so a partial word still finds its topic.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- A stored generated column rewrites the table. These hold one row per topic
+-- per locale, so the rewrite is instant; lock_timeout is the backstop.
+ALTER TABLE docs_architecture_topic_content ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(summary, '')), 'B')
+    ) STORED;
+ALTER TABLE docs_blog_topic_content ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(summary, '')), 'B')
+    ) STORED;
+ALTER TABLE docs_api_controller_content ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(summary, '')), 'B')
+    ) STORED;
+ALTER TABLE docs_project_topic_content ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple'::regconfig, coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple'::regconfig, coalesce(summary, '')), 'B')
+    ) STORED;
+
+-- Plain CREATE INDEX (not CONCURRENTLY): the same pre-production call V2 and V22
+-- document, and CONCURRENTLY cannot run inside Flyway's transaction anyway.
+CREATE INDEX IF NOT EXISTS idx_docs_architecture_content_search
+    ON docs_architecture_topic_content USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_docs_blog_content_search
+    ON docs_blog_topic_content USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_docs_api_controller_content_search
+    ON docs_api_controller_content USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_docs_project_content_search
+    ON docs_project_topic_content USING gin (search_vector);
@@ -0,0 +1,33 @@
+-- The account streak, kept as state instead of re-walked on every read
+-- (see UserStreakService and UserStreakState).
+--
+-- Every check response, login and profile read used to load the account's whole
+-- USER history from entity_check_day and walk it day by day back to the first
+-- completed day — a cost that grows with the age of the account, paid per click.
+-- Three scalars are enough to answer "what is the streak today" without it:
+--
+--   streak_count              completed days after the last missed one
+--   streak_last_missed_day    the latest day closed MISSED that was never completed
+--   streak_last_scheduled_day the latest day closed as something was asked (dormancy)
+--
+-- The writers that can change the answer — UserService.markDayCompleted /
+-- unmarkDayComplete and DayCloseService — move them as they write.
+--
+-- streak_synced says the three have been built from the history at least once.
+-- Existing accounts start false on purpose: the read path keeps walking for them
+-- until their next check or the nightly UserStreakRepairJob builds the state from
+-- the same rows the walk reads, so the Java rules stay the only copy of the rules.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Constant defaults, so PostgreSQL records them in the catalog instead of
+-- rewriting the users table.
+ALTER TABLE users
+    -- squawk-ignore prefer-bigint-over-int
+    ADD COLUMN IF NOT EXISTS streak_count integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS streak_last_missed_day date,
+    ADD COLUMN IF NOT EXISTS streak_last_scheduled_day date,
+    ADD COLUMN IF NOT EXISTS streak_synced boolean NOT NULL DEFAULT false;
@@ -0,0 +1,47 @@
+-- The weekdays of a schedule as a 7-bit mask on the schedule row itself
+-- (see Schedule.daysMask and WeekDay.bit).
+--
+-- "Which of this user's routines run today" used to load every routine the user
+-- has, with its schedule_days rows, and filter in Java — on every dashboard read
+-- that missed the todayRoutine cache and for every user of the midnight snapshot
+-- pass. With the days on the schedule row, DiaryRoutineRepository asks the
+-- question in SQL: routines by user_id (idx_routines_user_id, V2), joined to
+-- their schedule by primary key, kept when days_mask has the weekday's bit.
+--
+-- Bit n is WeekDay ordinal n: Monday = 1, Tuesday = 2, ... Sunday = 64.
+-- schedule_days stays the source the API reads and writes; the entity moves the
+-- mask whenever it moves the days, so this column is a mirror, never edited on
+-- its own.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Constant default, so PostgreSQL records it in the catalog instead of
+-- rewriting the schedules table.
+ALTER TABLE schedules
+    -- squawk-ignore prefer-bigint-over-int
+    ADD COLUMN IF NOT EXISTS days_mask integer NOT NULL DEFAULT 0;
+
+-- Existing schedules: fold their schedule_days rows into the mask. A schedule
+-- with no days keeps 0 and never matches, as it never ran before.
+UPDATE schedules s
+SET days_mask = d.mask
+FROM (
+    SELECT schedule_id,
+           bit_or(CASE days
+                      WHEN 'Monday'    THEN 1
+                      WHEN 'Tuesday'   THEN 2
+                      WHEN 'Wednesday' THEN 4
+                      WHEN 'Thursday'  THEN 8
+                      WHEN 'Friday'    THEN 16
+                      WHEN 'Saturday'  THEN 32
+                      WHEN 'Sunday'    THEN 64
+                      ELSE 0
+                  END) AS mask
+    FROM schedule_days
+    GROUP BY schedule_id
+) d
+WHERE d.schedule_id = s.id
+  AND s.days_mask <> d.mask;
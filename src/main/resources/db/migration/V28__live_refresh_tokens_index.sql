@@ -0,0 +1,28 @@
+-- Indexed lookup of an account's live refresh tokens (see RefreshTokenRepository
+-- and TokenPurgeJob).
+--
+-- Every refresh writes a new row and only stamps revoked_at on the one it
+-- replaced, so an account's rows in refresh_tokens used to grow for as long as it
+-- stayed signed in, and revokeAllForUser (run by every password reset) loaded all
+-- of them to stamp the few still live. TokenPurgeJob now deletes the dead ones
+-- nightly, and the reset revokes with one UPDATE over the live ones:
+--
+--   UPDATE refresh_tokens SET revoked_at = ? WHERE user_id = ? AND revoked_at IS NULL
+--
+-- which this partial index answers without touching a revoked row. It holds every
+-- token never revoked, expired or not: an abandoned session's last token is never
+-- revoked and stays in here until the purge deletes it, which makes up most of the
+-- index. What keeps it small is the purge keeping up, not the predicate.
+-- idx_refresh_tokens_user_id (V2) stays for the account delete, which has to reach
+-- every row.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Plain CREATE INDEX (not CONCURRENTLY): the same pre-production call V2 and V22
+-- document, and CONCURRENTLY cannot run inside Flyway's transaction anyway.
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_live
+    ON refresh_tokens (user_id)
+    WHERE revoked_at IS NULL;
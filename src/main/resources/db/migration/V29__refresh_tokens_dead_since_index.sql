@@ -0,0 +1,23 @@
+-- Indexed pick of the refresh tokens TokenPurgeJob deletes (see
+-- RefreshTokenRepository.deleteDeadBatch).
+--
+-- A token is dead from whichever comes first, its expiry or its revocation:
+--
+--   LEAST(expires_at, revoked_at)
+--
+-- LEAST skips NULLs, so a token never revoked is dead from its expiry alone. Each
+-- purge batch asks for up to batch-size rows with that below the cutoff. Written
+-- as "expires_at < cutoff OR revoked_at < cutoff" with nothing to index it, every
+-- one of up to max-batches batches was a sequential scan that also waded through
+-- the dead tuples the batches before it left. On this index a batch is a range
+-- scan that stops at its LIMIT.
+--
+-- SET LOCAL, not SET — see V13/V14/V20. Flyway has no datasource of its own, so a
+-- session-scoped SET would ride back into the pool serving live requests.
+SET LOCAL lock_timeout = '5s';
+SET LOCAL statement_timeout = '60s';
+
+-- Plain CREATE INDEX (not CONCURRENTLY): the same pre-production call V2, V22 and
+-- V28 document, and CONCURRENTLY cannot run inside Flyway's transaction anyway.
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_dead_since
+    ON refresh_tokens ((LEAST(expires_at, revoked_at)));
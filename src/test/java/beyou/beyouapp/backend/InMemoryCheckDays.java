@@ -0,0 +1,158 @@
+package beyou.beyouapp.backend;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.checkday.CheckProgressCalculator;
+import beyou.beyouapp.backend.domain.checkday.CheckProgressDelta;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
+import beyou.beyouapp.backend.domain.common.CheckProgress;
+
+/**
+ * {@code entity_check_day} as a list, standing behind a mocked
+ * {@link EntityCheckDayRepository}.
+ *
+ * <p>The write paths no longer read an owner's whole history; they probe the few rows a
+ * change can touch through half a dozen derived queries. Stubbing each one per test would
+ * bury what the test is about, and would let a stub answer something the table never held.
+ * Every owner-scoped read here is answered from the same rows instead, and {@code save} /
+ * {@code deleteOwnerDay} write back to them, so a test states its history once and the
+ * recorder, the day-close and the full recompute all see the same table.
+ */
+public final class InMemoryCheckDays {
+
+    private final List<EntityCheckDay> rows = new ArrayList<>();
+
+    public List<EntityCheckDay> rows() {
+        return rows;
+    }
+
+    /** Inserts or overwrites the row for its owner and day, as the unique key would. */
+    public void put(EntityCheckDay row) {
+        rows.removeIf(stored -> sameOwnerDay(stored, row.getOwnerType(), row.getOwnerId(), row.getDay()));
+        rows.add(row);
+    }
+
+    public void remove(CheckDayOwnerType type, UUID ownerId, LocalDate day) {
+        rows.removeIf(stored -> sameOwnerDay(stored, type, ownerId, day));
+    }
+
+    /** The scalars the full recompute derives from the table — the state a writer starts from. */
+    public CheckProgress derived(CheckDayOwnerType type, UUID ownerId, LocalDate today, int storedBestStreak) {
+        return CheckProgressCalculator.recompute(history(type, ownerId).toList(), today, storedBestStreak);
+    }
+
+    /** {@link CheckProgressDelta.History} over the table, for tests driving the delta directly. */
+    public CheckProgressDelta.History historyOf(CheckDayOwnerType type, UUID ownerId) {
+        return new CheckProgressDelta.History() {
+            @Override
+            public LocalDate latestBefore(CheckDayOutcome outcome, LocalDate day) {
+                return InMemoryCheckDays.this.latestBefore(type, ownerId, outcome, day)
+                        .map(EntityCheckDay::getDay).orElse(null);
+            }
+
+            @Override
+            public LocalDate earliestAfter(CheckDayOutcome outcome, LocalDate day) {
+                return InMemoryCheckDays.this.earliestAfter(type, ownerId, outcome, day)
+                        .map(EntityCheckDay::getDay).orElse(null);
+            }
+
+            @Override
+            public int countDone(LocalDate after, LocalDate through) {
+                return Math.toIntExact(count(type, ownerId, CheckDayOutcome.DONE, after, through));
+            }
+
+            @Override
+            public boolean anyAfter(LocalDate day) {
+                return history(type, ownerId).anyMatch(row -> row.getDay().isAfter(day));
+            }
+        };
+    }
+
+    /**
+     * Answers every owner-scoped read on {@code repository} from this table. Lenient: most
+     * tests reach only one or two of them, and which ones is exactly what the delta decides.
+     */
+    public InMemoryCheckDays backing(EntityCheckDayRepository repository) {
+        lenient().when(repository.findByOwnerTypeAndOwnerIdOrderByDayAsc(any(), any()))
+                .thenAnswer(i -> history(i.getArgument(0), i.getArgument(1)).toList());
+        lenient().when(repository.findByOwnerTypeAndOwnerIdAndDay(any(), any(), any()))
+                .thenAnswer(i -> history(i.getArgument(0), i.getArgument(1))
+                        .filter(row -> row.getDay().equals(i.getArgument(2)))
+                        .findFirst());
+        lenient().when(repository.findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanOrderByDayDesc(
+                        any(), any(), any(), any()))
+                .thenAnswer(i -> latestBefore(i.getArgument(0), i.getArgument(1),
+                        i.getArgument(2), i.getArgument(3)));
+        lenient().when(repository.findFirstByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanOrderByDayAsc(
+                        any(), any(), any(), any()))
+                .thenAnswer(i -> earliestAfter(i.getArgument(0), i.getArgument(1),
+                        i.getArgument(2), i.getArgument(3)));
+        lenient().when(repository.countByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanAndDayLessThanEqual(
+                        any(), any(), any(), any(), any()))
+                .thenAnswer(i -> count(i.getArgument(0), i.getArgument(1), i.getArgument(2),
+                        i.getArgument(3), i.getArgument(4)));
+        lenient().when(repository.countByOwnerTypeAndOwnerIdAndOutcomeAndDayLessThanEqual(
+                        any(), any(), any(), any()))
+                .thenAnswer(i -> count(i.getArgument(0), i.getArgument(1), i.getArgument(2),
+                        null, i.getArgument(3)));
+        lenient().when(repository.existsByOwnerTypeAndOwnerIdAndDayGreaterThan(any(), any(), any()))
+                .thenAnswer(i -> history(i.getArgument(0), i.getArgument(1))
+                        .anyMatch(row -> row.getDay().isAfter(i.getArgument(2))));
+        lenient().when(repository.save(any(EntityCheckDay.class))).thenAnswer(i -> {
+            EntityCheckDay row = i.getArgument(0);
+            put(row);
+            return row;
+        });
+        lenient().when(repository.deleteOwnerDay(any(), any(), any())).thenAnswer(i -> {
+            int before = rows.size();
+            remove(i.getArgument(0), i.getArgument(1), i.getArgument(2));
+            return before - rows.size();
+        });
+        return this;
+    }
+
+    private Stream<EntityCheckDay> history(CheckDayOwnerType type, UUID ownerId) {
+        return rows.stream()
+                .filter(row -> row.getOwnerType() == type && row.getOwnerId().equals(ownerId))
+                .sorted(Comparator.comparing(EntityCheckDay::getDay));
+    }
+
+    private Optional<EntityCheckDay> latestBefore(CheckDayOwnerType type, UUID ownerId,
+                                                  CheckDayOutcome outcome, LocalDate day) {
+        return history(type, ownerId)
+                .filter(row -> row.getOutcome() == outcome && row.getDay().isBefore(day))
+                .reduce((earlier, later) -> later);
+    }
+
+    private Optional<EntityCheckDay> earliestAfter(CheckDayOwnerType type, UUID ownerId,
+                                                   CheckDayOutcome outcome, LocalDate day) {
+        return history(type, ownerId)
+                .filter(row -> row.getOutcome() == outcome && row.getDay().isAfter(day))
+                .findFirst();
+    }
+
+    private long count(CheckDayOwnerType type, UUID ownerId, CheckDayOutcome outcome,
+                       LocalDate after, LocalDate through) {
+        return history(type, ownerId)
+                .filter(row -> row.getOutcome() == outcome)
+                .filter(row -> after == null || row.getDay().isAfter(after))
+                .filter(row -> !row.getDay().isAfter(through))
+                .count();
+    }
+
+    private static boolean sameOwnerDay(EntityCheckDay row, CheckDayOwnerType type, UUID ownerId, LocalDate day) {
+        return row.getOwnerType() == type && row.getOwnerId().equals(ownerId) && row.getDay().equals(day);
+    }
+}
@@ -33,6 +33,7 @@ import beyou.beyouapp.backend.AbstractIntegrationTest;
 import beyou.beyouapp.backend.domain.aiAgent.AiAgentService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.ChatService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessagePageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.ChatResponseDTO;
 import beyou.beyouapp.backend.security.AuthenticatedUser;
@@ -139,6 +140,30 @@ public class AiAgentControllerTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$[1].segments[0].text").value("Hi!"));
     }
 
+    @Test
+    void shouldGetMessagesPage() throws Exception {
+        when(agentService.getMessages(chatId, userId, 40L, 20))
+                .thenReturn(new AgentMessagePageDTO(
+                        List.of(new AgentMessageDTO("USER", List.of(AgentSegment.text("Earlier")))), 20L));
+
+        mockMvc.perform(get("/ai/agent/chats/" + chatId + "/messages/page")
+                        .param("before", "40")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages[0].segments[0].text").value("Earlier"))
+                .andExpect(jsonPath("$.nextBefore").value(20));
+    }
+
+    @Test
+    void shouldGetNewestMessagesPageByDefault() throws Exception {
+        when(agentService.getMessages(eq(chatId), eq(userId), isNull(), eq(30)))
+                .thenReturn(new AgentMessagePageDTO(List.of(), null));
+
+        mockMvc.perform(get("/ai/agent/chats/" + chatId + "/messages/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages").isEmpty());
+    }
+
     @Test
     void shouldDeleteChat() throws Exception {
         mockMvc.perform(delete("/ai/agent/chats/" + chatId))
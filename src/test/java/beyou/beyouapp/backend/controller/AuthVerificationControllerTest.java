@@ -4,6 +4,7 @@ import beyou.beyouapp.backend.domain.feedback.FeedbackAttachmentRepository;
 import beyou.beyouapp.backend.domain.feedback.FeedbackReplyRepository;
 import beyou.beyouapp.backend.domain.feedback.FeedbackRepository;
 import beyou.beyouapp.backend.notification.EmailService;
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenRepository;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
 import beyou.beyouapp.backend.AbstractIntegrationTest;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,6 +25,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -47,6 +50,9 @@ public class AuthVerificationControllerTest extends AbstractIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @MockitoSpyBean
+    private AuthenticatedPrincipalCache principalCache;
+
     @MockitoBean
     private EmailService emailService;
 
@@ -80,6 +86,18 @@ public class AuthVerificationControllerTest extends AbstractIntegrationTest {
         assertNull(verified.getVerificationTokenExpiry());
     }
 
+    @Test
+    public void shouldEvictTheCachedPrincipalOnVerification() throws Exception {
+        UserRegisterDTO register = new UserRegisterDTO("test", "cached@test.com", "TestPassword1!", null);
+        userService.registerUser(register);
+
+        String token = userRepository.findByEmail("cached@test.com").orElseThrow().getVerificationToken();
+        mockMvc.perform(get("/auth/verify-email").param("token", token))
+                .andExpect(status().isOk());
+
+        verify(principalCache).evict("cached@test.com");
+    }
+
     @Test
     public void shouldRejectInvalidToken() throws Exception {
         mockMvc.perform(get("/auth/verify-email").param("token", "invalid-token"))
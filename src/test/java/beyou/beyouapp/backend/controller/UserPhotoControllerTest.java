@@ -20,7 +20,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
@@ -115,7 +114,7 @@ class UserPhotoControllerTest extends AbstractIntegrationTest {
         @Test
         @DisplayName("returns 404 when a signed request finds no photo")
         void returns404WhenNoPhoto() throws Exception {
-            when(photoStorageService.serve(userId)).thenReturn(null);
+            when(photoStorageService.stamp(userId)).thenReturn(null);
 
             mockMvc.perform(get("/user/photo/{userId}" + signedQuery(userId), userId))
                 .andExpect(status().isNotFound());
@@ -124,12 +123,30 @@ class UserPhotoControllerTest extends AbstractIntegrationTest {
         @Test
         @DisplayName("serves the photo to a signed request")
         void servesSignedRequest() throws Exception {
-            when(photoStorageService.serve(userId))
-                .thenReturn(new ByteArrayResource(createValidJpeg()));
+            PhotoStorageService.Photo photo = new PhotoStorageService.Photo(createValidJpeg(), 1234L);
+            when(photoStorageService.stamp(userId)).thenReturn(photo.stamp());
+            when(photoStorageService.serve(userId)).thenReturn(photo);
 
             mockMvc.perform(get("/user/photo/{userId}" + signedQuery(userId), userId))
                 .andExpect(status().isOk())
-                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=3600"));
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=3600"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+        }
+
+        @Test
+        @DisplayName("answers 304 with no body when the client's copy is current")
+        void answersNotModifiedToCurrentCopy() throws Exception {
+            PhotoStorageService.Photo photo = new PhotoStorageService.Photo(createValidJpeg(), 1234L);
+            when(photoStorageService.stamp(userId)).thenReturn(photo.stamp());
+
+            mockMvc.perform(get("/user/photo/{userId}" + signedQuery(userId), userId)
+                    .header(HttpHeaders.IF_NONE_MATCH, photo.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+            // The revalidation is answered from the stamp: the bytes are never loaded.
+            verify(photoStorageService, never()).serve(any());
         }
 
         /**
@@ -1,44 +1,36 @@
 package beyou.beyouapp.backend.docs.search;
 
-import beyou.beyouapp.backend.docs.api.ApiControllerTopicRepository;
-import beyou.beyouapp.backend.docs.architecture.ArchitectureTopicRepository;
-import beyou.beyouapp.backend.docs.blog.BlogTopicRepository;
-import beyou.beyouapp.backend.docs.project.ProjectTopicRepository;
 import beyou.beyouapp.backend.docs.search.dto.SearchRequestDTO;
 import beyou.beyouapp.backend.docs.search.dto.SearchResultDTO;
-import org.junit.jupiter.api.BeforeEach;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class SearchServiceTest {
 
     @Mock
-    private ArchitectureTopicRepository architectureRepository;
+    private EntityManager entityManager;
     @Mock
-    private BlogTopicRepository blogRepository;
-    @Mock
-    private ApiControllerTopicRepository apiRepository;
-    @Mock
-    private ProjectTopicRepository projectRepository;
+    private Query query;
 
     @InjectMocks
     private SearchService searchService;
 
-    @BeforeEach
-    void setUp() {
-        // No-op for now
-    }
-
     @Test
     void search_withShortQuery_throwsIllegalArgumentException() {
         SearchRequestDTO request = new SearchRequestDTO("a", "en", "all", 10, 0);
@@ -49,20 +41,87 @@ class SearchServiceTest {
 
     @Test
     void search_withValidQuery_returnsEmptyListWhenNoResults() {
-        // Given
         SearchRequestDTO request = new SearchRequestDTO("test", "en", "all", 10, 0);
-        when(architectureRepository.searchByLocaleAndQuery(any(), any(), any())).thenReturn(List.of());
-        when(blogRepository.searchByLocaleAndQuery(any(), any(), any())).thenReturn(List.of());
-        when(apiRepository.searchByLocaleAndQuery(any(), any(), any())).thenReturn(List.of());
-        when(projectRepository.searchByLocaleAndQuery(any(), any(), any())).thenReturn(List.of());
+        stubQuery(List.of());
 
-        // When
         List<SearchResultDTO> results = searchService.search(request);
 
-        // Then
         assertNotNull(results);
         assertTrue(results.isEmpty());
     }
 
-    // Additional tests could be added for each category, highlighting, scoring, etc.
-}
\ No newline at end of file
+    @Test
+    void search_runsOneRankedStatementPagedInTheDatabase() {
+        SearchRequestDTO request = new SearchRequestDTO("Spring boot", "EN", "all", 5, 10);
+        stubQuery(List.of());
+
+        searchService.search(request);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertEquals(3, sql.getValue().split("UNION ALL").length - 1);
+        assertTrue(sql.getValue().contains("LIMIT :limit OFFSET :offset"));
+        verify(query).setParameter("tsquery", "spring:* & boot:*");
+        verify(query).setParameter("locale", "en");
+        verify(query).setParameter("limit", 5);
+        verify(query).setParameter("offset", 10);
+    }
+
+    @Test
+    void search_withOneCategory_queriesOnlyItsTables() {
+        SearchRequestDTO request = new SearchRequestDTO("cache", "en", "blogs", 10, 0);
+        stubQuery(List.of());
+
+        searchService.search(request);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(sql.capture());
+        assertFalse(sql.getValue().contains("UNION ALL"));
+        assertTrue(sql.getValue().contains("docs_blog_topic_content"));
+    }
+
+    @Test
+    void search_withOnlyPunctuationOrAnUnknownCategory_neverQueries() {
+        assertTrue(searchService.search(new SearchRequestDTO("--", "en", "all", 10, 0)).isEmpty());
+        assertTrue(searchService.search(new SearchRequestDTO("cache", "en", "design", 10, 0)).isEmpty());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void search_mapsRowsAndHighlightsTheMatchedWords() {
+        SearchRequestDTO request = new SearchRequestDTO("cache", "en", "all", 10, 0);
+        Date updatedAt = Date.valueOf("2026-01-15");
+        stubQuery(List.<Object[]>of(new Object[] {
+            "architecture", "caching", "Cache layers", "How the cache works", updatedAt, 0.6f
+        }));
+
+        List<SearchResultDTO> results = searchService.search(request);
+
+        assertEquals(1, results.size());
+        SearchResultDTO result = results.get(0);
+        assertEquals("architecture", result.type());
+        assertEquals("caching", result.key());
+        assertEquals(updatedAt, result.updatedAt());
+        assertEquals(0.6, result.score(), 1e-6);
+        assertEquals(List.of("<mark>Cache</mark>", " layers"), result.highlight().title());
+        assertEquals(List.of("How the ", "<mark>cache</mark>", " works"), result.highlight().summary());
+    }
+
+    @Test
+    void words_splitOnPunctuationAndKeepOnlyLettersAndDigits() {
+        assertEquals(List.of("spring", "boot", "4"), SearchService.words("Spring-Boot 4 & spring:*"));
+        assertEquals("spring:* & boot:*", SearchService.toTsQuery(List.of("spring", "boot")));
+    }
+
+    @Test
+    void highlightText_marksWordStartsOnly() {
+        assertEquals(List.of("recache ", "<mark>Cache</mark>"),
+                SearchService.highlightText("recache Cache", List.of("cache")));
+    }
+
+    private void stubQuery(List<Object[]> rows) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(rows);
+    }
+}
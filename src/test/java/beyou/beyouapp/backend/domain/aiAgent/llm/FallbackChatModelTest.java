@@ -18,6 +18,7 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,9 @@ import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.tool.ToolCallback;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 
@@ -234,6 +238,128 @@ class FallbackChatModelTest {
         assertThat(meters.counter("beyou.ai.llm.exhausted").count()).isEqualTo(1.0);
     }
 
+    private FallbackChatModel hedgedChain(Duration maxDelay) {
+        return new FallbackChatModel(
+                List.of(new NamedChatModel("first", first), new NamedChatModel("second", second)),
+                Duration.ofSeconds(300), Duration.ofSeconds(30), meters, clock,
+                new FallbackChatModel.Hedging(true, 0.95, Duration.ofMillis(10), maxDelay));
+    }
+
+    // A head that is slow but healthy: without hedging the turn waits it out in full.
+    @Test
+    void stream_hedged_slowHead_racedAndLoserCancelled() {
+        AtomicReference<String> reported = new AtomicReference<>();
+        Prompt prompt = promptWithSink(reported);
+        AtomicBoolean headCancelled = new AtomicBoolean();
+        when(first.stream(any(Prompt.class))).thenReturn(Flux.just(OK)
+                .delaySubscription(Duration.ofSeconds(10))
+                .doOnCancel(() -> headCancelled.set(true)));
+        ChatResponse fast = new ChatResponse(List.of(new Generation(new AssistantMessage("fast"))));
+        when(second.stream(any(Prompt.class))).thenReturn(Flux.just(fast));
+
+        List<ChatResponse> out = hedgedChain(Duration.ofMillis(50)).stream(prompt)
+                .collectList().block(Duration.ofSeconds(2));
+
+        assertThat(out).containsExactly(fast);
+        assertThat(headCancelled).isTrue();
+        assertThat(reported.get()).isEqualTo("second");
+        assertThat(count("beyou.ai.llm.hedged", "from", "first")).isEqualTo(1.0);
+    }
+
+    @Test
+    void stream_hedged_fastHead_restNeverStarted() {
+        AtomicReference<String> reported = new AtomicReference<>();
+        Prompt prompt = promptWithSink(reported);
+        when(first.stream(any(Prompt.class))).thenReturn(Flux.just(OK));
+
+        List<ChatResponse> out = hedgedChain(Duration.ofSeconds(5)).stream(prompt).collectList().block();
+
+        assertThat(out).containsExactly(OK);
+        assertThat(reported.get()).isEqualTo("first");
+        verifyNoInteractions(second);
+        assertThat(meters.get(FallbackChatModel.FIRST_CHUNK_METRIC).tag("provider", "first").timer().count())
+                .isEqualTo(1);
+    }
+
+    // A failing head must not make the turn wait for the hedge delay on top.
+    @Test
+    void stream_hedged_headFailsFirst_fallsBackWithoutWaitingTheDelay() {
+        when(first.stream(any(Prompt.class))).thenReturn(Flux.error(new RuntimeException("boom")));
+        when(second.stream(any(Prompt.class))).thenReturn(Flux.just(OK));
+
+        List<ChatResponse> out = hedgedChain(Duration.ofSeconds(30)).stream(PROMPT)
+                .collectList().block(Duration.ofSeconds(2));
+
+        assertThat(out).containsExactly(OK);
+        assertThat(count("beyou.ai.llm.hedged", "from", "first")).isZero();
+        assertThat(count("beyou.ai.llm.fallback", "from", "first", "reason", "error")).isEqualTo(1.0);
+    }
+
+    @Test
+    void stream_hedged_headFailsMidStream_propagatesWithoutRetry() {
+        when(first.stream(any(Prompt.class))).thenReturn(
+                Flux.concat(Flux.just(OK), Flux.error(new RuntimeException("mid-stream"))));
+
+        assertThatThrownBy(() -> hedgedChain(Duration.ofSeconds(5)).stream(PROMPT).collectList().block())
+                .hasMessageContaining("mid-stream");
+        verify(second, never()).stream(any(Prompt.class));
+    }
+
+    @Test
+    void stream_hedged_allFail_lastErrorPropagates_exhaustedCountedOnce() {
+        when(first.stream(any(Prompt.class))).thenReturn(Flux.error(new RuntimeException("one")));
+        when(second.stream(any(Prompt.class))).thenReturn(Flux.error(new RuntimeException("two")));
+
+        assertThatThrownBy(() -> hedgedChain(Duration.ofMillis(50)).stream(PROMPT).collectList().block())
+                .hasMessageContaining("two");
+        assertThat(meters.counter("beyou.ai.llm.exhausted").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void hedgeDelay_followsTheFirstChunkPercentile_clampedAndMaxUntilWarm() {
+        FallbackChatModel chain = new FallbackChatModel(
+                List.of(new NamedChatModel("first", first), new NamedChatModel("second", second)),
+                Duration.ofSeconds(300), Duration.ofSeconds(30), meters, clock,
+                new FallbackChatModel.Hedging(true, 0.95, Duration.ofMillis(50), Duration.ofSeconds(2)));
+        assertThat(chain.hedgeDelay("first")).isEqualTo(Duration.ofSeconds(2));
+
+        Timer timer = meters.get(FallbackChatModel.FIRST_CHUNK_METRIC).tag("provider", "first").timer();
+        for (int i = 0; i < FallbackChatModel.HEDGE_MIN_SAMPLES; i++) {
+            timer.record(Duration.ofMillis(300));
+        }
+        assertThat(chain.hedgeDelay("first")).isBetween(Duration.ofMillis(250), Duration.ofMillis(350));
+
+        // Once the slow first chunks are under 5% of the window, the floor takes over.
+        for (int i = 0; i < 1_000; i++) {
+            timer.record(Duration.ofMillis(5));
+        }
+        assertThat(chain.hedgeDelay("first")).isEqualTo(Duration.ofMillis(50));
+    }
+
+    // The percentile window empties after a quiet spell while the cumulative count stays
+    // warm; an empty window must read as no history, not as a 0 ms delay clamped to the floor.
+    @Test
+    void hedgeDelay_afterTheWindowEmpties_isTheMaxNotTheFloor() {
+        MockClock meterClock = new MockClock();
+        SimpleMeterRegistry windowed = new SimpleMeterRegistry(SimpleConfig.DEFAULT, meterClock);
+        FallbackChatModel chain = new FallbackChatModel(
+                List.of(new NamedChatModel("first", first), new NamedChatModel("second", second)),
+                Duration.ofSeconds(300), Duration.ofSeconds(30), windowed, clock,
+                new FallbackChatModel.Hedging(true, 0.95, Duration.ofMillis(400), Duration.ofSeconds(2)));
+        chain.hedgeDelay("first");
+
+        Timer timer = windowed.get(FallbackChatModel.FIRST_CHUNK_METRIC).tag("provider", "first").timer();
+        for (int i = 0; i < FallbackChatModel.HEDGE_MIN_SAMPLES; i++) {
+            timer.record(Duration.ofMillis(900));
+        }
+        assertThat(chain.hedgeDelay("first")).isBetween(Duration.ofMillis(850), Duration.ofMillis(950));
+
+        meterClock.add(Duration.ofMinutes(3));
+
+        assertThat(timer.count()).isEqualTo(FallbackChatModel.HEDGE_MIN_SAMPLES);
+        assertThat(chain.hedgeDelay("first")).isEqualTo(Duration.ofSeconds(2));
+    }
+
     @Test
     void providerNames_reflectChainOrder() {
         assertThat(twoLinkChain().providerNames()).containsExactly("first", "second");
@@ -31,7 +31,7 @@ class LlmChainConfigTest {
                         "groq", new LlmChainProperties.Provider(
                                 "https://api.groq.com/openai/v1", "gk-123", "llama-3.3-70b-versatile"),
                         "gemini", new LlmChainProperties.Provider(
-                                "https://generativelanguage.googleapis.com/v1beta/openai", "", "gemini-2.5-flash")));
+                                "https://generativelanguage.googleapis.com/v1beta/openai", "", "gemini-2.5-flash")), null);
 
         ChatModel chain = build(props);
 
@@ -42,7 +42,7 @@ class LlmChainConfigTest {
     @Test
     void unknownProviderNameInOrder_isSkippedNotFatal() {
         LlmChainProperties props = new LlmChainProperties(
-                List.of("typo-provider", "deepseek"), List.of(), 300, 30, Map.of());
+                List.of("typo-provider", "deepseek"), List.of(), 300, 30, Map.of(), null);
 
         assertThat(((FallbackChatModel) build(props)).providerNames()).containsExactly("deepseek");
     }
@@ -50,7 +50,7 @@ class LlmChainConfigTest {
     @Test
     void deepseekOnly_whenNoFreeProviderConfigured() {
         LlmChainProperties props = new LlmChainProperties(
-                List.of("groq", "gemini", "mistral", "cerebras", "deepseek"), List.of(), 300, 30, Map.of());
+                List.of("groq", "gemini", "mistral", "cerebras", "deepseek"), List.of(), 300, 30, Map.of(), null);
 
         assertThat(((FallbackChatModel) build(props)).providerNames()).containsExactly("deepseek");
     }
@@ -65,7 +65,7 @@ class LlmChainConfigTest {
         LlmChainProperties props = new LlmChainProperties(
                 List.of("glm", "deepseek"), List.of("glm", "deepseek"), 300, 30,
                 Map.of("glm", new LlmChainProperties.Provider(
-                        "https://api.z.ai/api/paas/v4", "zk-123", "glm-4.7-flash")));
+                        "https://api.z.ai/api/paas/v4", "zk-123", "glm-4.7-flash")), null);
 
         // Nothing survives the blocklist here, and an empty chain must not boot quietly.
         assertThatThrownBy(() -> build(props)).isInstanceOf(IllegalArgumentException.class);
@@ -76,7 +76,7 @@ class LlmChainConfigTest {
         LlmChainProperties props = new LlmChainProperties(
                 List.of("GLM", "deepseek"), List.of("glm"), 300, 30,
                 Map.of("GLM", new LlmChainProperties.Provider(
-                        "https://api.z.ai/api/paas/v4", "zk-123", "glm-4.7-flash")));
+                        "https://api.z.ai/api/paas/v4", "zk-123", "glm-4.7-flash")), null);
 
         assertThat(((FallbackChatModel) build(props)).providerNames()).containsExactly("deepseek");
     }
@@ -1,7 +1,9 @@
 package beyou.beyouapp.backend.domain.feedback;
 
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -47,8 +49,10 @@ class FeedbackAttachmentStorageServiceTest {
     private static final UUID FEEDBACK_ID = UUID.fromString("11111111-1111-1111-1111-111111111111");
     private static final UUID ATTACHMENT_ID = UUID.fromString("22222222-2222-2222-2222-222222222222");
 
+    private final ImageProcessor images = new ImageProcessor(64L * 1024 * 1024, 2, 8, new SimpleMeterRegistry());
+
     private FeedbackAttachmentStorageService service() {
-        return new FeedbackAttachmentStorageService(uploadRoot.toString());
+        return new FeedbackAttachmentStorageService(uploadRoot.toString(), images);
     }
 
     @Test
@@ -180,7 +184,7 @@ class FeedbackAttachmentStorageServiceTest {
         // Writing the encoded JPEG is the only step that can leave debris on
         // disk. This subclass half-writes the temporary sibling and then fails,
         // exactly as a full disk would.
-        FeedbackAttachmentStorageService failing = new FeedbackAttachmentStorageService(uploadRoot.toString()) {
+        FeedbackAttachmentStorageService failing = new FeedbackAttachmentStorageService(uploadRoot.toString(), images) {
             @Override
             protected void writeTemp(Path tmp, byte[] jpeg) throws IOException {
                 Files.write(tmp, Arrays.copyOf(jpeg, jpeg.length / 2));
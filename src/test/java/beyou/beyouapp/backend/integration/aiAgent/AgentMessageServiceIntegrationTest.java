@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -25,6 +26,7 @@ import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessage;
 import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessageRepository;
 import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessageService;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessagePageDTO;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
@@ -151,4 +153,45 @@ class AgentMessageServiceIntegrationTest extends AbstractIntegrationTest {
         assertEquals(turns * 2, seqs.size());
         assertEquals(IntStream.range(0, turns * 2).mapToObj(Long::valueOf).collect(Collectors.toList()), seqs);
     }
+
+    // Walking the cursor back from the newest page must visit every row once, each page
+    // oldest first, and stop with a null cursor at sequence 0.
+    @Test
+    void pagesWalkBackThroughTheTranscript() {
+        UUID chatId = newChat().getId();
+        for (int i = 0; i < 5; i++) {
+            agentMessageService.recordTurn(chatId, "msg " + i, List.of(AgentSegment.text("reply " + i)), "mistral");
+        }
+
+        AgentMessagePageDTO newest = agentMessageService.getMessages(chatId, null, 4);
+        assertEquals(List.of("msg 3", "reply 3", "msg 4", "reply 4"), texts(newest.messages()));
+        assertEquals(6L, newest.nextBefore());
+
+        AgentMessagePageDTO middle = agentMessageService.getMessages(chatId, newest.nextBefore(), 4);
+        assertEquals(List.of("msg 1", "reply 1", "msg 2", "reply 2"), texts(middle.messages()));
+        assertEquals(2L, middle.nextBefore());
+
+        AgentMessagePageDTO oldest = agentMessageService.getMessages(chatId, middle.nextBefore(), 4);
+        assertEquals(List.of("msg 0", "reply 0"), texts(oldest.messages()));
+        assertNull(oldest.nextBefore());
+    }
+
+    @Test
+    void batchedReadMatchesPerChatReads() {
+        UUID first = newChat().getId();
+        UUID second = newChat().getId();
+        agentMessageService.recordTurn(first, "one", List.of(AgentSegment.text("uno")), "mistral");
+        agentMessageService.recordTurn(second, "two", List.of(AgentSegment.text("dos")), "mistral");
+        agentMessageService.recordTurn(first, "three", List.of(AgentSegment.text("tres")), "mistral");
+
+        Map<UUID, List<AgentMessageDTO>> batched = agentMessageService.getMessages(List.of(second, first));
+
+        assertEquals(List.of(second, first), List.copyOf(batched.keySet()));
+        assertEquals(texts(agentMessageService.getMessages(first)), texts(batched.get(first)));
+        assertEquals(List.of("two", "dos"), texts(batched.get(second)));
+    }
+
+    private static List<String> texts(List<AgentMessageDTO> messages) {
+        return messages.stream().map(m -> m.segments().get(0).text()).toList();
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.cache.CacheManager;
 
 import beyou.beyouapp.backend.AbstractIntegrationTest;
 
+import beyou.beyouapp.backend.domain.common.RoutineCacheGenerations;
 import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
 
 class CacheIntegrationTest extends AbstractIntegrationTest {
@@ -23,6 +24,9 @@ class CacheIntegrationTest extends AbstractIntegrationTest {
     @Autowired
     private UserCacheEvictService userCacheEvictService;
 
+    @Autowired
+    private RoutineCacheGenerations routineCacheGenerations;
+
     private static final List<String> EXPECTED_DOMAIN_CACHES = List.of(
             "categories", "habits", "tasks", "goals",
             "routines", "routine", "todayRoutine", "schedules"
@@ -71,23 +75,24 @@ class CacheIntegrationTest extends AbstractIntegrationTest {
     }
 
     @Test
-    void evictAllUserCachesClearsRoutineCache() {
-        UUID userId = UUID.randomUUID();
-        String compositeKey = userId + "_someRoutineId";
+    void evictAllUserCachesRetiresOnlyThatUsersRoutineEntries() {
+        UUID writer = UUID.randomUUID();
+        UUID bystander = UUID.randomUUID();
+        UUID routineId = UUID.randomUUID();
 
-        // Put a test value into the "routine" cache with a composite key
+        // Put one routine detail per user into the "routine" cache at their current generation
         Cache routineCache = cacheManager.getCache("routine");
         assertThat(routineCache).isNotNull();
-        routineCache.put(compositeKey, "cachedRoutineData");
+        routineCache.put(routineCacheGenerations.key(writer, routineId), "writerRoutine");
+        routineCache.put(routineCacheGenerations.key(bystander, routineId), "bystanderRoutine");
 
-        // Verify it was stored
-        assertThat(routineCache.get(compositeKey)).isNotNull();
-
-        // Evict all user caches — this should clear the entire routine cache
-        userCacheEvictService.evictAllUserCaches(userId);
+        userCacheEvictService.evictAllUserCaches(writer);
 
-        // The routine cache should be cleared entirely (since it uses composite keys)
-        assertThat(routineCache.get(compositeKey)).isNull();
+        // The writer's key has moved on; the bystander's entry is still served
+        assertThat(routineCache.get(routineCacheGenerations.key(writer, routineId))).isNull();
+        assertThat(routineCache.get(routineCacheGenerations.key(bystander, routineId))).isNotNull();
+        assertThat(routineCache.get(routineCacheGenerations.key(bystander, routineId)).get())
+                .isEqualTo("bystanderRoutine");
     }
 
     @Test
@@ -0,0 +1,245 @@
+package beyou.beyouapp.backend.integration.checkday;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.HibernateStatistics;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.checkday.DayCloseService;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
+import beyou.beyouapp.backend.domain.common.CheckProgress;
+import beyou.beyouapp.backend.domain.common.XpProgress;
+import beyou.beyouapp.backend.domain.habit.Habit;
+import beyou.beyouapp.backend.domain.habit.HabitRepository;
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduleRepository;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link DayCloseService#closeDays} against {@link DayCloseService#closeDay}, on Postgres.
+ *
+ * <p>The batch statement re-expresses the per-user decision in SQL, so the only proof it
+ * decides the same is running both over the same data. Two cohorts are seeded identically —
+ * a habit scheduled for the closing day, one off-schedule, one in no routine, and every
+ * other account having completed the day — one cohort is closed user by user, the other
+ * in one batch, and the rows and scalars must match owner for owner.
+ *
+ * <p>The statement counts are the benchmark: the per-user path grows with owners, the
+ * batch must not. Wall times are logged for reading, not asserted.
+ */
+@Slf4j
+class DayCloseBulkIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int USERS_PER_COHORT = 20;
+
+    @Autowired private DayCloseService dayCloseService;
+    @Autowired private EntityCheckDayRepository entityCheckDayRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private HabitRepository habitRepository;
+    @Autowired private ScheduleRepository scheduleRepository;
+    @Autowired private DiaryRoutineRepository diaryRoutineRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private EntityManagerFactory emf;
+
+    private LocalDate yesterday;
+
+    /** One seeded account and the three habits whose outcomes differ. */
+    private record Seeded(UUID userId, UUID scheduled, UUID offDay, UUID loose) {}
+
+    @BeforeEach
+    void setUp() {
+        entityCheckDayRepository.deleteAll();
+        yesterday = LocalDate.now().minusDays(1);
+    }
+
+    @Test
+    void theBatchWritesTheSameRowsAndScalarsAsTheUserByUserPass() {
+        List<Seeded> perUser = seedCohort();
+        List<Seeded> bulk = seedCohort();
+
+        transactionTemplate.executeWithoutResult(status ->
+                perUser.forEach(seeded -> dayCloseService.closeDay(
+                        userRepository.getReferenceById(seeded.userId()), yesterday)));
+        DayCloseService.BatchOutcome outcome = transactionTemplate.execute(status ->
+                dayCloseService.closeDays(bulk.stream().map(Seeded::userId).toList(), yesterday));
+
+        assertThat(outcome.usersChanged()).hasSize(USERS_PER_COHORT);
+        for (int i = 0; i < USERS_PER_COHORT; i++) {
+            Seeded expected = perUser.get(i);
+            Seeded actual = bulk.get(i);
+            assertSameClose(CheckDayOwnerType.USER, expected.userId(), actual.userId());
+            assertSameClose(CheckDayOwnerType.HABIT, expected.scheduled(), actual.scheduled());
+            assertSameClose(CheckDayOwnerType.HABIT, expected.offDay(), actual.offDay());
+            assertSameClose(CheckDayOwnerType.HABIT, expected.loose(), actual.loose());
+        }
+        assertThat(outcomeOf(CheckDayOwnerType.HABIT, bulk.get(0).scheduled()))
+                .isEqualTo(CheckDayOutcome.MISSED);
+        assertThat(outcomeOf(CheckDayOwnerType.HABIT, bulk.get(0).offDay()))
+                .isEqualTo(CheckDayOutcome.NOT_SCHEDULED);
+        assertThat(outcomeOf(CheckDayOwnerType.HABIT, bulk.get(0).loose()))
+                .isEqualTo(CheckDayOutcome.NOT_IN_ROUTINE);
+        assertThat(outcomeOf(CheckDayOwnerType.USER, bulk.get(0).userId()))
+                .isEqualTo(CheckDayOutcome.DONE);
+        assertThat(outcomeOf(CheckDayOwnerType.USER, bulk.get(1).userId()))
+                .isEqualTo(CheckDayOutcome.MISSED);
+    }
+
+    @Test
+    void aSecondBatchOverTheSameDayWritesNothing() {
+        List<UUID> users = seedCohort().stream().map(Seeded::userId).toList();
+
+        transactionTemplate.execute(status -> dayCloseService.closeDays(users, yesterday));
+        DayCloseService.BatchOutcome second = transactionTemplate.execute(status ->
+                dayCloseService.closeDays(users, yesterday));
+
+        assertThat(second.rowsWritten()).isZero();
+        assertThat(entityCheckDayRepository.findByUserIdAndDay(users.get(0), yesterday)).hasSize(4);
+    }
+
+    @Test
+    void theBatchIssuesFarFewerStatementsThanTheUserByUserPass() {
+        List<UUID> perUser = seedCohort().stream().map(Seeded::userId).toList();
+        List<UUID> bulk = seedCohort().stream().map(Seeded::userId).toList();
+
+        HibernateStatistics stats = new HibernateStatistics(emf);
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> perUser.forEach(userId ->
+                dayCloseService.closeDay(userRepository.getReferenceById(userId), yesterday)));
+        long perUserNanos = System.nanoTime() - started;
+        long perUserStatements = stats.statementCount();
+
+        stats = new HibernateStatistics(emf);
+        started = System.nanoTime();
+        transactionTemplate.execute(status -> dayCloseService.closeDays(bulk, yesterday));
+        long bulkNanos = System.nanoTime() - started;
+        long bulkStatements = stats.statementCount();
+
+        log.info("Day-close of {} users: per-user {} statements in {} ms, bulk {} statements in {} ms",
+                USERS_PER_COHORT, perUserStatements, perUserNanos / 1_000_000,
+                bulkStatements, bulkNanos / 1_000_000);
+        assertThat(bulkStatements)
+                .as("per-user took %d; the batch should not grow with the owners it closes", perUserStatements)
+                .isLessThan(perUserStatements / 4);
+    }
+
+    private void assertSameClose(CheckDayOwnerType type, UUID expectedOwner, UUID actualOwner) {
+        assertThat(outcomeOf(type, actualOwner)).isEqualTo(outcomeOf(type, expectedOwner));
+        assertThat(progressOf(type, actualOwner))
+                .usingRecursiveComparison()
+                .isEqualTo(progressOf(type, expectedOwner));
+    }
+
+    private CheckDayOutcome outcomeOf(CheckDayOwnerType type, UUID ownerId) {
+        return entityCheckDayRepository.findByOwnerTypeAndOwnerIdAndDay(type, ownerId, yesterday)
+                .map(EntityCheckDay::getOutcome)
+                .orElse(null);
+    }
+
+    private CheckProgress progressOf(CheckDayOwnerType type, UUID ownerId) {
+        return type == CheckDayOwnerType.USER
+                ? userRepository.findById(ownerId).orElseThrow().getCheckProgress()
+                : habitRepository.findById(ownerId).orElseThrow().getCheckProgress();
+    }
+
+    /** {@link #USERS_PER_COHORT} accounts; the even ones completed the closing day. */
+    private List<Seeded> seedCohort() {
+        WeekDay closingWeekday = ScheduledOnDayResolver.weekDayOf(yesterday);
+        WeekDay otherWeekday = WeekDay.values()[(closingWeekday.ordinal() + 1) % WeekDay.values().length];
+        List<Seeded> cohort = new ArrayList<>();
+        for (int i = 0; i < USERS_PER_COHORT; i++) {
+            User user = account(i % 2 == 0);
+            Habit scheduled = habit(user, "Scheduled");
+            Habit offDay = habit(user, "Off day");
+            Habit loose = habit(user, "Loose");
+            routine(user, scheduled, closingWeekday);
+            routine(user, offDay, otherWeekday);
+            cohort.add(new Seeded(user.getId(), scheduled.getId(), offDay.getId(), loose.getId()));
+        }
+        return cohort;
+    }
+
+    private User account(boolean completedClosingDay) {
+        User user = new User();
+        user.setName("Bulk close");
+        user.setEmail("bulk-close-" + UUID.randomUUID() + "@test.com");
+        user.setPassword("irrelevant");
+        user.setTimezone("UTC");
+        user.setCompletedDays(new HashSet<>(completedClosingDay ? Set.of(yesterday) : Set.of()));
+        user = userRepository.save(user);
+        // prePersist stamps today; back-date so the closing day is inside the account's life.
+        user.setCreatedAt(java.sql.Date.valueOf(yesterday.minusDays(10)));
+        return userRepository.save(user);
+    }
+
+    private Habit habit(User user, String name) {
+        Habit habit = new Habit();
+        habit.setName(name);
+        habit.setIconId("book");
+        habit.setImportance(3);
+        habit.setDificulty(3);
+        habit.setUser(user);
+        habit.setCategories(new ArrayList<>());
+        habit.setXpProgress(new XpProgress(0D, 0, 0D, 50D));
+        habit = habitRepository.save(habit);
+        habit.setCreatedAt(java.sql.Date.valueOf(yesterday.minusDays(10)));
+        return habitRepository.save(habit);
+    }
+
+    private void routine(User user, Habit habit, WeekDay day) {
+        Schedule schedule = new Schedule();
+        schedule.setDays(new HashSet<>(Set.of(day)));
+        schedule = scheduleRepository.save(schedule);
+
+        DiaryRoutine routine = new DiaryRoutine();
+        routine.setName("Routine");
+        routine.setIconId("icon");
+        routine.setUser(user);
+        routine.setSchedule(schedule);
+        routine.setXpProgress(new XpProgress(0D, 0, 0D, 50D));
+
+        RoutineSection section = new RoutineSection();
+        section.setName("Section");
+        section.setIconId("icon");
+        section.setStartTime(LocalTime.of(6, 0));
+        section.setEndTime(LocalTime.of(7, 0));
+        section.setOrderIndex(0);
+        section.setFavorite(false);
+        section.setRoutine(routine);
+
+        HabitGroup group = new HabitGroup();
+        group.setHabit(habit);
+        group.setRoutineSection(section);
+        group.setStartTime(LocalTime.of(6, 0));
+        group.setEndTime(LocalTime.of(6, 30));
+        group.setHabitGroupChecks(new ArrayList<>());
+
+        section.setHabitGroups(List.of(group));
+        section.setTaskGroups(new ArrayList<>());
+        routine.setRoutineSections(List.of(section));
+        diaryRoutineRepository.save(routine);
+    }
+}
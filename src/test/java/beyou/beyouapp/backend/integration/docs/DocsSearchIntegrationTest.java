@@ -0,0 +1,101 @@
+package beyou.beyouapp.backend.integration.docs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.docs.search.SearchService;
+import beyou.beyouapp.backend.docs.search.dto.SearchRequestDTO;
+import beyou.beyouapp.backend.docs.search.dto.SearchResultDTO;
+
+/**
+ * Docs search against a real database.
+ *
+ * <p>The whole search is one native statement over the generated {@code search_vector}
+ * columns (V25), so nothing short of PostgreSQL can say whether the ranking, the
+ * prefix matching and the paging actually hold. Rows are seeded with plain SQL because
+ * the content entities carry per-type columns this test does not care about.
+ */
+class DocsSearchIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired SearchService searchService;
+    @Autowired CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("DELETE FROM docs_blog_topic_content WHERE topic_id IN "
+                + "(SELECT id FROM docs_blog_topic WHERE key LIKE 'search-it-%')");
+        jdbc.update("DELETE FROM docs_blog_topic WHERE key LIKE 'search-it-%'");
+        cacheManager.getCache("docsSearch").clear();
+    }
+
+    @Test
+    void aTitleMatchOutranksASummaryMatch() {
+        seedBlog("search-it-summary", "ACTIVE", "en", "Weekly notes", "Why the scheduler batches its closes");
+        seedBlog("search-it-title", "ACTIVE", "en", "Scheduler internals", "Notes");
+
+        List<SearchResultDTO> results = search("scheduler", "blog", 10, 0);
+
+        assertThat(results).extracting(SearchResultDTO::key)
+                .containsExactly("search-it-title", "search-it-summary");
+        assertThat(results.get(0).score()).isGreaterThan(results.get(1).score());
+    }
+
+    @Test
+    void aWordPrefixMatchesAndEveryWordIsRequired() {
+        seedBlog("search-it-both", "ACTIVE", "en", "Caching the routine list", null);
+        seedBlog("search-it-one", "ACTIVE", "en", "Caching habits", null);
+
+        assertThat(search("cach rout", "blog", 10, 0)).extracting(SearchResultDTO::key)
+                .containsExactly("search-it-both");
+    }
+
+    @Test
+    void archivedTopicsAndOtherLocalesAreLeftOut() {
+        seedBlog("search-it-active", "ACTIVE", "en", "Streak rules", null);
+        seedBlog("search-it-archived", "ARCHIVED", "en", "Streak rules archived", null);
+        seedBlog("search-it-pt", "ACTIVE", "pt", "Streak regras", null);
+
+        assertThat(search("streak", "blog", 10, 0)).extracting(SearchResultDTO::key)
+                .containsExactly("search-it-active");
+    }
+
+    @Test
+    void pagesAreCutInTheDatabase() {
+        for (int i = 0; i < 5; i++) {
+            seedBlog("search-it-page-" + i, "ACTIVE", "en", "Paging post " + i, null);
+        }
+
+        List<SearchResultDTO> first = search("paging", "blog", 2, 0);
+        List<SearchResultDTO> last = search("paging", "blog", 2, 4);
+
+        assertThat(first).hasSize(2);
+        assertThat(last).hasSize(1);
+        assertThat(first).extracting(SearchResultDTO::key).doesNotContain(last.get(0).key());
+    }
+
+    private List<SearchResultDTO> search(String q, String category, int limit, int offset) {
+        return searchService.search(new SearchRequestDTO(q, "en", category, limit, offset));
+    }
+
+    private void seedBlog(String key, String status, String locale, String title, String summary) {
+        UUID topicId = UUID.randomUUID();
+        jdbc.update("""
+                INSERT INTO docs_blog_topic (id, key, status, category, featured, created_at, updated_at)
+                VALUES (?, ?, ?, 'TECHNICAL', false, CURRENT_DATE, CURRENT_DATE)
+                """, topicId, key, status);
+        jdbc.update("""
+                INSERT INTO docs_blog_topic_content (id, topic_id, locale, title, summary, doc_markdown, updated_at)
+                VALUES (?, ?, ?, ?, ?, '', CURRENT_DATE)
+                """, UUID.randomUUID(), topicId, locale, title, summary);
+    }
+}
@@ -18,6 +18,8 @@ import beyou.beyouapp.backend.AbstractIntegrationTest;
 import beyou.beyouapp.backend.domain.routine.schedule.ScheduleService;
 import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
 import beyou.beyouapp.backend.domain.routine.schedule.dto.CreateScheduleDTO;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineService;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.DiaryRoutineRequestDTO;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.RoutineSectionRequestDTO;
@@ -56,6 +58,7 @@ class ScheduleLifecycleIntegrationTest extends AbstractIntegrationTest {
     @Autowired UserService userService;
     @Autowired DiaryRoutineService diaryRoutineService;
     @Autowired ScheduleService scheduleService;
+    @Autowired DiaryRoutineRepository diaryRoutineRepository;
     @Autowired JdbcTemplate jdbc;
 
     private User user;
@@ -121,6 +124,39 @@ class ScheduleLifecycleIntegrationTest extends AbstractIntegrationTest {
         assertThat(count("schedule_days")).isEqualTo(daysBefore);
     }
 
+    @Test
+    @DisplayName("the days mask follows the days, including days taken over by another routine")
+    void daysMaskFollowsTheDays() {
+        UUID morning = seedRoutine("Morning");
+        UUID evening = seedRoutine("Evening");
+        scheduleService.create(new CreateScheduleDTO(
+                Set.of(WeekDay.Monday, WeekDay.Wednesday), morning), user.getId());
+        // Wednesday moves to the evening routine; the morning one keeps only Monday.
+        scheduleService.create(new CreateScheduleDTO(
+                Set.of(WeekDay.Wednesday, WeekDay.Friday), evening), user.getId());
+
+        assertThat(daysMaskOf(morning)).isEqualTo(WeekDay.Monday.bit());
+        assertThat(daysMaskOf(evening)).isEqualTo(WeekDay.Wednesday.bit() | WeekDay.Friday.bit());
+
+        assertThat(scheduledOn(WeekDay.Monday)).containsExactly(morning);
+        assertThat(scheduledOn(WeekDay.Wednesday)).containsExactly(evening);
+        assertThat(scheduledOn(WeekDay.Sunday)).isEmpty();
+        assertThat(diaryRoutineRepository.findAllByUserIdInScheduledOn(List.of(user.getId()), WeekDay.Friday.bit()))
+                .extracting(DiaryRoutine::getId)
+                .containsExactly(evening);
+    }
+
+    private List<UUID> scheduledOn(WeekDay day) {
+        return diaryRoutineRepository.findAllByUserIdScheduledOn(user.getId(), day.bit()).stream()
+                .map(DiaryRoutine::getId)
+                .toList();
+    }
+
+    private Integer daysMaskOf(UUID routineId) {
+        return jdbc.queryForObject("SELECT s.days_mask FROM schedules s JOIN routines r ON r.schedule_id = s.id "
+                + "WHERE r.id = ?", Integer.class, routineId);
+    }
+
     private UUID seedRoutine(String name) {
         diaryRoutineService.createDiaryRoutine(new DiaryRoutineRequestDTO(
                 name, "lucide:sun", List.of(new RoutineSectionRequestDTO(
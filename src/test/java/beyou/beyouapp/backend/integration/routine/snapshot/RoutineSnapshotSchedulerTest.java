@@ -1,7 +1,6 @@
 package beyou.beyouapp.backend.integration.routine.snapshot;
 
 import beyou.beyouapp.backend.domain.checkday.DayCloseService;
-import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
 import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
 import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
 import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshot;
@@ -9,16 +8,19 @@ import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshotRepository;
 import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshotScheduler;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotCheckMigrator;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotService;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotUserFanOut;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.monitoring.SnapshotJobHeartbeat;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import org.springframework.test.util.ReflectionTestUtils;
@@ -35,6 +37,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -63,8 +66,9 @@ class RoutineSnapshotSchedulerTest {
     @Mock
     private DayCloseService dayCloseService;
 
-    @Mock
-    private UserCacheEvictService userCacheEvictService;
+    // Real fan-out, so per-user isolation and the batch barrier are exercised as shipped.
+    @Spy
+    private SnapshotUserFanOut fanOut = new SnapshotUserFanOut(new SimpleMeterRegistry(), 4);
 
     @InjectMocks
     private RoutineSnapshotScheduler scheduler;
@@ -94,6 +98,11 @@ class RoutineSnapshotSchedulerTest {
         // Set self-reference so backfill calls go through the same instance
         // (in production, Spring's @Lazy proxy handles this)
         ReflectionTestUtils.setField(scheduler, "self", scheduler);
+        // The day-close tests below pin the per-user loop, which is also what a failed bulk
+        // batch falls back to; the bulk path has its own section.
+        ReflectionTestUtils.setField(scheduler, "bulkDayClose", false);
+        // Likewise for the midnight snapshots.
+        ReflectionTestUtils.setField(scheduler, "bulkSnapshots", false);
     }
 
     // ---------------------------------------------------------------
@@ -112,7 +121,7 @@ class RoutineSnapshotSchedulerTest {
 
         RoutineSnapshot snapshot = buildSnapshot(friday);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenRoutines(userId, routine);
         when(snapshotRepository.findByRoutineIdAndSnapshotDate(routineId, friday))
                 .thenReturn(Optional.empty());
         when(snapshotService.createSnapshot(routine, user, friday)).thenReturn(snapshot);
@@ -135,7 +144,7 @@ class RoutineSnapshotSchedulerTest {
 
         RoutineSnapshot existingSnapshot = buildSnapshot(friday);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenRoutines(userId, routine);
         when(snapshotRepository.findByRoutineIdAndSnapshotDate(routineId, friday))
                 .thenReturn(Optional.of(existingSnapshot));
 
@@ -155,7 +164,7 @@ class RoutineSnapshotSchedulerTest {
         schedule.setDays(Set.of(WeekDay.Monday));
         routine.setSchedule(schedule);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenRoutines(userId, routine);
 
         scheduler.createSnapshotsForUser(user, friday);
 
@@ -167,7 +176,7 @@ class RoutineSnapshotSchedulerTest {
     void createSnapshotsForUser_skipsWhenUserHasNoRoutines() {
         LocalDate friday = LocalDate.of(2026, 3, 20);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of());
+        givenRoutines(userId);
 
         scheduler.createSnapshotsForUser(user, friday);
 
@@ -186,7 +195,7 @@ class RoutineSnapshotSchedulerTest {
 
     @Test
     void backfillMissedSnapshots_callsCreateSnapshotsForEachDayInWindow() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        givenAccounts(user);
 
         // Stub createSnapshotsForUser — it's @Transactional and
         // already tested above. We just need to allow the calls.
@@ -197,7 +206,7 @@ class RoutineSnapshotSchedulerTest {
                 WeekDay.Thursday, WeekDay.Friday, WeekDay.Saturday, WeekDay.Sunday));
         routine.setSchedule(schedule);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenRoutines(userId, routine);
         when(snapshotRepository.findByRoutineIdAndSnapshotDate(eq(routineId), any()))
                 .thenReturn(Optional.empty());
         when(snapshotService.createSnapshot(any(), any(), any()))
@@ -219,8 +228,8 @@ class RoutineSnapshotSchedulerTest {
 
         LocalDate yesterday = LocalDate.now().minusDays(1);
 
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenAccounts(user);
+        givenRoutines(userId, routine);
         // All dates already have snapshots
         when(snapshotRepository.findByRoutineIdAndSnapshotDate(eq(routineId), any()))
                 .thenReturn(Optional.of(buildSnapshot(yesterday)));
@@ -232,8 +241,8 @@ class RoutineSnapshotSchedulerTest {
 
     @Test
     void backfillMissedSnapshots_handlesUserWithNoRoutines() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of());
+        givenAccounts(user);
+        givenRoutines(userId);
 
         scheduler.backfillMissedSnapshots();
 
@@ -246,7 +255,7 @@ class RoutineSnapshotSchedulerTest {
         user2.setId(UUID.randomUUID());
         user2.setTimezone("INVALID/TIMEZONE");
 
-        when(userRepository.findAll()).thenReturn(List.of(user2, user));
+        givenAccounts(user2, user);
 
         Schedule schedule = new Schedule();
         schedule.setId(UUID.randomUUID());
@@ -254,7 +263,7 @@ class RoutineSnapshotSchedulerTest {
                 WeekDay.Thursday, WeekDay.Friday, WeekDay.Saturday, WeekDay.Sunday));
         routine.setSchedule(schedule);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(routine));
+        givenRoutines(userId, routine);
         when(snapshotRepository.findByRoutineIdAndSnapshotDate(eq(routineId), any()))
                 .thenReturn(Optional.empty());
         when(snapshotService.createSnapshot(any(), any(), any()))
@@ -279,7 +288,7 @@ class RoutineSnapshotSchedulerTest {
         when(userRepository.findDistinctTimezones()).thenReturn(List.of("UTC"));
         // Whether this run lands on midnight UTC depends on the wall clock, so tolerate
         // both branches: either way the cycle must reach its end and check in.
-        lenient().when(userRepository.findAllByTimezone(anyString())).thenReturn(List.of());
+        lenient().when(userRepository.findIdsByTimezoneAfter(anyString(), any(), anyInt())).thenReturn(List.of());
 
         scheduler.processSnapshots();
 
@@ -316,8 +325,8 @@ class RoutineSnapshotSchedulerTest {
     void backfillMissedSnapshots_doesNotSignalHeartbeat() {
         // Startup backfill is not the scheduled cycle. If it checked in, a backend
         // stuck in a crash-restart loop would keep the monitor green forever.
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of());
+        givenAccounts(user);
+        givenRoutines(userId);
 
         scheduler.backfillMissedSnapshots();
 
@@ -338,7 +347,7 @@ class RoutineSnapshotSchedulerTest {
         LocalDate closingDay = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
 
         when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
-        when(userRepository.findAllByTimezone(timezone)).thenReturn(List.of(user));
+        givenUsersInZone(timezone, List.of(user));
         when(dayCloseService.closeDay(user, closingDay)).thenReturn(3);
 
         scheduler.processSnapshots();
@@ -357,27 +366,22 @@ class RoutineSnapshotSchedulerTest {
         scheduler.processSnapshots();
 
         verifyNoInteractions(dayCloseService);
-        verify(userRepository, never()).findAllByTimezone(anyString());
+        verify(userRepository, never()).findIdsByTimezoneAfter(anyString(), any(), anyInt());
     }
 
     @Test
-    void processSnapshots_clearsTheSharedRoutineCacheOnceForTheWholeBatch() {
-        // The `routine` cache is keyed userId_routineId, so it can only be cleared
-        // wholesale. Clearing it per user would flush it once for every account in
-        // the timezone — the exact waste the UserCacheEvictService split exists to stop.
+    void processSnapshots_closesEveryUserInTheTimezone() {
         String timezone = zoneWhereLocalHourIs(DAY_CLOSE_GRACE_HOUR);
         LocalDate closingDay = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
         List<User> crowd = List.of(userWithId(), userWithId(), userWithId());
 
         when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
-        when(userRepository.findAllByTimezone(timezone)).thenReturn(crowd);
+        givenUsersInZone(timezone, crowd);
         when(dayCloseService.closeDay(any(), eq(closingDay))).thenReturn(4);
 
         scheduler.processSnapshots();
 
         verify(dayCloseService, times(3)).closeDay(any(), eq(closingDay));
-        verify(userCacheEvictService).clearSharedRoutineCache();
-        verify(userCacheEvictService, never()).evictAllUserCaches(any());
     }
 
     @Test
@@ -389,7 +393,85 @@ class RoutineSnapshotSchedulerTest {
         User healthy = userWithId();
 
         when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
-        when(userRepository.findAllByTimezone(timezone)).thenReturn(List.of(doomed, healthy));
+        givenUsersInZone(timezone, List.of(doomed, healthy));
+        when(dayCloseService.closeDay(doomed, closingDay))
+                .thenThrow(new RuntimeException("constraint violation"));
+        when(dayCloseService.closeDay(healthy, closingDay)).thenReturn(2);
+
+        assertThatCode(() -> scheduler.processSnapshots()).doesNotThrowAnyException();
+
+        verify(dayCloseService).closeDay(healthy, closingDay);
+        verify(heartbeat).signalCycleCompleted();
+    }
+
+    // ---------------------------------------------------------------
+    // Bulk day-close
+    // ---------------------------------------------------------------
+
+    @Test
+    void processSnapshots_bulkClosesEachPageOfUsersWithOneCall() {
+        String timezone = zoneWhereLocalHourIs(DAY_CLOSE_GRACE_HOUR);
+        LocalDate closingDay = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
+        User first = userWithId();
+        User second = userWithId();
+        User third = userWithId();
+        ReflectionTestUtils.setField(scheduler, "bulkDayClose", true);
+        ReflectionTestUtils.setField(scheduler, "pageSize", 2);
+
+        when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
+        when(userRepository.findIdsByTimezoneAfter(timezone, UserRepository.FIRST_PAGE, 2))
+                .thenReturn(List.of(first.getId(), second.getId()));
+        when(userRepository.findIdsByTimezoneAfter(timezone, second.getId(), 2))
+                .thenReturn(List.of(third.getId()));
+        when(dayCloseService.closeDays(List.of(first.getId(), second.getId()), closingDay))
+                .thenReturn(new DayCloseService.BatchOutcome(3, Set.of(first.getId())));
+        when(dayCloseService.closeDays(List.of(third.getId()), closingDay))
+                .thenReturn(new DayCloseService.BatchOutcome(0, Set.of()));
+
+        scheduler.processSnapshots();
+
+        verify(dayCloseService, times(2)).closeDays(any(), eq(closingDay));
+        verify(dayCloseService, never()).closeDay(any(), any());
+        verify(heartbeat).signalCycleCompleted();
+    }
+
+    // The locks a batch takes are held to its commit, so a page is closed in batches of
+    // close-batch-size rather than all at once.
+    @Test
+    void processSnapshots_bulkClosesAPageInSmallerLockBatches() {
+        String timezone = zoneWhereLocalHourIs(DAY_CLOSE_GRACE_HOUR);
+        LocalDate closingDay = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
+        User first = userWithId();
+        User second = userWithId();
+        User third = userWithId();
+        ReflectionTestUtils.setField(scheduler, "bulkDayClose", true);
+        ReflectionTestUtils.setField(scheduler, "closeBatchSize", 2);
+
+        when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
+        givenUsersInZone(timezone, List.of(first, second, third));
+        when(dayCloseService.closeDays(any(), eq(closingDay)))
+                .thenReturn(new DayCloseService.BatchOutcome(0, Set.of()));
+
+        scheduler.processSnapshots();
+
+        verify(dayCloseService).closeDays(List.of(first.getId(), second.getId()), closingDay);
+        verify(dayCloseService).closeDays(List.of(third.getId()), closingDay);
+    }
+
+    @Test
+    void processSnapshots_aFailedBulkBatchIsRetriedOneUserAtATime() {
+        // The batch is one transaction, so one bad account rolls all of it back. The retry
+        // puts the isolation back: the bad account loses its day, nobody else does.
+        String timezone = zoneWhereLocalHourIs(DAY_CLOSE_GRACE_HOUR);
+        LocalDate closingDay = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
+        User doomed = userWithId();
+        User healthy = userWithId();
+        ReflectionTestUtils.setField(scheduler, "bulkDayClose", true);
+
+        when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
+        givenUsersInZone(timezone, List.of(doomed, healthy));
+        when(dayCloseService.closeDays(any(), eq(closingDay)))
+                .thenThrow(new RuntimeException("constraint violation"));
         when(dayCloseService.closeDay(doomed, closingDay))
                 .thenThrow(new RuntimeException("constraint violation"));
         when(dayCloseService.closeDay(healthy, closingDay)).thenReturn(2);
@@ -400,6 +482,54 @@ class RoutineSnapshotSchedulerTest {
         verify(heartbeat).signalCycleCompleted();
     }
 
+    // ---------------------------------------------------------------
+    // Bulk snapshots
+    // ---------------------------------------------------------------
+
+    @Test
+    void processSnapshots_bulkSnapshotsEachPageOfUsersWithOneCall() {
+        String timezone = zoneWhereLocalHourIs(0);
+        LocalDate yesterday = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
+        User first = userWithId();
+        User second = userWithId();
+        User third = userWithId();
+        ReflectionTestUtils.setField(scheduler, "bulkSnapshots", true);
+        ReflectionTestUtils.setField(scheduler, "pageSize", 2);
+
+        when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
+        when(userRepository.findIdsByTimezoneAfter(timezone, UserRepository.FIRST_PAGE, 2))
+                .thenReturn(List.of(first.getId(), second.getId()));
+        when(userRepository.findIdsByTimezoneAfter(timezone, second.getId(), 2))
+                .thenReturn(List.of(third.getId()));
+        when(snapshotService.createSnapshotsForUsers(any(), eq(yesterday))).thenReturn(1);
+
+        scheduler.processSnapshots();
+
+        verify(snapshotService).createSnapshotsForUsers(List.of(first.getId(), second.getId()), yesterday);
+        verify(snapshotService).createSnapshotsForUsers(List.of(third.getId()), yesterday);
+        verify(snapshotService, never()).createSnapshot(any(), any(), any());
+        verifyNoInteractions(checkMigrator);
+        verify(heartbeat).signalCycleCompleted();
+    }
+
+    @Test
+    void processSnapshots_aFailedBulkSnapshotPageIsRetriedOneUserAtATime() {
+        String timezone = zoneWhereLocalHourIs(0);
+        LocalDate yesterday = ZonedDateTime.now(ZoneId.of(timezone)).toLocalDate().minusDays(1);
+        ReflectionTestUtils.setField(scheduler, "bulkSnapshots", true);
+
+        when(userRepository.findDistinctTimezones()).thenReturn(List.of(timezone));
+        givenUsersInZone(timezone, List.of(user));
+        when(snapshotService.createSnapshotsForUsers(List.of(userId), yesterday))
+                .thenThrow(new RuntimeException("duplicate key"));
+        givenRoutines(userId);
+
+        assertThatCode(() -> scheduler.processSnapshots()).doesNotThrowAnyException();
+
+        verify(diaryRoutineRepository).findAllByUserIdScheduledOn(eq(userId), anyInt());
+        verify(heartbeat).signalCycleCompleted();
+    }
+
     // ---------------------------------------------------------------
     // The spring-forward day, where local hour 2 does not happen
     // ---------------------------------------------------------------
@@ -422,7 +552,7 @@ class RoutineSnapshotSchedulerTest {
 
         LocalDate closingDay = LocalDate.of(2026, 3, 7);
         when(userRepository.findDistinctTimezones()).thenReturn(List.of(newYork.getId()));
-        when(userRepository.findAllByTimezone(newYork.getId())).thenReturn(List.of(user));
+        givenUsersInZone(newYork.getId(), List.of(user));
         when(dayCloseService.closeDay(user, closingDay)).thenReturn(2);
 
         scheduler.processSnapshots();
@@ -463,7 +593,7 @@ class RoutineSnapshotSchedulerTest {
         LocalDate closingDay = LocalDate.of(2026, 5, 19);
 
         when(userRepository.findDistinctTimezones()).thenReturn(List.of("UTC"));
-        when(userRepository.findAllByTimezone("UTC")).thenReturn(List.of(user));
+        givenUsersInZone("UTC", List.of(user));
         when(dayCloseService.closeDay(user, closingDay)).thenReturn(1);
 
         for (String instant : List.of("2026-05-20T02:30:00Z", "2026-05-20T03:30:00Z")) {
@@ -486,20 +616,19 @@ class RoutineSnapshotSchedulerTest {
         scheduler.processSnapshots();
 
         verifyNoInteractions(dayCloseService);
-        verify(userRepository, never()).findAllByTimezone(anyString());
+        verify(userRepository, never()).findIdsByTimezoneAfter(anyString(), any(), anyInt());
     }
 
     @Test
     void backfillMissedSnapshots_neverClosesDays() {
         // The backfill walks 7 days on every boot. Closing them would stamp MISSED on
         // days an entity did not exist for — downtime read back as failure (KTD19).
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of());
+        givenAccounts(user);
+        givenRoutines(userId);
 
         scheduler.backfillMissedSnapshots();
 
         verifyNoInteractions(dayCloseService);
-        verifyNoInteractions(userCacheEvictService);
     }
 
     // ---------------------------------------------------------------
@@ -521,6 +650,56 @@ class RoutineSnapshotSchedulerTest {
                 .orElseThrow(() -> new AssertionError("No timezone is currently at hour " + wanted));
     }
 
+    /**
+     * The startup backfill's keyset walk, as one short (therefore last) page, plus the
+     * reference lookup the per-user work resolves each id through.
+     */
+    private void givenAccounts(User... accounts) {
+        List<UserRepository.IdAndTimezone> page = Arrays.stream(accounts)
+                .map(account -> (UserRepository.IdAndTimezone) new UserRepository.IdAndTimezone() {
+                    @Override
+                    public UUID getId() {
+                        return account.getId();
+                    }
+
+                    @Override
+                    public String getTimezone() {
+                        return account.getTimezone();
+                    }
+                })
+                .toList();
+        when(userRepository.findIdsAndTimezonesAfter(eq(UserRepository.FIRST_PAGE), anyInt())).thenReturn(page);
+        givenReferences(accounts);
+    }
+
+    /** The same for one timezone's hourly passes. */
+    private void givenUsersInZone(String timezone, List<User> users) {
+        when(userRepository.findIdsByTimezoneAfter(eq(timezone), eq(UserRepository.FIRST_PAGE), anyInt()))
+                .thenReturn(users.stream().map(User::getId).toList());
+        givenReferences(users.toArray(User[]::new));
+    }
+
+    private void givenReferences(User... users) {
+        for (User each : users) {
+            lenient().when(userRepository.getReferenceById(each.getId())).thenReturn(each);
+        }
+    }
+
+    /**
+     * Stubs the per-user routine read with the filter its query applies: of {@code routines},
+     * only those whose schedule mask has the asked weekday's bit.
+     */
+    private void givenRoutines(UUID owner, DiaryRoutine... routines) {
+        when(diaryRoutineRepository.findAllByUserIdScheduledOn(eq(owner), anyInt()))
+                .thenAnswer(invocation -> {
+                    int dayBit = invocation.getArgument(1);
+                    return Arrays.stream(routines)
+                            .filter(each -> each.getSchedule() != null
+                                    && (each.getSchedule().getDaysMask() & dayBit) != 0)
+                            .toList();
+                });
+    }
+
     private User userWithId() {
         User other = new User();
         other.setId(UUID.randomUUID());
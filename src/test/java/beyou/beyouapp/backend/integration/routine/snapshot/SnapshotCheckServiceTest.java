@@ -1,13 +1,16 @@
 package beyou.beyouapp.backend.integration.routine.snapshot;
 
+import beyou.beyouapp.backend.InMemoryCheckDays;
 import beyou.beyouapp.backend.domain.category.Category;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
 import beyou.beyouapp.backend.domain.checkday.CheckDayRecorder;
 import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
 import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
+import beyou.beyouapp.backend.domain.common.CheckProgress;
 import beyou.beyouapp.backend.domain.common.RefreshUiDtoBuilder;
 import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
+import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.common.XpCalculatorService;
 import beyou.beyouapp.backend.domain.common.XpProgress;
 import beyou.beyouapp.backend.domain.common.DTO.RefreshUiDTO;
@@ -79,8 +82,8 @@ class SnapshotCheckServiceTest {
     /** Every snapshot the scheduler writes is for a day already over. */
     private static final LocalDate SNAPSHOT_DATE = LocalDate.of(2026, 3, 20);
 
-    /** Stand-in for the habit's stored history, mutated by the recorder under test. */
-    private final List<EntityCheckDay> habitHistory = new ArrayList<>();
+    /** Stand-in for the stored history, mutated by the recorder under test. */
+    private InMemoryCheckDays checkDays;
 
     private User user;
     private User otherUser;
@@ -101,7 +104,7 @@ class SnapshotCheckServiceTest {
                 habitRepository, taskRepository, userRepository, userService,
                 xpCalculatorService, xpDecayCalculator, refreshUiDtoBuilder, authenticatedUser,
                 new CheckDayRecorder(entityCheckDayRepository), userCacheEvictService);
-        habitHistory.clear();
+        checkDays = new InMemoryCheckDays();
 
         UUID userId = UUID.randomUUID();
         UUID otherUserId = UUID.randomUUID();
@@ -119,6 +122,8 @@ class SnapshotCheckServiceTest {
         user.setXpProgress(new XpProgress(100.0, 5, 80.0, 150.0));
         user.setCompletedDays(new HashSet<>());
         user.setMaxConstance(0);
+        // The service re-reads the caller's row rather than saving the cached principal.
+        lenient().when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         otherUser = new User();
         otherUser.setId(otherUserId);
@@ -765,10 +770,7 @@ class SnapshotCheckServiceTest {
         when(snapshotCheckRepository.findById(taskCheckId)).thenReturn(Optional.of(taskCheck));
         when(diaryRoutineRepository.findById(routineId)).thenReturn(Optional.of(routine));
         when(taskRepository.findById(taskCheck.getOriginalItemId())).thenReturn(Optional.of(task));
-        when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.TASK, task.getId())).thenReturn(new ArrayList<>());
-        when(entityCheckDayRepository.save(any(EntityCheckDay.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        checkDays.backing(entityCheckDayRepository);
         stubDecay();
         when(refreshUiDtoBuilder.buildSnapshotRefreshUiDto(user)).thenReturn(dummyRefreshUiDTO);
 
@@ -888,23 +890,25 @@ class SnapshotCheckServiceTest {
     }
 
     /**
-     * Stands in for the habit's stored history. The recorder reads through
-     * {@code findByOwnerTypeAndOwnerId...} and writes through {@code save}, so keeping both
-     * over one list makes a second call see what the first one wrote — which is what a
-     * repair-then-undo sequence needs.
+     * Stands in for the habit's stored history. The recorder reads and writes through the
+     * repository, and the fake answers every one of those calls from the same rows, so a
+     * second call sees what the first one wrote — which is what a repair-then-undo sequence
+     * needs. The habit's scalars start as what those rows derive to, because the recorder
+     * moves the stored scalars rather than rebuilding them.
      */
     private void givenHabitHistory(Habit habit, EntityCheckDay... rows) {
-        habitHistory.clear();
-        habitHistory.addAll(List.of(rows));
-        when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.HABIT, habit.getId())).thenReturn(habitHistory);
-        when(entityCheckDayRepository.save(any(EntityCheckDay.class))).thenAnswer(invocation -> {
-            EntityCheckDay saved = invocation.getArgument(0);
-            if (!habitHistory.contains(saved)) {
-                habitHistory.add(saved);
-            }
-            return saved;
-        });
+        for (EntityCheckDay row : rows) {
+            checkDays.put(row);
+        }
+        checkDays.backing(entityCheckDayRepository);
+        CheckProgress stored = habit.getCheckProgress();
+        CheckProgress derived = checkDays.derived(CheckDayOwnerType.HABIT, habit.getId(),
+                UserDateResolver.today(user), stored.getBestStreak());
+        stored.setTotalCheckIns(derived.getTotalCheckIns());
+        stored.setCurrentStreak(derived.getCurrentStreak());
+        stored.setBestStreak(derived.getBestStreak());
+        stored.setFirstCheckInDate(derived.getFirstCheckInDate());
+        stored.setLastCheckInDate(derived.getLastCheckInDate());
     }
 
     private EntityCheckDay row(Habit habit, LocalDate day, CheckDayOutcome outcome) {
@@ -912,7 +916,7 @@ class SnapshotCheckServiceTest {
     }
 
     private CheckDayOutcome outcomeOn(LocalDate day) {
-        return habitHistory.stream()
+        return checkDays.rows().stream()
                 .filter(stored -> day.equals(stored.getDay()))
                 .map(EntityCheckDay::getOutcome)
                 .findFirst()
@@ -3,6 +3,7 @@ package beyou.beyouapp.backend.integration.routine.snapshot;
 import beyou.beyouapp.backend.domain.common.XpProgress;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.habit.HabitRepository;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
 import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
 import beyou.beyouapp.backend.domain.routine.schedule.ScheduleRepository;
@@ -199,6 +200,48 @@ class SnapshotIntegrationTest extends AbstractIntegrationTest {
         }
     }
 
+    // -----------------------------------------------------------------------
+    // createSnapshotsForUsers
+    // -----------------------------------------------------------------------
+    @Nested
+    @DisplayName("createSnapshotsForUsers")
+    class CreateSnapshotsForUsersTests {
+
+        @Test
+        @DisplayName("should write the day's snapshot with its live check folded in, then drop the live check")
+        void createSnapshotsForUsers_migratesTheLiveCheck() {
+            LocalDate monday = LocalDate.of(2026, 3, 23);
+            HabitGroup group = routine.getRoutineSections().get(0).getHabitGroups().get(0);
+            HabitGroupCheck live = new HabitGroupCheck();
+            live.setHabitGroup(group);
+            live.setCheckDate(monday);
+            live.setCheckTime(LocalTime.of(6, 10));
+            live.setChecked(true);
+            live.setXpGenerated(20.0);
+            entityManager.persist(live);
+            entityManager.flush();
+            entityManager.clear();
+
+            int written = snapshotService.createSnapshotsForUsers(List.of(user.getId()), monday);
+            entityManager.flush();
+            entityManager.clear();
+
+            assertThat(written).isEqualTo(1);
+            RoutineSnapshot snapshot = snapshotRepository.findByRoutineIdAndSnapshotDate(routine.getId(), monday)
+                    .orElseThrow();
+            List<SnapshotCheck> checks = snapshotCheckRepository.findAllBySnapshotId(snapshot.getId());
+            assertThat(checks).hasSize(1);
+            assertThat(checks.get(0).getOriginalGroupId()).isEqualTo(group.getId());
+            assertThat(checks.get(0).isChecked()).isTrue();
+            assertThat(checks.get(0).getCheckTime()).isEqualTo(LocalTime.of(6, 10));
+            assertThat(checks.get(0).getXpGenerated()).isEqualTo(20.0);
+            assertThat(entityManager.find(HabitGroupCheck.class, live.getId())).isNull();
+
+            // A second pass over the same day finds the snapshot and writes nothing.
+            assertThat(snapshotService.createSnapshotsForUsers(List.of(user.getId()), monday)).isZero();
+        }
+    }
+
     // -----------------------------------------------------------------------
     // getSnapshot
     // -----------------------------------------------------------------------
@@ -1,8 +1,12 @@
 package beyou.beyouapp.backend.integration.routine.snapshot;
 
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
+import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
 import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshot;
 import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshotRepository;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotCheck;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotCheckMigrator;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotCheckRepository;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotItemType;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotService;
@@ -15,6 +19,8 @@ import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRep
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.exceptions.ErrorKey;
 import beyou.beyouapp.backend.user.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,7 +32,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -50,6 +59,12 @@ class SnapshotServiceTest {
     @Mock
     private SnapshotStructureSerializer structureSerializer;
 
+    @Mock
+    private SnapshotCheckMigrator checkMigrator;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private SnapshotService snapshotService;
 
@@ -164,6 +179,70 @@ class SnapshotServiceTest {
         assertEquals("Morning Routine", capturedSnapshot.getRoutineName());
     }
 
+    // ---------------------------------------------------------------
+    // createSnapshotsForUsers tests
+    // ---------------------------------------------------------------
+
+    @Test
+    void createSnapshotsForUsers_writesDueRoutinesOnceWithTheirLiveChecksFoldedIn() {
+        Schedule everyDay = new Schedule();
+        everyDay.setDays(EnumSet.allOf(WeekDay.class));
+        routine.setSchedule(everyDay);
+        DiaryRoutine alreadyDone = new DiaryRoutine();
+        alreadyDone.setId(UUID.randomUUID());
+        alreadyDone.setUser(otherUser);
+        alreadyDone.setSchedule(everyDay);
+        DiaryRoutine unscheduled = new DiaryRoutine();
+        unscheduled.setId(UUID.randomUUID());
+        unscheduled.setUser(otherUser);
+
+        UUID groupId = UUID.randomUUID();
+        SnapshotCheck frozen = new SnapshotCheck();
+        frozen.setOriginalGroupId(groupId);
+        HabitGroupCheck live = new HabitGroupCheck();
+        live.setChecked(true);
+        live.setCheckTime(LocalTime.of(7, 15));
+        live.setXpGenerated(12.5);
+        SnapshotStructureSerializer.Structure structure = new SnapshotStructureSerializer.Structure(List.of());
+        Session session = mock(Session.class);
+
+        List<UUID> userIds = List.of(userId, otherUserId);
+        givenRoutines(userIds, routine, alreadyDone, unscheduled);
+        when(snapshotRepository.findRoutineIdsWithSnapshotOn(List.of(routineId, alreadyDone.getId()), snapshotDate))
+                .thenReturn(List.of(alreadyDone.getId()));
+        when(structureSerializer.structureOf(routine)).thenReturn(structure);
+        when(structureSerializer.serializeStructure(structure)).thenReturn("{\"sections\":[]}");
+        when(structureSerializer.createSnapshotChecks(eq(structure), any(RoutineSnapshot.class)))
+                .thenReturn(new ArrayList<>(List.of(frozen)));
+        when(checkMigrator.liveChecksOn(List.of(), List.of(), snapshotDate)).thenReturn(Map.of(groupId, live));
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+        int written = snapshotService.createSnapshotsForUsers(userIds, snapshotDate);
+
+        assertEquals(1, written);
+        ArgumentCaptor<List<RoutineSnapshot>> saved = ArgumentCaptor.captor();
+        verify(snapshotRepository).saveAll(saved.capture());
+        RoutineSnapshot snapshot = saved.getValue().getFirst();
+        assertEquals(routine, snapshot.getRoutine());
+        assertEquals(user, snapshot.getUser());
+        assertEquals(List.of(frozen), snapshot.getChecks());
+        // Written final: the live outcome is on the row before it is inserted.
+        assertTrue(frozen.isChecked());
+        assertEquals(LocalTime.of(7, 15), frozen.getCheckTime());
+        assertEquals(12.5, frozen.getXpGenerated(), 0.001);
+        verify(checkMigrator).deleteLiveChecks(List.of(), List.of(), snapshotDate);
+        verify(snapshotCheckRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createSnapshotsForUsers_writesNothingWhenNoRoutineIsDue() {
+        givenRoutines(List.of(userId), routine);
+
+        assertEquals(0, snapshotService.createSnapshotsForUsers(List.of(userId), snapshotDate));
+
+        verifyNoInteractions(snapshotRepository, checkMigrator, entityManager);
+    }
+
     // ---------------------------------------------------------------
     // getSnapshot tests
     // ---------------------------------------------------------------
@@ -395,6 +474,18 @@ class SnapshotServiceTest {
     // Helper methods
     // ---------------------------------------------------------------
 
+    /** Stubs the bulk routine read with its query's days_mask filter applied to {@code routines}. */
+    private void givenRoutines(List<UUID> userIds, DiaryRoutine... routines) {
+        when(diaryRoutineRepository.findAllByUserIdInScheduledOn(eq(userIds), anyInt()))
+                .thenAnswer(invocation -> {
+                    int dayBit = invocation.getArgument(1);
+                    return Arrays.stream(routines)
+                            .filter(each -> each.getSchedule() != null
+                                    && (each.getSchedule().getDaysMask() & dayBit) != 0)
+                            .toList();
+                });
+    }
+
     private RoutineSnapshot buildSnapshot(User owner) {
         RoutineSnapshot snapshot = new RoutineSnapshot();
         snapshot.setId(UUID.randomUUID());
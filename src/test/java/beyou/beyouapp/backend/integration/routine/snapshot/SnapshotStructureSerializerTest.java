@@ -195,6 +195,26 @@ class SnapshotStructureSerializerTest {
         assertTrue(section.get("endTime").isNull());
     }
 
+    @Test
+    void serializeStructure_reusesTheJsonOfAnUnchangedStructure() {
+        String first = serializer.serializeStructure(routine);
+        String second = serializer.serializeStructure(routine);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void serializeStructure_anEditMissesTheTemplateCache() throws Exception {
+        String before = serializer.serializeStructure(routine);
+
+        routine.getRoutineSections().get(0).getHabitGroups().get(0).getHabit().setName("Stretch");
+        String after = serializer.serializeStructure(routine);
+
+        assertNotEquals(before, after);
+        JsonNode item = objectMapper.readTree(after).get("sections").get(0).get("items").get(0);
+        assertEquals("Stretch", item.get("name").asText());
+    }
+
     @Test
     void createSnapshotChecks_createsOneCheckPerItem() {
         List<SnapshotCheck> checks = serializer.createSnapshotChecks(routine, snapshot);
@@ -62,7 +62,8 @@ class SchemaIndexParityTest extends AbstractIntegrationTest {
                 "idx_habits_user_id", "idx_tasks_user_id", "idx_goals_user_id",
                 "idx_categories_user_id", "idx_routines_user_id", "idx_refresh_tokens_user_id",
                 "idx_password_reset_user_created", "idx_users_verification_token",
-                "idx_users_timezone"));
+                // V23 replaced V2's idx_users_timezone with the keyset index.
+                "idx_users_timezone_id"));
 
         List<String> actual = entityManager
                 .createNativeQuery("SELECT indexname FROM pg_indexes WHERE schemaname = 'public' "
@@ -0,0 +1,129 @@
+package beyou.beyouapp.backend.integration.security;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.security.TokenPurgeJob;
+import beyou.beyouapp.backend.security.RefreshToken.RefreshToken;
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenRepository;
+import beyou.beyouapp.backend.security.passwordreset.PasswordResetToken;
+import beyou.beyouapp.backend.security.passwordreset.PasswordResetTokenRepository;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+import beyou.beyouapp.backend.user.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The purge against real tables: the {@code ctid} batches delete what is dead past the
+ * grace and nothing else, and the one-statement revoke leaves the history alone.
+ */
+class TokenPurgeIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String EMAIL = "token-purge@beyou.test";
+    private static final Instant NOW = Instant.now();
+
+    @Autowired UserRepository userRepository;
+    @Autowired UserService userService;
+    @Autowired RefreshTokenRepository refreshTokenRepository;
+    @Autowired PasswordResetTokenRepository passwordResetTokenRepository;
+    @Autowired TokenPurgeJob tokenPurgeJob;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findByEmail(EMAIL).ifPresent(existing -> userService.deleteUser(existing));
+
+        User fresh = new User();
+        fresh.setName("someone who signs in a lot");
+        fresh.setEmail(EMAIL);
+        fresh.setPassword("placeholder");
+        fresh.setCreatedAt(Date.valueOf(NOW.atZone(ZoneOffset.UTC).toLocalDate()));
+        user = userRepository.saveAndFlush(fresh);
+    }
+
+    @Test
+    @DisplayName("dead tokens past the grace go, in batches; live and recently dead ones stay")
+    void purgesOnlyWhatIsDeadPastTheGrace() {
+        UUID live = refreshToken(NOW.plus(Duration.ofDays(10)), null);
+        UUID justRevoked = refreshToken(NOW.plus(Duration.ofDays(10)), NOW.minus(Duration.ofHours(1)));
+        UUID longRevoked = refreshToken(NOW.plus(Duration.ofDays(5)), NOW.minus(Duration.ofDays(3)));
+        UUID longExpired = refreshToken(NOW.minus(Duration.ofDays(2)), null);
+        UUID unusedReset = resetToken(NOW.plus(Duration.ofMinutes(15)), null);
+        UUID oldUsedReset = resetToken(NOW.minus(Duration.ofDays(2)), NOW.minus(Duration.ofDays(2)));
+
+        tokenPurgeJob.purge();
+
+        assertThat(refreshTokenRepository.existsById(live)).isTrue();
+        assertThat(refreshTokenRepository.existsById(justRevoked)).isTrue();
+        assertThat(refreshTokenRepository.existsById(longRevoked)).isFalse();
+        assertThat(refreshTokenRepository.existsById(longExpired)).isFalse();
+        assertThat(passwordResetTokenRepository.existsById(unusedReset)).isTrue();
+        assertThat(passwordResetTokenRepository.existsById(oldUsedReset)).isFalse();
+    }
+
+    @Test
+    @DisplayName("a bounded batch deletes no more than its limit")
+    void aBatchStopsAtItsLimit() {
+        for (int i = 0; i < 5; i++) {
+            refreshToken(NOW.minus(Duration.ofDays(3)), null);
+        }
+        Timestamp cutoff = Timestamp.from(NOW.minus(Duration.ofDays(1)));
+
+        assertThat(refreshTokenRepository.deleteDeadBatch(cutoff, 2)).isEqualTo(2);
+        // The suite shares one database, so other tests' dead rows may be in the way;
+        // draining to the first short batch is what the job does.
+        int batches = 1;
+        while (refreshTokenRepository.deleteDeadBatch(cutoff, 2) == 2) {
+            batches++;
+        }
+        assertThat(batches).isGreaterThanOrEqualTo(2);
+        assertThat(refreshTokenRepository.findAllByUserId(user.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("revoking an account's sessions stamps only the live tokens")
+    void revokeAllTouchesOnlyLiveTokens() {
+        Instant earlier = NOW.minus(Duration.ofHours(2));
+        UUID live = refreshToken(NOW.plus(Duration.ofDays(10)), null);
+        UUID revoked = refreshToken(NOW.plus(Duration.ofDays(10)), earlier);
+
+        int stamped = refreshTokenRepository.revokeAllLiveByUserId(user.getId(), Timestamp.from(NOW));
+
+        assertThat(stamped).isEqualTo(1);
+        assertThat(refreshTokenRepository.findById(live).orElseThrow().getRevokedAt()).isNotNull();
+        assertThat(refreshTokenRepository.findById(revoked).orElseThrow().getRevokedAt().toInstant())
+                .isEqualTo(Timestamp.from(earlier).toInstant());
+    }
+
+    private UUID refreshToken(Instant expiresAt, Instant revokedAt) {
+        RefreshToken token = new RefreshToken();
+        token.setUser(user);
+        token.setTokenHash("{hmac-sha256}fixture");
+        token.setCreatedAt(Timestamp.from(NOW.minus(Duration.ofDays(15))));
+        token.setExpiresAt(Timestamp.from(expiresAt));
+        token.setRevokedAt(revokedAt == null ? null : Timestamp.from(revokedAt));
+        return refreshTokenRepository.saveAndFlush(token).getId();
+    }
+
+    private UUID resetToken(Instant expiresAt, Instant usedAt) {
+        PasswordResetToken token = new PasswordResetToken();
+        token.setUser(user);
+        token.setTokenHash("a reset that was asked for once");
+        token.setCreatedAt(Timestamp.from(expiresAt.minus(Duration.ofMinutes(15))));
+        token.setExpiresAt(Timestamp.from(expiresAt));
+        token.setUsedAt(usedAt == null ? null : Timestamp.from(usedAt));
+        return passwordResetTokenRepository.saveAndFlush(token).getId();
+    }
+}
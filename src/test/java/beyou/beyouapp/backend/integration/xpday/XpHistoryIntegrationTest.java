@@ -17,6 +17,7 @@ import beyou.beyouapp.backend.domain.category.CategoryService;
 import beyou.beyouapp.backend.domain.category.dto.CategoryRequestDTO;
 import beyou.beyouapp.backend.domain.common.ExperienceLevel;
 import beyou.beyouapp.backend.domain.xpday.EntityXpDayRepository;
+import beyou.beyouapp.backend.domain.xpday.XpDayBatch;
 import beyou.beyouapp.backend.domain.xpday.XpDayOwnerType;
 import beyou.beyouapp.backend.domain.xpday.XpDayRecorder;
 import beyou.beyouapp.backend.domain.xpday.XpHistoryService;
@@ -95,6 +96,32 @@ class XpHistoryIntegrationTest extends AbstractIntegrationTest {
         assertThat(todayValueFor(categoryId)).isZero();
     }
 
+    /**
+     * The batch is one statement over every owner a check touched. It has to insert the
+     * owners with no bucket yet and add onto the ones that have one, in the same command.
+     */
+    @Test
+    @DisplayName("a batch adds onto existing buckets and opens new ones in one write")
+    void aBatchUpsertsEveryOwnerAtOnce() {
+        UUID categoryId = seedCategory("Health");
+        UUID otherCategoryId = seedCategory("Mind");
+        UUID habitId = UUID.randomUUID();
+        recorder.record(user, XpDayOwnerType.CATEGORY, categoryId, 10);
+
+        recorder.record(new XpDayBatch(user)
+                .add(XpDayOwnerType.USER, user.getId(), 7.5)
+                .add(XpDayOwnerType.HABIT, habitId, 7.5)
+                .addAll(XpDayOwnerType.CATEGORY, List.of(categoryId, otherCategoryId), 7.5)
+                // Named twice in one batch: summed before the statement, which could not
+                // update the same row twice.
+                .add(XpDayOwnerType.CATEGORY, otherCategoryId, 2.5));
+
+        assertThat(todayValueFor(categoryId)).isEqualTo(17.5);
+        assertThat(todayValueFor(otherCategoryId)).isEqualTo(10);
+        assertThat(todayValueFor(habitId)).isEqualTo(7.5);
+        assertThat(todayValueFor(user.getId())).isEqualTo(7.5);
+    }
+
     /**
      * The table holds only the days something happened. A chart drawn straight from
      * those rows would put Monday next to Thursday and call it a week.
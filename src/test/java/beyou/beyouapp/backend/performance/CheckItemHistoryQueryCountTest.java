@@ -0,0 +1,212 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.HibernateStatistics;
+import beyou.beyouapp.backend.domain.common.XpProgress;
+import beyou.beyouapp.backend.domain.habit.Habit;
+import beyou.beyouapp.backend.domain.habit.HabitRepository;
+import beyou.beyouapp.backend.domain.routine.checks.CheckItemService;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheckRepository;
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduleRepository;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.itemGroup.CheckGroupRequestDTO;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.itemGroup.HabitGroupRequestDTO;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A check costs the same whatever the entry's history.
+ *
+ * <p>{@code CheckItemService} used to find today's check by streaming the entry's whole
+ * check collection, so every click loaded every live check the entry had — and the
+ * constance rules then did the same for every other entry in the routine. It now reads the
+ * day through {@code RoutineDayChecks}, one indexed query by entry id and date.
+ *
+ * <p>The same click is measured on a routine with a short history and one with a long
+ * one. The statement counts must be equal and no history row may be hydrated; the wall
+ * times are printed for the CI log, not asserted.
+ */
+@Transactional
+class CheckItemHistoryQueryCountTest extends AbstractIntegrationTest {
+
+    private static final int SHORT_HISTORY = 5;
+    private static final int LONG_HISTORY = 400;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Autowired private CheckItemService checkItemService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private HabitRepository habitRepository;
+    @Autowired private ScheduleRepository scheduleRepository;
+    @Autowired private DiaryRoutineRepository diaryRoutineRepository;
+    @Autowired private HabitGroupCheckRepository habitGroupCheckRepository;
+
+    /** One routine holding one habit entry, with {@code historyDays} checked days behind today. */
+    private record Seeded(UUID routineId, UUID habitGroupId) {}
+
+    @Test
+    @DisplayName("checking an entry issues the same statements with 5 or 400 days of history")
+    void check_isFlatInTheEntrysHistory() {
+        Seeded warmUp = seedRoutine(SHORT_HISTORY);
+        Seeded small = seedRoutine(SHORT_HISTORY);
+        Seeded large = seedRoutine(LONG_HISTORY);
+        em.flush();
+        em.clear();
+        // First click pays for whatever the XP path caches (level thresholds); keep it out
+        // of both measurements so they compare history and nothing else.
+        checkToday(warmUp);
+        em.flush();
+        em.clear();
+
+        HibernateStatistics smallStats = new HibernateStatistics(emf);
+        long started = System.nanoTime();
+        checkToday(small);
+        em.flush();
+        long smallNanos = System.nanoTime() - started;
+        long smallStatements = smallStats.statementCount();
+        long smallLoads = smallStats.entityLoadCount();
+        em.clear();
+
+        HibernateStatistics largeStats = new HibernateStatistics(emf);
+        started = System.nanoTime();
+        checkToday(large);
+        em.flush();
+        long largeNanos = System.nanoTime() - started;
+
+        assertThat(largeStats.statementCount())
+                .as("history of %d vs %d days. Short: %d statements; long: %s",
+                        SHORT_HISTORY, LONG_HISTORY, smallStatements, largeStats)
+                .isEqualTo(smallStatements);
+        assertThat(largeStats.entityLoadCount())
+                .as("no history row is hydrated, so the loads do not grow with it")
+                .isEqualTo(smallLoads);
+
+        System.out.println("[check history] " + SHORT_HISTORY + " days → " + smallStatements
+                + " statements, " + smallNanos / 1_000 + " µs; " + LONG_HISTORY + " days → "
+                + largeStats + ", " + largeNanos / 1_000 + " µs");
+    }
+
+    @Test
+    @DisplayName("the check lands as one row for today and leaves the history untouched")
+    void check_writesTodaysRowOnly() {
+        Seeded seeded = seedRoutine(SHORT_HISTORY);
+        em.flush();
+        em.clear();
+
+        checkToday(seeded);
+        em.flush();
+        em.clear();
+
+        LocalDate today = LocalDate.now();
+        List<HabitGroupCheck> todays = habitGroupCheckRepository
+                .findByHabitGroupIdInAndCheckDate(List.of(seeded.habitGroupId()), today);
+        assertThat(todays).singleElement().satisfies(check -> assertThat(check.isChecked()).isTrue());
+        assertThat(habitGroupCheckRepository.findByHabitGroupIdInAndCheckDate(
+                List.of(seeded.habitGroupId()), today.minusDays(1)))
+                .singleElement()
+                .satisfies(check -> assertThat(check.isChecked()).isTrue());
+    }
+
+    private void checkToday(Seeded seeded) {
+        checkItemService.checkOrUncheckItemGroup(new CheckGroupRequestDTO(
+                seeded.routineId(), null,
+                new HabitGroupRequestDTO(seeded.habitGroupId(), null), LocalDate.now()));
+    }
+
+    // --- seed helpers ---
+
+    private Seeded seedRoutine(int historyDays) {
+        User user = new User();
+        user.setName("History");
+        user.setEmail("check-history-" + UUID.randomUUID() + "@test.com");
+        user.setPassword("password123");
+        user.setGoogleAccount(false);
+        // The server's zone, so the owner's today is the LocalDate.now() the check is sent for.
+        user.setTimezone(java.time.ZoneId.systemDefault().getId());
+        user.setCompletedDays(new HashSet<>());
+        user.setXpProgress(new XpProgress(0D, 0, 0D, 50D));
+        user = userRepository.save(user);
+
+        Habit habit = new Habit();
+        habit.setName("Read");
+        habit.setIconId("book");
+        habit.setImportance(3);
+        habit.setDificulty(2);
+        habit.setCategories(new ArrayList<>());
+        habit.setXpProgress(new XpProgress(0D, 0, 0D, 50D));
+        habit.setUser(user);
+        habit = habitRepository.save(habit);
+
+        Schedule schedule = new Schedule();
+        schedule.setDays(new HashSet<>(Arrays.asList(WeekDay.values())));
+        schedule = scheduleRepository.save(schedule);
+
+        DiaryRoutine routine = new DiaryRoutine();
+        routine.setName("Routine");
+        routine.setIconId("icon");
+        routine.setUser(user);
+        routine.setSchedule(schedule);
+        routine.setXpProgress(new XpProgress(0D, 0, 0D, 50D));
+
+        RoutineSection section = new RoutineSection();
+        section.setName("Morning");
+        section.setIconId("icon");
+        section.setStartTime(LocalTime.of(6, 0));
+        section.setEndTime(LocalTime.of(7, 0));
+        section.setOrderIndex(0);
+        section.setFavorite(false);
+        section.setRoutine(routine);
+
+        HabitGroup group = new HabitGroup();
+        group.setHabit(habit);
+        group.setRoutineSection(section);
+        group.setStartTime(LocalTime.of(6, 0));
+        group.setEndTime(LocalTime.of(6, 30));
+        group.setHabitGroupChecks(new ArrayList<>());
+
+        section.setHabitGroups(List.of(group));
+        section.setTaskGroups(new ArrayList<>());
+        routine.setRoutineSections(List.of(section));
+        routine = diaryRoutineRepository.save(routine);
+
+        HabitGroup saved = routine.getRoutineSections().get(0).getHabitGroups().get(0);
+        LocalDate today = LocalDate.now();
+        for (int day = 1; day <= historyDays; day++) {
+            HabitGroupCheck check = new HabitGroupCheck();
+            check.setHabitGroup(saved);
+            check.setCheckDate(today.minusDays(day));
+            check.setCheckTime(LocalTime.of(6, 15));
+            check.setChecked(true);
+            check.setSkipped(false);
+            habitGroupCheckRepository.save(check);
+        }
+        return new Seeded(routine.getId(), saved.getId());
+    }
+}
@@ -0,0 +1,124 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
+import beyou.beyouapp.backend.domain.common.ImageProcessor.Limits;
+import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Peak heap and latency of one profile-photo decode, per upload size: the full
+ * {@code ImageIO.read} the storage services used to do on the request thread, against the
+ * one-pass subsampled decode on the {@link ImageProcessor} pool. Both end at the same
+ * 512px JPEG.
+ *
+ * <p>Peak heap is the rise of the heap pools' peak usage over a collected baseline, so it
+ * carries some GC noise; the largest size is the one where the gap is too wide for noise,
+ * and the only one asserted. Everything is printed for the CI log. Needs no database.
+ */
+class ImageDecodePeakHeapTest {
+
+    private static final int[][] SIZES = {{1200, 900}, {3000, 2000}, {4000, 3000}, {6000, 4000}};
+    private static final int RUNS = 3;
+    private static final Limits PHOTO = new Limits(512, 25_000_000L,
+            ErrorKey.PHOTO_UPLOAD_TOO_LARGE, ErrorKey.PHOTO_UPLOAD_CORRUPT);
+
+    /** A decode both ways: the bytes it produced, so neither path can be optimised away. */
+    private interface Decode {
+        byte[] run(MultipartFile file) throws IOException;
+    }
+
+    @Test
+    @DisplayName("the subsampled decode peaks far below the full decode on a large upload")
+    void subsampledDecodePeaksBelowTheFullDecode() throws IOException {
+        ImageProcessor processor = new ImageProcessor(256L * 1024 * 1024, 1, 4, new SimpleMeterRegistry());
+        Decode full = ImageDecodePeakHeapTest::fullDecode;
+        Decode subsampled = file -> processor.process(file, PHOTO, flattened -> jpeg(flattened.image()));
+
+        long lastFull = 0;
+        long lastSubsampled = 0;
+        for (int[] size : SIZES) {
+            MultipartFile upload = upload(size[0], size[1]);
+            full.run(upload);
+            subsampled.run(upload);
+
+            long fullPeak = peakHeapOf(full, upload);
+            long subsampledPeak = peakHeapOf(subsampled, upload);
+            long fullMs = millisPerRun(full, upload);
+            long subsampledMs = millisPerRun(subsampled, upload);
+
+            System.out.println("[image decode] " + size[0] + "x" + size[1] + " ("
+                    + upload.getSize() / 1024 + " KB): full " + fullPeak / (1024 * 1024) + " MB peak, "
+                    + fullMs + " ms; subsampled " + subsampledPeak / (1024 * 1024) + " MB peak, "
+                    + subsampledMs + " ms");
+            lastFull = fullPeak;
+            lastSubsampled = subsampledPeak;
+        }
+
+        assertThat(lastSubsampled).isLessThan(lastFull);
+    }
+
+    /** What the storage services did before: read everything, then scale. */
+    private static byte[] fullDecode(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            BufferedImage original = ImageIO.read(in);
+            return jpeg(ImageProcessor.toOpaqueRgb(original, PHOTO.maxDimension()));
+        }
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static long peakHeapOf(Decode decode, MultipartFile file) throws IOException {
+        List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        long baseline = heap.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        assertThat(decode.run(file)).isNotEmpty();
+
+        long peak = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return Math.max(0, peak - baseline);
+    }
+
+    private static long millisPerRun(Decode decode, MultipartFile file) throws IOException {
+        long started = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            decode.run(file);
+        }
+        return (System.nanoTime() - started) / RUNS / 1_000_000;
+    }
+
+    /** A camera-sized JPEG: a diagonal gradient, so it compresses like a photo rather than to nothing. */
+    private static MultipartFile upload(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return new MockMultipartFile("file", "photo.jpg", "image/jpeg", jpeg(image));
+    }
+}
@@ -0,0 +1,76 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenHasher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh-token verifications per second on one core: the BCrypt {@code matches} every
+ * refresh used to run, at the cost {@code SecurityConfig} configures, against the keyed
+ * SHA-256 of {@link RefreshTokenHasher}. A verification is the whole of what the hash
+ * scheme adds to a refresh; the row read and the rotation cost the same either way.
+ *
+ * <p>BCrypt is timed over a handful of runs only — each one is the point of the test.
+ * Both rates are printed for the CI log. Needs no database.
+ */
+class RefreshTokenVerifyThroughputTest {
+
+    private static final int BCRYPT_COST = 12;
+    private static final int BCRYPT_RUNS = 5;
+    private static final int HMAC_RUNS = 50_000;
+
+    /** Keeps the JIT from dropping the loop whose results nothing else reads. */
+    private static volatile int consumed;
+
+    @Test
+    @DisplayName("the keyed hash verifies a refresh token orders of magnitude faster than BCrypt")
+    void keyedHashOutrunsBcrypt() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(BCRYPT_COST);
+        RefreshTokenHasher hasher = new RefreshTokenHasher("perf-secret-that-is-at-least-32-characters", bcrypt);
+        String raw = opaqueToken();
+        String bcryptHash = bcrypt.encode(raw);
+        String hmacHash = hasher.hash(raw);
+
+        // Warm both paths before timing them.
+        verify(hasher, raw, bcryptHash, 1);
+        verify(hasher, raw, hmacHash, 5_000);
+
+        double bcryptPerSecond = perSecond(hasher, raw, bcryptHash, BCRYPT_RUNS);
+        double hmacPerSecond = perSecond(hasher, raw, hmacHash, HMAC_RUNS);
+
+        System.out.printf("[refresh verify] bcrypt(%d) %.1f/s per core (%.1f ms each); "
+                        + "hmac-sha256 %.0f/s per core (%.1f µs each)%n",
+                BCRYPT_COST, bcryptPerSecond, 1_000 / bcryptPerSecond,
+                hmacPerSecond, 1_000_000 / hmacPerSecond);
+
+        assertThat(hmacPerSecond).isGreaterThan(bcryptPerSecond * 100);
+    }
+
+    private static double perSecond(RefreshTokenHasher hasher, String raw, String hash, int runs) {
+        long started = System.nanoTime();
+        verify(hasher, raw, hash, runs);
+        return runs / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static void verify(RefreshTokenHasher hasher, String raw, String hash, int runs) {
+        int matched = 0;
+        for (int i = 0; i < runs; i++) {
+            matched += hasher.matches(raw, hash) ? 1 : 0;
+        }
+        assertThat(matched).isEqualTo(runs);
+        consumed = matched;
+    }
+
+    /** The same shape {@code RefreshTokenService} issues: 32 random bytes, base64url. */
+    private static String opaqueToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,143 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.habit.Habit;
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
+import beyou.beyouapp.backend.domain.routine.schedule.RoutineMembershipIndex;
+import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import beyou.beyouapp.backend.domain.task.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One user's day-close standing lookups: every habit and task asked about against the
+ * user's routines, the way {@code DayCloseService.closeDay} asks.
+ *
+ * <p>The walk is {@link ScheduledOnDayResolver#standingOf} given the routine list, which
+ * walks every section of every routine per owner — the cost every owner paid before the
+ * pass built the index once. Sizes run from a light account to a heavy one: routines of six
+ * sections, each holding five habits and three tasks. Both must agree; the per-user times
+ * are printed for the CI log. Needs no database.
+ */
+class RoutineMembershipIndexVsWalkTest {
+
+    private static final int[] ROUTINES_PER_USER = {2, 7, 15};
+    private static final int SECTIONS = 6;
+    private static final int HABITS_PER_SECTION = 5;
+    private static final int TASKS_PER_SECTION = 3;
+    private static final int ROUNDS = 2_000;
+    private static final LocalDate DAY = LocalDate.of(2026, 8, 12);
+
+    /** Keeps the JIT from dropping the loop whose results nothing else reads. */
+    private static volatile int consumed;
+
+    @Test
+    @DisplayName("the index answers what the walk answers, at a cost flat in routine size")
+    void indexAgreesWithTheWalk() {
+        for (int routineCount : ROUTINES_PER_USER) {
+            List<UUID> habits = new ArrayList<>();
+            List<UUID> tasks = new ArrayList<>();
+            List<DiaryRoutine> routines = routines(routineCount, habits, tasks);
+
+            RoutineMembershipIndex index = RoutineMembershipIndex.of(routines);
+            for (UUID habit : habits) {
+                assertThat(index.standingOf(CheckDayOwnerType.HABIT, habit, DAY))
+                        .isEqualTo(ScheduledOnDayResolver.standingOf(CheckDayOwnerType.HABIT, habit, routines, DAY));
+            }
+
+            walk(routines, habits, tasks);
+            indexed(routines, habits, tasks);
+            long walkNanos = walk(routines, habits, tasks);
+            long indexNanos = indexed(routines, habits, tasks);
+
+            System.out.println("[routine membership] " + routineCount + " routines, "
+                    + (habits.size() + tasks.size()) + " owners: walk "
+                    + walkNanos / ROUNDS / 1_000 + " µs/user-day, index "
+                    + indexNanos / ROUNDS / 1_000 + " µs/user-day (build included)");
+        }
+    }
+
+    private static long walk(List<DiaryRoutine> routines, List<UUID> habits, List<UUID> tasks) {
+        long started = System.nanoTime();
+        int scheduled = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (UUID habit : habits) {
+                scheduled += ScheduledOnDayResolver.standingOf(CheckDayOwnerType.HABIT, habit, routines, DAY)
+                        .scheduled() ? 1 : 0;
+            }
+            for (UUID task : tasks) {
+                scheduled += ScheduledOnDayResolver.standingOf(CheckDayOwnerType.TASK, task, routines, DAY)
+                        .scheduled() ? 1 : 0;
+            }
+        }
+        consumed = scheduled;
+        return System.nanoTime() - started;
+    }
+
+    private static long indexed(List<DiaryRoutine> routines, List<UUID> habits, List<UUID> tasks) {
+        long started = System.nanoTime();
+        int scheduled = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            RoutineMembershipIndex index = RoutineMembershipIndex.of(routines);
+            for (UUID habit : habits) {
+                scheduled += index.standingOf(CheckDayOwnerType.HABIT, habit, DAY).scheduled() ? 1 : 0;
+            }
+            for (UUID task : tasks) {
+                scheduled += index.standingOf(CheckDayOwnerType.TASK, task, DAY).scheduled() ? 1 : 0;
+            }
+        }
+        consumed = scheduled;
+        return System.nanoTime() - started;
+    }
+
+    /** {@code count} routines on rotating weekdays, every item distinct. */
+    private static List<DiaryRoutine> routines(int count, List<UUID> habits, List<UUID> tasks) {
+        WeekDay[] week = WeekDay.values();
+        List<DiaryRoutine> routines = new ArrayList<>();
+        for (int r = 0; r < count; r++) {
+            Schedule schedule = new Schedule();
+            schedule.setDays(Set.of(week[r % week.length], week[(r + 3) % week.length]));
+            DiaryRoutine routine = new DiaryRoutine();
+            routine.setId(UUID.randomUUID());
+            routine.setSchedule(schedule);
+            routine.setRoutineSections(new ArrayList<>());
+            for (int s = 0; s < SECTIONS; s++) {
+                RoutineSection section = new RoutineSection();
+                section.setHabitGroups(new ArrayList<>());
+                section.setTaskGroups(new ArrayList<>());
+                for (int h = 0; h < HABITS_PER_SECTION; h++) {
+                    Habit habit = new Habit();
+                    habit.setId(UUID.randomUUID());
+                    habits.add(habit.getId());
+                    HabitGroup group = new HabitGroup();
+                    group.setHabit(habit);
+                    section.getHabitGroups().add(group);
+                }
+                for (int t = 0; t < TASKS_PER_SECTION; t++) {
+                    Task task = new Task();
+                    task.setId(UUID.randomUUID());
+                    tasks.add(task.getId());
+                    TaskGroup group = new TaskGroup();
+                    group.setTask(task);
+                    section.getTaskGroups().add(group);
+                }
+                routine.getRoutineSections().add(section);
+            }
+            routines.add(routine);
+        }
+        return routines;
+    }
+}
@@ -0,0 +1,149 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.AOP.ServiceMethodsLogging;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-call cost of the {@code @Service} advice: the timer that replaced the logging
+ * aspects, against a replica of those aspects, both woven through Spring's AspectJ proxy
+ * around the same trivial method.
+ *
+ * <p>The replica is the old {@code ServiceMethodsLogging} line for line — {@code [START]},
+ * {@code [END]}, {@code [PERFORMANCE]} and the exception {@code @Around} — logging to an
+ * appender that formats every message and drops it, so the cost is the logging path up to
+ * the encoder with none of the console or the shipper behind it. Production paid more.
+ *
+ * <p>Needs no database. The ns/call figures are printed for the CI log, after a warm-up
+ * round of each, and not asserted: two loops racing on a shared runner would make a flaky
+ * test, not a measurement.
+ */
+class ServiceTimingOverheadTest {
+
+    private static final int CALLS = 200_000;
+
+    /** Keeps the JIT from dropping the loop whose results nothing else reads. */
+    private static volatile int consumed;
+
+    @Service
+    static class Target {
+        int work(int value) {
+            return value * 31 + 7;
+        }
+    }
+
+    /** The four advices ServiceMethodsLogging had before it became one timer. */
+    @Aspect
+    static class LegacyServiceLogging {
+        private static final org.slf4j.Logger log = LoggerFactory.getLogger("bench.legacy-service-logging");
+
+        @Before("within(@org.springframework.stereotype.Service *)")
+        public void logBefore(JoinPoint joinpoint) {
+            log.info("[START] Starting method: {} with {} arg(s)", joinpoint.getSignature().getName(), joinpoint.getArgs().length);
+        }
+
+        @AfterReturning(pointcut = "within(@org.springframework.stereotype.Service *)", returning = "result")
+        public void logAfter(JoinPoint joinPoint, Object result) {
+            log.info("[END] Method finish: {} ", joinPoint.getSignature().getName());
+            log.debug("[END] Return: {} ", result);
+        }
+
+        @Around("within(@org.springframework.stereotype.Service *)")
+        public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
+            long start = System.currentTimeMillis();
+            Object result = joinPoint.proceed();
+            long duration = System.currentTimeMillis() - start;
+            log.info("[PERFORMANCE] Method {} exectued in {} ms ", joinPoint.getSignature().getName(), duration);
+            return result;
+        }
+
+        @Around("within(@org.springframework.stereotype.Service *)")
+        public Object handleServiceExceptions(ProceedingJoinPoint joinPoint) throws Throwable {
+            try {
+                return joinPoint.proceed();
+            } catch (Exception e) {
+                log.error("[ERROR] Exception in method {}: {}", joinPoint.getSignature(), e.getMessage(), e);
+                throw e;
+            }
+        }
+    }
+
+    /** Formats each event the way an encoder would, then discards it. */
+    static class FormattingSink extends AppenderBase<ILoggingEvent> {
+        long characters;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            characters += event.getFormattedMessage().length();
+        }
+    }
+
+    @Test
+    @DisplayName("what one timer per call costs against the INFO lines it replaced")
+    void timedAdviceAgainstTheLoggingItReplaced() {
+        Logger legacyLogger = (Logger) LoggerFactory.getLogger("bench.legacy-service-logging");
+        FormattingSink sink = new FormattingSink();
+        sink.start();
+        legacyLogger.setLevel(Level.INFO);
+        legacyLogger.setAdditive(false);
+        legacyLogger.addAppender(sink);
+        try {
+            Target bare = new Target();
+            Target legacy = proxied(new LegacyServiceLogging());
+            Target timed = proxied(new ServiceMethodsLogging(new SimpleMeterRegistry(), 1.0, 60_000, true));
+            Target sampled = proxied(new ServiceMethodsLogging(new SimpleMeterRegistry(), 0.1, 60_000, true));
+
+            for (Target target : new Target[] {bare, legacy, timed, sampled}) {
+                run(target);
+            }
+            long bareNanos = run(bare);
+            long legacyNanos = run(legacy);
+            long timedNanos = run(timed);
+            long sampledNanos = run(sampled);
+
+            System.out.println("[service advice] " + CALLS + " calls: bare " + bareNanos / CALLS
+                    + " ns/call, legacy logging " + legacyNanos / CALLS
+                    + " ns/call, timer " + timedNanos / CALLS
+                    + " ns/call, timer at 10% sampling " + sampledNanos / CALLS + " ns/call");
+
+            assertThat(sink.characters).isPositive();
+        } finally {
+            legacyLogger.detachAppender(sink);
+            legacyLogger.setAdditive(true);
+        }
+    }
+
+    private static Target proxied(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Target());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private static long run(Target target) {
+        int sink = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            sink += target.work(i);
+        }
+        long elapsed = System.nanoTime() - started;
+        consumed = sink;
+        return elapsed;
+    }
+}
@@ -0,0 +1,118 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.domain.checkday.UserStreakService;
+import beyou.beyouapp.backend.domain.checkday.UserStreakService.UserStreak;
+import beyou.beyouapp.backend.domain.checkday.UserStreakState;
+import beyou.beyouapp.backend.domain.common.UserDateResolver;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+import beyou.beyouapp.backend.user.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The stored account streak against the walk it replaced, across accounts of growing age.
+ *
+ * <p>Each account gets {@code days} of history — a completed day most days, a
+ * {@code MISSED} one in every ten — then the streak is read both ways: through the built
+ * {@link UserStreakState}, and through the walk (the same user with its state unbuilt,
+ * which is what every read did before V26). The two must agree; the per-read times are
+ * printed for the CI log. The walk's grow with the history, the state's should not.
+ */
+class UserStreakStateVsWalkTest extends AbstractIntegrationTest {
+
+    private static final int[] HISTORY_DAYS = {30, 365, 1_825};
+    private static final int READS = 300;
+
+    @Autowired UserRepository userRepository;
+    @Autowired UserService userService;
+    @Autowired UserStreakService userStreakService;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("the stored streak answers what the walk answers, at a cost flat in history length")
+    void stateAgreesWithTheWalkAtFlatCost() {
+        for (int days : HISTORY_DAYS) {
+            User user = seed(days);
+            try {
+                userStreakService.verifyAndRepair(List.of(user.getId()));
+                User built = userRepository.findById(user.getId()).orElseThrow();
+                User unbuilt = userRepository.findById(user.getId()).orElseThrow();
+                unbuilt.setStreakState(new UserStreakState());
+                LocalDate today = UserDateResolver.today(built);
+
+                assertThat(built.getStreakState().isSynced()).isTrue();
+                UserStreak viaState = userStreakService.streakOf(built, today);
+                assertThat(viaState).isEqualTo(userStreakService.streakOf(unbuilt, today));
+
+                read(built, today);
+                read(unbuilt, today);
+                long walkNanos = read(unbuilt, today);
+                long stateNanos = read(built, today);
+
+                System.out.println("[user streak] " + days + " days of history: walk "
+                        + walkNanos / READS / 1_000 + " µs/read, stored state "
+                        + stateNanos / READS / 1_000 + " µs/read (streak " + viaState.currentStreak() + ")");
+            } finally {
+                userService.deleteUser(user);
+            }
+        }
+    }
+
+    private long read(User user, LocalDate today) {
+        long started = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            assertThat(userStreakService.streakOf(user, today)).isNotNull();
+        }
+        return System.nanoTime() - started;
+    }
+
+    /** An account {@code days} old: completed most days, missed every tenth, closed up to today. */
+    private User seed(int days) {
+        String email = "streak-bench-" + days + "@beyou.test";
+        userRepository.findByEmail(email).ifPresent(userService::deleteUser);
+
+        LocalDate today = LocalDate.now(java.time.ZoneOffset.UTC);
+        LocalDate first = today.minusDays(days);
+        Set<LocalDate> completed = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        User fresh = new User();
+        fresh.setName("streak bench");
+        fresh.setEmail(email);
+        fresh.setPassword("placeholder");
+        fresh.setTimezone("UTC");
+        fresh.setCreatedAt(Date.valueOf(first));
+        User user = userRepository.saveAndFlush(fresh);
+
+        for (LocalDate day = first; day.isBefore(today); day = day.plusDays(1)) {
+            boolean missed = day.toEpochDay() % 10 == 0;
+            if (!missed) {
+                completed.add(day);
+            }
+            rows.add(new Object[] {UUID.randomUUID(), user.getId(), user.getId(), Date.valueOf(day),
+                    missed ? "MISSED" : "DONE"});
+        }
+        completed.add(today);
+        user.setCompletedDays(completed);
+        user = userRepository.saveAndFlush(user);
+        jdbc.batchUpdate("""
+                INSERT INTO entity_check_day (id, user_id, owner_type, owner_id, day, outcome)
+                VALUES (?, ?, 'USER', ?, ?, ?)
+                """, rows);
+        return user;
+    }
+}
@@ -0,0 +1,86 @@
+package beyou.beyouapp.backend.performance;
+
+import beyou.beyouapp.backend.AbstractIntegrationTest;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevel;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevelRepository;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
+import beyou.beyouapp.backend.domain.common.XpProgress;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The loaded {@link XpLevelCurve} against the path it replaced: the level-by-level walk
+ * over {@code XpByLevelRepository.findByLevel}, through the {@code @Cacheable} proxy.
+ *
+ * <p>Both run over the same seeded curve (the real {@code R__seed_xp_by_level} rows) and
+ * the same fixed-seed gains, and must agree on every resulting level and boundary. Only
+ * the agreement is asserted; the per-operation times are printed for the CI log, after a
+ * warm-up round so both sides are measured with the cache full and the JIT settled.
+ */
+class XpLevelCurveVsCachedRepositoryTest extends AbstractIntegrationTest {
+
+    private static final int OPERATIONS = 200_000;
+
+    @Autowired
+    private XpLevelCurve curve;
+
+    @Autowired
+    private XpByLevelRepository xpByLevelRepository;
+
+    @Test
+    @DisplayName("the curve lands every gain where the cached repository walk did")
+    void curveAgreesWithTheRepositoryWalk() {
+        run(new Random(42), true);
+        run(new Random(42), false);
+
+        long walkNanos = run(new Random(7), false);
+        long curveNanos = run(new Random(7), true);
+
+        Random random = new Random(99);
+        for (int i = 0; i < 5_000; i++) {
+            int level = random.nextInt(curve.topLevel());
+            double start = curve.thresholdOf(level);
+            double amount = random.nextDouble() * 40_000;
+
+            XpProgress viaCurve = new XpProgress(start, level, start, curve.nextThresholdOf(level));
+            viaCurve.addXp(amount, curve);
+            int walked = walkUp(start + amount, level);
+
+            assertThat(viaCurve.getLevel()).as("gain of %.2f from level %d", amount, level).isEqualTo(walked);
+            assertThat(viaCurve.getActualLevelXp())
+                    .isEqualTo(xpByLevelRepository.findByLevel(walked).getXp());
+        }
+
+        System.out.println("[xp level] " + OPERATIONS + " gains: cached repository walk "
+                + walkNanos / OPERATIONS + " ns/op, curve " + curveNanos / OPERATIONS + " ns/op");
+    }
+
+    private long run(Random random, boolean useCurve) {
+        long sink = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int level = random.nextInt(curve.topLevel());
+            double xp = curve.thresholdOf(level) + random.nextDouble() * 20_000;
+            sink += useCurve ? curve.levelAt(xp) : walkUp(xp, level);
+        }
+        long elapsed = System.nanoTime() - started;
+        assertThat(sink).isPositive();
+        return elapsed;
+    }
+
+    /** The loop XpProgress.addXp ran before the curve, with the provider it was given. */
+    private int walkUp(double xp, int level) {
+        XpByLevel next = xpByLevelRepository.findByLevel(level + 1);
+        while (next != null && xp >= next.getXp()) {
+            level++;
+            xpByLevelRepository.findByLevel(level);
+            next = xpByLevelRepository.findByLevel(level + 1);
+        }
+        return level;
+    }
+}
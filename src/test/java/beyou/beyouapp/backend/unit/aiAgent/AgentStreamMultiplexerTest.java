@@ -0,0 +1,199 @@
+package beyou.beyouapp.backend.unit.aiAgent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import beyou.beyouapp.backend.domain.aiAgent.AgentStreamMultiplexer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The multiplexer with the wheel turned by hand: writes keep their order and finish before
+ * the emitter completes, pings come from the wheel, and a dead client reaches the producer.
+ */
+class AgentStreamMultiplexerTest {
+
+    private SimpleMeterRegistry registry;
+    private AgentStreamMultiplexer multiplexer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        multiplexer = new AgentStreamMultiplexer(registry, false);
+    }
+
+    /**
+     * Records each frame as its text; can be told to fail, or to hold the first write. Like
+     * Spring's emitter, {@code send} and {@code complete} share one write lock.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ReentrantLock writeLock = new ReentrantLock();
+        volatile boolean failing;
+        volatile boolean holding;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writeLock.lock();
+            try {
+                if (holding) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (failing) {
+                    throw new IOException("Broken pipe");
+                }
+                frames.add(builder.build().stream()
+                        .map(part -> String.valueOf(part.getData()))
+                        .collect(Collectors.joining()));
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void complete() {
+            writeLock.lock();
+            try {
+                frames.add("<complete>");
+                completed = true;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private static SseEventBuilder token(String text) {
+        return SseEmitter.event().name("token").data(text, MediaType.TEXT_PLAIN);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    void writesEveryEventInOrderBeforeCompleting() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        AgentStreamMultiplexer.Stream stream = multiplexer.open(emitter);
+
+        for (int i = 0; i < 200; i++) {
+            stream.send(token("t" + i));
+        }
+        stream.complete();
+
+        await().until(() -> emitter.completed);
+        assertThat(emitter.frames).hasSize(201).last().isEqualTo("<complete>");
+        for (int i = 0; i < 200; i++) {
+            assertThat(emitter.frames.get(i)).contains("t" + i + "\n");
+        }
+        assertThat(gauge(AgentStreamMultiplexer.QUEUED_METRIC)).isZero();
+    }
+
+    @Test
+    void pingsOnceAHeartbeatFromTheWheelAndNotBefore() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        multiplexer.open(emitter);
+
+        for (int i = 0; i < AgentStreamMultiplexer.HEARTBEAT_SECONDS - 1; i++) {
+            multiplexer.tick();
+        }
+        assertThat(emitter.frames).isEmpty();
+
+        multiplexer.tick();
+        await().until(() -> emitter.frames.size() == 1);
+        assertThat(emitter.frames.get(0)).contains(":ping");
+    }
+
+    @Test
+    void aProducerNeverWaitsOnAClientThatStoppedReading() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.holding = true;
+        AgentStreamMultiplexer.Stream stream = multiplexer.open(emitter);
+
+        for (int i = 0; i < 50; i++) {
+            stream.send(token("t" + i));
+        }
+
+        assertThat(gauge(AgentStreamMultiplexer.QUEUED_METRIC)).isPositive();
+        emitter.release.countDown();
+        await().until(() -> emitter.frames.size() == 50);
+        assertThat(gauge(AgentStreamMultiplexer.QUEUED_METRIC)).isZero();
+    }
+
+    @Test
+    void aFailedWriteReachesTheNextSendAndTheWheelCompletesTheEmitter() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        AgentStreamMultiplexer.Stream stream = multiplexer.open(emitter);
+
+        stream.send(token("lost"));
+
+        await().untilAsserted(() -> assertThatThrownBy(() -> stream.send(token("next")))
+                .hasCauseInstanceOf(IOException.class));
+        for (int i = 0; i < AgentStreamMultiplexer.HEARTBEAT_SECONDS; i++) {
+            multiplexer.tick();
+        }
+        await().until(() -> emitter.completed);
+    }
+
+    // The client stopped reading mid-write: the drainer is parked inside send holding the
+    // emitter's write lock. The wheel must keep turning for everyone else regardless.
+    @Test
+    void aWriteStuckOnAClientNeverHoldsUpTheWheel() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.holding = true;
+        AgentStreamMultiplexer.Stream stream = multiplexer.open(emitter);
+        RecordingEmitter quiet = new RecordingEmitter();
+        multiplexer.open(quiet);
+
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                stream.send(token("t" + i));
+            }
+        }).hasCauseInstanceOf(IOException.class);
+        await().until(emitter.writeLock::isLocked);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 2 * AgentStreamMultiplexer.HEARTBEAT_SECONDS; i++) {
+                multiplexer.tick();
+            }
+        });
+        await().until(() -> quiet.frames.size() == 2);
+        assertThat(emitter.completed).isFalse();
+
+        emitter.release.countDown();
+        await().until(() -> emitter.completed);
+        assertThat(emitter.frames).hasSize(2).last().isEqualTo("<complete>");
+    }
+
+    @Test
+    void countsOpenStreamsUntilClosed() {
+        AgentStreamMultiplexer.Stream first = multiplexer.open(new RecordingEmitter());
+        multiplexer.open(new RecordingEmitter());
+
+        assertThat(gauge(AgentStreamMultiplexer.OPEN_METRIC)).isEqualTo(2);
+        first.close();
+        assertThat(gauge(AgentStreamMultiplexer.OPEN_METRIC)).isEqualTo(1);
+        assertThat(gauge(AgentStreamMultiplexer.STALLED_METRIC)).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+package beyou.beyouapp.backend.unit.aiAgent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.template.st.StTemplateRenderer;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import beyou.beyouapp.backend.domain.aiAgent.AgentSystemPrompt;
+import beyou.beyouapp.backend.domain.aiAgent.AiIconCatalog;
+import beyou.beyouapp.backend.domain.aiAgent.chat.Chat;
+import beyou.beyouapp.backend.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The compiled prompt against what the chat client used to render from the same template:
+ * Spring AI's StringTemplate renderer, fed the params {@code AiAgentService} passed it.
+ */
+class AgentSystemPromptTest {
+
+    private static final ClassPathResource TEMPLATE = new ClassPathResource("prompts/aiAgent.st");
+
+    private SimpleMeterRegistry registry;
+    private AgentSystemPrompt prompt;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        prompt = new AgentSystemPrompt(TEMPLATE, registry);
+
+        User user = new User();
+        user.setLanguageInUse("pt");
+        user.setUserContext("Prefers short answers. Trains at 6am.");
+        chat = new Chat();
+        chat.setUser(user);
+        chat.setUserContextInChat("Planning a {reading} routine");
+    }
+
+    private String renderedByStringTemplate(Map<String, Object> params) throws Exception {
+        String template = TEMPLATE.getContentAsString(StandardCharsets.UTF_8);
+        return StTemplateRenderer.builder().build().apply(template, params);
+    }
+
+    @Test
+    void rendersWhatTheStringTemplateRendererRendered() throws Exception {
+        String expected = renderedByStringTemplate(Map.of(
+                "language", "pt",
+                "iconCatalog", AiIconCatalog.promptCatalog(),
+                "userContext", "Prefers short answers. Trains at 6am.",
+                "userChatContext", "Planning a {reading} routine",
+                "currentPage", "/habits",
+                "today", LocalDate.now().toString()));
+
+        assertThat(prompt.render(chat, "/habits")).isEqualTo(expected);
+    }
+
+    @Test
+    void fillsMissingValuesTheWayTheServiceDid() throws Exception {
+        chat.getUser().setLanguageInUse(null);
+        chat.getUser().setUserContext(" ");
+        chat.setUserContextInChat(null);
+
+        String expected = renderedByStringTemplate(Map.of(
+                "language", "en",
+                "iconCatalog", AiIconCatalog.promptCatalog(),
+                "userContext", "(none yet)",
+                "userChatContext", "(none yet)",
+                "currentPage", "(none yet)",
+                "today", LocalDate.now().toString()));
+
+        assertThat(prompt.render(chat, null)).isEqualTo(expected);
+    }
+
+    @Test
+    void recordsBuildTimeAndEstimatedSizePerTurn() {
+        String rendered = prompt.render(chat, "/habits");
+        prompt.render(chat, "/goals");
+
+        assertThat(registry.get(AgentSystemPrompt.BUILD_METRIC).timer().count()).isEqualTo(2);
+        assertThat(registry.get(AgentSystemPrompt.SIZE_METRIC).summary().max())
+                .isGreaterThanOrEqualTo(rendered.length() / 4.0);
+    }
+
+    @Test
+    void anUnknownPlaceholderFailsAtStartupNotOnAMessage() {
+        ByteArrayResource template = new ByteArrayResource("Hello {nickname}".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> new AgentSystemPrompt(template, registry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("{nickname}");
+    }
+}
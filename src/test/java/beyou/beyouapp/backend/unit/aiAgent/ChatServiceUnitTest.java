@@ -5,13 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,6 +30,8 @@ import org.springframework.ai.chat.memory.ChatMemory;
 import beyou.beyouapp.backend.domain.aiAgent.chat.Chat;
 import beyou.beyouapp.backend.domain.aiAgent.chat.ChatRepository;
 import beyou.beyouapp.backend.domain.aiAgent.chat.ChatService;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
 import beyou.beyouapp.backend.domain.aiAgent.chat.dto.ChatResponseDTO;
 import beyou.beyouapp.backend.exceptions.BusinessException;
 import beyou.beyouapp.backend.domain.aiAgent.chat.AgentMessageService;
@@ -267,4 +274,38 @@ public class ChatServiceUnitTest {
 
         assertEquals(ErrorKey.CHAT_DELETE_FAILED, exception.getErrorKey());
     }
+
+    // 120 chats used to be 120 transcript queries; now it is one per 50 chats, and each
+    // chat still gets its own messages, in the chats' order.
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExportTranscriptsInBatches() {
+        List<Chat> chats = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Chat c = new Chat();
+            c.setId(UUID.randomUUID());
+            c.setTitle("chat " + i);
+            c.setUser(user);
+            chats.add(c);
+        }
+        when(chatRepository.findAllByUserIdOrderByUpdatedAtDesc(userId)).thenReturn(chats);
+        when(agentMessageService.getMessages(anyList())).thenAnswer(invocation -> {
+            Map<UUID, List<AgentMessageDTO>> byChat = new LinkedHashMap<>();
+            for (UUID id : (List<UUID>) invocation.getArgument(0)) {
+                byChat.put(id, List.of(new AgentMessageDTO("USER", List.of(AgentSegment.text(id.toString())))));
+            }
+            return byChat;
+        });
+
+        List<Map<String, Object>> export = chatService.exportForUser(userId);
+
+        assertEquals(120, export.size());
+        verify(agentMessageService, times(3)).getMessages(anyList());
+        for (int i = 0; i < chats.size(); i++) {
+            Map<String, Object> exported = export.get(i);
+            assertEquals(chats.get(i).getId(), exported.get("id"));
+            List<AgentMessageDTO> messages = (List<AgentMessageDTO>) exported.get("messages");
+            assertEquals(chats.get(i).getId().toString(), messages.get(0).segments().get(0).text());
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package beyou.beyouapp.backend.unit.aiAgent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentMessageDTO;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
+import beyou.beyouapp.backend.domain.aiAgent.chat.dto.LazySegments;
+import tools.jackson.databind.ObjectMapper;
+
+class LazySegmentsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String stored = objectMapper.writeValueAsString(List.of(
+            AgentSegment.text("Done! "),
+            AgentSegment.tool("createUserHabit", null, List.of("habits"))));
+
+    @Test
+    void writesTheStoredJsonWithoutDecodingIt() {
+        LazySegments segments = new LazySegments(stored, objectMapper);
+
+        String json = objectMapper.writeValueAsString(new AgentMessageDTO("ASSISTANT", segments));
+
+        assertThat(segments.isDecoded()).isFalse();
+        assertThat(json).isEqualTo("{\"role\":\"ASSISTANT\",\"segments\":" + stored + "}");
+    }
+
+    @Test
+    void decodesOnFirstRead() {
+        LazySegments segments = new LazySegments(stored, objectMapper);
+
+        assertThat(segments).hasSize(2);
+        assertThat(segments.isDecoded()).isTrue();
+        assertThat(segments.get(1).tool()).isEqualTo("createUserHabit");
+        assertThat(segments.get(1).domains()).containsExactly("habits");
+    }
+
+    // The export compares and converts through valueToTree; raw text there would be an
+    // opaque value instead of the array it stands for.
+    @Test
+    void convertsToTheSameTreeAsTheDecodedList() {
+        Object lazy = objectMapper.convertValue(new LazySegments(stored, objectMapper), Object.class);
+        Object eager = objectMapper.convertValue(objectMapper.readValue(stored, List.class), Object.class);
+
+        assertThat(lazy).isEqualTo(eager);
+        assertThat(((List<?>) lazy).get(0)).isEqualTo(Map.of("type", "text", "text", "Done! "));
+    }
+
+    // Serialized before anything reads it: the raw copy must not pass damaged text through
+    // into the surrounding document.
+    @Test
+    void unreadableContentIsWrittenAsAnEmptyList() {
+        for (String damaged : List.of("not json", "[{\"type\":\"text\"", "{\"type\":\"text\"}", "[] []", "")) {
+            LazySegments segments = new LazySegments(damaged, objectMapper);
+
+            String json = objectMapper.writeValueAsString(new AgentMessageDTO("ASSISTANT", segments));
+
+            assertThat(json).isEqualTo("{\"role\":\"ASSISTANT\",\"segments\":[]}");
+            assertThat(segments).isEmpty();
+        }
+    }
+}
@@ -35,7 +35,8 @@ class ControllerLoggingTest {
         when(joinPoint.proceed()).thenReturn("ok");
         lenient().when(joinPoint.getArgs()).thenReturn(new Object[]{"secret-password-123"});
 
-        ControllerLogging controllerLogging = new ControllerLogging();
+        // Threshold 0: every request is "slow", so the line is always written.
+        ControllerLogging controllerLogging = new ControllerLogging(0);
         controllerLogging.logControllerAccess(joinPoint);
 
         String logMessage = listAppender.list.get(0).getFormattedMessage();
@@ -47,4 +48,21 @@ class ControllerLoggingTest {
 
         logger.detachAppender(listAppender);
     }
+
+    @Test
+    void aRequestUnderTheThresholdWritesNoLine() throws Throwable {
+        Logger logger = (Logger) LoggerFactory.getLogger(ControllerLogging.class);
+        ListAppender<ILoggingEvent> listAppender = new ListAppender<>();
+        listAppender.start();
+        logger.addAppender(listAppender);
+
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.proceed()).thenReturn("ok");
+
+        new ControllerLogging(60_000).logControllerAccess(joinPoint);
+
+        assertTrue(listAppender.list.isEmpty(), "Fast requests are left to http.server.requests");
+
+        logger.detachAppender(listAppender);
+    }
 }
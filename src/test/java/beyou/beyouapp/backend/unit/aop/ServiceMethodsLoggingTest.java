@@ -0,0 +1,140 @@
+package beyou.beyouapp.backend.unit.aop;
+
+import beyou.beyouapp.backend.AOP.ServiceMethodsLogging;
+import beyou.beyouapp.backend.exceptions.BusinessException;
+import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.slf4j.LoggerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The aspect woven around a real {@code @Service} through Spring's AspectJ proxy, so the
+ * join points are the ones production sees.
+ */
+class ServiceMethodsLoggingTest {
+
+    @Service
+    static class SampleService {
+        String greet(String name) {
+            return "hi " + name;
+        }
+
+        void refuse() {
+            throw new BusinessException(ErrorKey.HABIT_NOT_FOUND, "no habit");
+        }
+
+        void crash() {
+            throw new IllegalStateException("broken");
+        }
+
+        void dawdle() throws InterruptedException {
+            Thread.sleep(5);
+        }
+    }
+
+    private SimpleMeterRegistry registry;
+    private ListAppender<ILoggingEvent> appender;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        logger = (Logger) LoggerFactory.getLogger(ServiceMethodsLogging.class);
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    private SampleService proxied(double sampleRate, long slowThresholdMs) {
+        return proxied(sampleRate, slowThresholdMs, false);
+    }
+
+    private SampleService proxied(double sampleRate, long slowThresholdMs, boolean sloHistogram) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceMethodsLogging(registry, sampleRate, slowThresholdMs, sloHistogram));
+        return factory.getProxy();
+    }
+
+    private Timer timer(String method, String outcome) {
+        return registry.find(ServiceMethodsLogging.TIMER_NAME)
+                .tags("class", "SampleService", "method", method, "outcome", outcome)
+                .timer();
+    }
+
+    @Test
+    void timesEachCallUnderItsMethodAndOutcomeWithoutLoggingIt() {
+        SampleService service = proxied(1.0, 60_000);
+
+        assertThat(service.greet("ana")).isEqualTo("hi ana");
+        service.greet("bia");
+
+        assertThat(timer("greet", "success").count()).isEqualTo(2);
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void separatesClientErrorsFromFailuresAndStillLogsBoth() {
+        SampleService service = proxied(1.0, 60_000);
+
+        assertThatThrownBy(service::refuse).isInstanceOf(BusinessException.class);
+        assertThatThrownBy(service::crash).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("refuse", "client_error").count()).isEqualTo(1);
+        assertThat(timer("crash", "error").count()).isEqualTo(1);
+        assertThat(appender.list).extracting(ILoggingEvent::getLevel).containsExactly(Level.WARN, Level.ERROR);
+    }
+
+    @Test
+    void logsOnlyTheCallsOverTheSlowThreshold() throws InterruptedException {
+        SampleService service = proxied(1.0, 1);
+
+        service.dawdle();
+
+        assertThat(appender.list).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage()).startsWith("[SLOW] SampleService.dawdle took"));
+    }
+
+    @Test
+    void anUnsampledCallIsNotTimedButItsFailureIsStillLogged() {
+        SampleService service = proxied(0.0, 0);
+
+        service.greet("ana");
+        assertThatThrownBy(service::crash).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.find(ServiceMethodsLogging.TIMER_NAME).timers()).isEmpty();
+        assertThat(appender.list).extracting(ILoggingEvent::getLevel).containsExactly(Level.ERROR);
+    }
+
+    // A timer per class × method × outcome: each carries a few fixed buckets, the slow
+    // threshold among them, not a percentile histogram's seventy-odd series.
+    @Test
+    void publishesTheFixedBucketsAndTheSlowThreshold() {
+        proxied(1.0, 500, true).greet("ana");
+
+        var buckets = timer("greet", "success").takeSnapshot().histogramCounts();
+        assertThat(buckets).hasSize(8);
+        assertThat(buckets).anySatisfy(bucket ->
+                assertThat(bucket.bucket(TimeUnit.MILLISECONDS)).isEqualTo(500.0));
+    }
+}
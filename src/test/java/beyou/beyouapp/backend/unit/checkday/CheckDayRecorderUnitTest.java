@@ -9,11 +9,8 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
-import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -25,12 +22,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import beyou.beyouapp.backend.InMemoryCheckDays;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
 import beyou.beyouapp.backend.domain.checkday.CheckDayRecorder;
 import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
 import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
 import beyou.beyouapp.backend.domain.common.CheckProgress;
+import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver.Standing;
 import beyou.beyouapp.backend.user.User;
 
@@ -48,7 +47,7 @@ class CheckDayRecorderUnitTest {
     private User user;
     private UUID habitId;
     private CheckProgress progress;
-    private List<EntityCheckDay> stored;
+    private InMemoryCheckDays table;
 
     @BeforeEach
     void setUp() {
@@ -56,7 +55,7 @@ class CheckDayRecorderUnitTest {
         user.setId(UUID.randomUUID());
         habitId = UUID.randomUUID();
         progress = new CheckProgress();
-        stored = new ArrayList<>();
+        table = new InMemoryCheckDays();
     }
 
     @Test
@@ -155,7 +154,7 @@ class CheckDayRecorderUnitTest {
         order.verify(entityCheckDayRepository, org.mockito.Mockito.times(2))
                 .lockCheckOwner(classIds.capture(), anyInt());
         order.verify(entityCheckDayRepository)
-                .findByOwnerTypeAndOwnerIdOrderByDayAsc(CheckDayOwnerType.HABIT, habitId);
+                .findByOwnerTypeAndOwnerIdAndDay(CheckDayOwnerType.HABIT, habitId, TODAY);
         order.verify(entityCheckDayRepository).save(any(EntityCheckDay.class));
 
         assertThat(classIds.getAllValues())
@@ -167,9 +166,7 @@ class CheckDayRecorderUnitTest {
 
     @Test
     void aUserOwnedRowLocksItsOwnKeyOnlyOnce() {
-        when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.USER, user.getId())).thenReturn(List.of());
-        when(entityCheckDayRepository.save(any(EntityCheckDay.class))).thenAnswer(i -> i.getArgument(0));
+        table.backing(entityCheckDayRepository);
 
         checkDayRecorder.record(user, CheckDayOwnerType.USER, user.getId(), progress, TODAY,
                 CheckDayOutcome.DONE);
@@ -189,6 +186,35 @@ class CheckDayRecorderUnitTest {
         assertThat(result.getCurrentStreak()).isEqualTo(1);
     }
 
+    @Test
+    void anEverydayCheckMovesTheStoredScalarsWithoutReadingTheWholeHistory() {
+        givenHistory(
+                row(TODAY.minusDays(3), CheckDayOutcome.DONE),
+                row(TODAY.minusDays(2), CheckDayOutcome.MISSED),
+                row(TODAY.minusDays(1), CheckDayOutcome.DONE));
+
+        record(CheckDayOutcome.DONE, TODAY);
+
+        verify(entityCheckDayRepository, never()).findByOwnerTypeAndOwnerIdOrderByDayAsc(any(), any());
+        assertThat(progress.getTotalCheckIns()).isEqualTo(3);
+        assertThat(progress.getCurrentStreak()).isEqualTo(2);
+    }
+
+    @Test
+    void storedScalarsAheadOfTheOwnersTodayFallBackToTheFullRecompute() {
+        // A last check-in after today means the account moved to a zone behind the one it
+        // checked in from; the stored streak is no starting point then.
+        givenHistory();
+        progress.setLastCheckInDate(UserDateResolver.today(user).plusDays(1));
+        progress.setCurrentStreak(5);
+
+        CheckProgress result = record(CheckDayOutcome.DONE, TODAY);
+
+        verify(entityCheckDayRepository).findByOwnerTypeAndOwnerIdOrderByDayAsc(CheckDayOwnerType.HABIT, habitId);
+        assertThat(result.getCurrentStreak()).isEqualTo(1);
+        assertThat(result.getLastCheckInDate()).isEqualTo(TODAY);
+    }
+
     @Test
     void aMissingOwnerOrDayIsRejectedBeforeAnyLockIsTaken() {
         assertThatThrownBy(() -> checkDayRecorder.record(
@@ -254,7 +280,7 @@ class CheckDayRecorderUnitTest {
 
     @Test
     void clearingADayDropsItsRowAndRecomputesFromWhatRemains() {
-        givenStoredHistoryOnly(
+        givenHistory(
                 row(TODAY.minusDays(2), CheckDayOutcome.DONE),
                 row(TODAY.minusDays(1), CheckDayOutcome.DONE),
                 row(TODAY, CheckDayOutcome.DONE));
@@ -274,7 +300,7 @@ class CheckDayRecorderUnitTest {
     @Test
     void clearingADayNeverLowersTheRecord() {
         progress.setBestStreak(9);
-        givenStoredHistoryOnly(row(TODAY, CheckDayOutcome.DONE));
+        givenHistory(row(TODAY, CheckDayOutcome.DONE));
 
         CheckProgress after = checkDayRecorder.clearDay(
                 user, CheckDayOwnerType.HABIT, habitId, progress, TODAY);
@@ -286,18 +312,23 @@ class CheckDayRecorderUnitTest {
         return checkDayRecorder.record(user, CheckDayOwnerType.HABIT, habitId, progress, day, outcome);
     }
 
-    /** The read alone. clearDay deletes rather than saving, so stubbing save would go unused. */
-    private void givenStoredHistoryOnly(EntityCheckDay... rows) {
-        stored = new ArrayList<>(List.of(rows));
-        when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.HABIT, habitId)).thenReturn(stored);
-    }
-
+    /**
+     * The rows behind the repository, and the habit's stored scalars as they derive from
+     * them. The recorder moves the scalars by the day it changes, so a test that started
+     * from zeroes over a non-empty history would be asserting on a state no writer leaves.
+     */
     private void givenHistory(EntityCheckDay... rows) {
-        stored = new ArrayList<>(List.of(rows));
-        when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.HABIT, habitId)).thenReturn(stored);
-        when(entityCheckDayRepository.save(any(EntityCheckDay.class))).thenAnswer(i -> i.getArgument(0));
+        for (EntityCheckDay row : rows) {
+            table.put(row);
+        }
+        table.backing(entityCheckDayRepository);
+        CheckProgress derived = table.derived(CheckDayOwnerType.HABIT, habitId,
+                UserDateResolver.today(user), progress.getBestStreak());
+        progress.setTotalCheckIns(derived.getTotalCheckIns());
+        progress.setCurrentStreak(derived.getCurrentStreak());
+        progress.setBestStreak(derived.getBestStreak());
+        progress.setFirstCheckInDate(derived.getFirstCheckInDate());
+        progress.setLastCheckInDate(derived.getLastCheckInDate());
     }
 
     private EntityCheckDay captureSaved() {
@@ -0,0 +1,241 @@
+package beyou.beyouapp.backend.unit.checkday;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.InMemoryCheckDays;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.checkday.CheckProgressCalculator;
+import beyou.beyouapp.backend.domain.checkday.CheckProgressDelta;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
+import beyou.beyouapp.backend.domain.common.CheckProgress;
+import beyou.beyouapp.backend.user.User;
+
+/**
+ * The delta is only allowed to exist because it agrees with the full recompute. The
+ * property test says so over many random histories and edits; the named cases below it pin
+ * the shapes that needed a read, so a regression there has a readable name.
+ */
+class CheckProgressDeltaUnitTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 20);
+    private static final UUID OWNER = UUID.randomUUID();
+    private static final User USER = new User();
+
+    /** Every outcome a day can go to, plus null for "no row". */
+    private static final CheckDayOutcome[] OUTCOMES = {
+            null, null,
+            CheckDayOutcome.DONE, CheckDayOutcome.DONE, CheckDayOutcome.DONE,
+            CheckDayOutcome.MISSED, CheckDayOutcome.SKIPPED,
+            CheckDayOutcome.NOT_SCHEDULED, CheckDayOutcome.NOT_IN_ROUTINE};
+
+    @Test
+    void anySequenceOfSingleDayEditsLandsWhereTheFullRecomputeDoes() {
+        // Fixed seed: a failure reproduces. Each history takes a run of edits, each starting
+        // from the previous edit's output rather than from a fresh recompute, so drift
+        // would compound and show rather than being reset away.
+        Random random = new Random(20260320L);
+        for (int history = 0; history < 2_000; history++) {
+            InMemoryCheckDays table = new InMemoryCheckDays();
+            int span = 1 + random.nextInt(30);
+            for (int offset = -span; offset <= 2; offset++) {
+                CheckDayOutcome outcome = OUTCOMES[random.nextInt(OUTCOMES.length)];
+                if (outcome != null) {
+                    table.put(row(TODAY.plusDays(offset), outcome));
+                }
+            }
+            CheckProgress progress = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY, random.nextInt(5));
+
+            for (int edit = 0; edit < 10; edit++) {
+                LocalDate day = TODAY.plusDays(random.nextInt(span + 4) - span - 1);
+                CheckDayOutcome before = outcomeOn(table, day);
+                CheckDayOutcome after = OUTCOMES[random.nextInt(OUTCOMES.length)];
+                if (after == null) {
+                    table.remove(CheckDayOwnerType.HABIT, OWNER, day);
+                } else {
+                    table.put(row(day, after));
+                }
+
+                CheckProgress expected = table.derived(
+                        CheckDayOwnerType.HABIT, OWNER, TODAY, progress.getBestStreak());
+                CheckProgress actual = CheckProgressDelta.apply(progress, day, before,
+                        after, TODAY, table.historyOf(CheckDayOwnerType.HABIT, OWNER));
+
+                assertThat(actual)
+                        .as("history %d, edit %d: %s went %s -> %s over %s",
+                                history, edit, day, before, after, table.rows())
+                        .usingRecursiveComparison()
+                        .isEqualTo(expected);
+                progress = actual;
+            }
+        }
+    }
+
+    // The account moves to a zone behind the one its scalars were derived in, so today
+    // steps back while rows — MISSED and SKIPPED among them — still sit after it. The
+    // writers' path, canApply then the delta or the full recompute, must land where the
+    // recompute from the new today does.
+    @Test
+    void editsAfterTodayMovesBackwardsLandWhereTheFullRecomputeDoes() {
+        Random random = new Random(20260321L);
+        for (int history = 0; history < 2_000; history++) {
+            InMemoryCheckDays table = new InMemoryCheckDays();
+            int span = 1 + random.nextInt(30);
+            for (int offset = -span; offset <= 0; offset++) {
+                CheckDayOutcome outcome = OUTCOMES[random.nextInt(OUTCOMES.length)];
+                if (outcome != null) {
+                    table.put(row(TODAY.plusDays(offset), outcome));
+                }
+            }
+            CheckProgress progress = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY, random.nextInt(5));
+            LocalDate today = TODAY.minusDays(1 + random.nextInt(2));
+
+            for (int edit = 0; edit < 10; edit++) {
+                LocalDate day = today.plusDays(random.nextInt(span + 4) - span - 1);
+                CheckDayOutcome before = outcomeOn(table, day);
+                CheckDayOutcome after = OUTCOMES[random.nextInt(OUTCOMES.length)];
+                if (after == null) {
+                    table.remove(CheckDayOwnerType.HABIT, OWNER, day);
+                } else {
+                    table.put(row(day, after));
+                }
+
+                CheckProgressDelta.History rows = table.historyOf(CheckDayOwnerType.HABIT, OWNER);
+                CheckProgress expected = table.derived(
+                        CheckDayOwnerType.HABIT, OWNER, today, progress.getBestStreak());
+                CheckProgress actual = CheckProgressDelta.canApply(progress, day, today, rows)
+                        ? CheckProgressDelta.apply(progress, day, before, after, today, rows)
+                        : CheckProgressCalculator.recompute(table.rows().stream()
+                                .sorted(Comparator.comparing(EntityCheckDay::getDay)).toList(),
+                                today, progress.getBestStreak());
+
+                assertThat(actual)
+                        .as("history %d, edit %d, today %s: %s went %s -> %s over %s",
+                                history, edit, today, day, before, after, table.rows())
+                        .usingRecursiveComparison()
+                        .isEqualTo(expected);
+                progress = actual;
+            }
+        }
+    }
+
+    @Test
+    void aLiveCheckExtendsTheRunWithoutAnyRead() {
+        InMemoryCheckDays table = new InMemoryCheckDays();
+        table.put(row(TODAY.minusDays(1), CheckDayOutcome.DONE));
+        CheckProgress previous = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY, 0);
+
+        CheckProgress next = CheckProgressDelta.apply(previous, TODAY, null, CheckDayOutcome.DONE, TODAY,
+                unreadable());
+
+        assertThat(next.getCurrentStreak()).isEqualTo(2);
+        assertThat(next.getTotalCheckIns()).isEqualTo(2);
+        assertThat(next.getLastCheckInDate()).isEqualTo(TODAY);
+    }
+
+    @Test
+    void removingTheOnlyBreakCountsTheRunAgainFromTheBreakBeforeIt() {
+        InMemoryCheckDays table = new InMemoryCheckDays();
+        table.put(row(TODAY.minusDays(5), CheckDayOutcome.MISSED));
+        table.put(row(TODAY.minusDays(4), CheckDayOutcome.DONE));
+        table.put(row(TODAY.minusDays(3), CheckDayOutcome.DONE));
+        table.put(row(TODAY.minusDays(2), CheckDayOutcome.MISSED));
+        table.put(row(TODAY.minusDays(1), CheckDayOutcome.DONE));
+        CheckProgress previous = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY, 0);
+        assertThat(previous.getCurrentStreak()).isEqualTo(1);
+
+        table.put(row(TODAY.minusDays(2), CheckDayOutcome.SKIPPED));
+        CheckProgress next = CheckProgressDelta.apply(previous, TODAY.minusDays(2),
+                CheckDayOutcome.MISSED, CheckDayOutcome.SKIPPED, TODAY,
+                table.historyOf(CheckDayOwnerType.HABIT, OWNER));
+
+        assertThat(next.getCurrentStreak()).isEqualTo(3);
+        assertThat(next.getBestStreak()).isEqualTo(3);
+    }
+
+    @Test
+    void anEditBehindTheLatestBreakLeavesTheStreakAlone() {
+        InMemoryCheckDays table = new InMemoryCheckDays();
+        table.put(row(TODAY.minusDays(2), CheckDayOutcome.MISSED));
+        table.put(row(TODAY.minusDays(1), CheckDayOutcome.DONE));
+        CheckProgress previous = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY, 0);
+
+        table.put(row(TODAY.minusDays(6), CheckDayOutcome.DONE));
+        CheckProgress next = CheckProgressDelta.apply(previous, TODAY.minusDays(6), null,
+                CheckDayOutcome.DONE, TODAY, table.historyOf(CheckDayOwnerType.HABIT, OWNER));
+
+        assertThat(next.getCurrentStreak()).isEqualTo(1);
+        assertThat(next.getTotalCheckIns()).isEqualTo(2);
+        assertThat(next.getFirstCheckInDate()).isEqualTo(TODAY.minusDays(6));
+    }
+
+    @Test
+    void scalarsAheadOfTodayAreNotAStartingPoint() {
+        InMemoryCheckDays table = new InMemoryCheckDays();
+        CheckProgressDelta.History empty = table.historyOf(CheckDayOwnerType.HABIT, OWNER);
+        CheckProgress ahead = new CheckProgress();
+        ahead.setLastCheckInDate(TODAY.plusDays(1));
+
+        assertThat(CheckProgressDelta.canApply(ahead, TODAY, TODAY, empty)).isFalse();
+        assertThat(CheckProgressDelta.canApply(null, TODAY, TODAY, empty)).isFalse();
+        assertThat(CheckProgressDelta.canApply(new CheckProgress(), TODAY, TODAY, empty)).isTrue();
+        assertThat(CheckProgressDelta.canApply(new CheckProgress(), TODAY.plusDays(1), TODAY, empty)).isFalse();
+    }
+
+    // A break the user's old today saw is not one the walk from the new today reaches.
+    @Test
+    void aMissedDayAfterTodayIsNotAStartingPoint() {
+        InMemoryCheckDays table = new InMemoryCheckDays();
+        table.put(row(TODAY.minusDays(1), CheckDayOutcome.DONE));
+        table.put(row(TODAY.plusDays(1), CheckDayOutcome.MISSED));
+        CheckProgress derivedAhead = table.derived(CheckDayOwnerType.HABIT, OWNER, TODAY.plusDays(1), 0);
+
+        assertThat(derivedAhead.getLastCheckInDate()).isBefore(TODAY);
+        assertThat(CheckProgressDelta.canApply(derivedAhead, TODAY.minusDays(2), TODAY,
+                table.historyOf(CheckDayOwnerType.HABIT, OWNER))).isFalse();
+    }
+
+    private static CheckDayOutcome outcomeOn(InMemoryCheckDays table, LocalDate day) {
+        return table.rows().stream()
+                .filter(row -> row.getDay().equals(day))
+                .map(EntityCheckDay::getOutcome)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /** A history that fails the test if the delta touches it. */
+    private static CheckProgressDelta.History unreadable() {
+        return new CheckProgressDelta.History() {
+            @Override
+            public LocalDate latestBefore(CheckDayOutcome outcome, LocalDate day) {
+                throw new AssertionError("no read expected");
+            }
+
+            @Override
+            public LocalDate earliestAfter(CheckDayOutcome outcome, LocalDate day) {
+                throw new AssertionError("no read expected");
+            }
+
+            @Override
+            public int countDone(LocalDate after, LocalDate through) {
+                throw new AssertionError("no read expected");
+            }
+
+            @Override
+            public boolean anyAfter(LocalDate day) {
+                throw new AssertionError("no read expected");
+            }
+        };
+    }
+
+    private static EntityCheckDay row(LocalDate day, CheckDayOutcome outcome) {
+        return new EntityCheckDay(USER, CheckDayOwnerType.HABIT, OWNER, day, outcome);
+    }
+}
@@ -1,7 +1,11 @@
 package beyou.beyouapp.backend.unit.checkday;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -25,6 +29,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -35,9 +40,11 @@ import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshotRepository;
 import beyou.beyouapp.backend.domain.routine.snapshot.RoutineSnapshotScheduler;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotCheckMigrator;
 import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotService;
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotUserFanOut;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
 import beyou.beyouapp.backend.monitoring.SnapshotJobHeartbeat;
 import beyou.beyouapp.backend.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import beyou.beyouapp.backend.user.UserRepository;
 
 /**
@@ -76,6 +83,7 @@ class DayCloseBoundaryUnitTest {
     @Mock private SnapshotJobHeartbeat heartbeat;
     @Mock private DayCloseService dayCloseService;
     @Mock private UserCacheEvictService userCacheEvictService;
+    @Spy private SnapshotUserFanOut fanOut = new SnapshotUserFanOut(new SimpleMeterRegistry(), 2);
 
     @InjectMocks private RoutineSnapshotScheduler scheduler;
 
@@ -89,6 +97,10 @@ class DayCloseBoundaryUnitTest {
         user.setId(userId);
         user.setName("Ana");
         ReflectionTestUtils.setField(scheduler, "self", scheduler);
+        // Which day gets closed does not depend on the mode; the per-user loop shows it per
+        // user, which is what these assertions read.
+        ReflectionTestUtils.setField(scheduler, "bulkDayClose", false);
+        ReflectionTestUtils.setField(scheduler, "bulkSnapshots", false);
     }
 
     /** Runs one cycle with the wall clock pinned to {@code instant}, for a user in {@code zone}. */
@@ -106,10 +118,17 @@ class DayCloseBoundaryUnitTest {
         ReflectionTestUtils.setField(scheduler, "clock",
                 Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
         when(userRepository.findDistinctTimezones()).thenReturn(List.of(zone.getId()));
-        when(userRepository.findAllByTimezone(zone.getId())).thenReturn(List.of(user));
+        givenUserInZone(zone.getId());
         scheduler.processSnapshots();
     }
 
+    /** One keyset page holding the user, and the reference the per-user work resolves. */
+    private void givenUserInZone(String timezone) {
+        when(userRepository.findIdsByTimezoneAfter(eq(timezone), eq(UserRepository.FIRST_PAGE), anyInt()))
+                .thenReturn(List.of(userId));
+        lenient().when(userRepository.getReferenceById(userId)).thenReturn(user);
+    }
+
     private static LocalDate localDateAt(String instant, ZoneId zone) {
         return Instant.parse(instant).atZone(zone).toLocalDate();
     }
@@ -162,14 +181,14 @@ class DayCloseBoundaryUnitTest {
             ReflectionTestUtils.setField(scheduler, "clock",
                     Clock.fixed(Instant.parse("2026-08-20T23:00:00Z"), ZoneOffset.UTC));
             when(userRepository.findDistinctTimezones()).thenReturn(List.of(LISBON.getId()));
-            when(userRepository.findAllByTimezone(LISBON.getId())).thenReturn(List.of(user));
-            when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(new ArrayList<>());
+            givenUserInZone(LISBON.getId());
+            when(diaryRoutineRepository.findAllByUserIdScheduledOn(eq(userId), anyInt())).thenReturn(new ArrayList<>());
 
             scheduler.processSnapshots();
 
             // The snapshot branch ran (it is the only one active at local hour 0) and the
             // close branch did not.
-            verify(userRepository).findAllByTimezone(LISBON.getId());
+            verify(userRepository).findIdsByTimezoneAfter(eq(LISBON.getId()), eq(UserRepository.FIRST_PAGE), anyInt());
             verifyNoInteractions(dayCloseService);
         }
 
@@ -230,7 +249,7 @@ class DayCloseBoundaryUnitTest {
             // same failure: a day photographed with three hours of life left in it.
             runCycleAt("2026-08-21T00:00:00Z", SAO_PAULO);
 
-            verify(userRepository, never()).findAllByTimezone(anyString());
+            verify(userRepository, never()).findIdsByTimezoneAfter(anyString(), any(), anyInt());
             verifyNoInteractions(dayCloseService);
         }
     }
@@ -5,9 +5,11 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -34,6 +36,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import beyou.beyouapp.backend.InMemoryCheckDays;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
 import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
 import beyou.beyouapp.backend.domain.checkday.CheckDayRecorder;
@@ -42,6 +45,7 @@ import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
 import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
 import beyou.beyouapp.backend.domain.common.CheckProgress;
 import beyou.beyouapp.backend.domain.common.UserCacheEvictService;
+import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.habit.HabitRepository;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
@@ -55,6 +59,7 @@ import beyou.beyouapp.backend.domain.task.TaskRepository;
 import beyou.beyouapp.backend.user.User;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
 /**
  * The day-close pass, exercised against a fake of the one Postgres statement it issues.
@@ -103,6 +108,9 @@ class DayCloseServiceUnitTest {
     /** Rows the fake table has accepted, in insert order. */
     private final List<EntityCheckDay> recorded = new ArrayList<>();
 
+    /** Every row an owner has — the given history plus what the pass inserted. */
+    private final InMemoryCheckDays table = new InMemoryCheckDays();
+
     /** Parameters bound so far for the statement currently being built. */
     private final Map<String, String> pendingParameters = new HashMap<>();
 
@@ -120,6 +128,7 @@ class DayCloseServiceUnitTest {
         lenient().when(habitRepository.findAllByUserId(userId)).thenReturn(new ArrayList<>());
         lenient().when(taskRepository.findAllByUserId(userId)).thenReturn(Optional.of(List.of()));
         lenient().when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of());
+        table.backing(entityCheckDayRepository);
     }
 
     // ---------------------------------------------------------------
@@ -193,7 +202,7 @@ class DayCloseServiceUnitTest {
         habit.getCheckProgress().setBestStreak(6);
         givenHabits(habit);
         givenRoutines(routineCovering(habit, WeekDay.Thursday));
-        givenHistory(habit.getId(),
+        givenHistory(habit,
                 row(CheckDayOwnerType.HABIT, habit.getId(), CLOSING_DAY.minusDays(1), CheckDayOutcome.DONE));
         givenInsertsSucceed();
 
@@ -213,7 +222,7 @@ class DayCloseServiceUnitTest {
         Habit habit = habit("Gym", ACCOUNT_CREATED);
         givenHabits(habit);
         givenRoutines(routineCovering(habit, WeekDay.Monday, WeekDay.Wednesday, WeekDay.Friday));
-        givenHistory(habit.getId(),
+        givenHistory(habit,
                 row(CheckDayOwnerType.HABIT, habit.getId(), CLOSING_DAY.minusDays(2), CheckDayOutcome.DONE),
                 row(CheckDayOwnerType.HABIT, habit.getId(), CLOSING_DAY.minusDays(1), CheckDayOutcome.DONE));
         givenInsertsSucceed();
@@ -231,7 +240,7 @@ class DayCloseServiceUnitTest {
         Habit habit = habit("Journal", ACCOUNT_CREATED);
         givenHabits(habit);
         givenRoutines(routineCovering(null, WeekDay.Thursday));
-        givenHistory(habit.getId(),
+        givenHistory(habit,
                 row(CheckDayOwnerType.HABIT, habit.getId(), CLOSING_DAY.minusDays(1), CheckDayOutcome.DONE));
         givenInsertsSucceed();
 
@@ -451,7 +460,7 @@ class DayCloseServiceUnitTest {
     // ---------------------------------------------------------------
 
     @Test
-    void thePassTakesTheOwnerLockBeforeItReadsTheHistoryItRecomputesFrom() {
+    void thePassTakesTheOwnerLockBeforeItWritesOrReadsAnything() {
         // The pass writes yesterday while the request path writes today. Different unique
         // keys, so ON CONFLICT never fires between them and nothing serialises the two
         // recomputes of the same habit's scalars — the pass commits its stale streak last.
@@ -462,10 +471,13 @@ class DayCloseServiceUnitTest {
 
         dayCloseService.closeDay(user, CLOSING_DAY);
 
-        InOrder order = inOrder(entityCheckDayRepository);
+        InOrder order = inOrder(entityCheckDayRepository, insertStatement);
         order.verify(entityCheckDayRepository, times(2)).lockCheckOwner(anyInt(), anyInt());
+        order.verify(insertStatement).executeUpdate();
         order.verify(entityCheckDayRepository)
-                .findByOwnerTypeAndOwnerIdOrderByDayAsc(CheckDayOwnerType.HABIT, habit.getId());
+                .countByOwnerTypeAndOwnerIdAndOutcomeAndDayGreaterThanAndDayLessThanEqual(
+                        CheckDayOwnerType.HABIT, habit.getId(), CheckDayOutcome.DONE,
+                        CLOSING_DAY, UserDateResolver.today(user));
     }
 
     @Test
@@ -508,6 +520,92 @@ class DayCloseServiceUnitTest {
         return keys;
     }
 
+    // ---------------------------------------------------------------
+    // Bulk close — one statement per batch
+    // ---------------------------------------------------------------
+
+    @Test
+    void anEmptyBatchTakesNoLockAndIssuesNoStatement() {
+        assertThat(dayCloseService.closeDays(List.of(), CLOSING_DAY).rowsWritten()).isZero();
+
+        verify(entityCheckDayRepository, never()).lockCheckOwners(anyInt(), anyString());
+        verify(entityManager, never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void theBatchTakesEveryAccountKeyInOneCallBeforeItInserts() {
+        UUID other = UUID.randomUUID();
+        givenBatchInserts();
+
+        dayCloseService.closeDays(List.of(userId, other), CLOSING_DAY);
+
+        InOrder order = inOrder(entityCheckDayRepository, insertStatement);
+        order.verify(entityCheckDayRepository).lockCheckOwners(anyInt(), anyString());
+        order.verify(insertStatement).getResultList();
+        verify(entityCheckDayRepository, never()).lockCheckOwner(anyInt(), anyInt());
+        assertThat(pendingParameters)
+                .containsEntry("day", CLOSING_DAY.toString())
+                .containsEntry("dayBit", String.valueOf(WeekDay.Thursday.bit()));
+        assertThat(pendingParameters.get("userIds"))
+                .contains(userId.toString())
+                .contains(other.toString());
+    }
+
+    @Test
+    void onlyTheOwnersTheInsertReturnedHaveTheirScalarsMoved() {
+        Habit missed = habit("Read", ACCOUNT_CREATED);
+        givenHistory(missed, row(CheckDayOwnerType.HABIT, missed.getId(), CLOSING_DAY.minusDays(1),
+                CheckDayOutcome.DONE));
+        assertThat(missed.getCheckProgress().getCurrentStreak()).isEqualTo(1);
+        Habit alreadyClosed = habit("Gym", ACCOUNT_CREATED);
+        givenHistory(alreadyClosed, row(CheckDayOwnerType.HABIT, alreadyClosed.getId(), CLOSING_DAY,
+                CheckDayOutcome.DONE));
+        when(habitRepository.findAllById(List.of(missed.getId()))).thenReturn(List.of(missed));
+        givenBatchInserts(
+                row(CheckDayOwnerType.HABIT, missed.getId(), CLOSING_DAY, CheckDayOutcome.MISSED),
+                row(CheckDayOwnerType.USER, userId, CLOSING_DAY, CheckDayOutcome.MISSED));
+
+        DayCloseService.BatchOutcome outcome = dayCloseService.closeDays(List.of(userId), CLOSING_DAY);
+
+        assertThat(outcome.rowsWritten()).isEqualTo(2);
+        assertThat(missed.getCheckProgress().getCurrentStreak()).isZero();
+        assertThat(alreadyClosed.getCheckProgress().getCurrentStreak()).isEqualTo(1);
+        assertThat(user.getCheckProgress().getCurrentStreak()).isZero();
+    }
+
+    @Test
+    void onlyTheAccountsThatGotARowHaveTheirCachesDropped() {
+        UUID untouched = UUID.randomUUID();
+        givenBatchInserts(row(CheckDayOwnerType.USER, userId, CLOSING_DAY, CheckDayOutcome.NOT_IN_ROUTINE));
+
+        DayCloseService.BatchOutcome outcome = dayCloseService.closeDays(List.of(userId, untouched), CLOSING_DAY);
+
+        assertThat(outcome.usersChanged()).containsExactly(userId);
+        verify(userCacheEvictService).evictUserScopedCaches(userId);
+        verify(userCacheEvictService, never()).evictUserScopedCaches(untouched);
+    }
+
+    @Test
+    void aBatchWithNothingMissingLoadsNothingAfterTheInsert() {
+        givenBatchInserts();
+
+        assertThat(dayCloseService.closeDays(List.of(userId), CLOSING_DAY).usersChanged()).isEmpty();
+
+        verify(entityManager, never()).createQuery(anyString(), any());
+        verify(habitRepository, never()).findAllById(any());
+        verify(userCacheEvictService, never()).evictUserScopedCaches(any());
+    }
+
+    @Test
+    void aMissingBatchOrDayIsRejectedBeforeAnyLockIsTaken() {
+        assertThatThrownBy(() -> dayCloseService.closeDays(null, CLOSING_DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dayCloseService.closeDays(List.of(userId), null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(entityCheckDayRepository, never()).lockCheckOwners(anyInt(), anyString());
+    }
+
     // ---------------------------------------------------------------
     // Surrounding contract
     // ---------------------------------------------------------------
@@ -521,7 +619,6 @@ class DayCloseServiceUnitTest {
 
         verify(userCacheEvictService).evictUserScopedCaches(userId);
         verify(userCacheEvictService, never()).evictAllUserCaches(any());
-        verify(userCacheEvictService, never()).clearSharedRoutineCache();
     }
 
     @Test
@@ -585,9 +682,22 @@ class DayCloseServiceUnitTest {
                 .thenReturn(new ArrayList<>(rows));
     }
 
-    private void givenHistory(UUID ownerId, EntityCheckDay... rows) {
-        lenient().when(entityCheckDayRepository.findByOwnerTypeAndOwnerIdOrderByDayAsc(
-                CheckDayOwnerType.HABIT, ownerId)).thenReturn(new ArrayList<>(List.of(rows)));
+    /**
+     * Earlier rows for {@code habit}, with its stored scalars set to what they derive to —
+     * the pass moves those scalars by the day it closes rather than reading every row.
+     */
+    private void givenHistory(Habit habit, EntityCheckDay... rows) {
+        for (EntityCheckDay row : rows) {
+            table.put(row);
+        }
+        CheckProgress stored = habit.getCheckProgress();
+        CheckProgress derived = table.derived(CheckDayOwnerType.HABIT, habit.getId(),
+                UserDateResolver.today(user), stored.getBestStreak());
+        stored.setTotalCheckIns(derived.getTotalCheckIns());
+        stored.setCurrentStreak(derived.getCurrentStreak());
+        stored.setBestStreak(derived.getBestStreak());
+        stored.setFirstCheckInDate(derived.getFirstCheckInDate());
+        stored.setLastCheckInDate(derived.getLastCheckInDate());
     }
 
     private Habit habit(String name, LocalDate createdOn) {
@@ -668,18 +778,46 @@ class DayCloseServiceUnitTest {
         });
         lenient().when(insertStatement.executeUpdate()).thenAnswer(invocation -> {
             if (rowsAffected == 1) {
-                recorded.add(new EntityCheckDay(
+                EntityCheckDay inserted = new EntityCheckDay(
                         user,
                         CheckDayOwnerType.valueOf(pendingParameters.get("ownerType")),
                         UUID.fromString(pendingParameters.get("ownerId")),
                         LocalDate.parse(pendingParameters.get("day")),
-                        CheckDayOutcome.valueOf(pendingParameters.get("outcome"))));
+                        CheckDayOutcome.valueOf(pendingParameters.get("outcome")));
+                recorded.add(inserted);
+                table.put(inserted);
             }
             pendingParameters.clear();
             return rowsAffected;
         });
     }
 
+    /**
+     * Stands in for the batch statement: {@code returned} are the rows its {@code RETURNING}
+     * reports, already written to the table the delta reads, and the account load answers
+     * with {@link #user}.
+     */
+    @SuppressWarnings("unchecked")
+    private void givenBatchInserts(EntityCheckDay... returned) {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(insertStatement);
+        when(insertStatement.setParameter(anyString(), any())).thenAnswer(invocation -> {
+            pendingParameters.put(invocation.getArgument(0), String.valueOf((Object) invocation.getArgument(1)));
+            return insertStatement;
+        });
+        List<Object[]> columns = new ArrayList<>();
+        for (EntityCheckDay row : returned) {
+            table.put(row);
+            columns.add(new Object[] {userId.toString(), row.getOwnerType().name(),
+                    row.getOwnerId().toString(), row.getOutcome().name()});
+        }
+        when(insertStatement.getResultList()).thenReturn(columns);
+
+        TypedQuery<User> accounts = mock(TypedQuery.class);
+        lenient().when(entityManager.createQuery(anyString(), eq(User.class))).thenReturn(accounts);
+        lenient().when(accounts.setParameter(anyString(), any())).thenReturn(accounts);
+        lenient().when(accounts.getResultList()).thenReturn(List.of(user));
+    }
+
     /** Owner id to outcome for everything the pass wrote, in insert order. */
     private Map<UUID, CheckDayOutcome> insertedOutcomes() {
         Map<UUID, CheckDayOutcome> byOwner = new LinkedHashMap<>();
@@ -26,6 +26,7 @@ import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
 import beyou.beyouapp.backend.domain.checkday.UserStreakService;
 import beyou.beyouapp.backend.domain.checkday.UserStreakService.UserStreak;
 import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
 
 /**
  * R14/R13/R20 — the account streak walk, in isolation.
@@ -320,7 +321,7 @@ class UserStreakServiceUnitTest {
         @BeforeEach
         void wire() {
             repository = mock(EntityCheckDayRepository.class);
-            service = new UserStreakService(repository);
+            service = new UserStreakService(repository, mock(UserRepository.class));
         }
 
         @Test
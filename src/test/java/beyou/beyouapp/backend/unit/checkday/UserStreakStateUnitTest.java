@@ -0,0 +1,251 @@
+package beyou.beyouapp.backend.unit.checkday;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
+import beyou.beyouapp.backend.domain.checkday.UserStreakService;
+import beyou.beyouapp.backend.domain.checkday.UserStreakService.RepairOutcome;
+import beyou.beyouapp.backend.domain.checkday.UserStreakService.UserStreak;
+import beyou.beyouapp.backend.domain.checkday.UserStreakState;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+
+/**
+ * The stored account streak against the walk it replaced on the read path.
+ *
+ * <p>The walk stays the reference: every test here either compares the two directly or
+ * pins the one place the state deliberately declines to answer. The long simulation is
+ * the one that matters — a year of random days driven through the same three writers
+ * production has, checked against the walk after every one of them.
+ */
+class UserStreakStateUnitTest {
+
+    private static final LocalDate MON = LocalDate.of(2026, 8, 3);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setTimezone("UTC");
+    }
+
+    private EntityCheckDay row(LocalDate day, CheckDayOutcome outcome) {
+        return new EntityCheckDay(user, CheckDayOwnerType.USER, user.getId(), day, outcome);
+    }
+
+    @Nested
+    class AgainstTheWalk {
+
+        @Test
+        void followsAYearOfChecksUnchecksAndClosesExactly() {
+            Random random = new Random(42);
+            Set<LocalDate> completed = new HashSet<>();
+            List<EntityCheckDay> rows = new ArrayList<>();
+            UserStreakState state = UserStreakState.rebuild(completed, rows);
+
+            for (LocalDate today = MON; today.isBefore(MON.plusDays(365)); today = today.plusDays(1)) {
+                // The request path, during the day.
+                if (random.nextInt(3) > 0 && completed.add(today)) {
+                    state.dayCompleted(today);
+                }
+                if (random.nextInt(8) == 0 && completed.remove(today)) {
+                    state.dayUncompleted(today);
+                }
+                assertThat(state.streakAt(today, completed))
+                        .as("during %s", today)
+                        .isEqualTo(UserStreakService.walk(completed, rows, today));
+
+                // The day-close, once the day has ended.
+                LocalDate tomorrow = today.plusDays(1);
+                CheckDayOutcome outcome = completed.contains(today)
+                        ? CheckDayOutcome.DONE
+                        : CheckDayOutcome.values()[1 + random.nextInt(CheckDayOutcome.values().length - 1)];
+                rows.add(row(today, outcome));
+                state.dayClosed(today, outcome, completed, tomorrow);
+                assertThat(state.streakAt(tomorrow, completed))
+                        .as("after closing %s as %s", today, outcome)
+                        .isEqualTo(UserStreakService.walk(completed, rows, tomorrow));
+            }
+        }
+
+        @Test
+        void aRebuildAnswersWhatTheWalkAnswers() {
+            Set<LocalDate> completed = new HashSet<>(Set.of(MON, MON.plusDays(2), MON.plusDays(4)));
+            List<EntityCheckDay> rows = List.of(
+                    row(MON, CheckDayOutcome.DONE),
+                    row(MON.plusDays(1), CheckDayOutcome.MISSED),
+                    row(MON.plusDays(2), CheckDayOutcome.DONE),
+                    row(MON.plusDays(3), CheckDayOutcome.NOT_SCHEDULED));
+            LocalDate today = MON.plusDays(4);
+
+            UserStreakState state = UserStreakState.rebuild(completed, rows);
+
+            assertThat(state.getCount()).isEqualTo(2);
+            assertThat(state.getLastMissedDay()).isEqualTo(MON.plusDays(1));
+            assertThat(state.streakAt(today, completed))
+                    .isEqualTo(UserStreakService.walk(completed, rows, today));
+        }
+
+        @Test
+        void aMissedDayThatWasLaterCompletedIsNotABreak() {
+            // The walk checks completion first; a back-dated completion outranks the row.
+            Set<LocalDate> completed = new HashSet<>(Set.of(MON, MON.plusDays(1)));
+            List<EntityCheckDay> rows = List.of(row(MON.plusDays(1), CheckDayOutcome.MISSED));
+
+            UserStreakState state = UserStreakState.rebuild(completed, rows);
+
+            assertThat(state.getLastMissedDay()).isNull();
+            assertThat(state.getCount()).isEqualTo(2);
+        }
+
+        @Test
+        void goesDormantFromTheLastScheduledDayLikeTheWalk() {
+            LocalDate lastScheduled = MON;
+            Set<LocalDate> completed = new HashSet<>(Set.of(lastScheduled));
+            List<EntityCheckDay> rows = List.of(row(lastScheduled, CheckDayOutcome.DONE));
+            UserStreakState state = UserStreakState.rebuild(completed, rows);
+
+            LocalDate stillActive = lastScheduled.plusDays(UserStreakService.DORMANT_AFTER_DAYS - 1L);
+            LocalDate quiet = lastScheduled.plusDays(UserStreakService.DORMANT_AFTER_DAYS);
+
+            assertThat(state.streakAt(stillActive, completed).dormant()).isFalse();
+            assertThat(state.streakAt(quiet, completed))
+                    .isEqualTo(new UserStreak(1, true))
+                    .isEqualTo(UserStreakService.walk(completed, rows, quiet));
+        }
+    }
+
+    @Nested
+    class WhatTheStateDeclines {
+
+        @Test
+        void anUnbuiltStateMovesNothingAndAnswersNothing() {
+            UserStreakState state = new UserStreakState();
+
+            state.dayCompleted(MON);
+            state.dayClosed(MON, CheckDayOutcome.MISSED, Set.of(), MON.plusDays(1));
+
+            assertThat(state.getCount()).isZero();
+            assertThat(state.getLastMissedDay()).isNull();
+            assertThat(state.answersFor(MON, MON)).isFalse();
+        }
+
+        @Test
+        void aPastReferenceDayIsLeftToTheWalk() {
+            UserStreakState state = UserStreakState.rebuild(Set.of(), List.of());
+
+            assertThat(state.answersFor(MON, MON)).isTrue();
+            assertThat(state.answersFor(MON.plusDays(1), MON)).isTrue();
+            assertThat(state.answersFor(MON.minusDays(1), MON)).isFalse();
+        }
+
+        @Test
+        void anOlderMissedDayDoesNotMoveTheBreak() {
+            Set<LocalDate> completed = new HashSet<>(Set.of(MON.plusDays(3)));
+            UserStreakState state = UserStreakState.rebuild(completed,
+                    List.of(row(MON.plusDays(2), CheckDayOutcome.MISSED)));
+
+            state.dayClosed(MON, CheckDayOutcome.MISSED, completed, MON.plusDays(4));
+
+            assertThat(state.getLastMissedDay()).isEqualTo(MON.plusDays(2));
+            assertThat(state.getCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class TheService {
+
+        private EntityCheckDayRepository repository;
+        private UserRepository userRepository;
+        private UserStreakService service;
+        private LocalDate today;
+
+        @BeforeEach
+        void wire() {
+            repository = mock(EntityCheckDayRepository.class);
+            userRepository = mock(UserRepository.class);
+            service = new UserStreakService(repository, userRepository);
+            today = LocalDate.now(ZoneOffset.UTC);
+        }
+
+        @Test
+        void aBuiltStateAnswersTodayWithoutReadingTheHistory() {
+            user.setCompletedDays(new HashSet<>(Set.of(today, today.minusDays(1))));
+            user.setStreakState(new UserStreakState(2, null, today.minusDays(1), true));
+
+            assertThat(service.streakOf(user, today)).isEqualTo(new UserStreak(2, false));
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void checkingTodayMovesTheStateWithoutReadingTheHistory() {
+            user.setCompletedDays(new HashSet<>(Set.of(today)));
+            user.setStreakState(new UserStreakState(0, null, null, true));
+
+            service.dayCompleted(user, today);
+
+            assertThat(user.getStreakState().getCount()).isEqualTo(1);
+            verifyNoInteractions(repository);
+        }
+
+        @Test
+        void aBackDatedEditRebuildsFromTheHistory() {
+            LocalDate yesterday = today.minusDays(1);
+            when(repository.findByOwnerTypeAndOwnerIdOrderByDayAsc(CheckDayOwnerType.USER, user.getId()))
+                    .thenReturn(List.of());
+            user.setCompletedDays(new HashSet<>(Set.of(yesterday, today)));
+            user.setStreakState(new UserStreakState(1, yesterday, yesterday, true));
+
+            service.dayCompleted(user, yesterday);
+
+            assertThat(user.getStreakState().getCount()).isEqualTo(2);
+            assertThat(user.getStreakState().getLastMissedDay()).isNull();
+        }
+
+        @Test
+        void theRepairRebuildsADriftedStateAndBuildsAMissingOne() {
+            User drifted = user;
+            drifted.setCompletedDays(new HashSet<>(Set.of(today)));
+            drifted.setStreakState(new UserStreakState(5, null, null, true));
+            User unbuilt = new User();
+            unbuilt.setId(UUID.randomUUID());
+            unbuilt.setTimezone("UTC");
+            unbuilt.setCompletedDays(new HashSet<>());
+            List<UUID> ids = List.of(drifted.getId(), unbuilt.getId());
+            when(userRepository.findAllById(ids)).thenReturn(List.of(drifted, unbuilt));
+            when(repository.findByOwnerTypeAndOwnerIdInOrderByDayAsc(CheckDayOwnerType.USER, ids))
+                    .thenReturn(List.of());
+
+            RepairOutcome outcome = service.verifyAndRepair(ids);
+
+            assertThat(outcome).isEqualTo(new RepairOutcome(1, 1));
+            assertThat(drifted.getStreakState().getCount()).isEqualTo(1);
+            assertThat(unbuilt.getStreakState().isSynced()).isTrue();
+            verify(repository, never()).findByOwnerTypeAndOwnerIdOrderByDayAsc(any(), any());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package beyou.beyouapp.backend.unit.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
+import beyou.beyouapp.backend.domain.common.ImageProcessor.Flattened;
+import beyou.beyouapp.backend.domain.common.ImageProcessor.Limits;
+import beyou.beyouapp.backend.exceptions.BusinessException;
+import beyou.beyouapp.backend.exceptions.ErrorKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ImageProcessorTest {
+
+    private static final Limits LIMITS = new Limits(512, 25_000_000L,
+            ErrorKey.PHOTO_UPLOAD_TOO_LARGE, ErrorKey.PHOTO_UPLOAD_CORRUPT);
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private ImageProcessor processor(long budgetBytes, int threads, int queueCapacity) {
+        return new ImageProcessor(budgetBytes, threads, queueCapacity, meters);
+    }
+
+    private static MultipartFile png(int width, int height) throws IOException {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return new MockMultipartFile("file", "image.png", "image/png", out.toByteArray());
+    }
+
+    @Test
+    @DisplayName("a subsampled decode lands on the same target size a full decode did")
+    void subsampledDecodeReachesTheTargetSize() throws IOException {
+        Flattened flattened = processor(64L * 1024 * 1024, 1, 4)
+                .process(png(4000, 1000), LIMITS, f -> f);
+
+        assertThat(flattened.sourceWidth()).isEqualTo(4000);
+        assertThat(flattened.sourceHeight()).isEqualTo(1000);
+        assertThat(flattened.image().getWidth()).isEqualTo(512);
+        assertThat(flattened.image().getHeight()).isEqualTo(128);
+        assertThat(flattened.image().getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    @DisplayName("an image under the target size is flattened but not upscaled")
+    void smallImageIsNotUpscaled() throws IOException {
+        Flattened flattened = processor(64L * 1024 * 1024, 1, 4)
+                .process(png(300, 200), LIMITS, f -> f);
+
+        assertThat(flattened.image().getWidth()).isEqualTo(300);
+        assertThat(flattened.image().getHeight()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("the header's dimensions are checked against the caller's ceiling with the caller's key")
+    void headerPastThePixelCeilingIsRejectedWithTheCallersKey() {
+        Limits tight = new Limits(512, 1_000L,
+                ErrorKey.FEEDBACK_ATTACHMENT_TOO_LARGE, ErrorKey.FEEDBACK_ATTACHMENT_CORRUPT);
+
+        assertThatThrownBy(() -> processor(64L * 1024 * 1024, 1, 4).process(png(100, 100), tight, f -> f))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getErrorKey())
+                .isEqualTo(ErrorKey.FEEDBACK_ATTACHMENT_TOO_LARGE);
+    }
+
+    @Test
+    @DisplayName("bytes no reader recognises are rejected as corrupt")
+    void unreadableBytesAreCorrupt() {
+        MultipartFile garbage = new MockMultipartFile("file", "x.png", "image/png", "not an image".getBytes());
+
+        assertThatThrownBy(() -> processor(64L * 1024 * 1024, 1, 4).process(garbage, LIMITS, f -> f))
+                .isInstanceOf(BusinessException.class)
+                .extracting(e -> ((BusinessException) e).getErrorKey())
+                .isEqualTo(ErrorKey.PHOTO_UPLOAD_CORRUPT);
+    }
+
+    @Test
+    @DisplayName("an IOException from the job reaches the caller as itself")
+    void jobIOExceptionIsRethrownUnwrapped() {
+        assertThatThrownBy(() -> processor(64L * 1024 * 1024, 1, 4).process(png(10, 10), LIMITS, f -> {
+            throw new IOException("disk full");
+        })).isInstanceOf(IOException.class).hasMessage("disk full");
+    }
+
+    @Test
+    @DisplayName("jobs that do not fit the heap budget together run one at a time, even on two threads")
+    void heapBudgetSerialisesJobsThatDoNotFitTogether() throws Exception {
+        // 1KB budget: every job costs more than that, so each reserves all of it.
+        ImageProcessor processor = processor(1024, 2, 4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostAtOnce = new AtomicInteger();
+        MultipartFile file = png(200, 200);
+
+        Runnable upload = () -> {
+            try {
+                processor.process(file, LIMITS, f -> {
+                    mostAtOnce.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return f;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        CompletableFuture.allOf(CompletableFuture.runAsync(upload), CompletableFuture.runAsync(upload))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(mostAtOnce.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("an upload past the pool's queue is turned away instead of waiting without limit")
+    void uploadPastTheQueueIsRejected() throws Exception {
+        ImageProcessor processor = processor(64L * 1024 * 1024, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        MultipartFile file = png(10, 10);
+        ImageProcessor.Job<Flattened> blocking = f -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return f;
+        };
+
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> uncheckedProcess(processor, file, blocking));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> meters.get(ImageProcessor.RESERVED_METRIC).gauge().value() > 0);
+        CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> uncheckedProcess(processor, file, blocking));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> meters.get(ImageProcessor.QUEUED_METRIC).gauge().value() == 1);
+
+        try {
+            assertThatThrownBy(() -> processor.process(file, LIMITS, f -> f))
+                    .isInstanceOf(BusinessException.class)
+                    .extracting(e -> ((BusinessException) e).getErrorKey())
+                    .isEqualTo(ErrorKey.RATE_LIMIT_EXCEEDED);
+        } finally {
+            release.countDown();
+        }
+        CompletableFuture.allOf(running, queued).get(10, TimeUnit.SECONDS);
+    }
+
+    private static void uncheckedProcess(ImageProcessor processor, MultipartFile file, ImageProcessor.Job<Flattened> job) {
+        try {
+            processor.process(file, LIMITS, job);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package beyou.beyouapp.backend.unit.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.domain.common.RoutineCacheGenerations;
+
+class RoutineCacheGenerationsTest {
+
+    private final RoutineCacheGenerations generations = new RoutineCacheGenerations();
+    private final UUID writer = UUID.randomUUID();
+    private final UUID bystander = UUID.randomUUID();
+    private final UUID routineId = UUID.randomUUID();
+
+    @Test
+    void keyIsStableUntilTheUserAdvances() {
+        assertThat(generations.key(writer, routineId)).isEqualTo(generations.key(writer, routineId));
+        assertThat(generations.key(writer, routineId)).startsWith(writer + "_").endsWith("_" + routineId);
+    }
+
+    @Test
+    void advancingRetiresOnlyThatUsersKeys() {
+        String writerBefore = generations.key(writer, routineId);
+        String bystanderBefore = generations.key(bystander, routineId);
+
+        generations.advance(writer);
+
+        assertThat(generations.key(writer, routineId)).isNotEqualTo(writerBefore);
+        assertThat(generations.key(bystander, routineId)).isEqualTo(bystanderBefore);
+    }
+
+    @Test
+    void aGenerationIsNeverHandedOutTwice() {
+        String first = generations.key(writer, routineId);
+        generations.advance(writer);
+        String second = generations.key(writer, routineId);
+        generations.advance(writer);
+
+        assertThat(generations.key(writer, routineId)).isNotIn(first, second);
+        assertThat(generations.key(bystander, routineId).split("_")[1])
+                .isNotIn(first.split("_")[1], second.split("_")[1]);
+    }
+}
@@ -16,11 +16,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import beyou.beyouapp.backend.domain.category.Category;
 import beyou.beyouapp.backend.domain.category.CategoryRepository;
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevelRepository;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
 import beyou.beyouapp.backend.domain.common.XpCalculatorService;
 import beyou.beyouapp.backend.domain.common.XpProgress;
 import beyou.beyouapp.backend.domain.goal.GoalRepository;
@@ -35,8 +36,9 @@ import beyou.beyouapp.backend.user.UserRepository;
 @ExtendWith(MockitoExtension.class)
 class XpCalculatorServiceSnapshotTest {
 
-    @Mock
-    private XpByLevelRepository xpByLevelRepository;
+    /** Level 1 spans 0..1000, matching seedXp, so nothing here crosses a level. */
+    @Spy
+    private XpLevelCurve xpLevelCurve = XpLevelCurve.of(1, 0, 1000, 2000);
 
     /** The XP history rides along with every total; nothing here asserts on it. */
     @Mock
@@ -2,7 +2,10 @@ package beyou.beyouapp.backend.unit.common;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import beyou.beyouapp.backend.domain.xpday.XpDayRecorder;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -14,28 +17,33 @@ import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import beyou.beyouapp.backend.domain.category.Category;
 import beyou.beyouapp.backend.domain.category.CategoryRepository;
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevelRepository;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
 import beyou.beyouapp.backend.domain.common.XpCalculatorService;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.habit.HabitRepository;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutineRepository;
+import beyou.beyouapp.backend.domain.xpday.XpDayBatch;
+import beyou.beyouapp.backend.domain.xpday.XpDayOwnerType;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.UserRepository;
 
 @ExtendWith(MockitoExtension.class)
 class XpCalculatorServiceTest {
 
-    @Mock
-    private XpByLevelRepository xpByLevelRepository;
+    /** Level 1 spans 0..1000, matching seedXp, so nothing here crosses a level. */
+    @Spy
+    private XpLevelCurve xpLevelCurve = XpLevelCurve.of(1, 0, 1000, 2000);
 
-    /** The XP history rides along with every total; nothing here asserts on it. */
+    /** The XP history rides along with every total; only the batching tests assert on it. */
     @Mock
     private XpDayRecorder xpDayRecorder;
 
@@ -146,6 +154,58 @@ class XpCalculatorServiceTest {
         verify(categoryRepository, never()).saveAll(any());
     }
 
+    @Test
+    void aCheckWritesItsWholeHistoryAsOneBatch() {
+        xpCalculatorService.addXpToUserRoutineHabitAndCategoriesAndPersist(user, 50.0, routine, habit, categories);
+
+        ArgumentCaptor<XpDayBatch> batch = ArgumentCaptor.forClass(XpDayBatch.class);
+        verify(xpDayRecorder).record(batch.capture());
+        verify(xpDayRecorder, never()).record(any(User.class), any(), any(), anyDouble());
+        assertThat(batch.getValue().deltas()).containsExactly(
+                new XpDayBatch.Delta(XpDayOwnerType.USER, user.getId(), 50.0),
+                new XpDayBatch.Delta(XpDayOwnerType.ROUTINE, routine.getId(), 50.0),
+                new XpDayBatch.Delta(XpDayOwnerType.HABIT, habit.getId(), 50.0),
+                new XpDayBatch.Delta(XpDayOwnerType.CATEGORY, categories.get(0).getId(), 50.0));
+    }
+
+    @Test
+    void anUncheckRecordsNegativeDeltasInTheSameBatch() {
+        seedXp(user.getXpProgress(), 80.0);
+        seedXp(routine.getXpProgress(), 80.0);
+
+        xpCalculatorService.removeXpOfUserRoutineAndCategoriesAndPersist(user, 30.0, routine, categories);
+
+        ArgumentCaptor<XpDayBatch> batch = ArgumentCaptor.forClass(XpDayBatch.class);
+        verify(xpDayRecorder).record(batch.capture());
+        assertThat(batch.getValue().deltas())
+                .extracting(XpDayBatch.Delta::xp)
+                .containsOnly(-30.0);
+    }
+
+    @Test
+    void aPropagationTouchingAnOwnerTwiceSavesItOnceWithTheNetDelta() {
+        xpCalculatorService.propagate(user)
+                .user(40.0)
+                .habit(habit, 40.0)
+                .habit(habit, -15.0)
+                .categories(categories, 10.0)
+                .categories(categories, 10.0)
+                .flush();
+
+        assertEquals(25.0, habit.getXpProgress().getXp());
+        assertEquals(20.0, categories.get(0).getXpProgress().getXp());
+        verify(habitRepository).save(habit);
+        verify(categoryRepository).saveAll(anyCollection());
+        verify(diaryRoutineRepository, never()).save(any());
+
+        ArgumentCaptor<XpDayBatch> batch = ArgumentCaptor.forClass(XpDayBatch.class);
+        verify(xpDayRecorder).record(batch.capture());
+        assertThat(batch.getValue().deltas()).containsExactly(
+                new XpDayBatch.Delta(XpDayOwnerType.USER, user.getId(), 40.0),
+                new XpDayBatch.Delta(XpDayOwnerType.HABIT, habit.getId(), 25.0),
+                new XpDayBatch.Delta(XpDayOwnerType.CATEGORY, categories.get(0).getId(), 20.0));
+    }
+
     private void seedXp(beyou.beyouapp.backend.domain.common.XpProgress xpProgress, double xp) {
         xpProgress.setLevel(1);
         xpProgress.setXp(xp);
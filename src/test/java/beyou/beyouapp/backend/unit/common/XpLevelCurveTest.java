@@ -0,0 +1,132 @@
+package beyou.beyouapp.backend.unit.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevel;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
+import beyou.beyouapp.backend.domain.common.XpProgress;
+
+/**
+ * The curve replaces a level-by-level walk, so it is held to that walk: over the seeded
+ * shape, any gain or loss from any consistent starting point has to land on the same level
+ * and boundaries the walk reached.
+ */
+class XpLevelCurveTest {
+
+    /** The shape of R__seed_xp_by_level: threshold(L) = 50 * L^2 for L in 0..100. */
+    private static final double[] SEEDED = seeded();
+
+    private static final XpLevelCurve CURVE = XpLevelCurve.of(0, SEEDED);
+
+    @Test
+    void anyGainOrLossLandsWhereTheLevelWalkDid() {
+        Random random = new Random(20261017L);
+        for (int run = 0; run < 5_000; run++) {
+            int level = random.nextInt(100);
+            double xp = SEEDED[level] + random.nextDouble() * (SEEDED[level + 1] - SEEDED[level]);
+            double amount = random.nextDouble() * 60_000;
+            boolean gain = random.nextBoolean();
+
+            XpProgress viaCurve = progress(xp, level);
+            double[] walked = gain ? walkUp(xp + amount, level) : walkDown(Math.max(0, xp - amount), level);
+            if (gain) {
+                viaCurve.addXp(amount, CURVE);
+            } else {
+                viaCurve.removeXp(amount, CURVE);
+            }
+
+            assertThat(new double[] {viaCurve.getLevel(), viaCurve.getActualLevelXp(), viaCurve.getNextLevelXp()})
+                    .as("run %d: %s %.2f from level %d at %.2f", run, gain ? "gain" : "loss", amount, level, xp)
+                    .containsExactly(walked);
+        }
+    }
+
+    @Test
+    void levelAtResolvesBoundariesToTheLevelThatStartsThere() {
+        assertThat(CURVE.levelAt(0)).isZero();
+        assertThat(CURVE.levelAt(49.99)).isZero();
+        assertThat(CURVE.levelAt(50)).isEqualTo(1);
+        assertThat(CURVE.levelAt(500_000)).isEqualTo(100);
+        assertThat(CURVE.levelAt(Double.MAX_VALUE)).isEqualTo(100);
+        assertThat(CURVE.levelAt(-1)).isZero();
+    }
+
+    @Test
+    void theTopLevelPinsItsCeilingToItsOwnThreshold() {
+        assertThat(CURVE.nextThresholdOf(100)).isEqualTo(500_000);
+        assertThat(CURVE.nextThresholdOf(99)).isEqualTo(500_000);
+    }
+
+    @Test
+    void rowsAreSortedAndMustBeContiguous() {
+        XpLevelCurve curve = XpLevelCurve.of(List.of(
+                new XpByLevel(2, 200), new XpByLevel(0, 0), new XpByLevel(1, 50)));
+
+        assertThat(curve.firstLevel()).isZero();
+        assertThat(curve.topLevel()).isEqualTo(2);
+        assertThat(curve.thresholdOf(1)).isEqualTo(50);
+
+        assertThatThrownBy(() -> XpLevelCurve.of(List.of(new XpByLevel(0, 0), new XpByLevel(2, 200))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("skips level 1");
+    }
+
+    @Test
+    void anEmptyOrDecreasingCurveIsRejected() {
+        assertThatThrownBy(() -> XpLevelCurve.of(List.of()))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> XpLevelCurve.of(0, 0, 100, 90))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("decreases at level 2");
+    }
+
+    @Test
+    void theCurveKeepsNoReferenceToTheArrayItWasGiven() {
+        double[] thresholds = {0, 50, 200};
+        XpLevelCurve curve = XpLevelCurve.of(0, thresholds);
+
+        thresholds[1] = 1_000;
+
+        assertThat(curve.thresholdOf(1)).isEqualTo(50);
+    }
+
+    // --- the walk XpProgress used to do, kept here as the reference ---
+
+    private static double[] walkUp(double xp, int level) {
+        double next = SEEDED[level + 1];
+        while (xp >= next && level + 1 < SEEDED.length) {
+            level++;
+            next = level + 1 < SEEDED.length ? SEEDED[level + 1] : SEEDED[level];
+        }
+        return boundaries(level);
+    }
+
+    private static double[] walkDown(double xp, int level) {
+        while (xp < SEEDED[level]) {
+            level--;
+        }
+        return boundaries(level);
+    }
+
+    private static double[] boundaries(int level) {
+        return new double[] {level, SEEDED[level], level + 1 < SEEDED.length ? SEEDED[level + 1] : SEEDED[level]};
+    }
+
+    private static XpProgress progress(double xp, int level) {
+        return new XpProgress(xp, level, SEEDED[level], SEEDED[level + 1]);
+    }
+
+    private static double[] seeded() {
+        double[] thresholds = new double[101];
+        for (int level = 0; level < thresholds.length; level++) {
+            thresholds[level] = 50.0 * level * level;
+        }
+        return thresholds;
+    }
+}
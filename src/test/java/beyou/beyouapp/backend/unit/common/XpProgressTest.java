@@ -1,12 +1,11 @@
 package beyou.beyouapp.backend.unit.common;
 
-import beyou.beyouapp.backend.domain.category.xpbylevel.XpByLevel;
+import beyou.beyouapp.backend.domain.category.xpbylevel.XpLevelCurve;
 import beyou.beyouapp.backend.domain.common.XpProgress;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
-import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -20,13 +19,14 @@ public class XpProgressTest {
             5, 1000.0
     );
 
+    /** XP_TABLE as the curve the application loads: levels 1..5. */
+    private static final XpLevelCurve CURVE = XpLevelCurve.of(1, 0.0, 100.0, 300.0, 600.0, 1000.0);
+
     private XpProgress xpProgress;
-    private Function<Integer, XpByLevel> levelProvider;
 
     @BeforeEach
     void setUp() {
         xpProgress = new XpProgress();
-        levelProvider = level -> new XpByLevel(level, XP_TABLE.getOrDefault(level, XP_TABLE.get(5)));
     }
 
     private void initializeProgress(double xp, int level) {
@@ -40,7 +40,7 @@ public class XpProgressTest {
     void addXpShouldLevelUpOnceWhenCrossingNextThreshold() {
         initializeProgress(90.0, 1);
 
-        xpProgress.addXp(20.0, levelProvider);
+        xpProgress.addXp(20.0, CURVE);
 
         assertEquals(110.0, xpProgress.getXp());
         assertEquals(2, xpProgress.getLevel());
@@ -52,7 +52,7 @@ public class XpProgressTest {
     void addXpShouldHandleMultipleLevelUps() {
         initializeProgress(90.0, 1);
 
-        xpProgress.addXp(400.0, levelProvider);
+        xpProgress.addXp(400.0, CURVE);
 
         assertEquals(490.0, xpProgress.getXp());
         assertEquals(3, xpProgress.getLevel());
@@ -64,7 +64,7 @@ public class XpProgressTest {
     void removeXpShouldLevelDownAndRecalculateBoundaries() {
         initializeProgress(350.0, 3);
 
-        xpProgress.removeXp(100.0, levelProvider);
+        xpProgress.removeXp(100.0, CURVE);
 
         assertEquals(250.0, xpProgress.getXp());
         assertEquals(2, xpProgress.getLevel());
@@ -76,7 +76,7 @@ public class XpProgressTest {
     void removeXpShouldFloorAtZeroWhenAmountExceedsCurrentXp() {
         initializeProgress(80.0, 1);
 
-        xpProgress.removeXp(100.0, levelProvider);
+        xpProgress.removeXp(100.0, CURVE);
 
         assertEquals(0.0, xpProgress.getXp(), "XP must never go below 0");
         assertEquals(1, xpProgress.getLevel());
@@ -88,26 +88,47 @@ public class XpProgressTest {
     void removeXpShouldFloorAtZeroWhenStartingAtZero() {
         initializeProgress(0.0, 1);
 
-        xpProgress.removeXp(50.0, levelProvider);
+        xpProgress.removeXp(50.0, CURVE);
 
         assertEquals(0.0, xpProgress.getXp(), "XP must never go below 0 even when starting at zero");
     }
 
     @Test
     void addXpShouldNotCrashOrLoopAtTopOfCurve() {
-        // Provider that has no row beyond level 5 (returns null) — mimics the seeded
-        // xp_by_level table topping out at its max level.
-        Function<Integer, XpByLevel> cappedProvider =
-                level -> XP_TABLE.containsKey(level) ? new XpByLevel(level, XP_TABLE.get(level)) : null;
+        // The curve has no level beyond 5 — mimics the seeded xp_by_level table topping
+        // out at its max level.
         xpProgress.setLevel(4);
         xpProgress.setXp(1000.0);
         xpProgress.setActualLevelXp(1000.0);
         xpProgress.setNextLevelXp(1000.0);
 
-        xpProgress.addXp(5000.0, cappedProvider); // way past the top
+        xpProgress.addXp(5000.0, CURVE); // way past the top
 
         assertEquals(6000.0, xpProgress.getXp());
         assertEquals(5, xpProgress.getLevel(), "must not advance past the top level (no level 6 row)");
         assertEquals(1000.0, xpProgress.getNextLevelXp(), "ceiling pinned to top threshold, no NPE");
     }
+
+    @Test
+    void addXpJumpsStraightToTheLevelItReaches() {
+        initializeProgress(0.0, 1);
+
+        xpProgress.addXp(650.0, CURVE);
+
+        assertEquals(4, xpProgress.getLevel());
+        assertEquals(600.0, xpProgress.getActualLevelXp());
+        assertEquals(1000.0, xpProgress.getNextLevelXp());
+    }
+
+    @Test
+    void removeXpDropsSeveralLevelsAtOnce() {
+        initializeProgress(700.0, 4);
+
+        xpProgress.removeXp(650.0, CURVE);
+
+        assertEquals(50.0, xpProgress.getXp());
+        assertEquals(1, xpProgress.getLevel());
+        assertEquals(0.0, xpProgress.getActualLevelXp());
+        assertEquals(100.0, xpProgress.getNextLevelXp());
+    }
 }
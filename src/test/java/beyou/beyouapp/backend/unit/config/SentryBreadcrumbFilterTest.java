@@ -96,8 +96,8 @@ class SentryBreadcrumbFilterTest {
     @Test
     void dropsInstrumentationChatterFromTheLoggingAspects() {
         assertNull(filter.execute(
-                breadcrumb(ServiceMethodsLogging.class, Level.INFO,
-                        "[START] Starting method: {} with {} arg(s)", "editHabit", 2),
+                breadcrumb(ServiceMethodsLogging.class, Level.WARN,
+                        "[SLOW] {}.{} took {} ms", "HabitService", "editHabit", 812),
                 new Hint()),
                 "aspect chatter would evict the domain lines that actually explain a failure");
         assertNull(filter.execute(
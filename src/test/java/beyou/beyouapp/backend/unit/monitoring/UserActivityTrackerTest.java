@@ -5,10 +5,12 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.github.benmanes.caffeine.cache.Ticker;
 
@@ -24,12 +26,16 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * Time is driven manually through the injected clock and ticker (the same instant
  * source feeds both) so the two behaviors under test — the 5-minute sliding "active"
  * window behind the gauge and the once-per-window throttle on {@code last_seen_at}
  * writes — are asserted at exact boundaries rather than with sleeps.
+ *
+ * <p>{@code last_seen_at} is write-behind: a touch only queues, and nothing reaches the
+ * repository until {@link UserActivityTracker#flush()}, which the tests call directly.
  */
 class UserActivityTrackerTest {
 
@@ -63,9 +69,75 @@ class UserActivityTrackerTest {
 
         tracker.touch(userId);
         tracker.touch(userId);
+        tracker.flush();
 
         assertEquals(1, activeUsersGauge());
-        verify(userRepository, times(1)).recordSeen(eq(userId), any(Instant.class));
+        verify(userRepository, times(1)).recordSeenBatch("{" + userId + "}", "{" + START + "}");
+    }
+
+    @Test
+    void aTouchWritesNothingOnTheRequestThread() {
+        tracker.touch(UUID.randomUUID());
+
+        verifyNoInteractions(userRepository);
+        assertEquals(1, meterRegistry.get(UserActivityTracker.BUFFER_SIZE_METRIC).gauge().value());
+    }
+
+    @Test
+    void oneFlushWritesEveryBufferedUserInOneStatement() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        tracker.touch(first);
+        advance(Duration.ofSeconds(3));
+        tracker.touch(second);
+
+        tracker.flush();
+        tracker.flush();
+
+        ArgumentCaptor<String> ids = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> ats = ArgumentCaptor.forClass(String.class);
+        verify(userRepository, times(1)).recordSeenBatch(ids.capture(), ats.capture());
+        assertEquals(Set.of(first.toString(), second.toString()), elements(ids.getValue()));
+        assertEquals(Set.of(START.toString(), START.plusSeconds(3).toString()), elements(ats.getValue()));
+        assertEquals(0, meterRegistry.get(UserActivityTracker.BUFFER_SIZE_METRIC).gauge().value());
+        assertEquals(1, meterRegistry.get(UserActivityTracker.FLUSH_METRIC).timer().count());
+    }
+
+    @Test
+    void aFailedFlushKeepsTheSightingsForTheNextOne() {
+        UUID userId = UUID.randomUUID();
+        tracker.touch(userId);
+        doThrow(new RuntimeException("db down"))
+                .doReturn(1)
+                .when(userRepository).recordSeenBatch(any(), any());
+
+        assertDoesNotThrow(tracker::flush);
+        tracker.flush();
+
+        verify(userRepository, times(2)).recordSeenBatch("{" + userId + "}", "{" + START + "}");
+        assertEquals(0, meterRegistry.get(UserActivityTracker.DROPPED_METRIC).counter().count());
+    }
+
+    // A first sighting the full buffer refuses still counts as active, and is queued by
+    // the user's next request once a flush has made room.
+    @Test
+    void aUserTheFullBufferRefusesStillCountsAndRetries() {
+        for (int i = 0; i < 50_000; i++) {
+            tracker.touch(UUID.randomUUID());
+        }
+        UUID late = UUID.randomUUID();
+
+        tracker.touch(late);
+
+        assertEquals(50_001, activeUsersGauge());
+        assertEquals(1, meterRegistry.get(UserActivityTracker.DROPPED_METRIC).counter().count());
+
+        tracker.flush();
+        advance(Duration.ofSeconds(1));
+        tracker.touch(late);
+        tracker.flush();
+
+        verify(userRepository).recordSeenBatch("{" + late + "}", "{" + START.plusSeconds(1) + "}");
     }
 
     @Test
@@ -106,13 +178,16 @@ class UserActivityTrackerTest {
     void lastSeenIsWrittenAgainOnlyOnceTheWindowHasElapsed() {
         UUID userId = UUID.randomUUID();
 
-        tracker.touch(userId);                       // writes (first sighting)
+        tracker.touch(userId);                       // queues (first sighting)
+        tracker.flush();
         advance(Duration.ofMinutes(4));
         tracker.touch(userId);                       // 4 min since write — throttled
+        tracker.flush();
         advance(Duration.ofMinutes(4));
-        tracker.touch(userId);                       // 8 min since write — writes again
+        tracker.touch(userId);                       // 8 min since write — queues again
+        tracker.flush();
 
-        verify(userRepository, times(2)).recordSeen(eq(userId), any(Instant.class));
+        verify(userRepository, times(2)).recordSeenBatch(eq("{" + userId + "}"), any());
     }
 
     @Test
@@ -129,10 +204,15 @@ class UserActivityTrackerTest {
     @Test
     void aFailingDatabaseWriteIsSwallowed() {
         UUID userId = UUID.randomUUID();
-        doThrow(new RuntimeException("db down")).when(userRepository).recordSeen(any(), any());
+        doThrow(new RuntimeException("db down")).when(userRepository).recordSeenBatch(any(), any());
         doThrow(new RuntimeException("db down")).when(userRepository).recordLogin(any(), any());
 
         assertDoesNotThrow(() -> tracker.touch(userId));
+        assertDoesNotThrow(tracker::flush);
         assertDoesNotThrow(() -> tracker.recordLogin(userId));
     }
+
+    private static Set<String> elements(String arrayLiteral) {
+        return Set.of(arrayLiteral.substring(1, arrayLiteral.length() - 1).split(","));
+    }
 }
@@ -31,6 +31,8 @@ import beyou.beyouapp.backend.domain.common.XpCalculatorService;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.routine.checks.CheckItemService;
 import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheckRepository;
+import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheckRepository;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
 import beyou.beyouapp.backend.domain.routine.itemGroup.ItemGroupService;
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
@@ -62,13 +64,16 @@ class CheckItemServiceClockZoneUnitTest {
     @Mock private RefreshUiDtoBuilder refreshUiDtoBuilder;
     @Mock private CheckDayRecorder checkDayRecorder;
     @Mock private EntityCheckDayRepository entityCheckDayRepository;
+    @Mock private HabitGroupCheckRepository habitGroupCheckRepository;
+    @Mock private TaskGroupCheckRepository taskGroupCheckRepository;
 
     private CheckItemService checkItemService;
 
     @BeforeEach
     void setUp() {
         checkItemService = new CheckItemService(itemGroupService, xpCalculatorService, userService,
-                refreshUiDtoBuilder, checkDayRecorder, entityCheckDayRepository);
+                refreshUiDtoBuilder, checkDayRecorder, entityCheckDayRepository,
+                habitGroupCheckRepository, taskGroupCheckRepository);
         lenient().when(refreshUiDtoBuilder.buildRefreshUiDto(any(), any(), any(), any(), any()))
                 .thenReturn(new RefreshUiDTO(null, null, null, null));
     }
@@ -37,7 +37,9 @@ import beyou.beyouapp.backend.domain.common.XpCalculatorService;
 import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.routine.checks.CheckItemService;
 import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheckRepository;
 import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheckRepository;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
 import beyou.beyouapp.backend.domain.routine.itemGroup.ItemGroupService;
 import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
@@ -76,6 +78,12 @@ class CheckItemServiceSkipUnitTest {
     @Mock
     private EntityCheckDayRepository entityCheckDayRepository;
 
+    @Mock
+    private HabitGroupCheckRepository habitGroupCheckRepository;
+
+    @Mock
+    private TaskGroupCheckRepository taskGroupCheckRepository;
+
     private CheckItemService checkItemService;
 
     @BeforeEach
@@ -86,7 +94,9 @@ class CheckItemServiceSkipUnitTest {
                 userService,
                 refreshUiDtoBuilder,
                 checkDayRecorder,
-                entityCheckDayRepository
+                entityCheckDayRepository,
+                habitGroupCheckRepository,
+                taskGroupCheckRepository
         );
         // Lenient: the date-bound tests throw before anything is built.
         lenient().when(refreshUiDtoBuilder.buildRefreshUiDto(any(), any(), any(), any(), any()))
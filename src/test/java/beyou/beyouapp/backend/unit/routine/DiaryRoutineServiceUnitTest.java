@@ -41,6 +41,8 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
@@ -49,6 +51,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -485,8 +488,8 @@ class DiaryRoutineServiceUnitTest {
         diaryRoutine.setSchedule(schedule);
         diaryRoutine.setUser(user);
 
-        when(diaryRoutineRepository.findAllByUserId(userId))
-                .thenReturn(List.of(diaryRoutine));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        givenRoutinesOf(userId, diaryRoutine);
 
         // Act
         DiaryRoutineResponseDTO result = diaryRoutineService.getTodayRoutineScheduled(userId);
@@ -510,8 +513,11 @@ class DiaryRoutineServiceUnitTest {
         schedule.setDays(Set.of(notToday));
         otherRoutine.setSchedule(schedule);
 
-        when(diaryRoutineRepository.findAllByUserId(userId))
-                .thenReturn(List.of(otherRoutine));
+        User user = new User();
+        user.setId(userId);
+        user.setTimezone(ZoneId.systemDefault().getId());
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        givenRoutinesOf(userId, otherRoutine);
 
         // Act & Assert
         DiaryRoutineResponseDTO result = diaryRoutineService.getTodayRoutineScheduled(userId);
@@ -539,7 +545,8 @@ class DiaryRoutineServiceUnitTest {
         diaryRoutine.setSchedule(schedule);
         diaryRoutine.setUser(user);
 
-        when(diaryRoutineRepository.findAllByUserId(userId)).thenReturn(List.of(diaryRoutine));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        givenRoutinesOf(userId, diaryRoutine);
 
         DiaryRoutineResponseDTO result = diaryRoutineService.getTodayRoutineScheduled(userId);
 
@@ -547,6 +554,46 @@ class DiaryRoutineServiceUnitTest {
         assertEquals("Owner Local Routine", result.name());
     }
 
+    @Test
+    void shouldPickTheSameRoutineEveryTime_whenTwoCoverToday() {
+        User user = new User();
+        UUID userId = UUID.randomUUID();
+        user.setId(userId);
+        user.setTimezone(ZoneId.systemDefault().getId());
+        WeekDay today = WeekDay.of(LocalDate.now());
+
+        DiaryRoutine first = new DiaryRoutine();
+        first.setId(new UUID(0, 1));
+        first.setName("First");
+        first.setRoutineSections(new ArrayList<>());
+        first.setSchedule(new Schedule(null, Set.of(today)));
+        DiaryRoutine second = new DiaryRoutine();
+        second.setId(new UUID(0, 2));
+        second.setName("Second");
+        second.setRoutineSections(new ArrayList<>());
+        second.setSchedule(new Schedule(null, Set.of(today)));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        givenRoutinesOf(userId, second, first);
+        assertEquals("Second", diaryRoutineService.getTodayRoutineScheduled(userId).name());
+
+        givenRoutinesOf(userId, first, second);
+        assertEquals("Second", diaryRoutineService.getTodayRoutineScheduled(userId).name());
+    }
+
+    /** Stubs the weekday read with its query's days_mask filter and id order applied to {@code routines}. */
+    private void givenRoutinesOf(UUID owner, DiaryRoutine... routines) {
+        when(diaryRoutineRepository.findAllByUserIdScheduledOn(eq(owner), anyInt()))
+                .thenAnswer(invocation -> {
+                    int dayBit = invocation.getArgument(1);
+                    return Arrays.stream(routines)
+                            .filter(each -> each.getSchedule() != null
+                                    && (each.getSchedule().getDaysMask() & dayBit) != 0)
+                            .sorted(Comparator.comparing(DiaryRoutine::getId))
+                            .toList();
+                });
+    }
+
     /**
      * UTC+14 and UTC-12 sit 26 hours apart, so their local dates never coincide — at any
      * instant at least one of them is on a different calendar day (and weekday) than the server.
@@ -0,0 +1,135 @@
+package beyou.beyouapp.backend.unit.routine;
+
+import beyou.beyouapp.backend.domain.routine.snapshot.SnapshotUserFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotUserFanOutTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static List<UUID> userIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.randomUUID()).toList();
+    }
+
+    private double usersCounted(String outcome) {
+        return meterRegistry.get(SnapshotUserFanOut.USERS_METRIC)
+                .tag("pass", "day-close")
+                .tag("timezone", "America/Sao_Paulo")
+                .tag("outcome", outcome)
+                .counter().count();
+    }
+
+    @Test
+    void neverRunsMoreUsersAtOnceThanTheCap() {
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        fanOut.run("snapshot", "UTC", userIds(40), userId -> {
+            int now = inFlight.incrementAndGet();
+            peak.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return true;
+        });
+
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void actuallyRunsUsersInParallelUpToTheCap() throws InterruptedException {
+        // Every unit waits for all four to have started. Run serially, the first one
+        // would wait out the timeout; in parallel they release each other at once.
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 4);
+        CountDownLatch allStarted = new CountDownLatch(4);
+
+        SnapshotUserFanOut.Outcome outcome = fanOut.run("snapshot", "UTC", userIds(4), userId -> {
+            allStarted.countDown();
+            try {
+                return allStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        assertThat(outcome.changed()).isEqualTo(4);
+    }
+
+    @Test
+    void oneFailingUserIsCountedAndDoesNotStopTheRest() {
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 2);
+        List<UUID> crowd = userIds(5);
+        UUID doomed = crowd.get(2);
+        Set<UUID> done = ConcurrentHashMap.newKeySet();
+
+        SnapshotUserFanOut.Outcome outcome = fanOut.run("day-close", "America/Sao_Paulo", crowd, userId -> {
+            if (userId.equals(doomed)) {
+                throw new IllegalStateException("constraint violation");
+            }
+            done.add(userId);
+            return !userId.equals(crowd.get(0));
+        });
+
+        assertThat(done).hasSize(4);
+        assertThat(outcome).isEqualTo(new SnapshotUserFanOut.Outcome(5, 1, 3));
+        assertThat(usersCounted("success")).isEqualTo(4);
+        assertThat(usersCounted("failure")).isEqualTo(1);
+    }
+
+    @Test
+    void returnsOnlyOnceEveryUserHasFinished() {
+        // The scheduler clears the shared cache and signals the heartbeat right after this
+        // returns; both must see the whole batch, not part of it.
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 8);
+        AtomicInteger finished = new AtomicInteger();
+
+        fanOut.run("snapshot", "UTC", userIds(20), userId -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.incrementAndGet();
+            return false;
+        });
+
+        assertThat(finished.get()).isEqualTo(20);
+    }
+
+    @Test
+    void recordsThePassDurationPerTimezone() {
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 2);
+
+        fanOut.run("snapshot", "Europe/Lisbon", userIds(3), userId -> true);
+
+        assertThat(meterRegistry.get(SnapshotUserFanOut.DURATION_METRIC)
+                .tag("pass", "snapshot")
+                .tag("timezone", "Europe/Lisbon")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void aCapBelowOneStillMakesProgress() {
+        SnapshotUserFanOut fanOut = new SnapshotUserFanOut(meterRegistry, 0);
+
+        assertThat(fanOut.maxConcurrency()).isEqualTo(1);
+        assertThat(fanOut.run("snapshot", "UTC", userIds(2), userId -> true).changed()).isEqualTo(2);
+    }
+}
@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -23,6 +24,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -48,7 +51,9 @@ import beyou.beyouapp.backend.domain.habit.Habit;
 import beyou.beyouapp.backend.domain.routine.Routine;
 import beyou.beyouapp.backend.domain.routine.checks.CheckItemService;
 import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.HabitGroupCheckRepository;
 import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheck;
+import beyou.beyouapp.backend.domain.routine.checks.TaskGroupCheckRepository;
 import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
 import beyou.beyouapp.backend.domain.routine.itemGroup.ItemGroupService;
 import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
@@ -62,6 +67,7 @@ import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.itemGroup.S
 import beyou.beyouapp.backend.domain.routine.specializedRoutines.dto.itemGroup.TaskGroupRequestDTO;
 import beyou.beyouapp.backend.domain.task.Task;
 import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
 import beyou.beyouapp.backend.user.UserService;
 import beyou.beyouapp.backend.user.enums.ConstanceConfiguration;
 
@@ -92,6 +98,12 @@ class CheckItemServiceUnitTest {
     @Mock
     EntityCheckDayRepository entityCheckDayRepository;
 
+    @Mock
+    HabitGroupCheckRepository habitGroupCheckRepository;
+
+    @Mock
+    TaskGroupCheckRepository taskGroupCheckRepository;
+
     @InjectMocks
     private CheckItemService checkItemService;
 
@@ -194,6 +206,42 @@ class CheckItemServiceUnitTest {
                     date, CheckDayOutcome.NOT_SCHEDULED);
         }
 
+        @Test
+        void anUnloadedCheckHistoryIsAskedForTheDayAndNeverLoaded() {
+            // In production the entry's check collection is a lazy Hibernate bag. Reading it
+            // would load every live check the entry has; the click must ask for its one day
+            // by id instead and leave the bag as it found it.
+            LocalDate date = LocalDate.now();
+            Category category = createCategory(40);
+            Habit habit = createHabit(1, 1, 40, 2, List.of(category));
+            HabitGroup habitGroup = createHabitGroup(habit);
+            PersistentBag<HabitGroupCheck> history = new PersistentBag<>();
+            habitGroup.setHabitGroupChecks(history);
+            HabitGroupCheck todays = new HabitGroupCheck();
+            todays.setHabitGroup(habitGroup);
+            todays.setCheckDate(date);
+            todays.setChecked(true);
+            todays.setXpGenerated(40);
+            when(habitGroupCheckRepository.findByHabitGroupIdInAndCheckDate(List.of(habitGroup.getId()), date))
+                    .thenReturn(List.of(todays));
+
+            DiaryRoutine routine = (DiaryRoutine) habitGroup.getRoutineSection().getRoutine();
+            when(itemGroupService.findHabitGroupByDTO(routine.getId(), habitGroup.getId())).thenReturn(habitGroup);
+
+            RefreshUiDTO refreshUiDTO = checkItemService.checkOrUncheckItemGroup(
+                    new CheckGroupRequestDTO(
+                            routine.getId(),
+                            null,
+                            new HabitGroupRequestDTO(habitGroup.getId(), habitGroup.getStartTime()),
+                            date));
+
+            assertSame(todays, refreshUiDTO.refreshItemChecked().check());
+            assertFalse(todays.isChecked(), "the day's check was found and unchecked in place");
+            assertFalse(Hibernate.isInitialized(history), "the entry's history was never loaded");
+            verify(xpCalculatorService).removeXpOfUserRoutineHabitAndCategoriesAndPersist(
+                    user, 40.0, routine, habit, habit.getCategories());
+        }
+
         @Test
         void shouldCheckTaskGroupAndAddXpAndMarkToDelete() {
             LocalDate today = LocalDate.now();
@@ -465,7 +513,7 @@ class CheckItemServiceUnitTest {
             // for what CheckDayRecorder writes onto the habit.
             when(refreshUiDtoBuilder.buildRefreshUiDto(any(), any(), any(), any(), any()))
                     .thenAnswer(invocation -> new RefreshUiDtoBuilder(
-                            new UserStreakService(entityCheckDayRepository)).buildRefreshUiDto(
+                            new UserStreakService(entityCheckDayRepository, mock(UserRepository.class))).buildRefreshUiDto(
                             invocation.getArgument(0), invocation.getArgument(1),
                             invocation.getArgument(2), invocation.getArgument(3),
                             invocation.getArgument(4)));
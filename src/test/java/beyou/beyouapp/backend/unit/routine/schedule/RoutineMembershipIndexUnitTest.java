@@ -0,0 +1,176 @@
+package beyou.beyouapp.backend.unit.routine.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.habit.Habit;
+import beyou.beyouapp.backend.domain.routine.itemGroup.HabitGroup;
+import beyou.beyouapp.backend.domain.routine.itemGroup.TaskGroup;
+import beyou.beyouapp.backend.domain.routine.schedule.RoutineMembershipIndex;
+import beyou.beyouapp.backend.domain.routine.schedule.Schedule;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver;
+import beyou.beyouapp.backend.domain.routine.schedule.ScheduledOnDayResolver.Standing;
+import beyou.beyouapp.backend.domain.routine.schedule.WeekDay;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.DiaryRoutine;
+import beyou.beyouapp.backend.domain.routine.specializedRoutines.RoutineSection;
+import beyou.beyouapp.backend.domain.task.Task;
+
+/**
+ * The index against the per-owner walk it replaced. The walk is rewritten here as the
+ * reference, straight from its old definition: an owner is in a routine when any section
+ * holds it, and scheduled when any routine holding it covers the day.
+ */
+class RoutineMembershipIndexUnitTest {
+
+    // 2026-08-10 is a Monday.
+    private static final LocalDate MONDAY = LocalDate.of(2026, 8, 10);
+
+    @Test
+    void weekdayBitsLineUpWithTheCalendar() {
+        for (int offset = 0; offset < 7; offset++) {
+            LocalDate date = MONDAY.plusDays(offset);
+            int mask = WeekDay.maskOf(Set.of(ScheduledOnDayResolver.weekDayOf(date)));
+
+            assertEquals(WeekDay.bitOf(date), mask);
+            assertEquals(date.getDayOfWeek().name(), WeekDay.of(date).name().toUpperCase());
+        }
+        assertEquals(0, WeekDay.maskOf(null));
+        assertEquals(0b111_1111, WeekDay.maskOf(EnumSet.allOf(WeekDay.class)));
+    }
+
+    @Test
+    void coversOnlyIndexedRoutinesOnTheirOwnDays() {
+        DiaryRoutine weekends = routine(Set.of(WeekDay.Saturday, WeekDay.Sunday));
+        RoutineMembershipIndex index = RoutineMembershipIndex.of(List.of(weekends));
+
+        assertTrue(index.coversDay(weekends.getId(), MONDAY.plusDays(5)));
+        assertFalse(index.coversDay(weekends.getId(), MONDAY));
+        assertFalse(index.coversDay(UUID.randomUUID(), MONDAY.plusDays(5)));
+        assertFalse(index.coversDay(null, MONDAY.plusDays(5)));
+    }
+
+    @Test
+    void answersWhatTheWalkAnsweredForEveryOwnerAndDay() {
+        Random random = new Random(7);
+        List<UUID> habits = ids(40);
+        List<UUID> tasks = ids(20);
+
+        for (int round = 0; round < 50; round++) {
+            List<DiaryRoutine> routines = new ArrayList<>();
+            int routineCount = random.nextInt(5);
+            for (int r = 0; r < routineCount; r++) {
+                DiaryRoutine routine = routine(randomDays(random));
+                for (int s = 0; s < 1 + random.nextInt(4); s++) {
+                    routine.getRoutineSections().add(section(
+                            pick(random, habits, random.nextInt(6)), pick(random, tasks, random.nextInt(4))));
+                }
+                routines.add(routine);
+            }
+            RoutineMembershipIndex index = RoutineMembershipIndex.of(routines);
+
+            for (int offset = 0; offset < 7; offset++) {
+                LocalDate date = MONDAY.plusDays(offset);
+                for (UUID habit : habits) {
+                    assertEquals(walk(routines, habit, date, true),
+                            index.standingOf(CheckDayOwnerType.HABIT, habit, date));
+                }
+                for (UUID task : tasks) {
+                    assertEquals(walk(routines, task, date, false),
+                            index.standingOf(CheckDayOwnerType.TASK, task, date));
+                }
+                for (DiaryRoutine routine : routines) {
+                    assertEquals(new Standing(true, ScheduledOnDayResolver.coversDay(routine, date)),
+                            index.standingOf(CheckDayOwnerType.ROUTINE, routine.getId(), date));
+                }
+                Standing user = routines.isEmpty() ? Standing.ORPHANED
+                        : new Standing(true, routines.stream().anyMatch(r -> ScheduledOnDayResolver.coversDay(r, date)));
+                assertEquals(user, index.standingOf(CheckDayOwnerType.USER, UUID.randomUUID(), date));
+            }
+        }
+    }
+
+    /** The resolver's old per-owner walk. */
+    private static Standing walk(List<DiaryRoutine> routines, UUID itemId, LocalDate date, boolean habitSide) {
+        boolean found = false;
+        boolean scheduled = false;
+        for (DiaryRoutine routine : routines) {
+            boolean inThisRoutine = routine.getRoutineSections().stream().anyMatch(section -> habitSide
+                    ? section.getHabitGroups().stream().anyMatch(g -> itemId.equals(g.getHabit().getId()))
+                    : section.getTaskGroups().stream().anyMatch(g -> itemId.equals(g.getTask().getId())));
+            if (inThisRoutine) {
+                found = true;
+                scheduled |= ScheduledOnDayResolver.coversDay(routine, date);
+            }
+        }
+        return found ? new Standing(true, scheduled) : Standing.ORPHANED;
+    }
+
+    private static DiaryRoutine routine(Set<WeekDay> days) {
+        Schedule schedule = new Schedule();
+        schedule.setDays(days);
+        DiaryRoutine routine = new DiaryRoutine();
+        routine.setId(UUID.randomUUID());
+        routine.setSchedule(schedule);
+        routine.setRoutineSections(new ArrayList<>());
+        return routine;
+    }
+
+    private static RoutineSection section(List<UUID> habitIds, List<UUID> taskIds) {
+        RoutineSection section = new RoutineSection();
+        section.setHabitGroups(new ArrayList<>());
+        section.setTaskGroups(new ArrayList<>());
+        for (UUID id : habitIds) {
+            Habit habit = new Habit();
+            habit.setId(id);
+            HabitGroup group = new HabitGroup();
+            group.setHabit(habit);
+            section.getHabitGroups().add(group);
+        }
+        for (UUID id : taskIds) {
+            Task task = new Task();
+            task.setId(id);
+            TaskGroup group = new TaskGroup();
+            group.setTask(task);
+            section.getTaskGroups().add(group);
+        }
+        return section;
+    }
+
+    private static Set<WeekDay> randomDays(Random random) {
+        Set<WeekDay> days = EnumSet.noneOf(WeekDay.class);
+        for (WeekDay day : WeekDay.values()) {
+            if (random.nextInt(3) == 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static List<UUID> pick(Random random, List<UUID> from, int count) {
+        List<UUID> picked = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            picked.add(from.get(random.nextInt(from.size())));
+        }
+        return picked;
+    }
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+}
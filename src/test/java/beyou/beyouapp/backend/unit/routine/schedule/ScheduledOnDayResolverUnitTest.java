@@ -2,10 +2,12 @@ package beyou.beyouapp.backend.unit.routine.schedule;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -115,6 +117,21 @@ class ScheduledOnDayResolverUnitTest {
         void coversNothingForANullRoutine() {
             assertFalse(ScheduledOnDayResolver.coversDay(null, MONDAY));
         }
+
+        // Coverage is read off days_mask. Nothing would re-sync it after an in-place edit of
+        // the days (Hibernate does not see the entity as dirty), so there must be no such edit.
+        @Test
+        void theDaysOnlyMoveThroughTheSetterAndTheMaskMovesWithThem() {
+            Set<WeekDay> days = new HashSet<>(Set.of(WeekDay.Monday));
+            Schedule schedule = new Schedule();
+            schedule.setDays(days);
+            days.add(WeekDay.Tuesday);
+
+            assertThrows(UnsupportedOperationException.class, () -> schedule.getDays().add(WeekDay.Tuesday));
+            assertEquals(Set.of(WeekDay.Monday), schedule.getDays());
+            assertEquals(WeekDay.maskOf(schedule.getDays()), schedule.getDaysMask());
+            assertFalse(ScheduledOnDayResolver.coversDay(routine(schedule), TUESDAY));
+        }
     }
 
     @Nested
@@ -0,0 +1,118 @@
+package beyou.beyouapp.backend.unit.security;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
+import beyou.beyouapp.backend.user.User;
+import beyou.beyouapp.backend.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Expiry is driven through the injected ticker, so the TTL boundary is asserted exactly
+ * rather than with sleeps — same approach as {@code UserActivityTrackerTest}.
+ */
+class AuthenticatedPrincipalCacheTest {
+
+    private static final String EMAIL = "principal@beyou.test";
+    private static final Duration TTL = Duration.ofSeconds(60);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private final Ticker ticker = elapsedNanos::get;
+
+    private final AuthenticatedPrincipalCache cache =
+            new AuthenticatedPrincipalCache(userRepository, meterRegistry, TTL, 100, ticker);
+
+    private User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(EMAIL);
+        return user;
+    }
+
+    private void advance(Duration d) {
+        elapsedNanos.addAndGet(d.toNanos());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AuthenticatedPrincipalCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void repeatedRequestsInsideTheTtlReadTheDatabaseOnce() {
+        User user = user();
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+
+        Optional<User> first = cache.resolve(EMAIL);
+        Optional<User> second = cache.resolve(EMAIL);
+
+        assertSame(user, first.orElseThrow());
+        assertSame(user, second.orElseThrow());
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+    }
+
+    @Test
+    void aPrincipalOlderThanTheTtlIsReloaded() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+
+        cache.resolve(EMAIL);
+        advance(TTL);
+        cache.resolve(EMAIL);
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void anUnknownEmailIsNeverCached() {
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty(), Optional.of(user()));
+
+        assertTrue(cache.resolve(EMAIL).isEmpty());
+        // The account was created in between; the earlier miss must not hide it.
+        assertTrue(cache.resolve(EMAIL).isPresent());
+    }
+
+    @Test
+    void evictForcesTheNextRequestBackToTheDatabase() {
+        User before = user();
+        User after = user();
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(before), Optional.of(after));
+
+        cache.resolve(EMAIL);
+        cache.evict(EMAIL);
+
+        assertSame(after, cache.resolve(EMAIL).orElseThrow());
+    }
+
+    @Test
+    void aZeroTtlTurnsTheCacheOff() {
+        AuthenticatedPrincipalCache disabled =
+                new AuthenticatedPrincipalCache(userRepository, new SimpleMeterRegistry(), Duration.ZERO, 100, ticker);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+
+        disabled.resolve(EMAIL);
+        disabled.resolve(EMAIL);
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+}
@@ -0,0 +1,59 @@
+package beyou.beyouapp.backend.unit.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenHasher;
+
+class RefreshTokenHasherTest {
+
+    private static final String SECRET = "test-secret-that-is-at-least-32-characters-long";
+    private static final String RAW = "q7Zk3v2N8pXw1sYb4mRt6uLc9aEo0dFh5gJi2kPl3nQ";
+
+    // Cost 4 keeps the legacy cases fast; the scheme check does not depend on the cost.
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final RefreshTokenHasher hasher = new RefreshTokenHasher(SECRET, bcrypt);
+
+    @Test
+    void hashIsTaggedWithItsSchemeAndFitsTheColumn() {
+        String hash = hasher.hash(RAW);
+
+        assertTrue(hash.startsWith("{hmac-sha256}"));
+        assertFalse(hasher.isLegacy(hash));
+        assertTrue(hash.length() <= 255);
+        assertEquals(hash, hasher.hash(RAW));
+    }
+
+    @Test
+    void matchesOnlyTheTokenItWasMadeFrom() {
+        String hash = hasher.hash(RAW);
+
+        assertTrue(hasher.matches(RAW, hash));
+        assertFalse(hasher.matches(RAW + "x", hash));
+        assertFalse(hasher.matches(RAW.substring(1), hash));
+        assertFalse(hasher.matches(null, hash));
+        assertFalse(hasher.matches(RAW, null));
+    }
+
+    @Test
+    void aDifferentSecretMakesADifferentHash() {
+        RefreshTokenHasher other = new RefreshTokenHasher(SECRET + "-rotated", bcrypt);
+
+        assertNotEquals(hasher.hash(RAW), other.hash(RAW));
+        assertFalse(other.matches(RAW, hasher.hash(RAW)));
+    }
+
+    @Test
+    void stillVerifiesTheBcryptRowsWrittenBeforeTheScheme() {
+        String legacy = bcrypt.encode(RAW);
+
+        assertTrue(hasher.isLegacy(legacy));
+        assertTrue(hasher.matches(RAW, legacy));
+        assertFalse(hasher.matches(RAW + "x", legacy));
+    }
+}
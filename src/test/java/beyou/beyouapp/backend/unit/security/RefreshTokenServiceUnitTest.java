@@ -21,7 +21,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import beyou.beyouapp.backend.exceptions.security.RefreshTokenDontMatchRaw;
 import beyou.beyouapp.backend.exceptions.security.RefreshTokenExpiredException;
@@ -30,6 +29,7 @@ import org.springframework.http.ResponseCookie;
 import beyou.beyouapp.backend.monitoring.UserActivityTracker;
 import beyou.beyouapp.backend.security.TokenService;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshToken;
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenHasher;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenRepository;
 import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenService;
 import beyou.beyouapp.backend.user.User;
@@ -44,7 +44,7 @@ public class RefreshTokenServiceUnitTest {
     private RefreshTokenRepository repository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private RefreshTokenHasher hasher;
 
     @Mock
     private TokenService tokenService;
@@ -86,7 +86,7 @@ public class RefreshTokenServiceUnitTest {
             user.setId(userId);
             String encodedToken = "encodedToken";
 
-            when(passwordEncoder.encode(anyString())).thenReturn(encodedToken);
+            when(hasher.hash(anyString())).thenReturn(encodedToken);
             // When
             String result = refreshTokenService.createRefreshToken(user);
 
@@ -104,7 +104,7 @@ public class RefreshTokenServiceUnitTest {
 
             when(request.getCookies()).thenReturn(new Cookie[] { new Cookie("refreshToken", cookieValue) });
             when(repository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
-            when(passwordEncoder.matches(rawToken, refreshToken.getTokenHash())).thenReturn(true);
+            when(hasher.matches(rawToken, refreshToken.getTokenHash())).thenReturn(true);
 
             // Then
             assertDoesNotThrow(() -> refreshTokenService.refreshAccessToken(request, response));
@@ -112,7 +112,7 @@ public class RefreshTokenServiceUnitTest {
             assertThrows(RefreshTokenExpiredException.class,
                     () -> refreshTokenService.refreshAccessToken(request, response));
             verify(repository, times(2)).findById(tokenId);
-            verify(passwordEncoder, times(2)).matches(rawToken, refreshToken.getTokenHash());
+            verify(hasher, times(2)).matches(rawToken, refreshToken.getTokenHash());
         }
 
         @Test
@@ -136,7 +136,7 @@ public class RefreshTokenServiceUnitTest {
 
             when(request.getCookies()).thenReturn(new Cookie[] { new Cookie("refreshToken", cookieValue) });
             when(repository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
-            when(passwordEncoder.matches("rawToken", refreshToken.getTokenHash())).thenReturn(true);
+            when(hasher.matches("rawToken", refreshToken.getTokenHash())).thenReturn(true);
             when(tokenService.buildRefreshCookie("", Duration.ZERO)).thenReturn(clearCookie);
 
             // When
@@ -186,7 +186,7 @@ public class RefreshTokenServiceUnitTest {
 
             when(request.getCookies()).thenReturn(new Cookie[] { new Cookie("refreshToken", cookieValue) });
             when(repository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
-            when(passwordEncoder.matches(rawToken, refreshToken.getTokenHash())).thenReturn(false);
+            when(hasher.matches(rawToken, refreshToken.getTokenHash())).thenReturn(false);
 
             // Then
             assertThrows(RefreshTokenDontMatchRaw.class,
@@ -202,7 +202,7 @@ public class RefreshTokenServiceUnitTest {
 
             when(request.getCookies()).thenReturn(new Cookie[] { new Cookie("refreshToken", cookieValue) });
             when(repository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
-            when(passwordEncoder.matches(rawToken, refreshToken.getTokenHash())).thenReturn(true);
+            when(hasher.matches(rawToken, refreshToken.getTokenHash())).thenReturn(true);
 
             // Then
             assertThrows(RefreshTokenExpiredException.class,
@@ -1,10 +1,10 @@
 package beyou.beyouapp.backend.unit.security;
 
 import beyou.beyouapp.backend.monitoring.UserActivityTracker;
+import beyou.beyouapp.backend.security.AuthenticatedPrincipalCache;
 import beyou.beyouapp.backend.security.SecurityFilter;
 import beyou.beyouapp.backend.security.TokenService;
 import beyou.beyouapp.backend.user.User;
-import beyou.beyouapp.backend.user.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,7 +34,7 @@ public class SecurityFilterUnitTest {
     private HttpServletResponse response;
 
     @Mock
-    private UserRepository userRepository;
+    private AuthenticatedPrincipalCache principalCache;
 
     @Mock
     private FilterChain filterChain;
@@ -53,7 +53,7 @@ public class SecurityFilterUnitTest {
         when(request.getRequestURI()).thenReturn("/");
         when(request.getHeader("authorization")).thenReturn("Bearer valid");
         when(tokenService.validateToken("valid")).thenReturn(ResponseEntity.ok("user@gmail.com"));
-        when(userRepository.findByEmail("user@gmail.com")).thenReturn(Optional.of(new User()));
+        when(principalCache.resolve("user@gmail.com")).thenReturn(Optional.of(new User()));
 
         securityFilter.doFilterInternal(request, response, filterChain);
 
@@ -99,7 +99,7 @@ public class SecurityFilterUnitTest {
 
         when(tokenService.validateToken(anyString())).thenReturn(ResponseEntity.ok("user@example.com"));
 
-        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.empty());
+        when(principalCache.resolve("user@example.com")).thenReturn(Optional.empty());
 
         securityFilter.doFilterInternal(request, response, filterChain);
 
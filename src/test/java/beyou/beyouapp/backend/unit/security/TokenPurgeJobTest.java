@@ -0,0 +1,103 @@
+package beyou.beyouapp.backend.unit.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import beyou.beyouapp.backend.security.TokenPurgeJob;
+import beyou.beyouapp.backend.security.RefreshToken.RefreshTokenRepository;
+import beyou.beyouapp.backend.security.passwordreset.PasswordResetTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TokenPurgeJobTest {
+
+    private static final int BATCH = 100;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TokenPurgeJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new TokenPurgeJob(refreshTokenRepository, passwordResetTokenRepository, meterRegistry, BATCH, 3, 24);
+    }
+
+    @Test
+    void deletesBatchesUntilOneComesBackShortAndCountsThem() {
+        when(refreshTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(BATCH, BATCH, 40);
+        when(passwordResetTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(7);
+
+        job.purge();
+
+        verify(refreshTokenRepository, times(3)).deleteDeadBatch(any(), eq(BATCH));
+        verify(passwordResetTokenRepository, times(1)).deleteDeadBatch(any(), eq(BATCH));
+        assertEquals(240, purged("refresh_tokens"));
+        assertEquals(7, purged("password_reset_tokens"));
+        assertEquals(1, meterRegistry.get(TokenPurgeJob.DURATION_METRIC).timer().count());
+    }
+
+    @Test
+    void stopsAtMaxBatchesAndLeavesTheRestForTheNextRun() {
+        when(refreshTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(BATCH);
+        when(passwordResetTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(0);
+
+        job.purge();
+
+        verify(refreshTokenRepository, times(3)).deleteDeadBatch(any(), eq(BATCH));
+        assertEquals(300, purged("refresh_tokens"));
+    }
+
+    @Test
+    void onlyTokensDeadLongerThanTheGraceQualify() {
+        when(refreshTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(0);
+        when(passwordResetTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(0);
+        Instant before = Instant.now();
+
+        job.purge();
+
+        ArgumentCaptor<Timestamp> cutoff = ArgumentCaptor.forClass(Timestamp.class);
+        verify(refreshTokenRepository).deleteDeadBatch(cutoff.capture(), eq(BATCH));
+        Duration age = Duration.between(cutoff.getValue().toInstant(), before);
+        assertTrue(age.compareTo(Duration.ofHours(24).minusMinutes(1)) > 0, "cutoff " + age + " before now");
+        assertTrue(age.compareTo(Duration.ofHours(24)) <= 0, "cutoff " + age + " before now");
+    }
+
+    @Test
+    void aFailingTableDoesNotStopTheOther() {
+        when(refreshTokenRepository.deleteDeadBatch(any(), eq(BATCH)))
+                .thenReturn(BATCH)
+                .thenThrow(new IllegalStateException("lock timeout"));
+        when(passwordResetTokenRepository.deleteDeadBatch(any(), eq(BATCH))).thenReturn(3);
+
+        job.purge();
+
+        assertEquals(BATCH, purged("refresh_tokens"));
+        assertEquals(3, purged("password_reset_tokens"));
+    }
+
+    private double purged(String table) {
+        return meterRegistry.get(TokenPurgeJob.PURGED_METRIC).tag("table", table).counter().count();
+    }
+}
@@ -7,6 +7,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.UUID;
 
@@ -19,19 +20,24 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import beyou.beyouapp.backend.domain.common.ImageProcessor;
 import beyou.beyouapp.backend.user.PhotoStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class PhotoStorageServiceTest {
 
     static Path testUploadDir;
 
     private PhotoStorageService service;
+    private SimpleMeterRegistry meters;
     private UUID userId;
 
     @BeforeEach
     void setUp() throws IOException {
         testUploadDir = Files.createTempDirectory("beyou-test-photos");
-        service = new PhotoStorageService(testUploadDir.toString());
+        meters = new SimpleMeterRegistry();
+        service = new PhotoStorageService(testUploadDir.toString(), 16 * 1024 * 1024, meters,
+                new ImageProcessor(64L * 1024 * 1024, 2, 8, meters));
         userId = UUID.randomUUID();
     }
 
@@ -190,12 +196,53 @@ class PhotoStorageServiceTest {
     class Serve {
 
         @Test
-        @DisplayName("returns Resource pointing to file")
+        @DisplayName("returns the stored bytes, versioned like the photo URL")
         void returnsResource() throws IOException {
             service.store(userId, mockFile("p.jpg", createValidJpeg(), "image/jpeg"));
-            var resource = service.serve(userId);
-            assertNotNull(resource);
-            assertTrue(resource.exists());
+            var photo = service.serve(userId);
+            assertNotNull(photo);
+            assertTrue(photo.resource().exists());
+            assertArrayEquals(Files.readAllBytes(testUploadDir.resolve("user-photos").resolve(userId + ".jpg")),
+                photo.bytes());
+            assertEquals(service.getVersion(userId), photo.version());
+        }
+
+        @Test
+        @DisplayName("answers a second request from memory")
+        void servesHotPhotoFromMemory() throws IOException {
+            service.store(userId, mockFile("p.jpg", createValidJpeg(), "image/jpeg"));
+            var first = service.serve(userId);
+
+            // Gone from disk behind the service's back: only the cache can still answer.
+            Files.delete(testUploadDir.resolve("user-photos").resolve(userId + ".jpg"));
+
+            assertSame(first, service.serve(userId));
+            assertEquals(1.0, meters.get("cache.gets").tag("cache", PhotoStorageService.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        }
+
+        @Test
+        @DisplayName("a new upload replaces the cached bytes")
+        void storeEvictsTheCachedPhoto() throws IOException {
+            service.store(userId, mockFile("p.jpg", createValidJpeg(), "image/jpeg"));
+            var before = service.serve(userId);
+
+            service.store(userId, mockFile("p.png", createLargeImage(), "image/jpeg"));
+
+            var after = service.serve(userId);
+            assertNotSame(before, after);
+            assertFalse(Arrays.equals(before.bytes(), after.bytes()));
+        }
+
+        @Test
+        @DisplayName("a deleted photo is not served from memory")
+        void deleteEvictsTheCachedPhoto() throws IOException {
+            service.store(userId, mockFile("p.jpg", createValidJpeg(), "image/jpeg"));
+            assertNotNull(service.serve(userId));
+
+            service.delete(userId);
+
+            assertNull(service.serve(userId));
         }
 
         @Test
@@ -204,4 +251,29 @@ class PhotoStorageServiceTest {
             assertNull(service.serve(UUID.randomUUID()));
         }
     }
+
+    @Nested
+    @DisplayName("stamp")
+    class StampTests {
+
+        @Test
+        @DisplayName("matches the served photo's validators without reading the bytes")
+        void matchesTheServedPhoto() throws IOException {
+            service.store(userId, mockFile("p.jpg", createValidJpeg(), "image/jpeg"));
+
+            var stamp = service.stamp(userId);
+
+            assertNotNull(stamp);
+            assertEquals(0.0, meters.get("cache.gets").tag("cache", PhotoStorageService.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+            assertEquals(service.serve(userId).etag(), stamp.etag());
+            assertEquals(service.serve(userId).stamp(), service.stamp(userId));
+        }
+
+        @Test
+        @DisplayName("returns null when no file exists")
+        void returnsNullWhenNoFile() {
+            assertNull(service.stamp(UUID.randomUUID()));
+        }
+    }
 }
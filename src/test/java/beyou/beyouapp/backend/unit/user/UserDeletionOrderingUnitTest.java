@@ -105,6 +105,9 @@ class UserDeletionOrderingUnitTest {
     @Mock
     private beyou.beyouapp.backend.domain.aiAgent.chat.ChatService chatService;
 
+    @Mock
+    private beyou.beyouapp.backend.security.AuthenticatedPrincipalCache principalCache;
+
 
     @BeforeEach
     void setUp() {
@@ -114,7 +117,7 @@ class UserDeletionOrderingUnitTest {
         userService = new UserService(userRepository, passwordEncoder, tokenService, refreshTokenService,
                 new UserMapper(userStreakService, new PhotoUrlSigner("a-token-secret-for-tests", 720)),
                 photoStorageService, eventPublisher,
-                feedbackAttachmentService, userStreakService, passwordResetTokenRepository, chatService);
+                feedbackAttachmentService, userStreakService, passwordResetTokenRepository, chatService, principalCache);
     }
 
     @AfterEach
@@ -0,0 +1,103 @@
+package beyou.beyouapp.backend.unit.user;
+
+import beyou.beyouapp.backend.user.UserIdPages;
+import beyou.beyouapp.backend.user.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserIdPagesTest {
+
+    private static final String ZONE = "America/Sao_Paulo";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private static List<UUID> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.randomUUID()).toList();
+    }
+
+    @Test
+    void walksEveryPageContinuingAfterTheLastIdOfTheOneBefore() {
+        List<UUID> first = ids(3);
+        List<UUID> second = ids(3);
+        List<UUID> third = ids(1);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, UserRepository.FIRST_PAGE, 3)).thenReturn(first);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, first.get(2), 3)).thenReturn(second);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, second.get(2), 3)).thenReturn(third);
+
+        List<UUID> walked = new ArrayList<>();
+        UserIdPages.inTimezone(userRepository, ZONE, 3).forEach(walked::add);
+
+        List<UUID> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        expected.addAll(third);
+        assertThat(walked).containsExactlyElementsOf(expected);
+        // The short third page ended the walk without a query to confirm it.
+        verify(userRepository, times(3)).findIdsByTimezoneAfter(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void aFullLastPageCostsOneEmptyQueryToConfirmTheEnd() {
+        List<UUID> only = ids(2);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, UserRepository.FIRST_PAGE, 2)).thenReturn(only);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, only.get(1), 2)).thenReturn(List.of());
+
+        List<UUID> walked = new ArrayList<>();
+        UserIdPages.inTimezone(userRepository, ZONE, 2).forEach(walked::add);
+
+        assertThat(walked).containsExactlyElementsOf(only);
+    }
+
+    @Test
+    void readsTheNextPageOnlyOnceThePreviousOneIsConsumed() {
+        // Laziness is the point: a consumer holding one page must not have caused the next.
+        List<UUID> first = ids(2);
+        when(userRepository.findIdsByTimezoneAfter(ZONE, UserRepository.FIRST_PAGE, 2)).thenReturn(first);
+
+        Iterator<UUID> walk = UserIdPages.inTimezone(userRepository, ZONE, 2).iterator();
+        walk.next();
+        walk.next();
+
+        verify(userRepository, never()).findIdsByTimezoneAfter(ZONE, first.get(1), 2);
+    }
+
+    @Test
+    void nothingIsQueriedUntilTheWalkStarts() {
+        UserIdPages.all(userRepository, 10);
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void anEmptyTimezoneYieldsNothing() {
+        when(userRepository.findIdsByTimezoneAfter(ZONE, UserRepository.FIRST_PAGE, 5)).thenReturn(List.of());
+
+        Iterator<UUID> walk = UserIdPages.inTimezone(userRepository, ZONE, 5).iterator();
+
+        assertThat(walk.hasNext()).isFalse();
+        assertThatThrownBy(walk::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void rejectsANonPositivePageSize() {
+        assertThatThrownBy(() -> UserIdPages.inTimezone(userRepository, ZONE, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -28,6 +28,7 @@ import beyou.beyouapp.backend.domain.common.XpProgress;
 import beyou.beyouapp.backend.user.User;
 import beyou.beyouapp.backend.user.PhotoUrlSigner;
 import beyou.beyouapp.backend.user.UserMapper;
+import beyou.beyouapp.backend.user.UserRepository;
 import beyou.beyouapp.backend.user.dto.UserResponseDTO;
 import beyou.beyouapp.backend.user.enums.TimezoneSource;
 
@@ -49,7 +50,7 @@ class UserMapperUnitTest {
         // reads as neutral.
         entityCheckDayRepository = mock(EntityCheckDayRepository.class);
         photoUrlSigner = new PhotoUrlSigner("a-token-secret-for-tests", 720);
-        userMapper = new UserMapper(new UserStreakService(entityCheckDayRepository), photoUrlSigner);
+        userMapper = new UserMapper(new UserStreakService(entityCheckDayRepository, mock(UserRepository.class)), photoUrlSigner);
         user = new User();
         user.setId(UUID.randomUUID());
         user.setName("Owner");
@@ -58,6 +58,7 @@ class UserServiceTimezoneSourceUnitTest {
     @Mock EntityCheckDayRepository entityCheckDayRepository;
     @Mock beyou.beyouapp.backend.security.passwordreset.PasswordResetTokenRepository passwordResetTokenRepository;
     @Mock beyou.beyouapp.backend.domain.aiAgent.chat.ChatService chatService;
+    @Mock beyou.beyouapp.backend.security.AuthenticatedPrincipalCache principalCache;
 
     private UserService userService;
     private User user;
@@ -67,7 +68,7 @@ class UserServiceTimezoneSourceUnitTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        UserStreakService userStreakService = new UserStreakService(entityCheckDayRepository);
+        UserStreakService userStreakService = new UserStreakService(entityCheckDayRepository, userRepository);
         UserMapper userMapper = new UserMapper(
                 userStreakService, new PhotoUrlSigner("a-token-secret-for-tests", 720));
 
@@ -86,7 +87,7 @@ class UserServiceTimezoneSourceUnitTest {
 
         userService = new UserService(userRepository, passwordEncoder, tokenService, refreshTokenService,
                 userMapper, photoStorageService, eventPublisher, feedbackAttachmentService,
-                userStreakService, passwordResetTokenRepository, chatService);
+                userStreakService, passwordResetTokenRepository, chatService, principalCache);
     }
 
     /** Everything null but the two fields under test — PATCH semantics, so nothing else moves. */
@@ -98,6 +98,9 @@ public class UserServiceUnitTest {
     @Mock
     private beyou.beyouapp.backend.domain.aiAgent.chat.ChatService chatService;
 
+    @Mock
+    private beyou.beyouapp.backend.security.AuthenticatedPrincipalCache principalCache;
+
 
     @BeforeEach
     void setUp() {
@@ -106,7 +109,7 @@ public class UserServiceUnitTest {
 
         // The real walk over a mocked row store: these tests are about the streak rules,
         // so nothing between the service and the arithmetic is faked.
-        userStreakService = new UserStreakService(entityCheckDayRepository);
+        userStreakService = new UserStreakService(entityCheckDayRepository, userRepository);
         userMapper = new UserMapper(userStreakService, new PhotoUrlSigner("a-token-secret-for-tests", 720));
 
         user.setId(userId);
@@ -117,7 +120,7 @@ public class UserServiceUnitTest {
         user.setPerfilPhraseAuthor("lg?");
         user.setWidgetsIdInUse(List.of("widget4, widget5"));
 
-        userService = new UserService(userRepository, passwordEncoder, tokenService, refreshTokenService, userMapper, photoStorageService, eventPublisher, feedbackAttachmentService, userStreakService, passwordResetTokenRepository, chatService);
+        userService = new UserService(userRepository, passwordEncoder, tokenService, refreshTokenService, userMapper, photoStorageService, eventPublisher, feedbackAttachmentService, userStreakService, passwordResetTokenRepository, chatService, principalCache);
     }
 
     /** One of the account's frozen day rows. */
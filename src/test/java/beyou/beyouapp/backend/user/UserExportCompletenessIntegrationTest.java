@@ -1,7 +1,9 @@
 package beyou.beyouapp.backend.user;
 
+import java.io.ByteArrayOutputStream;
 import java.sql.Date;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.List;
@@ -20,6 +22,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import beyou.beyouapp.backend.AbstractIntegrationTest;
 import beyou.beyouapp.backend.domain.category.CategoryService;
 import beyou.beyouapp.backend.domain.category.dto.CategoryRequestDTO;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOutcome;
+import beyou.beyouapp.backend.domain.checkday.CheckDayOwnerType;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDay;
+import beyou.beyouapp.backend.domain.checkday.EntityCheckDayRepository;
+import beyou.beyouapp.backend.domain.common.UserDateResolver;
 import beyou.beyouapp.backend.domain.common.ExperienceLevel;
 import beyou.beyouapp.backend.domain.habit.HabitService;
 import beyou.beyouapp.backend.domain.habit.dto.CreateHabitDTO;
@@ -38,6 +45,10 @@ import beyou.beyouapp.backend.domain.aiAgent.chat.dto.AgentSegment;
 import beyou.beyouapp.backend.domain.task.TaskService;
 import beyou.beyouapp.backend.domain.task.dto.CreateTaskRequestDTO;
 
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.ObjectNode;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -70,6 +81,8 @@ class UserExportCompletenessIntegrationTest extends AbstractIntegrationTest {
     @Autowired ScheduleService scheduleService;
     @Autowired ChatService chatService;
     @Autowired AgentMessageService agentMessageService;
+    @Autowired EntityCheckDayRepository entityCheckDayRepository;
+    @Autowired ObjectMapper objectMapper;
 
     private User user;
 
@@ -231,4 +244,54 @@ class UserExportCompletenessIntegrationTest extends AbstractIntegrationTest {
 
         userService.deleteUser(user);
     }
+
+    /**
+     * The streamed download is written by different code from the map, so it has to be
+     * held to the map: same keys, same values, section for section. The timestamp may
+     * differ, and so may the order of {@code checkHistory.owners}: the map lists owners by
+     * their first day, the stream by owner type then id. The history here is seeded so the
+     * two orders disagree, and each is pinned.
+     */
+    @Test
+    @DisplayName("the streamed export is the same document as the map export")
+    void streamsTheSameDocument() {
+        UUID userId = user.getId();
+
+        categoryService.createCategory(new CategoryRequestDTO(
+                "Health", "lucide:heart", "seeded", ExperienceLevel.BEGINNER), userId);
+        UUID categoryId = categoryService.getAllCategories(userId).get(0).id();
+        habitService.createHabit(new CreateHabitDTO("Drink water", "seeded", "stay hydrated",
+                "lucide:droplet", 3, 2, List.of(categoryId), ExperienceLevel.BEGINNER), userId);
+        UUID chatId = chatService.createChat("Planning my week", userId).id();
+        agentMessageService.recordTurn(chatId, "Build me a morning routine",
+                List.of(AgentSegment.text("Done — here it is.")), "gemini");
+        // The task is seen first by day, the habit first by type.
+        LocalDate today = UserDateResolver.today(user);
+        UUID taskOwner = UUID.randomUUID();
+        UUID habitOwner = UUID.randomUUID();
+        entityCheckDayRepository.saveAll(List.of(
+                new EntityCheckDay(user, CheckDayOwnerType.TASK, taskOwner, today.minusDays(2), CheckDayOutcome.DONE),
+                new EntityCheckDay(user, CheckDayOwnerType.HABIT, habitOwner, today.minusDays(1), CheckDayOutcome.DONE),
+                new EntityCheckDay(user, CheckDayOwnerType.TASK, taskOwner, today, CheckDayOutcome.MISSED),
+                new EntityCheckDay(user, CheckDayOwnerType.HABIT, habitOwner, today, CheckDayOutcome.SKIPPED)));
+
+        JsonNode mapped = objectMapper.valueToTree(exportService.exportUserData());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeUserData(userId, out);
+        JsonNode streamed = objectMapper.readTree(out.toByteArray());
+
+        JsonNode mappedOwners = ((ObjectNode) mapped.get("checkHistory")).remove("owners");
+        JsonNode streamedOwners = ((ObjectNode) streamed.get("checkHistory")).remove("owners");
+        assertThat(mappedOwners.findValuesAsString("ownerType")).containsExactly("TASK", "HABIT");
+        assertThat(streamedOwners.findValuesAsString("ownerType")).containsExactly("HABIT", "TASK");
+        assertThat(streamedOwners).containsExactlyInAnyOrderElementsOf(mappedOwners);
+        assertThat(streamedOwners.get(1).get("days")).hasSize(2);
+
+        ((ObjectNode) mapped).remove("exportedAt");
+        ((ObjectNode) streamed).remove("exportedAt");
+        assertThat(streamed).isEqualTo(mapped);
+        assertThat(streamed.get("agentChats").get(0).get("messages")).hasSize(2);
+
+        userService.deleteUser(user);
+    }
 }